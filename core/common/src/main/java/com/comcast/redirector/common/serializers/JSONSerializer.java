@@ -29,6 +29,7 @@ import javax.xml.transform.stream.StreamSource;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 
 public class JSONSerializer implements Serializer {
@@ -110,6 +111,11 @@ public class JSONSerializer implements Serializer {
         }
     }
     
+    @Override
+    public <T> T deserialize(InputStream data, Class<T> clazz) throws SerializerException {
+        return deserializeInternal(new StreamSource(data), clazz);
+    }
+    
     private <T> T deserializeInternal(StreamSource streamSource, Class<T> clazz) throws SerializerException {
         try {
             Unmarshaller unmarshaller = context.createUnmarshaller();
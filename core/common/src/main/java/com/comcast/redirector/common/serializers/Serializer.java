@@ -16,6 +16,8 @@
 
 package com.comcast.redirector.common.serializers;
 
+import java.io.InputStream;
+
 public interface Serializer {
     String serialize(Object object) throws SerializerException;
     String serialize(Object object, boolean formatted) throws SerializerException;
@@ -23,4 +25,5 @@ public interface Serializer {
     byte[] serializeToByteArray(Object object) throws SerializerException;
     <T> T deserialize(String serialized, Class<T> clazz) throws SerializerException;
     <T> T deserialize(byte[] data, Class<T> clazz) throws SerializerException;
+    <T> T deserialize(InputStream data, Class<T> clazz) throws SerializerException;
 }
@@ -88,6 +88,18 @@ public class XMLSerializer implements Serializer {
         return deserialize(new String(data), clazz);
     }
     
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T deserialize(InputStream data, Class<T> clazz) throws SerializerException {
+        try {
+            Unmarshaller unmarshaller = context.createUnmarshaller();
+            return (T)unmarshaller.unmarshal(data);
+        } catch (JAXBException e) {
+            log.error("Can't deserialize object of type {}", clazz.getSimpleName());
+            throw new SerializerException("Can't deserialize object of type " + clazz.getSimpleName(), e);
+        }
+    }
+    
     public JAXBContext getContext() {
         return context;
     }
@@ -75,6 +75,14 @@ public class ThreadLocalLogger {
         loggingProvider.debug(appendToLog(message), arguments);
     }
 
+    public boolean isDebugEnabled() {
+        return loggingProvider.isDebugEnabled();
+    }
+
+    public boolean isInfoEnabled() {
+        return loggingProvider.isInfoEnabled();
+    }
+
     private String appendToLog(String message) {
         String customMessage = ThreadLocalLogger.customMessage.get();
         String executionStep = ThreadLocalLogger.executionStep.get();
@@ -22,7 +22,7 @@ import java.util.Set;
 public class RedirectorCoreConfigUtil {
 
     private static Set<String> providerStrategies = new HashSet<String>() {{
-        add("random"); add("roundrobin");
+        add("random"); add("roundrobin"); add("weightedrandom");
     }};
 
     /**
@@ -60,6 +60,7 @@ public interface ZKConfig {
      *
      * @return "Random"     for {@link org.apache.curator.x.discovery.strategies.RandomStrategy}
      *         "RoundRobin" for {@link org.apache.curator.x.discovery.strategies.RoundRobinStrategy}
+     *         "WeightedRandom" for weighted random choice over precomputed weights of instances
      */
     String getZooKeeperProviderStrategy();
 
@@ -92,6 +93,11 @@ public interface ZKConfig {
 
     String getBackupBasePath();
 
+    /**
+     * @return true if backup files are forced to disk before they replace previous backup
+     */
+    boolean isBackupFsyncEnabled();
+
     int getMinHosts();
 
     int getAppMinHosts();
@@ -126,6 +132,12 @@ public interface ZKConfig {
 
     int getDiscoveryPullWorkersPoolSize();
 
+    /**
+     * @return period in milliseconds during which discovery events are coalesced into one write of stacks backup.
+     *         0 means every event is written right away
+     */
+    int getDiscoveryBackupIntervalMs();
+
     String getRestBasePath();
 
     Integer getStacksPollIntervalSeconds();
@@ -136,6 +148,12 @@ public interface ZKConfig {
 
     Integer getStacksRefreshPollIntervalSeconds();
 
+    /**
+     * @return true if entities are polled as soon as their version nodes change in ZooKeeper, and only every
+     * tenth poll interval otherwise
+     */
+    boolean isDataChangeWatchEnabled();
+
     Integer getPollingClientsMaxNumberOfConnectionsPerRoute();
 
     Integer getPollingClientsMaxNumberOfConnectionsTotal();
@@ -17,6 +17,7 @@
 package com.comcast.redirector.dataaccess.cache;
 
 import com.comcast.redirector.dataaccess.client.DataSourceConnectorException;
+import org.apache.curator.framework.recipes.cache.ChildData;
 import org.apache.curator.framework.recipes.cache.PathChildrenCache;
 import org.apache.curator.framework.recipes.cache.PathChildrenCacheListener;
 
@@ -30,4 +31,15 @@ public interface IPathChildrenCacheWrapper extends Closeable {
     void rebuildNode(String path);
     Map<String, byte[]> getNodeIdToDataMap() throws DataSourceConnectorException;
     byte[] getCurrentData(String fullPath) throws DataSourceConnectorException;
+
+    /**
+     * @return node id to node data. Stat of node data is null when data is read from data source instead of cache
+     */
+    Map<String, ChildData> getNodeIdToChildDataMap() throws DataSourceConnectorException;
+
+    /**
+     * @return node data or null if there is no node. Stat of node data is null when data is read from data source
+     * instead of cache
+     */
+    ChildData getCurrentChildData(String fullPath) throws DataSourceConnectorException;
 }
@@ -109,10 +109,19 @@ public class ZkPathChildrenCacheWrapper extends BaseCacheWrapper implements IPat
     @Override
     public Map<String, byte[]> getNodeIdToDataMap() throws DataSourceConnectorException {
         Map<String, byte[]> result = new HashMap<>();
+        for (Map.Entry<String, ChildData> entry : getNodeIdToChildDataMap().entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getData());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, ChildData> getNodeIdToChildDataMap() throws DataSourceConnectorException {
+        Map<String, ChildData> result = new HashMap<>();
         if (isCacheUsageAllowed()) {
             for (ChildData childData : cache.getCurrentData()) {
                 String nodeId = getRuleId(childData.getPath());
-                result.put(nodeId, childData.getData());
+                result.put(nodeId, childData);
             }
         } else {
             List<String> children = connector.getChildren(path);
@@ -121,7 +130,7 @@ public class ZkPathChildrenCacheWrapper extends BaseCacheWrapper implements IPat
                 String nodeId = getRuleId(fullPath);
                 byte[] bytes = getBytesForPath(fullPath);
                 if (bytes != null) {
-                    result.put(nodeId, bytes);
+                    result.put(nodeId, new ChildData(fullPath, null, bytes));
                 } else {
                     log.info("ignoring null data for zkPath={}", fullPath);
                 }
@@ -133,16 +142,18 @@ public class ZkPathChildrenCacheWrapper extends BaseCacheWrapper implements IPat
 
     @Override
     public byte[] getCurrentData(String fullPath) throws DataSourceConnectorException {
-        byte[] result = null;
+        ChildData childData = getCurrentChildData(fullPath);
+        return childData != null ? childData.getData() : null;
+    }
+
+    @Override
+    public ChildData getCurrentChildData(String fullPath) throws DataSourceConnectorException {
         if (isCacheUsageAllowed()) {
-            ChildData childData = cache.getCurrentData(fullPath);
-            if (childData != null) {
-                result = childData.getData();
-            }
+            return cache.getCurrentData(fullPath);
         } else {
-            result = getBytesForPath(fullPath);
+            byte[] bytes = getBytesForPath(fullPath);
+            return bytes != null ? new ChildData(fullPath, null, bytes) : null;
         }
-        return result;
     }
 
     private byte[] getBytesForPath(String fullPath) {
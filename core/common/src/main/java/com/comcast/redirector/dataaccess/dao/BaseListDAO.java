@@ -21,10 +21,15 @@ import com.comcast.redirector.dataaccess.client.IDataSourceConnector;
 import com.comcast.redirector.dataaccess.client.DataSourceConnectorException;
 import com.comcast.redirector.dataaccess.cache.IPathChildrenCacheWrapper;
 import com.comcast.redirector.common.serializers.Serializer;
+import org.apache.curator.framework.recipes.cache.ChildData;
 import org.apache.curator.utils.ThreadUtils;
+import org.apache.zookeeper.data.Stat;
 
 import java.io.Closeable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 import static com.comcast.redirector.common.function.Wrappers.unchecked;
 import static java.util.stream.Collectors.toList;
@@ -33,11 +38,29 @@ import static org.apache.curator.framework.recipes.cache.PathChildrenCache.Start
 abstract class BaseListDAO<T> extends BaseDAO<T> implements ICacheableDAO {
     private Map<String, IPathChildrenCacheWrapper> cache = new HashMap<>();
 
+    // Deserialized children of each cache by path. Child is deserialized again only when its mzxid changes.
+    // Callers get copies, so objects in here are never modified
+    private final Map<IPathChildrenCacheWrapper, Map<String, DeserializedNode<T>>> deserializedNodes = new ConcurrentHashMap<>();
+    private final UnaryOperator<T> copier;
+
     BaseListDAO(Class<T> clazz,
                        Serializer marshalling,
                        IDataSourceConnector connector,
                        boolean compressed, boolean useCache) {
+        this(clazz, marshalling, connector, compressed, useCache, null);
+    }
+
+    /**
+     * @param copier makes a copy of deserialized object which is safe to be modified by caller. When it's given
+     *               children which didn't change since last read are not deserialized again
+     */
+    BaseListDAO(Class<T> clazz,
+                       Serializer marshalling,
+                       IDataSourceConnector connector,
+                       boolean compressed, boolean useCache,
+                       UnaryOperator<T> copier) {
         super(clazz, marshalling, connector, compressed, useCache);
+        this.copier = copier;
     }
 
     @Override
@@ -48,6 +71,9 @@ abstract class BaseListDAO<T> extends BaseDAO<T> implements ICacheableDAO {
     }
 
     protected List<T> getAll(IPathChildrenCacheWrapper cacheWrapper) throws DataSourceConnectorException {
+        if (copier != null) {
+            return new ArrayList<>(getAllInMap(cacheWrapper).values());
+        }
         Map<String, byte[]> map = cacheWrapper.getNodeIdToDataMap();
 
         List<T> items = new ArrayList<>();
@@ -61,6 +87,34 @@ abstract class BaseListDAO<T> extends BaseDAO<T> implements ICacheableDAO {
         return items;
     }
 
+    /**
+     * Children which didn't change since last read are not deserialized again and are given to view without copying
+     */
+    protected <R> List<R> getAll(IPathChildrenCacheWrapper cacheWrapper, Function<T, R> view) throws DataSourceConnectorException {
+        if (copier == null) {
+            List<R> items = new ArrayList<>();
+            for (T item : getAll(cacheWrapper)) {
+                items.add(view.apply(item));
+            }
+            return items;
+        }
+        Map<String, ChildData> map = cacheWrapper.getNodeIdToChildDataMap();
+        Map<String, DeserializedNode<T>> nodes = getDeserializedNodes(cacheWrapper);
+
+        List<R> items = new ArrayList<>();
+        Set<String> paths = new HashSet<>();
+        for (ChildData childData : map.values()) {
+            paths.add(childData.getPath());
+            T item = deserializeOrReuseShared(nodes, childData);
+            if (item != null) {
+                items.add(view.apply(item));
+            }
+        }
+        nodes.keySet().retainAll(paths);
+
+        return items;
+    }
+
     protected List<String> getAllIDs(IPathChildrenCacheWrapper cacheWrapper) throws DataSourceConnectorException {
         Map<String, byte[]> map = cacheWrapper.getNodeIdToDataMap();
         return map.entrySet().stream().map(node -> node.getKey()).collect(toList());
@@ -68,6 +122,9 @@ abstract class BaseListDAO<T> extends BaseDAO<T> implements ICacheableDAO {
 
 
     Map<String, T> getAllInMap(IPathChildrenCacheWrapper cacheWrapper) throws DataSourceConnectorException {
+        if (copier != null) {
+            return getAllInMapReusingDeserialized(cacheWrapper);
+        }
         Map<String, byte[]> map = cacheWrapper.getNodeIdToDataMap();
 
         Map<String, T> items = new HashMap<>();
@@ -82,10 +139,61 @@ abstract class BaseListDAO<T> extends BaseDAO<T> implements ICacheableDAO {
     }
 
     T getByPath(String path, IPathChildrenCacheWrapper cacheWrapper) throws DataSourceConnectorException {
+        if (copier != null) {
+            ChildData childData = cacheWrapper.getCurrentChildData(path);
+            return (childData != null) ? deserializeOrReuse(getDeserializedNodes(cacheWrapper), childData) : null;
+        }
         byte[] data = cacheWrapper.getCurrentData(path);
         return deserializeOrReturnNull(data);
     }
 
+    private Map<String, T> getAllInMapReusingDeserialized(IPathChildrenCacheWrapper cacheWrapper) throws DataSourceConnectorException {
+        Map<String, ChildData> map = cacheWrapper.getNodeIdToChildDataMap();
+        Map<String, DeserializedNode<T>> nodes = getDeserializedNodes(cacheWrapper);
+
+        Map<String, T> items = new HashMap<>();
+        Set<String> paths = new HashSet<>();
+        for (Map.Entry<String, ChildData> entry : map.entrySet()) {
+            paths.add(entry.getValue().getPath());
+            T item = deserializeOrReuse(nodes, entry.getValue());
+            if (item != null) {
+                items.put(entry.getKey(), item);
+            }
+        }
+        nodes.keySet().retainAll(paths);
+
+        return items;
+    }
+
+    private T deserializeOrReuse(Map<String, DeserializedNode<T>> nodes, ChildData childData) {
+        T item = deserializeOrReuseShared(nodes, childData);
+        return (item != null && childData.getStat() != null) ? copier.apply(item) : item;
+    }
+
+    private T deserializeOrReuseShared(Map<String, DeserializedNode<T>> nodes, ChildData childData) {
+        Stat stat = childData.getStat();
+        if (stat == null) {
+            // data is read directly from data source so there is no version to check
+            return deserializeOrReturnNull(childData.getData());
+        }
+
+        DeserializedNode<T> node = nodes.get(childData.getPath());
+        if (node == null || node.mzxid != stat.getMzxid()) {
+            T item = deserializeOrReturnNull(childData.getData());
+            if (item == null) {
+                nodes.remove(childData.getPath());
+                return null;
+            }
+            node = new DeserializedNode<>(stat.getMzxid(), item);
+            nodes.put(childData.getPath(), node);
+        }
+        return node.item;
+    }
+
+    private Map<String, DeserializedNode<T>> getDeserializedNodes(IPathChildrenCacheWrapper cacheWrapper) {
+        return deserializedNodes.computeIfAbsent(cacheWrapper, key -> new ConcurrentHashMap<>());
+    }
+
     void saveByPath(T data, String path, IPathChildrenCacheWrapper cacheWrapper) throws DataSourceConnectorException, SerializerException {
         save(serialize(data), path);
         rebuildCacheNode(cacheWrapper, path);
@@ -124,4 +232,14 @@ abstract class BaseListDAO<T> extends BaseDAO<T> implements ICacheableDAO {
     public void close() {
         cache.values().forEach(unchecked(Closeable::close));
     }
+
+    private static class DeserializedNode<T> {
+        private final long mzxid;
+        private final T item;
+
+        private DeserializedNode(long mzxid, T item) {
+            this.mzxid = mzxid;
+            this.item = item;
+        }
+    }
 }
@@ -20,6 +20,8 @@ import com.comcast.redirector.common.serializers.SerializerException;
 import com.comcast.redirector.dataaccess.cache.ICacheListener;
 
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * DAO works wirh list of data entities stored globally and not related to any service name
@@ -32,6 +34,15 @@ public interface IListDAO<T> {
      */
     List<T> getAll();
 
+    /**
+     * @param view reads what is needed from entity. Entity passed to it may be shared with other reads,
+     *             so it must not be modified or returned
+     * @return result of view for each data entity
+     */
+    default <R> List<R> getAll(Function<T, R> view) {
+        return getAll().stream().map(view).collect(Collectors.toList());
+    }
+
     /**
      * @param id id of entity. e.g. i200
      * @return particular entity by given id
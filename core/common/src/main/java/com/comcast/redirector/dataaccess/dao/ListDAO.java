@@ -27,6 +27,8 @@ import com.comcast.redirector.dataaccess.client.IDataSourceConnector;
 import com.comcast.redirector.dataaccess.client.RedirectorDataSourceException;
 
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 public class ListDAO<T> extends BaseListDAO<T> implements IListDAO<T> {
     private IPathHelper pathHelper;
@@ -37,7 +39,17 @@ public class ListDAO<T> extends BaseListDAO<T> implements IListDAO<T> {
                    IPathHelper pathHelper,
                    boolean isCompressed,
                    boolean useCache) {
-        super(clazz, marshalling, connector, isCompressed, useCache);
+        this(clazz, marshalling, connector, pathHelper, isCompressed, useCache, null);
+    }
+
+    protected ListDAO(Class<T> clazz,
+                      Serializer marshalling,
+                      IDataSourceConnector connector,
+                      IPathHelper pathHelper,
+                      boolean isCompressed,
+                      boolean useCache,
+                      UnaryOperator<T> copier) {
+        super(clazz, marshalling, connector, isCompressed, useCache, copier);
         this.pathHelper = pathHelper;
     }
 
@@ -50,6 +62,15 @@ public class ListDAO<T> extends BaseListDAO<T> implements IListDAO<T> {
         }
     }
 
+    @Override
+    public <R> List<R> getAll(Function<T, R> view) {
+        try {
+            return getAll(getCache(), view);
+        } catch (DataSourceConnectorException e){
+            throw new RedirectorDataSourceException(e);
+        }
+    }
+
     @Override
     public List<String> getAllIDs() {
         try {
@@ -39,7 +39,7 @@ public class NamespacedListsDAO extends ListDAO<NamespacedList> {
     private static String ENCODING_TYPE = "MD5";
 
     public NamespacedListsDAO(Serializer marshalling, IDataSourceConnector connector, IPathHelper pathHelper, boolean isCompressed, boolean useCache) {
-        super(NamespacedList.class, marshalling, connector, pathHelper, isCompressed, useCache);
+        super(NamespacedList.class, marshalling, connector, pathHelper, isCompressed, useCache, NamespacedListsDAO::copyOf);
     }
 
     @Override
@@ -99,6 +99,37 @@ public class NamespacedListsDAO extends ListDAO<NamespacedList> {
         return list;
     }
 
+    // lists are kept deserialized in backend format, copy is converted to frontend format by each read.
+    // Values are copied as well, since they are mutable and caller may change them
+    private static NamespacedList copyOf(NamespacedList list) {
+        NamespacedList copy = new NamespacedList();
+        copy.setName(list.getName());
+        copy.setDescription(list.getDescription());
+        copy.setVersion(list.getVersion());
+        copy.setType(list.getType());
+        copy.setValuesEncodingType(list.getValuesEncodingType());
+        copy.setValueCount(list.getValueCount());
+        if (list.getRet() != null) {
+            copy.setRet(new LinkedHashSet<>());
+            for (Value value : list.getRet()) {
+                copy.getRet().add(new Value(value.getValue()));
+            }
+        } else {
+            copy.setRet(null);
+        }
+        if (list.getValueSet() != null) {
+            copy.setValueSet(new LinkedHashSet<>());
+            for (NamespacedListValueForWS value : list.getValueSet()) {
+                NamespacedListValueForWS valueCopy = new NamespacedListValueForWS(value.getValue());
+                valueCopy.setEncodedValue(value.getEncodedValue());
+                copy.getValueSet().add(valueCopy);
+            }
+        } else {
+            copy.setValueSet(null);
+        }
+        return copy;
+    }
+
     //is public due to backwards compatibility issues (need to support old format).
     public static NamespacedList convertToBackendFormat (NamespacedList list) {
         list.setRet(new LinkedHashSet<>());
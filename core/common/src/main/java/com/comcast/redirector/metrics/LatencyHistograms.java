@@ -0,0 +1,48 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Named {@link LatencyHistogram}s. Values are recorded into current interval, {@link #rollInterval()} publishes
+ * distributions of current interval and starts a new one.
+ */
+public class LatencyHistograms {
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private volatile Map<String, LatencyHistogram.Snapshot> lastInterval = Collections.emptyMap();
+
+    public void record(String name, long durationMicros) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+        }
+        histogram.record(durationMicros);
+    }
+
+    public void rollInterval() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        histograms.forEach((name, histogram) -> snapshots.put(name, histogram.snapshotAndReset()));
+        lastInterval = Collections.unmodifiableMap(snapshots);
+    }
+
+    public Map<String, LatencyHistogram.Snapshot> getLastInterval() {
+        return lastInterval;
+    }
+}
@@ -16,18 +16,33 @@
 
 package com.comcast.redirector.metrics;
 
+import com.comcast.redirector.common.thread.ThreadUtils;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.ClassPath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class Metrics {
     private static final Logger log = LoggerFactory.getLogger(Metrics.class);
 
+    public static final String LATENCY_INTERVAL_PROPERTY = "redirector.metrics.latencyIntervalSeconds";
+    private static final long LATENCY_INTERVAL_SECONDS = Long.getLong(LATENCY_INTERVAL_PROPERTY, 60);
+
     private static MetricsDelegate delegate;
 
+    private static final LatencyHistograms latencies = new LatencyHistograms();
+
+    static {
+        ScheduledExecutorService latencyIntervalRoller = Executors.newSingleThreadScheduledExecutor(ThreadUtils.newThreadFactory("LatencyIntervalRoller"));
+        latencyIntervalRoller.scheduleAtFixedRate(latencies::rollInterval, LATENCY_INTERVAL_SECONDS, LATENCY_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
     static {
         ClassLoader cl = Metrics.class.getClassLoader();
         try {
@@ -112,6 +127,22 @@ public class Metrics {
             delegate.reportWSModelApproveStats(app, modelVersion);
     }
 
+    public static void reportLatency(String name, long durationMicros) {
+        latencies.record(name, durationMicros);
+    }
+
+    public static void reportLatencySince(String name, long startNanos) {
+        latencies.record(name, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * @return latency distributions in microseconds recorded during last completed interval
+     * of {@link #LATENCY_INTERVAL_PROPERTY} seconds
+     */
+    public static Map<String, LatencyHistogram.Snapshot> getLatencyStats() {
+        return latencies.getLastInterval();
+    }
+
     interface MetricsDelegate {
         void reportZookeeperConnectionIssue(Throwable throwable);
         void reportRestConnectionIssue(Throwable throwable);
@@ -0,0 +1,197 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.dataaccess.dao;
+
+import com.comcast.redirector.api.model.namespaced.NamespacedList;
+import com.comcast.redirector.api.model.namespaced.NamespacedListValueForWS;
+import com.comcast.redirector.common.serializers.JAXBContextBuilder;
+import com.comcast.redirector.common.serializers.Serializer;
+import com.comcast.redirector.common.serializers.SerializerException;
+import com.comcast.redirector.common.serializers.XMLSerializer;
+import com.comcast.redirector.dataaccess.EntityType;
+import com.comcast.redirector.dataaccess.client.IDataSourceConnector;
+import com.comcast.redirector.dataaccess.client.ZookeeperConnector;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.imps.GzipCompressionProvider;
+import org.apache.curator.retry.RetryNTimes;
+import org.apache.curator.test.TestingServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class NamespacedListsDAOCacheTest {
+    private TestingServer zookeeper;
+    private IDataSourceConnector connector;
+    private CountingSerializer serializer;
+    private IListDAO<NamespacedList> testee;
+
+    @Before
+    public void setUp() throws Exception {
+        zookeeper = new TestingServer(true);
+        CuratorFramework curator = CuratorFrameworkFactory.builder()
+            .connectString(zookeeper.getConnectString())
+            .retryPolicy(new RetryNTimes(3, 100))
+            .compressionProvider(new GzipCompressionProvider())
+            .build();
+        connector = new ZookeeperConnector(curator, "/test", false);
+        connector.connect();
+        assertTrue(connector.blockUntilConnectedOrTimedOut());
+
+        serializer = new CountingSerializer(new XMLSerializer(new JAXBContextBuilder().createContextForXML()));
+        testee = new DAOFactory(connector, true, serializer).getNamespacedListsDAO(EntityType.NAMESPACED_LIST, BaseDAO.COMPRESSED);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ((ListDAO<NamespacedList>) testee).close();
+        connector.disconnect();
+        zookeeper.close();
+    }
+
+    @Test(timeout = 30000)
+    public void unchangedListsAreNotDeserializedAgain() throws Exception {
+        testee.saveById(createList("list1", "a", "b"), "list1");
+        testee.saveById(createList("list2", "c"), "list2");
+        testee.saveById(createList("list3", "d", "e", "f"), "list3");
+        waitForListsInCache(3);
+
+        serializer.deserializations.set(0);
+        assertEquals(3, testee.getAll().size());
+        assertEquals(3, serializer.deserializations.get());
+
+        testee.getAll();
+        testee.getById("list2");
+        assertEquals(3, serializer.deserializations.get());
+
+        testee.saveById(createList("list2", "c", "g"), "list2");
+        assertEquals(new HashSet<>(Arrays.asList("c", "g")), testee.getById("list2").getValues());
+        testee.getAll();
+        assertEquals(4, serializer.deserializations.get());
+    }
+
+    @Test(timeout = 30000)
+    public void modifyingReturnedListDoesNotAffectNextRead() throws Exception {
+        testee.saveById(createList("list1", "a", "b"), "list1");
+        waitForListsInCache(1);
+
+        NamespacedList list = testee.getById("list1");
+        for (NamespacedListValueForWS value : list.getValueSet()) {
+            value.setValue("modified");
+        }
+        list.getValueSet().clear();
+        list.setDescription("modified");
+        testee.getAll().get(0).setValueSet(null);
+
+        NamespacedList nextRead = testee.getById("list1");
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), nextRead.getValues());
+        assertNull(nextRead.getDescription());
+        assertEquals(1, serializer.deserializations.get());
+    }
+
+    @Test(timeout = 30000)
+    public void viewOfAllListsReusesDeserializedLists() throws Exception {
+        testee.saveById(createList("list1", "a", "b"), "list1");
+        testee.saveById(createList("list2", "c"), "list2");
+        waitForListsInCache(2);
+        testee.getAll();
+
+        List<String> names = testee.getAll(NamespacedList::getName);
+
+        assertEquals(new HashSet<>(Arrays.asList("list1", "list2")), new HashSet<>(names));
+        assertEquals(2, serializer.deserializations.get());
+    }
+
+    @Test(timeout = 30000)
+    public void deletedListIsNotReturned() throws Exception {
+        testee.saveById(createList("list1", "a"), "list1");
+        testee.saveById(createList("list2", "b"), "list2");
+        waitForListsInCache(2);
+        testee.getAll();
+
+        testee.deleteById("list1");
+
+        List<NamespacedList> lists = testee.getAll();
+        assertEquals(1, lists.size());
+        assertEquals("list2", lists.get(0).getName());
+        assertNull(testee.getById("list1"));
+    }
+
+    private void waitForListsInCache(int count) throws InterruptedException {
+        while (testee.getAllIDs().size() < count) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private static NamespacedList createList(String name, String... values) {
+        return new NamespacedList(name, new HashSet<>(Arrays.asList(values)));
+    }
+
+    private static class CountingSerializer implements Serializer {
+        private final Serializer delegate;
+        private final AtomicInteger deserializations = new AtomicInteger();
+
+        private CountingSerializer(Serializer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String serialize(Object object) throws SerializerException {
+            return delegate.serialize(object);
+        }
+
+        @Override
+        public String serialize(Object object, boolean formatted) throws SerializerException {
+            return delegate.serialize(object, formatted);
+        }
+
+        @Override
+        public byte[] serializeToByteArray(Object object, boolean format) throws SerializerException {
+            return delegate.serializeToByteArray(object, format);
+        }
+
+        @Override
+        public byte[] serializeToByteArray(Object object) throws SerializerException {
+            return delegate.serializeToByteArray(object);
+        }
+
+        @Override
+        public <T> T deserialize(String serialized, Class<T> clazz) throws SerializerException {
+            deserializations.incrementAndGet();
+            return delegate.deserialize(serialized, clazz);
+        }
+
+        @Override
+        public <T> T deserialize(byte[] data, Class<T> clazz) throws SerializerException {
+            deserializations.incrementAndGet();
+            return delegate.deserialize(data, clazz);
+        }
+
+        @Override
+        public <T> T deserialize(InputStream data, Class<T> clazz) throws SerializerException {
+            deserializations.incrementAndGet();
+            return delegate.deserialize(data, clazz);
+        }
+    }
+}
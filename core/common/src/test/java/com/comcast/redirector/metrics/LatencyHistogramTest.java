@@ -0,0 +1,146 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+    private static final int THREADS = 8;
+    private static final int VALUES_PER_THREAD = 200_000;
+    private static final double[] PERCENTILES = {0, 10, 50, 90, 99, 99.9, 100};
+
+    @Test
+    public void valueIsReportedAsUpperBoundOfItsBucket() {
+        for (long value : new long[] {0, 1, 255, 256, 257, 511, 512, 1_000, 123_456, 10_000_000, LatencyHistogram.HIGHEST_TRACKABLE_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+            long highest = LatencyHistogram.highestEquivalentValue(index);
+
+            assertTrue(value + " " + highest, highest >= value);
+            assertTrue(value + " " + highest, highest - value <= value / 128);
+            assertEquals(index, LatencyHistogram.indexOf(highest));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void percentilesAreAccurateUnderConcurrentRecording() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[][] values = new long[THREADS][];
+        for (int thread = 0; thread < THREADS; thread++) {
+            values[thread] = logNormalValues(new Random(thread), VALUES_PER_THREAD);
+        }
+
+        runConcurrently(thread -> {
+            for (long value : values[thread]) {
+                histogram.record(value);
+            }
+        });
+        LatencyHistogram.Snapshot snapshot = histogram.snapshotAndReset();
+
+        long[] all = Arrays.stream(values).flatMapToLong(Arrays::stream).sorted().toArray();
+        assertEquals(all.length, snapshot.getCount());
+        assertEquals(all[0], snapshot.getMin());
+        assertEquals(all[all.length - 1], snapshot.getMax());
+        assertEquals(Arrays.stream(all).average().getAsDouble(), snapshot.getMean(), 0.001);
+        for (double percentile : PERCENTILES) {
+            long expected = all[Math.max(0, (int) Math.ceil(percentile / 100 * all.length) - 1)];
+            long actual = snapshot.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + expected + " vs " + actual, actual >= expected && actual - expected <= expected / 128);
+        }
+
+        assertEquals(0, histogram.snapshotAndReset().getCount());
+    }
+
+    @Test(timeout = 60000)
+    public void everyValueGetsIntoExactlyOneSnapshotWhenSnapshotsAreTakenWhileRecording() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        AtomicBoolean recording = new AtomicBoolean(true);
+        List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>();
+        Thread roller = new Thread(() -> {
+            while (recording.get()) {
+                snapshots.add(histogram.snapshotAndReset());
+            }
+        });
+        roller.start();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < VALUES_PER_THREAD; i++) {
+                histogram.record(i % 10_000);
+            }
+        });
+        recording.set(false);
+        roller.join();
+        snapshots.add(histogram.snapshotAndReset());
+
+        assertTrue(snapshots.size() > 2);
+        assertEquals((long) THREADS * VALUES_PER_THREAD, snapshots.stream().mapToLong(LatencyHistogram.Snapshot::getCount).sum());
+    }
+
+    @Test
+    public void valuesOutOfRangeAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshotAndReset();
+        assertEquals(0, snapshot.getMin());
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_VALUE, snapshot.getMax());
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_VALUE, snapshot.getValueAtPercentile(100));
+    }
+
+    private static long[] logNormalValues(Random random, int count) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (long) Math.exp(7 + 1.5 * random.nextGaussian());
+        }
+        return values;
+    }
+
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int threadIndex = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(threadIndex);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
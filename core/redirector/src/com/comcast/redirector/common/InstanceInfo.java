@@ -21,6 +21,9 @@ import com.comcast.redirector.ruleengine.model.UrlParams;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.validator.routines.InetAddressValidator;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -45,6 +48,7 @@ public class InstanceInfo {
     private int port;
     private String ruleName;
     private Set<String> appliedUrlRules;
+    private boolean ruleNameInQuery;
 
     private static final String DEFAULT = "Default";
 
@@ -226,6 +230,25 @@ public class InstanceInfo {
         return isServerGroup() || StringUtils.isNotBlank(getUrl()) && !isNeedUrlParams();
     }
 
+    /**
+     * @return query of the server extended with rule name if it was appended to url of this instance
+     */
+    public Map<String, String> getQuery() {
+        if (server == null) {
+            return Collections.emptyMap();
+        }
+        if (!ruleNameInQuery) {
+            return server.getQuery();
+        }
+        Map<String, String> query = new LinkedHashMap<>(server.getQuery());
+        query.put(QueryKeys.RULE_NAME.getKey(), ruleName);
+        return query;
+    }
+
+    public void setRuleNameInQuery(boolean ruleNameInQuery) {
+        this.ruleNameInQuery = ruleNameInQuery;
+    }
+
     public void appendConnectionUrlToQuery(String connectUrl) {
         String query = getQueryString(connectUrl);
         appendUrlQuery(query);
@@ -23,6 +23,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 public class JsonSerializer implements Serializer {
     private ObjectMapper mapper = new ObjectMapper();
@@ -75,6 +76,15 @@ public class JsonSerializer implements Serializer {
         return deserialize(new String(data), clazz);
     }
     
+    @Override
+    public <T> T deserialize(InputStream data, Class<T> clazz) throws SerializerException {
+        try {
+            return mapper.readValue(data, clazz);
+        } catch (IOException e) {
+            throw new RuntimeException("Can't deserialize " + clazz.getSimpleName(), e);
+        }
+    }
+    
     public static JsonSerializer serializerIncludeNonNull() {
         return new JsonSerializer(true);
     }
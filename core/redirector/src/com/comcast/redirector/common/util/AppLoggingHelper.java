@@ -49,4 +49,8 @@ public class AppLoggingHelper {
     public void debug(String message, Object... arguments) {
         log.debug(getMessageTemplateForApp(message), arguments);
     }
+
+    public boolean isInfoEnabled() {
+        return log.isInfoEnabled();
+    }
 }
@@ -21,8 +21,9 @@ import com.comcast.redirector.common.InstanceInfo;
 import com.comcast.redirector.ruleengine.model.ReturnStatementType;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import static com.comcast.redirector.common.Constants.*;
 
@@ -46,39 +47,44 @@ public class LoggerUtils {
     }
     
     private static String getContextString(Map<String, String> context, InstanceInfo instanceInfo) {
-        Map<String, String> collect;
-        
         if (instanceInfo == null) {
             return "";
         }
-        
-        if ((instanceInfo.getAppliedUrlRules() != null && instanceInfo.getAppliedUrlRules().stream().anyMatch(rule -> rule.toLowerCase().contains(DEFAULT)))
+
+        Map<String, String> collect = new HashMap<>();
+        if ((instanceInfo.getAppliedUrlRules() != null && containsDefault(instanceInfo.getAppliedUrlRules()))
                 && ((instanceInfo.getServer() != null && instanceInfo.getServer().getReturnStatementType() == ReturnStatementType.DISTRIBUTION_RULE)
                 || (instanceInfo.getRuleName() != null && instanceInfo.getRuleName().toLowerCase().contains(DEFAULT)))) {
-            
-            collect = context.entrySet().stream()
-                    .filter(map -> map.getKey().equals(SERVICE_ACCOUNT_ID)
-                            || map.getKey().equals(MAC)
-                            || map.getKey().equals(CLIENT_ADDRESS))
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-            
+
+            for (Map.Entry<String, String> entry : context.entrySet()) {
+                if (entry.getKey().equals(SERVICE_ACCOUNT_ID) || entry.getKey().equals(MAC) || entry.getKey().equals(CLIENT_ADDRESS)) {
+                    collect.put(entry.getKey(), entry.getValue());
+                }
+            }
         } else {
+            for (Map.Entry<String, String> entry : context.entrySet()) {
+                if (!entry.getKey().equals(FONT_FAMILIES) && !entry.getKey().equals(MIME_TYPES) && !entry.getKey().equals(SERVICE_ACCESS_TOKEN)) {
+                    collect.put(entry.getKey(), entry.getValue());
+                }
+            }
+
             String serviceAccessTokenEntry = context.get(SERVICE_ACCESS_TOKEN);
-    
-            collect = context.entrySet().stream()
-                    .filter(map -> !map.getKey().equals(FONT_FAMILIES)
-                            && !map.getKey().equals(MIME_TYPES)
-                            && !map.getKey().equals(SERVICE_ACCESS_TOKEN))
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-            
-            if (serviceAccessTokenEntry !=null ) {
+            if (serviceAccessTokenEntry != null) {
                 collect.put(SERVICE_ACCESS_TOKEN, StringUtils.right(serviceAccessTokenEntry, SAT_EXPOSURE_TAIL_SIZE));
             }
-            
         }
-        
+
         return collect.toString();
     }
+
+    private static boolean containsDefault(Collection<String> rules) {
+        for (String rule : rules) {
+            if (rule.toLowerCase().contains(DEFAULT)) {
+                return true;
+            }
+        }
+        return false;
+    }
     
     private static String getInstanceInfoString(InstanceInfo instanceInfo) {
         StringBuilder logStr = new StringBuilder();
@@ -21,4 +21,14 @@ import java.util.concurrent.Future;
 public interface IBackupManager {
     Future<Boolean> backup(String data);
     String load();
+
+    /**
+     * Same as {@link #backup(String)} for backups which are not text
+     */
+    Future<Boolean> backupBytes(byte[] data);
+
+    /**
+     * @return backup saved by either {@link #backupBytes(byte[])} or {@link #backup(String)} in UTF-8, null if there is no backup
+     */
+    byte[] loadBytes();
 }
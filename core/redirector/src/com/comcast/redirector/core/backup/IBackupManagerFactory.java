@@ -25,6 +25,7 @@ public interface IBackupManagerFactory {
         WHITE_LIST,
         MODEL_METADATA,
         NAMESPACED_LISTS,
+        NAMESPACED_LISTS_BINARY,
         APPLICATIONS,
         DISCOVERY
     };
@@ -19,6 +19,7 @@ package com.comcast.redirector.core.backup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
@@ -32,7 +33,7 @@ public class InMemoryBackupManagerFactory extends AbstractBackupManagerFactory {
 
     private static class InMemoryBackupManager implements IBackupManager {
         private BackupEntity entity;
-        private String data;
+        private byte[] data;
 
         InMemoryBackupManager(BackupEntity entity) {
             this.entity = entity;
@@ -41,13 +42,27 @@ public class InMemoryBackupManagerFactory extends AbstractBackupManagerFactory {
         @Override
         public Future<Boolean> backup(String data) {
             log.info("Saving backup of {}. Data: {}", entity, data);
-            this.data = data;
+            this.data = data == null ? null : data.getBytes(StandardCharsets.UTF_8);
 
             return CompletableFuture.completedFuture(true);
         }
 
         @Override
         public String load() {
+            byte[] data = loadBytes();
+            return data == null ? null : new String(data, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Future<Boolean> backupBytes(byte[] data) {
+            log.info("Saving backup of {}. Size: {} bytes", entity, data.length);
+            this.data = data;
+
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public byte[] loadBytes() {
             log.info("Loading backup of {}", entity);
             return data;
         }
@@ -39,6 +39,7 @@ public class FileSystemBackupFiles implements IFileSystemBackupFiles {
                 put(BackupEntity.WHITE_LIST, "whitelist.xml");
                 put(BackupEntity.MODEL_METADATA, "modelmetadata.json");
                 put(BackupEntity.NAMESPACED_LISTS, "namespacedlists.json");
+                put(BackupEntity.NAMESPACED_LISTS_BINARY, "namespacedlists.bin");
                 put(BackupEntity.APPLICATIONS, "applications.json");
                 put(BackupEntity.DISCOVERY, "stacks.json");
             }};
@@ -72,7 +73,7 @@ public class FileSystemBackupFiles implements IFileSystemBackupFiles {
     }
 
     private boolean isGlobal(BackupEntity backupEntity) {
-        return Stream.of(BackupEntity.NAMESPACED_LISTS, BackupEntity.DISCOVERY, BackupEntity.APPLICATIONS)
+        return Stream.of(BackupEntity.NAMESPACED_LISTS, BackupEntity.NAMESPACED_LISTS_BINARY, BackupEntity.DISCOVERY, BackupEntity.APPLICATIONS)
             .anyMatch(backupEntity::equals);
     }
 }
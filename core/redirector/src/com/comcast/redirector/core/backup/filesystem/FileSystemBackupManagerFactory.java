@@ -23,27 +23,55 @@ import com.comcast.redirector.core.backup.IBackupManager;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.concurrent.Callable;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-// TODO: unit test
+/**
+ * Each backup entity has its own queue of one pending backup: backups which come while previous one is being written
+ * are coalesced into the latest data, and large backup like namespaced lists doesn't delay writes of other entities.
+ * <p/>
+ * Backup is written into temp file in the same directory which is then moved over backup file atomically,
+ * so reader never sees half-written backup even if process dies in the middle of write.
+ * When fsync is enabled temp file is forced to disk before the move, so backup survives power loss as well.
+ */
 public class FileSystemBackupManagerFactory extends AbstractBackupManagerFactory {
     private static final ThreadLocalLogger log = new ThreadLocalLogger(FileSystemBackupManagerFactory.class);
 
     private IFileSystemBackupFiles fileSystemBackupFiles;
+    private FileSystem fileSystem;
+    private boolean fsync;
 
-    // TODO: task queue
-    private ExecutorService fileWriter = Executors.newSingleThreadExecutor(ThreadUtils.newThreadFactory("FileSystemBackupManagerFactory"));
+    // at most one task per backup entity is running at a time, so pool doesn't grow over the number of entities
+    private ExecutorService fileWriters = Executors.newCachedThreadPool(ThreadUtils.newThreadFactory("FileSystemBackupManagerFactory"));
 
     public FileSystemBackupManagerFactory(IFileSystemBackupFiles fileSystemBackupFiles) {
+        this(fileSystemBackupFiles, true);
+    }
+
+    public FileSystemBackupManagerFactory(IFileSystemBackupFiles fileSystemBackupFiles, boolean fsync) {
+        this(fileSystemBackupFiles, FileSystems.getDefault(), fsync);
+    }
+
+    FileSystemBackupManagerFactory(IFileSystemBackupFiles fileSystemBackupFiles, FileSystem fileSystem, boolean fsync) {
         this.fileSystemBackupFiles = fileSystemBackupFiles;
+        this.fileSystem = fileSystem;
+        this.fsync = fsync;
     }
 
     @Override
@@ -58,6 +86,10 @@ public class FileSystemBackupManagerFactory extends AbstractBackupManagerFactory
 
         private ReadWriteLock lock = new ReentrantReadWriteLock();
 
+        // guarded by this
+        private PendingBackup pendingBackup;
+        private boolean writing;
+
         private FileSystemBackupManager(BackupEntity entity) {
             this.fileName = fileSystemBackupFiles.getFilename(entity);
             backupEntity = entity;
@@ -72,56 +104,151 @@ public class FileSystemBackupManagerFactory extends AbstractBackupManagerFactory
         }
 
         @Override
-        public Future<Boolean> backup(final String data) {
-            return fileWriter.submit(new Callable<Boolean>() {
-                @Override
-                public Boolean call() {
-                    if (StringUtils.isBlank(fileName)) {
-                        log.warn("Failed to backup {} : backup file name is not defined", backupEntity);
-                        return false;
+        public Future<Boolean> backup(String data) {
+            if (data == null) {
+                log.error("Failed to backup {}: data is absent", backupEntity);
+                return CompletableFuture.completedFuture(false);
+            }
+            return enqueue(data, null);
+        }
+
+        @Override
+        public Future<Boolean> backupBytes(byte[] data) {
+            if (data == null) {
+                log.error("Failed to backup {}: data is absent", backupEntity);
+                return CompletableFuture.completedFuture(false);
+            }
+            return enqueue(null, data);
+        }
+
+        // text is encoded by the writer, so large backup doesn't hold up the caller
+        private Future<Boolean> enqueue(String text, byte[] data) {
+            synchronized (this) {
+                if (pendingBackup == null) {
+                    pendingBackup = new PendingBackup();
+                }
+                pendingBackup.text = text;
+                pendingBackup.data = data;
+                if (!writing) {
+                    writing = true;
+                    fileWriters.execute(this::writePendingBackups);
+                }
+                return pendingBackup.result;
+            }
+        }
+
+        private void writePendingBackups() {
+            while (true) {
+                PendingBackup backup;
+                synchronized (this) {
+                    backup = pendingBackup;
+                    pendingBackup = null;
+                    if (backup == null) {
+                        writing = false;
+                        return;
                     }
+                }
+                try {
+                    byte[] data = backup.data != null ? backup.data : backup.text.getBytes(StandardCharsets.UTF_8);
+                    backup.result.complete(write(data));
+                } catch (RuntimeException e) {
+                    log.error("Failed to write data to backup: {}", e.getMessage());
+                    backup.result.completeExceptionally(e);
+                }
+            }
+        }
 
-                    lock.writeLock().lock();
-                    try {
-                        Path file = Paths.get(fileName);
-                        if(file == null) {
-                            log.warn("Failed to backup {} : backup file is not defined", backupEntity);
-                            return false;
-                        } else {
-                            Path parentPath = file.getParent();
-                            if( parentPath == null) {
-                                log.warn("Failed to backup {} : backup file is not defined", backupEntity);
-                                return false;
-                            }
-                            Files.createDirectories(parentPath);
-                            Files.write(file, data.getBytes("UTF-8"));
-                        }
-                        if (logSuccessBackup) {
-                            log.info("{} was backup successfully into {}", backupEntity, fileName);
-                        }
+        private boolean write(byte[] data) {
+            if (StringUtils.isBlank(fileName)) {
+                log.warn("Failed to backup {} : backup file name is not defined", backupEntity);
+                return false;
+            }
 
-                        return true;
-                    } catch (IOException e) {
-                        log.error("Failed to write data to backup: {}", e.getMessage());
-                        return false;
-                    } finally {
-                        lock.writeLock().unlock();
+            lock.writeLock().lock();
+            try {
+                Path file = fileSystem.getPath(fileName);
+                Path parentPath = file.getParent();
+                if (parentPath == null) {
+                    log.warn("Failed to backup {} : backup file is not defined", backupEntity);
+                    return false;
+                }
+                Files.createDirectories(parentPath);
+                write(file, data);
+                if (logSuccessBackup) {
+                    log.info("{} was backup successfully into {}", backupEntity, fileName);
+                }
+
+                return true;
+            } catch (IOException e) {
+                log.error("Failed to write data to backup: {}", e.getMessage());
+                return false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // data is written to temp file first and then moved to backup file, so backup file is never seen half-written.
+        // Temp file is created with default permissions, not owner-only ones of Files.createTempFile, because the move
+        // keeps permissions of temp file
+        private void write(Path file, byte[] data) throws IOException {
+            Path tempFile = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(data);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    if (fsync) {
+                        channel.force(true);
                     }
                 }
-            });
+                copyPermissions(file, tempFile);
+                try {
+                    Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                if (fsync) {
+                    forceDirectory(file.getParent());
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+
+        // backup file which permissions were changed after it was created keeps them, as it did when written in place
+        private void copyPermissions(Path from, Path to) throws IOException {
+            PosixFileAttributeView view = Files.getFileAttributeView(to, PosixFileAttributeView.class);
+            if (view != null && Files.exists(from)) {
+                view.setPermissions(Files.getPosixFilePermissions(from));
+            }
+        }
+
+        // makes the move itself durable. Not every platform allows to open directory, in that case move is left to OS
+        private void forceDirectory(Path directory) {
+            try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                channel.force(true);
+            } catch (IOException e) {
+                log.debug("Failed to sync directory {}: {}", directory, e.getMessage());
+            }
         }
 
         @Override
         public String load() {
-            String result = null;
+            byte[] data = loadBytes();
+            return data == null ? null : new String(data, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public byte[] loadBytes() {
+            byte[] result = null;
             lock.readLock().lock();
             try {
                 if (StringUtils.isNotBlank(fileName)) {
-                    Path path = Paths.get(fileName);
+                    Path path = fileSystem.getPath(fileName);
                     if (Files.exists(path)) {
-                        byte[] b = Files.readAllBytes(path);
-                        result = new String(b, "UTF-8");
-                        if (StringUtils.isBlank(result)) {
+                        result = Files.readAllBytes(path);
+                        if (result.length == 0) {
                             log.warn("Failed to read backup {}: data is absent", backupEntity);
                         }
                     } else {
@@ -139,4 +266,10 @@ public class FileSystemBackupManagerFactory extends AbstractBackupManagerFactory
             return result;
         }
     }
+
+    private static class PendingBackup {
+        private String text;
+        private byte[] data;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+    }
 }
@@ -19,6 +19,7 @@ package com.comcast.redirector.core.balancer.serviceprovider;
 import com.comcast.redirector.api.model.xrestack.HostIPs;
 import com.comcast.redirector.api.model.xrestack.StackData;
 import com.comcast.redirector.api.model.xrestack.XreStackPath;
+import com.comcast.redirector.core.balancer.serviceprovider.whitelist.IWhitelistPredicate;
 import com.comcast.redirector.core.config.ZKConfig;
 import com.comcast.tvx.cloud.MetaData;
 import org.apache.curator.x.discovery.ProviderStrategy;
@@ -27,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -47,6 +49,7 @@ abstract class AbstractServiceProviderManager implements IServiceProviderManager
     // TODO: think if we need these vars to be volatile
     private volatile Map<StackData, IFilteredServiceProvider> stackServiceProviders = Collections.emptyMap();
     private volatile Map<FlavorAndAppTuple, IAggregateServiceProvider> flavorAndAppServiceProviders = Collections.emptyMap();
+    private final Map<String, IWhitelistPredicate> whitelists = new ConcurrentHashMap<>();
 
     AbstractServiceProviderManager(ProviderStrategy<MetaData> providerStrategy, ZKConfig config) {
         this.providerStrategy = providerStrategy;
@@ -69,6 +72,16 @@ abstract class AbstractServiceProviderManager implements IServiceProviderManager
         return flavorAndAppServiceProviders.get(new FlavorAndAppTuple(flavor, appName));
     }
 
+    @Override
+    public synchronized void applyWhitelist(String appName, IWhitelistPredicate whitelist) {
+        whitelists.put(appName, whitelist);
+        flavorAndAppServiceProviders.forEach((flavorAndApp, provider) -> {
+            if (appName.equals(flavorAndApp.getAppName())) {
+                provider.applyWhitelist(whitelist);
+            }
+        });
+    }
+
     protected final void switchToDynamicMode(DynamicServiceProviderFactory serviceProviderFactory) {
         providersUpdateService = new DynamicProvidersUpdateService(serviceProviderFactory, excludedApps);
     }
@@ -80,7 +93,10 @@ abstract class AbstractServiceProviderManager implements IServiceProviderManager
         applyServiceProviders(providers);
     }
 
-    protected final void applyServiceProviders(ServiceProviders serviceProviders) {
+    /**
+     * Whitelist applied while new flavor providers were created is passed to them here
+     */
+    protected final synchronized void applyServiceProviders(ServiceProviders serviceProviders) {
         stackServiceProviders = serviceProviders.getProvidersForStacks().stream()
             .collect(
                 toMap(
@@ -88,6 +104,12 @@ abstract class AbstractServiceProviderManager implements IServiceProviderManager
                     Function.identity()));
 
         flavorAndAppServiceProviders = serviceProviders.getProvidersPerFlavorAndApp();
+        flavorAndAppServiceProviders.forEach((flavorAndApp, provider) -> {
+            IWhitelistPredicate whitelist = whitelists.get(flavorAndApp.getAppName());
+            if (whitelist != null) {
+                provider.applyWhitelist(whitelist);
+            }
+        });
     }
 
     protected final void reset() {
@@ -209,7 +231,7 @@ abstract class AbstractServiceProviderManager implements IServiceProviderManager
                 .collect(
                     toMap(
                         Map.Entry::getKey,
-                        entry -> createAggregateServiceProvider(entry.getKey().getFlavor(), entry.getValue())
+                        entry -> createAggregateServiceProvider(entry.getKey(), entry.getValue())
                     )
                 );
         }
@@ -218,9 +240,9 @@ abstract class AbstractServiceProviderManager implements IServiceProviderManager
             return new FlavorAndAppTuple(provider.getStack().getFlavor(), provider.getStack().getServiceName());
         }
 
-        private IAggregateServiceProvider createAggregateServiceProvider(String flavor, List<IFilteredServiceProvider> providers) {
+        private IAggregateServiceProvider createAggregateServiceProvider(FlavorAndAppTuple flavorAndApp, List<IFilteredServiceProvider> providers) {
             shuffleProviders(providers);
-            return new AggregateServiceProvider(providerStrategy, providers, flavor);
+            return new AggregateServiceProvider(providerStrategy, providers, flavorAndApp.getFlavor(), whitelists.get(flavorAndApp.getAppName()));
         }
 
         private void shuffleProviders(List<IFilteredServiceProvider> providers) {
@@ -30,34 +30,62 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Aggregates stack providers of a flavor. Instances of all stacks are collected into immutable snapshots, one per
+ * {@link FilterMode} plus one unfiltered, so request threads select an instance without collecting and filtering
+ * instances of every stack. Snapshots are rebuilt aside and published when whitelist is applied (i.e. new model is
+ * applied) or instances of any stack provider change (i.e. stack hosts changed or provider was closed), request
+ * threads only read them.
+ * Set of stack providers never changes: new aggregate provider is created when stacks are added or removed,
+ * it takes over instances change listeners of its stack providers.
+ */
 public class AggregateServiceProvider implements IAggregateServiceProvider {
     private static final Logger log = LoggerFactory.getLogger(AggregateServiceProvider.class);
+    private static final int UNFILTERED = FilterMode.values().length;
 
     private ProviderStrategy<MetaData> providerStrategy;
-    private InstanceProviderImpl instanceProvider;
+    private Collection<IFilteredServiceProvider> providers;
     private String flavor;
+    private IWhitelistPredicate whitelist;
+    private final AtomicReferenceArray<InstancesSnapshot> snapshots = new AtomicReferenceArray<>(UNFILTERED + 1);
 
     public AggregateServiceProvider(ProviderStrategy<MetaData> providerStrategy,
                                     Collection<IFilteredServiceProvider> providers,
                                     String flavor) {
+        this(providerStrategy, providers, flavor, null);
+    }
+
+    /**
+     * @param whitelist whitelist filtered snapshots are built for, null if no whitelist is applied yet
+     */
+    public AggregateServiceProvider(ProviderStrategy<MetaData> providerStrategy,
+                                    Collection<IFilteredServiceProvider> providers,
+                                    String flavor,
+                                    IWhitelistPredicate whitelist) {
         this.providerStrategy = providerStrategy;
-        this.instanceProvider = new InstanceProviderImpl(providers);
+        this.providers = providers;
         this.flavor = flavor;
+        this.whitelist = whitelist;
+        for (IFilteredServiceProvider provider : providers) {
+            provider.setInstancesChangeListener(this::rebuildSnapshots);
+        }
+        rebuildSnapshots();
     }
 
     @Override
     public Collection<IFilteredServiceProvider> getAggregatedProviders() {
-        return instanceProvider.getProviders();
+        return providers;
     }
 
     @Override
     public ServiceInstance<MetaData> getInstance() {
         try {
-            return providerStrategy.getInstance(instanceProvider);
+            return providerStrategy.getInstance(getSnapshot(UNFILTERED, null, null));
         } catch (Exception e) {
             log.error("Failed to get service instance", e);
             return null;
@@ -67,7 +95,7 @@ public class AggregateServiceProvider implements IAggregateServiceProvider {
     @Override
     public Collection<ServiceInstance<MetaData>> getAllInstances() {
         try {
-            return instanceProvider.getInstances();
+            return getSnapshot(UNFILTERED, null, null).getInstances();
         } catch (Exception e) {
             log.error("Failed to get service instances", e);
             return null;
@@ -87,7 +115,7 @@ public class AggregateServiceProvider implements IAggregateServiceProvider {
     @Override
     public ServiceInstance<MetaData> getFilteredInstance(FilterMode filterMode, IWhitelistPredicate whitelist) {
         try {
-            return providerStrategy.getInstance(() -> filteredInstances(instanceProvider.getInstances(), filterMode, whitelist));
+            return providerStrategy.getInstance(getSnapshot(filterMode.ordinal(), filterMode, whitelist));
         } catch (Exception e) {
             log.error("Failed to get filtered service instance", e);
             return null;
@@ -97,30 +125,48 @@ public class AggregateServiceProvider implements IAggregateServiceProvider {
     @Override
     public Collection<ServiceInstance<MetaData>> getAllFilteredInstances(FilterMode filterMode, IWhitelistPredicate whitelist) {
         try {
-            return filteredInstances(instanceProvider.getInstances(), filterMode, whitelist);
+            return getSnapshot(filterMode.ordinal(), filterMode, whitelist).getInstances();
         } catch (Exception e) {
             log.error("Failed to get filtered service instances", e);
             return null;
         }
     }
 
-    private static boolean appliesToFilter(ServiceInstance<MetaData> instance, FilterMode filterMode, IWhitelistPredicate whitelist) {
-        String stack = ServiceProviderUtils.getStackNameFromServiceInstance(instance);
-        if (stack == null) return false;
+    /**
+     * Snapshot for whitelist which is not applied to the provider (e.g. whitelist of engine which is being replaced)
+     * is built aside and is not published
+     */
+    private InstancesSnapshot getSnapshot(int slot, FilterMode filterMode, IWhitelistPredicate whitelist) {
+        InstancesSnapshot snapshot = snapshots.get(slot);
+        if (snapshot == null || (filterMode != null && snapshot.whitelist != whitelist)) {
+            snapshot = InstancesSnapshot.build(filterMode, whitelist, providers);
+        }
+        return snapshot;
+    }
 
-        if (filterMode == FilterMode.NO_FILTER) {
-            return true;
-        } else {
-            boolean whitelisted = whitelist.isWhiteListed(stack);
-            return (filterMode == FilterMode.WHITELIST_ONLY) ? whitelisted : !whitelisted;
+    /**
+     * Filtered snapshots are built for given whitelist from now on
+     */
+    @Override
+    public synchronized void applyWhitelist(IWhitelistPredicate whitelist) {
+        if (this.whitelist != whitelist) {
+            this.whitelist = whitelist;
+            rebuildSnapshots();
         }
     }
 
-    private static List<ServiceInstance<MetaData>> filteredInstances(Collection<ServiceInstance<MetaData>> rawInstances,
-                                                              FilterMode filterMode, IWhitelistPredicate whitelist) throws Exception {
-        return rawInstances.stream()
-            .filter(instance -> appliesToFilter(instance, filterMode, whitelist))
-            .collect(Collectors.toList());
+    /**
+     * Rebuilds are serialized, so snapshot built from older instances never replaces one built from newer instances
+     */
+    private synchronized void rebuildSnapshots() {
+        try {
+            snapshots.set(UNFILTERED, InstancesSnapshot.build(null, null, providers));
+            for (FilterMode filterMode : FilterMode.values()) {
+                snapshots.set(filterMode.ordinal(), whitelist == null ? null : InstancesSnapshot.build(filterMode, whitelist, providers));
+            }
+        } catch (Exception e) {
+            log.error("Failed to rebuild instances snapshots of flavor {}", flavor, e);
+        }
     }
 
     @Override
@@ -129,6 +175,11 @@ public class AggregateServiceProvider implements IAggregateServiceProvider {
         return null;
     }
 
+    @Override
+    public void setInstancesChangeListener(Runnable listener) {
+        throw new UnsupportedOperationException("listen to each internal provider separately");
+    }
+
     @Override
     public String getFlavor() {
         return flavor;
@@ -139,36 +190,42 @@ public class AggregateServiceProvider implements IAggregateServiceProvider {
         throw new UnsupportedOperationException("close each internal provider separately");
     }
 
-    private static class InstanceProviderImpl implements InstanceProvider<MetaData> {
-
-        private Collection<IFilteredServiceProvider> providers;
-
-        private InstanceProviderImpl(Collection<IFilteredServiceProvider> providers) {
-            this.providers = providers;
-        }
+    private static class InstancesSnapshot implements InstanceProvider<MetaData> {
+        private final IWhitelistPredicate whitelist;
+        private final List<ServiceInstance<MetaData>> instances;
 
-        public Collection<IFilteredServiceProvider> getProviders() {
-            return providers;
+        private InstancesSnapshot(IWhitelistPredicate whitelist, List<ServiceInstance<MetaData>> instances) {
+            this.whitelist = whitelist;
+            this.instances = instances;
         }
 
-        @Override
-        public List<ServiceInstance<MetaData>> getInstances() throws Exception {
-            List<ServiceInstance<MetaData>> result = new ArrayList<>();
+        /**
+         * @param filterMode null for snapshot of all instances, otherwise only instances of stacks matching the filter
+         *                   which have stack name are included
+         */
+        static InstancesSnapshot build(FilterMode filterMode, IWhitelistPredicate whitelist, Collection<IFilteredServiceProvider> providers) {
+            List<ServiceInstance<MetaData>> instances = new ArrayList<>();
             for (IFilteredServiceProvider provider : providers) {
-                result.addAll(getAllInstances(provider));
+                Collection<ServiceInstance<MetaData>> source = provider.getAllInstances();
+                if (source == null) {
+                    continue;
+                }
+
+                String stackName = provider.getStack().getStackOnlyPath();
+                boolean applies = filterMode == null || filterMode == FilterMode.NO_FILTER
+                    || whitelist.isWhiteListed(stackName) != filterMode.isInverse();
+                for (ServiceInstance<MetaData> instance : source) {
+                    ServiceProviderUtils.setStackNameForServiceInstance(instance, stackName);
+                    if (applies && (filterMode == null || ServiceProviderUtils.getStackNameFromServiceInstance(instance) != null)) {
+                        instances.add(instance);
+                    }
+                }
             }
-            return result;
-        }
-
-        protected Collection<ServiceInstance<MetaData>> getAllInstances(IFilteredServiceProvider provider) throws Exception {
-            return serviceInstancesWithStackNames(provider.getAllInstances(), provider.getStack().getStackOnlyPath());
+            return new InstancesSnapshot(whitelist, Collections.unmodifiableList(instances));
         }
 
-        protected static Collection<ServiceInstance<MetaData>> serviceInstancesWithStackNames(Collection<ServiceInstance<MetaData>> instances, String stackName) {
-            for (ServiceInstance<MetaData> instance : instances) {
-                ServiceProviderUtils.setStackNameForServiceInstance(instance, stackName);
-            }
-
+        @Override
+        public List<ServiceInstance<MetaData>> getInstances() {
             return instances;
         }
     }
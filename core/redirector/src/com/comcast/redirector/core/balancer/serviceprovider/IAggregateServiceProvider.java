@@ -16,9 +16,16 @@
 
 package com.comcast.redirector.core.balancer.serviceprovider;
 
+import com.comcast.redirector.core.balancer.serviceprovider.whitelist.IWhitelistPredicate;
+
 import java.util.Collection;
 
 public interface IAggregateServiceProvider extends IFilteredServiceProvider {
     Collection<IFilteredServiceProvider> getAggregatedProviders();
     String getFlavor();
+
+    /**
+     * @param whitelist whitelist of currently applied model, filtered instances are prepared for it
+     */
+    void applyWhitelist(IWhitelistPredicate whitelist);
 }
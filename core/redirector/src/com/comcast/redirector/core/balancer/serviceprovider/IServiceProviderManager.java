@@ -18,6 +18,7 @@ package com.comcast.redirector.core.balancer.serviceprovider;
 
 import com.comcast.redirector.api.model.xrestack.StackData;
 import com.comcast.redirector.core.balancer.serviceprovider.IFilteredServiceProvider;
+import com.comcast.redirector.core.balancer.serviceprovider.whitelist.IWhitelistPredicate;
 
 import java.util.List;
 
@@ -25,4 +26,10 @@ public interface IServiceProviderManager {
     IFilteredServiceProvider getStackServiceProvider(StackData stackData);
     IFilteredServiceProvider getServiceProviderForFlavorAndApp(String flavor, String appName);
     List<IFilteredServiceProvider> getAllStackServiceProviders();
+
+    /**
+     * Is called when model of given application is applied, so flavor providers of the application prepare
+     * filtered instances for its whitelist instead of filtering them per request
+     */
+    void applyWhitelist(String appName, IWhitelistPredicate whitelist);
 }
@@ -28,4 +28,9 @@ interface IStackServiceProvider extends Closeable {
     Collection<ServiceInstance<MetaData>> getAllInstances();
     Collection<ServiceInstance<MetaData>> getAllUniqueInstances();
     XreStackPath getStack();
+
+    /**
+     * @param listener is called each time instances of the provider change, replaces previously set listener
+     */
+    void setInstancesChangeListener(Runnable listener);
 }
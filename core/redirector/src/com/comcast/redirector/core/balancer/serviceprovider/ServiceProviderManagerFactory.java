@@ -34,6 +34,7 @@ import org.apache.curator.x.discovery.ProviderStrategy;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -71,6 +72,11 @@ public class ServiceProviderManagerFactory implements IServiceProviderManagerFac
         discoveryBackupManager = createDiscoveryBackupManager();
     }
 
+    @PreDestroy
+    private void shutdownBackupManager() {
+        discoveryBackupManager.shutdown();
+    }
+
     @Autowired(required = false)
     public void setProviderStrategy(ProviderStrategy<MetaData> providerStrategy) {
         this.providerStrategy = providerStrategy;
@@ -123,6 +129,7 @@ public class ServiceProviderManagerFactory implements IServiceProviderManagerFac
             .withGlobalBackupManagerFactory(globalBackupManagerFactory)
             .withAppBackupManagerFactories(appBackupManagerFactories)
             .withIntegrationTestChangeListener(integrationTestChangeListener)
+            .withBackupIntervalMs(config.getDiscoveryBackupIntervalMs())
             .build();
     }
 
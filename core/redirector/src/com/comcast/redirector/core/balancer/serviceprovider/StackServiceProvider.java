@@ -28,16 +28,29 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class StackServiceProvider implements IStackServiceProvider, IFilteredServiceProvider {
     private static final Logger log = LoggerFactory.getLogger(StackServiceProvider.class);
 
     private final ServiceProvider<MetaData> provider;
     private final XreStackPath stack;
+    private final Consumer<Runnable> instancesChangeListenerSetter;
 
+    /**
+     * Provider of instances which never change
+     */
     public StackServiceProvider(ServiceProvider<MetaData> provider, XreStackPath stack) {
+        this(provider, stack, listener -> {});
+    }
+
+    /**
+     * @param instancesChangeListenerSetter sets listener of changes of instances of given provider
+     */
+    public StackServiceProvider(ServiceProvider<MetaData> provider, XreStackPath stack, Consumer<Runnable> instancesChangeListenerSetter) {
         this.provider = provider;
         this.stack = stack;
+        this.instancesChangeListenerSetter = instancesChangeListenerSetter;
     }
 
     @Override
@@ -116,6 +129,11 @@ public class StackServiceProvider implements IStackServiceProvider, IFilteredSer
         return stack;
     }
 
+    @Override
+    public void setInstancesChangeListener(Runnable listener) {
+        instancesChangeListenerSetter.accept(listener);
+    }
+
     @Override
     public void close() throws IOException {
         provider.close();
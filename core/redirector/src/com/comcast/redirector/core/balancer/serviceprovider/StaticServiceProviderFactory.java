@@ -41,9 +41,8 @@ class StaticServiceProviderFactory implements IStaticServiceProviderFactory {
 
     @Override
     public IFilteredServiceProvider createServiceProvider(XreStackPath servicePath, List<HostIPs> hosts) {
-        return new StackServiceProvider(
-            new StaticServiceProvider(providerStrategy, servicePath.getServiceName(), hosts, config),
-            servicePath);
+        StaticServiceProvider provider = new StaticServiceProvider(providerStrategy, servicePath.getServiceName(), hosts, config);
+        return new StackServiceProvider(provider, servicePath, provider::setInstancesChangeListener);
     }
 
     private static class StaticServiceProvider implements ServiceProvider<MetaData> {
@@ -51,6 +50,7 @@ class StaticServiceProviderFactory implements IStaticServiceProviderFactory {
 
         private final ProviderStrategy<MetaData> providerStrategy;
         private final InstanceProvider<MetaData> instanceProvider;
+        private volatile Runnable instancesChangeListener = () -> {};
 
         /**
          * @param providerStrategy strategy of selecting particular service instance (host)
@@ -89,9 +89,18 @@ class StaticServiceProviderFactory implements IStaticServiceProviderFactory {
                 instanceProvider.getInstances().clear();
             } catch (Exception e) {
                 log.error("Can't close provider ", e);
+            } finally {
+                instancesChangeListener.run();
             }
         }
 
+        /**
+         * Instances are set once and change only when provider is closed
+         */
+        void setInstancesChangeListener(Runnable listener) {
+            instancesChangeListener = listener;
+        }
+
         /**
          * Provider holds static list {@link org.apache.curator.x.discovery.ServiceInstance} objects
          */
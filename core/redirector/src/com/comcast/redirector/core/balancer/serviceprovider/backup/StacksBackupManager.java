@@ -19,10 +19,14 @@ package com.comcast.redirector.core.balancer.serviceprovider.backup;
 import com.comcast.redirector.common.serializers.Serializer;
 import com.comcast.redirector.common.serializers.SerializerException;
 import com.comcast.redirector.core.backup.IBackupManager;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 public class StacksBackupManager implements IStacksBackupManager {
@@ -32,6 +36,10 @@ public class StacksBackupManager implements IStacksBackupManager {
 
     private IBackupManager manualBackupManager;
     private StackBackup cache;
+    // hash of data which is in backup already, so the same snapshot is not written again
+    private HashCode backupHash;
+    // hash of data which was written last, it's in backup once the write succeeds
+    private HashCode latestHash;
 
     public StacksBackupManager(IBackupManager manualBackupManager,
                                Serializer serializer) {
@@ -58,13 +66,17 @@ public class StacksBackupManager implements IStacksBackupManager {
             String data = manualBackupManager.load();
             if (StringUtils.isNotBlank(data)) {
                 cache = serializer.deserialize(data, StackBackup.class);
+                synchronized (this) {
+                    backupHash = hash(data);
+                    latestHash = backupHash;
+                }
             }
         } catch (Exception e) {
             log.error("failed to de-serialize manual active nodes snapshot", e);
         }
     }
 
-    private Future<Boolean> backupInternal(StackBackup snapshot) {
+    private synchronized Future<Boolean> backupInternal(StackBackup snapshot) {
         cache = snapshot;
         String data = null;
         try {
@@ -72,6 +84,32 @@ public class StacksBackupManager implements IStacksBackupManager {
         } catch (SerializerException e) {
             log.error("failed to serialize manual active nodes snapshot", e);
         }
-        return manualBackupManager.backup(data);
+
+        HashCode hash = (data != null) ? hash(data) : null;
+        if (hash != null && hash.equals(backupHash)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        backupHash = null;
+        latestHash = hash;
+        Future<Boolean> result = manualBackupManager.backup(data);
+        if (hash != null && result instanceof CompletableFuture) {
+            ((CompletableFuture<Boolean>) result).thenAccept(written -> {
+                if (Boolean.TRUE.equals(written)) {
+                    onBackupWritten(hash);
+                }
+            });
+        }
+        return result;
+    }
+
+    // a write which failed or was overtaken by a newer one leaves backup hash unknown, so next snapshot is written anyway
+    private synchronized void onBackupWritten(HashCode hash) {
+        if (hash.equals(latestHash)) {
+            backupHash = hash;
+        }
+    }
+
+    private static HashCode hash(String data) {
+        return Hashing.sha256().hashString(data, StandardCharsets.UTF_8);
     }
 }
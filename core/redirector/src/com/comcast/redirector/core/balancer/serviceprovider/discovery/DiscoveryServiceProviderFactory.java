@@ -29,7 +29,6 @@ import com.comcast.tvx.cloud.MetaData;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.x.discovery.ProviderStrategy;
 import org.apache.curator.x.discovery.ServiceDiscoveryBuilder;
-import org.apache.curator.x.discovery.ServiceProvider;
 import org.apache.curator.x.discovery.details.CustomServiceProvider;
 import org.apache.curator.x.discovery.details.ServiceDiscoveryImpl;
 import org.slf4j.Logger;
@@ -77,11 +76,11 @@ public class DiscoveryServiceProviderFactory implements DynamicServiceProviderFa
 
     @Override
     public IFilteredServiceProvider createServiceProvider(XreStackPath servicePath) {
-        ServiceProvider<MetaData> customServiceProvider = new CustomServiceProvider<>(serviceDiscovery, zookeeperBasePath, servicePath.getPath(),
+        CustomServiceProvider<MetaData> customServiceProvider = new CustomServiceProvider<>(serviceDiscovery, zookeeperBasePath, servicePath.getPath(),
             providerStrategy, discoveryStacksBackupManager, new InstanceWeigher(config));
         try {
             customServiceProvider.start();
-            return new StackServiceProvider(customServiceProvider, servicePath);
+            return new StackServiceProvider(customServiceProvider, servicePath, customServiceProvider::setInstancesChangeListener);
         } catch (Exception e) {
             log.error("failed to create service provider for path {}", servicePath.getPath(), e);
             return null;
@@ -16,6 +16,7 @@
 
 package com.comcast.redirector.core.balancer.serviceprovider.stacks;
 
+import com.comcast.redirector.common.thread.ThreadUtils;
 import com.comcast.redirector.common.util.PathUtils;
 import com.comcast.redirector.common.util.ThreadLocalLogger;
 import com.comcast.redirector.core.applications.ApplicationsBackup;
@@ -31,11 +32,21 @@ import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static com.comcast.redirector.core.backup.IBackupManagerFactory.BackupEntity.*;
 
+/**
+ * Keeps backup of stacks discovered in ZooKeeper. Discovery events which come within backup interval are written
+ * to backup at once. Backup is written by {@link IBackupManager} of {@link IBackupManagerFactory.BackupEntity#DISCOVERY},
+ * file system one writes it into temp file which is then moved over backup file atomically.
+ */
 public class DiscoveryBackupManager implements IDiscoveryBackupManager {
     private static final ThreadLocalLogger log = new ThreadLocalLogger(DiscoveryBackupManager.class);
+    private static final int SHUTDOWN_BACKUP_TIMEOUT_SECONDS = 10;
 
     private final IAppBackupManagerFactories appBackupManagerFactories;
     private IStacksBackupManager discoveryStacksBackupManager;
@@ -43,11 +54,26 @@ public class DiscoveryBackupManager implements IDiscoveryBackupManager {
     private Set<String> excludedApplications;
     private IBackupManagerFactory backupManagerFactory;
 
+    // discovery events which came within this interval are written to backup at once
+    private final int backupIntervalMs;
+    private ScheduledExecutorService backupScheduler;
+    private boolean backupScheduled;
+
     @VisibleForTesting
     DiscoveryBackupManager(IBackupManagerFactory backupManagerFactory, Set<String> excludedApplications, IAppBackupManagerFactories appBackupManagerFactories) {
+        this(backupManagerFactory, excludedApplications, appBackupManagerFactories, 0);
+    }
+
+    @VisibleForTesting
+    DiscoveryBackupManager(IBackupManagerFactory backupManagerFactory, Set<String> excludedApplications,
+                           IAppBackupManagerFactories appBackupManagerFactories, int backupIntervalMs) {
         this.excludedApplications = excludedApplications;
         this.backupManagerFactory = backupManagerFactory;
         this.appBackupManagerFactories = appBackupManagerFactories;
+        this.backupIntervalMs = backupIntervalMs;
+        if (backupIntervalMs > 0) {
+            backupScheduler = Executors.newSingleThreadScheduledExecutor(ThreadUtils.newThreadFactory("DiscoveryBackupManager"));
+        }
         createBackupManager();
         discoveryStacksBackup = getBackupData();
     }
@@ -119,20 +145,67 @@ public class DiscoveryBackupManager implements IDiscoveryBackupManager {
     @Override
     public synchronized void deleteStackSnapshot(StackSnapshot stackSnapshot) {
         discoveryStacksBackup.deleteSnapshotIgnoringIPv6(stackSnapshot);
-        doBackup(discoveryStacksBackup);
+        scheduleBackup();
     }
 
     @Override
     public synchronized void syncStackSnapshot(StackSnapshot snapshotToSyncWith) {
         discoveryStacksBackup.syncStackSnapshot(snapshotToSyncWith);
-        doBackup(discoveryStacksBackup);
+        scheduleBackup();
     }
 
     private void notifyIntegrationTests(StackSnapshot snapshotToSyncWith) {
         if (integrationTestChangeListener != null) integrationTestChangeListener.update(snapshotToSyncWith);
     }
 
-    private synchronized void doBackup(StackBackup stackBackup) {
+    private void scheduleBackup() {
+        if (backupScheduler == null) {
+            doBackup(discoveryStacksBackup);
+        } else if (!backupScheduled) {
+            backupScheduled = true;
+            backupScheduler.schedule(this::doScheduledBackup, backupIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void doScheduledBackup() {
+        if (!backupScheduled) {
+            return;
+        }
+        backupScheduled = false;
+        try {
+            doBackup(discoveryStacksBackup);
+        } catch (Exception e) {
+            log.error("Failed to backup discovered stacks", e);
+        }
+    }
+
+    /**
+     * Writes backup which is scheduled but not written yet and stops the scheduler, later events are written right away
+     */
+    @Override
+    public void shutdown() {
+        Future<Boolean> pendingBackup = null;
+        synchronized (this) {
+            if (backupScheduler == null) {
+                return;
+            }
+            backupScheduler.shutdownNow();
+            backupScheduler = null;
+            if (backupScheduled) {
+                backupScheduled = false;
+                pendingBackup = doBackup(discoveryStacksBackup);
+            }
+        }
+        if (pendingBackup != null) {
+            try {
+                pendingBackup.get(SHUTDOWN_BACKUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                log.error("Failed to backup discovered stacks on shutdown", e);
+            }
+        }
+    }
+
+    private synchronized Future<Boolean> doBackup(StackBackup stackBackup) {
         List<StackSnapshot> snapshotList = new ArrayList<>();
         for (StackSnapshot stackSnapshot : stackBackup.getSnapshotList()) {
             if (stackSnapshot != null) {
@@ -142,7 +215,7 @@ public class DiscoveryBackupManager implements IDiscoveryBackupManager {
         }
 
         discoveryStacksBackup.setSnapshotList(snapshotList);
-        discoveryStacksBackupManager.backup(discoveryStacksBackup);
+        return discoveryStacksBackupManager.backup(discoveryStacksBackup);
     }
 
 
@@ -150,7 +223,7 @@ public class DiscoveryBackupManager implements IDiscoveryBackupManager {
     public synchronized void addStackSnapshot(StackSnapshot stackSnapshot) {
        if (!discoveryStacksBackup.getSnapshotList().contains(stackSnapshot)) {
           discoveryStacksBackup.addSnapshot(stackSnapshot);
-           doBackup(discoveryStacksBackup);
+           scheduleBackup();
        }
     }
 
@@ -164,6 +237,7 @@ public class DiscoveryBackupManager implements IDiscoveryBackupManager {
         private IBackupManagerFactory backupManagerFactory;
         private IAppBackupManagerFactories appBackupManagerFactories;
         private IntegrationTestChangeListener<StackSnapshot> integrationTestChangeListener;
+        private int backupIntervalMs;
 
         public Builder excludedApplications(Set<String> apps) {
             this.excludedApplications = apps;
@@ -185,9 +259,14 @@ public class DiscoveryBackupManager implements IDiscoveryBackupManager {
             return this;
         }
 
+        public Builder withBackupIntervalMs(int backupIntervalMs) {
+            this.backupIntervalMs = backupIntervalMs;
+            return this;
+        }
+
         public DiscoveryBackupManager build() {
             DiscoveryBackupManager discoveryBackupManager =
-                new DiscoveryBackupManager(backupManagerFactory, excludedApplications, appBackupManagerFactories);
+                new DiscoveryBackupManager(backupManagerFactory, excludedApplications, appBackupManagerFactories, backupIntervalMs);
             // this is visible for testing
             discoveryBackupManager.integrationTestChangeListener = integrationTestChangeListener;
 
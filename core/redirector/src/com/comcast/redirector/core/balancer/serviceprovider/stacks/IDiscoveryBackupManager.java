@@ -39,4 +39,9 @@ public interface IDiscoveryBackupManager {
     void syncStackSnapshot(StackSnapshot snapshotToSycWith);
 
     StackBackup getCurrentSnapshot();
+
+    /**
+     * Writes pending backup and releases resources
+     */
+    void shutdown();
 }
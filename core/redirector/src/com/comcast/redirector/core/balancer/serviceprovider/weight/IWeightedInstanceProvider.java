@@ -0,0 +1,31 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.comcast.redirector.core.balancer.serviceprovider.weight;
+
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.details.InstanceProvider;
+
+/**
+ * Instance provider which keeps weights of its instances precomputed, so {@link WeightedRandomStrategy} can pick
+ * an instance without copying the weighted list of instances.
+ */
+public interface IWeightedInstanceProvider<T> extends InstanceProvider<T> {
+
+    /**
+     * @return random instance chosen with probability proportional to its weight or null if there are no instances
+     */
+    ServiceInstance<T> getWeightedRandomInstance();
+}
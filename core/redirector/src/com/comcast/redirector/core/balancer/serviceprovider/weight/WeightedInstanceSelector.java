@@ -0,0 +1,123 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.core.balancer.serviceprovider.weight;
+
+import org.apache.curator.x.discovery.ServiceInstance;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable snapshot of service instances along with their weights. Is built once per change of instances
+ * (e.g. on every {@link org.apache.curator.framework.recipes.cache.PathChildrenCache} event) so selecting an instance
+ * on the redirect path costs one random number and a binary search over cumulative weights.
+ *
+ * Instances with weight 0 or below never get selected.
+ */
+public class WeightedInstanceSelector<T> {
+    private static final WeightedInstanceSelector EMPTY = new WeightedInstanceSelector<>(Collections.emptyList(), new int[0]);
+
+    private final List<ServiceInstance<T>> instances;
+    private final int[] cumulativeWeights;
+    private final List<ServiceInstance<T>> weightedInstances = new WeightedInstances();
+
+    private WeightedInstanceSelector(List<ServiceInstance<T>> instances, int[] cumulativeWeights) {
+        this.instances = instances;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> WeightedInstanceSelector<T> empty() {
+        return (WeightedInstanceSelector<T>) EMPTY;
+    }
+
+    public static <T> WeightedInstanceSelector<T> of(Collection<ServiceInstance<T>> source, IInstanceWeigher<T> weigher) {
+        List<ServiceInstance<T>> instances = new ArrayList<>(source.size());
+        int[] cumulativeWeights = new int[source.size()];
+
+        int totalWeight = 0;
+        for (ServiceInstance<T> instance : source) {
+            int weight = weigher.getWeight(instance);
+            if (weight <= 0) {
+                continue;
+            }
+            totalWeight += weight;
+            cumulativeWeights[instances.size()] = totalWeight;
+            instances.add(instance);
+        }
+
+        if (instances.isEmpty()) {
+            return empty();
+        }
+
+        return new WeightedInstanceSelector<>(
+            Collections.unmodifiableList(instances),
+            Arrays.copyOf(cumulativeWeights, instances.size()));
+    }
+
+    /**
+     * @return random instance with probability proportional to its weight or null if there are no instances
+     */
+    public ServiceInstance<T> select() {
+        if (instances.isEmpty()) {
+            return null;
+        }
+        return select(ThreadLocalRandom.current().nextInt(getTotalWeight()));
+    }
+
+    /**
+     * @param point value in range [0, total weight)
+     * @return instance which owns given point on weights scale
+     */
+    ServiceInstance<T> select(int point) {
+        int index = Arrays.binarySearch(cumulativeWeights, point + 1);
+        return instances.get(index >= 0 ? index : -index - 1);
+    }
+
+    public int getTotalWeight() {
+        return cumulativeWeights.length == 0 ? 0 : cumulativeWeights[cumulativeWeights.length - 1];
+    }
+
+    /**
+     * @return distinct instances which have positive weight
+     */
+    public List<ServiceInstance<T>> getInstances() {
+        return instances;
+    }
+
+    /**
+     * @return instances repeated according to their weights, in order of instances. The list is a view over
+     * cumulative weights, so it is not expanded and its element is looked up with binary search
+     */
+    public List<ServiceInstance<T>> getWeightedInstances() {
+        return weightedInstances;
+    }
+
+    private class WeightedInstances extends AbstractList<ServiceInstance<T>> implements RandomAccess {
+
+        @Override
+        public ServiceInstance<T> get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return select(index);
+        }
+
+        @Override
+        public int size() {
+            return getTotalWeight();
+        }
+    }
+}
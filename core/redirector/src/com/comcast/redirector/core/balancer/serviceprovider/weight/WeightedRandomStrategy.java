@@ -0,0 +1,45 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.comcast.redirector.core.balancer.serviceprovider.weight;
+
+import org.apache.curator.x.discovery.ProviderStrategy;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.details.InstanceProvider;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks an instance with probability proportional to its weight. Is selected by "WeightedRandom" provider strategy
+ * in {@link com.comcast.redirector.core.config.ZKConfig#getZooKeeperProviderStrategy()}, which is the default one.
+ * <p/>
+ * Providers implementing {@link IWeightedInstanceProvider} are asked for an instance directly. Instances of other
+ * providers are already repeated according to their weights, so uniformly random one of them is picked.
+ */
+public class WeightedRandomStrategy<T> implements ProviderStrategy<T> {
+
+    @Override
+    public ServiceInstance<T> getInstance(InstanceProvider<T> instanceProvider) throws Exception {
+        if (instanceProvider instanceof IWeightedInstanceProvider) {
+            return ((IWeightedInstanceProvider<T>) instanceProvider).getWeightedRandomInstance();
+        }
+        List<ServiceInstance<T>> instances = instanceProvider.getInstances();
+        if (instances.isEmpty()) {
+            return null;
+        }
+        return instances.get(ThreadLocalRandom.current().nextInt(instances.size()));
+    }
+}
@@ -16,15 +16,18 @@
 
 package com.comcast.redirector.core.balancer.serviceprovider.whitelist;
 
+import java.util.HashSet;
+import java.util.Set;
+
 public class WhitelistPredicate implements IWhitelistPredicate {
-    private WhiteList whiteList;
+    private final Set<String> paths;
 
     public WhitelistPredicate(WhiteList whiteList) {
-        this.whiteList = whiteList;
+        this.paths = (whiteList != null && whiteList.getPaths() != null) ? new HashSet<>(whiteList.getPaths()) : null;
     }
 
     @Override
     public boolean isWhiteListed(String path) {
-        return (whiteList != null) && whiteList.getPaths().contains(path);
+        return (paths != null) && paths.contains(path);
     }
 }
@@ -19,7 +19,9 @@ package com.comcast.redirector.core.engine;
 import com.comcast.redirector.common.InstanceInfo;
 import com.comcast.redirector.ruleengine.model.ServerGroup;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 public class EmptyRedirectorEngine implements IRedirectorEngine {
     @Override
@@ -31,4 +33,9 @@ public class EmptyRedirectorEngine implements IRedirectorEngine {
     public ServerGroup redirectServerGroup(ServerGroup serverGroup, Map<String, String> context) {
         return null;
     }
+
+    @Override
+    public Set<String> getParameterNames() {
+        return Collections.emptySet();
+    }
 }
@@ -20,14 +20,29 @@ import com.comcast.redirector.api.model.testsuite.Session;
 import com.comcast.redirector.api.model.testsuite.SessionList;
 import com.comcast.redirector.api.model.testsuite.TestSuiteResponse;
 
+import java.util.function.Supplier;
+
 public interface ILoggable {
     ISessionLog getLog();
 
     interface ISessionLog {
         SessionList pollAll();
         Session pollById(String sessionId);
-        void write(String sessionId, String message);
+        /**
+         * @param message is formatted only when session is polled
+         */
+        void write(String sessionId, Supplier<String> message);
         void log(String sessionId, TestSuiteResponse actual);
         void clearAll();
+
+        /**
+         * Marks that requests of given session are logged from now on
+         */
+        void startSession(String sessionId);
+
+        /**
+         * @return true while there is a session which is logged and not polled yet, nothing is built for session log otherwise
+         */
+        boolean isEnabled();
     }
 }
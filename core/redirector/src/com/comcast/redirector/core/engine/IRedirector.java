@@ -21,10 +21,12 @@ import com.comcast.redirector.ruleengine.model.ServerGroup;
 
 import java.io.Closeable;
 import java.util.Map;
+import java.util.Set;
 
 public interface IRedirector extends Closeable {
     InstanceInfo redirect(Map<String, String> context);
     ServerGroup redirectServerGroup(ServerGroup serverGroup, Map<String, String> context);
+    Set<String> getParameterNames();
     void suspendPolling();
     void restartPollingIfSuspended();
 }
@@ -21,6 +21,7 @@ import com.comcast.redirector.ruleengine.model.Server;
 import com.comcast.redirector.ruleengine.model.ServerGroup;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Encapsulate redirector logic engine
@@ -41,6 +42,12 @@ public interface IRedirectorEngine {
      */
     ServerGroup redirectServerGroup(ServerGroup serverGroup, Map<String, String> context);
 
+    /**
+     * Returns names of all parameters redirect may read from context, so callers may skip the rest of request
+     * @return names referenced by flavor and url rules plus the ones engine reads itself
+     */
+    Set<String> getParameterNames();
+
     interface IHostSelector {
         InstanceInfo getHostByContext(Map<String, String> context);
 
@@ -37,18 +37,33 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static com.comcast.redirector.common.RedirectorConstants.Logging.EXECUTION_STEP_PREFIX;
 
 public class RedirectorEngine implements IRedirectorEngine, ILoggable {
     private static final ThreadLocalLogger log = new ThreadLocalLogger(RedirectorEngine.class);
     private static final String DEFAULT = "default";
+    private static final String FLAVOR_RULES_LATENCY = "redirect.flavorRules";
+    private static final String HOST_SELECTION_LATENCY = "redirect.hostSelection";
+    private static final String URL_RULES_LATENCY = "redirect.urlRules";
+    private static final String RULE_NAME_KEY = QueryKeys.RULE_NAME.getKey();
+    private static final ThreadLocal<StringBuilder> QUERY_BUILDER = ThreadLocal.withInitial(StringBuilder::new);
+    // params read by engine and redirect log besides the ones referenced by rules
+    private static final List<String> ENGINE_PARAMETER_NAMES = Arrays.asList(
+        DataParamName.testInfo.name(), DataParamName.connectUrl.name(), Context.SESSION_ID,
+        Constants.RECEIVER_ID, Constants.SERVICE_ACCOUNT_ID, Constants.MAC, Constants.CLIENT_ADDRESS,
+        Constants.SERVICE_ACCESS_TOKEN);
     private AppLoggingHelper loggingHelper;
 
     private HostSelector hostSelector;
     private IURLRuleSet urlRules;
     private String appName;
+    private Set<String> parameterNames;
     private static final ThreadLocal<String> sessionId = new ThreadLocal<>();
 
     public RedirectorEngine(String appName, IBalancer balancer, IFlavorRuleSet flavorRuleSet, IURLRuleSet urlRuleSet, ISessionLog sessionLog, int modelVersion) {
@@ -60,6 +75,16 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
         urlRules = urlRuleSet;
 
         this.appName = appName;
+
+        Set<String> names = new HashSet<>(ENGINE_PARAMETER_NAMES);
+        names.addAll(flavorRuleSet.getParameterNames());
+        names.addAll(urlRuleSet.getParameterNames());
+        parameterNames = Collections.unmodifiableSet(names);
+    }
+
+    @Override
+    public Set<String> getParameterNames() {
+        return parameterNames;
     }
 
     @Override
@@ -75,7 +100,7 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
     private InstanceInfo doRedirect(Function<Map<String, String>, InstanceInfo> redirect,
                                     Map<String, String> context) {
         ThreadLocalLogger.setExecutionFlow(ExecutionFlow.redirect);
-        hostSelector.startSession(context);
+        boolean sessionStarted = hostSelector.startSession(context);
 
         InstanceInfo result = redirect.apply(context);
 
@@ -83,12 +108,16 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
             Metrics.reportGatewayTrafficStats(appName, result.getStack(), result.getFlavor(), result.getRuleName());
         }
 
-        loggingHelper.info(LoggerUtils.getRedirectLog(context, result));
+        if (loggingHelper.isInfoEnabled()) {
+            loggingHelper.info(LoggerUtils.getRedirectLog(context, result));
+        }
 
-        if (isTestMode(context)) {
-            doLogTestSession(result);
+        if (sessionStarted) {
+            if (hostSelector.isSessionLogEnabled() && isTestMode(context)) {
+                doLogTestSession(result);
+            }
+            hostSelector.stopSession();
         }
-        hostSelector.stopSession();
         
         ThreadLocalLogger.clear();
         return result;
@@ -104,46 +133,81 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
     }
 
     public static class SessionLog implements ISessionLog {
-        private Map<String, Session> sessions = new HashMap<>();
+        private ConcurrentMap<String, LoggedSession> sessions = new ConcurrentHashMap<>();
+        // is on from start of first session till all sessions are polled by id or cleared
+        private volatile boolean enabled;
+
+        @Override
+        public synchronized void startSession(String sessionId) {
+            sessions.computeIfAbsent(sessionId, LoggedSession::new);
+            enabled = true;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
 
         @Override
         public Session pollById(String sessionId) {
-            return sessions.remove(sessionId);
+            LoggedSession session = (sessionId == null) ? null : sessions.remove(sessionId);
+            if (session == null) {
+                return null;
+            }
+            synchronized (this) {
+                enabled = !sessions.isEmpty();
+            }
+            return session.toSession();
         }
 
         @Override
         public SessionList pollAll() {
-            Collection<Session> result = sessions.values();
             SessionList sessionList = new SessionList();
-            sessionList.setSessions(result);
+            sessionList.setSessions(sessions.values().stream().map(LoggedSession::toSession).collect(Collectors.toList()));
             return sessionList;
         }
 
         @Override
-        public void write(String sessionId, String message) {
-            Session session;
-            if ((session = sessions.get(sessionId)) == null) {
-                session = new Session(sessionId);
-                sessions.put(sessionId, session);
+        public void write(String sessionId, Supplier<String> message) {
+            if (sessionId != null) {
+                sessions.computeIfAbsent(sessionId, LoggedSession::new).write(message);
             }
-
-            session.getEvents().add(new Event(message));
         }
 
         @Override
         public void log(String sessionId, TestSuiteResponse actual) {
-            Session session;
-            if ((session = sessions.get(sessionId)) == null) {
-                session = new Session(sessionId);
-                sessions.put(sessionId, session);
+            if (sessionId != null) {
+                sessions.computeIfAbsent(sessionId, LoggedSession::new).actual = actual;
             }
-
-            session.setActual(actual);
         }
 
         @Override
-        public void clearAll() {
+        public synchronized void clearAll() {
             sessions.clear();
+            enabled = false;
+        }
+
+        private static class LoggedSession {
+            private final String id;
+            private final List<Supplier<String>> messages = new ArrayList<>();
+            private volatile TestSuiteResponse actual;
+
+            private LoggedSession(String id) {
+                this.id = id;
+            }
+
+            private synchronized void write(Supplier<String> message) {
+                messages.add(message);
+            }
+
+            private synchronized Session toSession() {
+                Session session = new Session(id);
+                for (Supplier<String> message : messages) {
+                    session.getEvents().add(new Event(message.get()));
+                }
+                session.setActual(actual);
+                return session;
+            }
         }
     }
 
@@ -193,31 +257,44 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
 
     private InstanceInfo appendUrlQuery(InstanceInfo instanceInfo, Map<String, String> context) {
         String connectUrl = context.get(DataParamName.connectUrl.name());
-        if (StringUtils.isNotBlank(connectUrl)) {
+        boolean connectUrlAppended = StringUtils.isNotBlank(connectUrl);
+        if (connectUrlAppended) {
             instanceInfo.appendConnectionUrlToQuery(connectUrl);
         }
 
-        if (instanceInfo.getServer() != null) {
-            if (!isDefaultRuleOrDistributionApplied(instanceInfo)) {
-                Map<String, String> query = instanceInfo.getServer().getQuery();
-                query.put(QueryKeys.RULE_NAME.getKey(), instanceInfo.getRuleName());
-        
-                query.entrySet().forEach(entry -> {
-                    try {
-                        String keyValue = entry.getKey() + "=" + URLEncoder.encode(entry.getValue(), "UTF-8");
-                        if (instanceInfo.getUrl() != null && !instanceInfo.getUrl().contains(keyValue)) {
-                            instanceInfo.appendUrlQuery(keyValue);
-                        }
-                    } catch (UnsupportedEncodingException e) {
-                        log.error("Failed to append " + entry.getKey() + "=" + entry.getValue(), e);
-                    }
-                });
+        Server server = instanceInfo.getServer();
+        if (server != null && instanceInfo.getUrl() != null && !isDefaultRuleOrDistributionApplied(instanceInfo)) {
+            // query of the server is shared between requests, so it's read only and pairs are encoded when model is built
+            StringBuilder query = QUERY_BUILDER.get();
+            query.setLength(0);
+            for (Map.Entry<String, String> pair : server.getEncodedQuery().entrySet()) {
+                if (!RULE_NAME_KEY.equals(pair.getKey())) {
+                    appendQueryPair(query, pair.getValue(), instanceInfo, connectUrlAppended);
+                }
+            }
+            try {
+                appendQueryPair(query, RULE_NAME_KEY + "=" + URLEncoder.encode(instanceInfo.getRuleName(), "UTF-8"), instanceInfo, connectUrlAppended);
+            } catch (UnsupportedEncodingException e) {
+                log.error("Failed to append " + RULE_NAME_KEY + "=" + instanceInfo.getRuleName(), e);
             }
+            instanceInfo.appendUrlQuery(query.toString());
+            instanceInfo.setRuleNameInQuery(true);
         }
 
         return instanceInfo;
     }
 
+    private static void appendQueryPair(StringBuilder query, String pair, InstanceInfo instanceInfo, boolean connectUrlAppended) {
+        // pairs which are part of server url are excluded when model is built, so only connect url may contain the pair
+        if (connectUrlAppended && instanceInfo.getUrl().contains(pair)) {
+            return;
+        }
+        if (query.length() > 0) {
+            query.append('&');
+        }
+        query.append(pair);
+    }
+
     private boolean isDefaultRuleOrDistributionApplied (InstanceInfo instanceInfo) {
         return ((instanceInfo.getServer() != null && instanceInfo.getServer().getReturnStatementType() == ReturnStatementType.DISTRIBUTION_RULE)
                 || (instanceInfo.getRuleName() != null && instanceInfo.getRuleName().toLowerCase().contains(DEFAULT)));
@@ -226,7 +303,9 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
     private InstanceInfo updateUrlParams(InstanceInfo serviceInstance, Map<String, String> params) {
         if (serviceInstance != null && serviceInstance.isNeedUrlParams()) {
             if (urlRules.isAvailable()) {
+                long startNanos = System.nanoTime();
                 UrlParams urlParams = urlRules.getUrlParams(params);
+                Metrics.reportLatencySince(URL_RULES_LATENCY, startNanos);
                 if (serviceInstance.isValid(urlParams)) {
                     serviceInstance.replaceUrlParams(urlParams);
                 } else {
@@ -270,7 +349,7 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
                 }
 
                 @Override
-                public void write(String sessionId, String message) {
+                public void write(String sessionId, Supplier<String> message) {
                 }
 
                 @Override
@@ -282,6 +361,15 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
                 public void clearAll() {
 
                 }
+
+                @Override
+                public void startSession(String sessionId) {
+                }
+
+                @Override
+                public boolean isEnabled() {
+                    return false;
+                }
             };
             private int modelVersion = RedirectorConstants.NO_MODEL_NODE_VERSION;
 
@@ -329,14 +417,34 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
             this.sessionLog = sessionLog;
         }
 
-        private void startSession(Map<String, String> context) {
-            sessionId.set(context.get(Context.SESSION_ID));
+        /**
+         * @return true if request belongs to a session, then {@link #stopSession()} should be called after redirect
+         */
+        private boolean startSession(Map<String, String> context) {
+            String id = context.get(Context.SESSION_ID);
+            if (id == null) {
+                return false;
+            }
+            sessionLog.startSession(id);
+            sessionId.set(id);
+            return true;
         }
 
         private void stopSession() {
             sessionId.remove();
         }
 
+        // checked before anything is formatted for session log
+        private boolean isSessionLogEnabled() {
+            return sessionLog.isEnabled();
+        }
+
+        private void writeIntoSessionLog(Supplier<String> message) {
+            if (isSessionLogEnabled()) {
+                sessionLog.write(sessionId.get(), message);
+            }
+        }
+
         @Override
         public InstanceInfo getHostByContext(Map<String, String> context) {
             if (!flavorRules.isAvailable()) {
@@ -344,25 +452,33 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
                 return null;
             }
 
+            long startNanos = System.nanoTime();
             Object result = flavorRules.getResult(context);
+            Metrics.reportLatencySince(FLAVOR_RULES_LATENCY, startNanos);
             if (result instanceof ServerGroup) {
                 return new InstanceInfo((ServerGroup) result);
             }
 
             writeServerIntoSessionLog((Server) result);
 
-            return getHostByServer((Server) result);
+            startNanos = System.nanoTime();
+            InstanceInfo instanceInfo = getHostByServer((Server) result);
+            Metrics.reportLatencySince(HOST_SELECTION_LATENCY, startNanos);
+            return instanceInfo;
         }
 
         private void writeServerIntoSessionLog(Server server) {
-            StringBuilder sb = new StringBuilder().append("ruleMatched=").append(server.getName());
-            if (server.getPath().isEmpty()) {
-                sb.append(" url=").append(server.getURL());
-            } else {
-                sb.append(" path=").append(server.getPath());
+            if (!isSessionLogEnabled() && !log.isInfoEnabled()) {
+                return;
+            }
+            String name = server.getName();
+            String path = server.getPath();
+            String url = server.getURL();
+            Supplier<String> message = () -> "ruleMatched=" + name + (path.isEmpty() ? " url=" + url : " path=" + path);
+            writeIntoSessionLog(message);
+            if (log.isInfoEnabled()) {
+                log.info(EXECUTION_STEP_PREFIX + ExecutionStep.redirect + ", " + message.get());
             }
-            sessionLog.write(sessionId.get(), sb.toString());
-            log.info(EXECUTION_STEP_PREFIX + ExecutionStep.redirect + ", " + sb.toString());
         }
 
         @Override
@@ -383,7 +499,7 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
                     if (server.getReturnStatementType() == ReturnStatementType.DISTRIBUTION_RULE
                             || server.getReturnStatementType() == ReturnStatementType.PATH_RULE) {
                         String logMessage = "falling back to default server";
-                        sessionLog.write(sessionId.get(), logMessage);
+                        writeIntoSessionLog(() -> logMessage);
                         log.info(logMessage);
                         instanceInfo = getDefaultHost();
                     }
@@ -405,9 +521,15 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
                 mode = ServerLookupMode.NON_FILTERED;
             }
             InstanceInfo instanceInfo = balancer.getServiceInstance(server, mode);
-            String logMessage = "balancerResult=" + ((isServerInstanceInvalid(instanceInfo)) ? "not-available" : instanceInfo.getAddress()) + ", byLookupMode=[ applyFilter=" + mode.getFilterMode() + " , forceGetFromBackup=" + mode.isForceGetFromBackup() + " ]";
-            sessionLog.write(sessionId.get(), logMessage);
-            log.info(EXECUTION_STEP_PREFIX + ExecutionStep.redirect + ", " + logMessage);
+            if (isSessionLogEnabled() || log.isInfoEnabled()) {
+                String address = isServerInstanceInvalid(instanceInfo) ? "not-available" : instanceInfo.getAddress();
+                ServerLookupMode lookupMode = mode;
+                Supplier<String> logMessage = () -> "balancerResult=" + address + ", byLookupMode=[ applyFilter=" + lookupMode.getFilterMode() + " , forceGetFromBackup=" + lookupMode.isForceGetFromBackup() + " ]";
+                writeIntoSessionLog(logMessage);
+                if (log.isInfoEnabled()) {
+                    log.info(EXECUTION_STEP_PREFIX + ExecutionStep.redirect + ", " + logMessage.get());
+                }
+            }
             return instanceInfo;
         }
 
@@ -415,12 +537,15 @@ public class RedirectorEngine implements IRedirectorEngine, ILoggable {
         public InstanceInfo getDefaultHost() {
             Server defaultServer = getDefaultServer();
             loggingHelper.debug("Returned defaultServer {}", defaultServer);
-            sessionLog.write(sessionId.get(), "Returned defaultServer " + (defaultServer != null ? defaultServer : "null"));
+            writeIntoSessionLog(() -> "Returned defaultServer " + (defaultServer != null ? defaultServer : "null"));
 
             InstanceInfo instanceInfo = balancer.getServiceInstance(defaultServer,
                     ServerLookupMode.DEFAULT);
 
-            sessionLog.write(sessionId.get(), "balancer result for defaultServer is " + ((isServerInstanceInvalid(instanceInfo)) ? " not-available " : instanceInfo.getAddress()));
+            if (isSessionLogEnabled()) {
+                String address = isServerInstanceInvalid(instanceInfo) ? " not-available " : instanceInfo.getAddress();
+                writeIntoSessionLog(() -> "balancer result for defaultServer is " + address);
+            }
             return instanceInfo;
         }
 
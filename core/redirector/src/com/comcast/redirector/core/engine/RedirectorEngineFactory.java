@@ -26,6 +26,7 @@ import com.comcast.redirector.core.balancer.Balancer;
 import com.comcast.redirector.core.balancer.IBalancer;
 import com.comcast.redirector.core.balancer.serviceprovider.IServiceProviderManager;
 import com.comcast.redirector.core.balancer.serviceprovider.IServiceProviderManagerFactory;
+import com.comcast.redirector.core.balancer.serviceprovider.whitelist.IWhitelistPredicate;
 import com.comcast.redirector.core.balancer.serviceprovider.whitelist.WhiteList;
 import com.comcast.redirector.core.balancer.serviceprovider.whitelist.WhitelistPredicate;
 import com.comcast.redirector.core.config.ZKConfig;
@@ -84,7 +85,9 @@ public class RedirectorEngineFactory implements IRedirectorEngineFactory {
     private IRedirectorEngine newRedirectorEngine(String appName, Model flavorRules, URLRuleModel urlRules, WhiteList whiteList,
                                                   IServiceProviderManager serviceProviderManager, ILoggable.ISessionLog sessionLog, int modelVersion) {
 
-        IBalancer balancer = new Balancer(appName, serviceProviderManager, new WhitelistPredicate(whiteList), modelVersion);
+        IWhitelistPredicate whitelist = new WhitelistPredicate(whiteList);
+        serviceProviderManager.applyWhitelist(appName, whitelist);
+        IBalancer balancer = new Balancer(appName, serviceProviderManager, whitelist, modelVersion);
 
         return new RedirectorEngine(
             appName,
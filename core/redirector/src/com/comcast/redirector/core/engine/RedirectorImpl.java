@@ -33,6 +33,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -96,6 +97,11 @@ public class RedirectorImpl implements IRedirector {
         return redirectorEngine.redirectServerGroup(serverGroup, context);
     }
 
+    @Override
+    public Set<String> getParameterNames() {
+        return redirectorEngine.getParameterNames();
+    }
+
     public ILoggable getLog() {
         if (redirectorEngine instanceof ILoggable) {
             return (ILoggable) redirectorEngine;
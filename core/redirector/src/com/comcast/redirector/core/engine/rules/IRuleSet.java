@@ -16,6 +16,13 @@
 
 package com.comcast.redirector.core.engine.rules;
 
+import java.util.Set;
+
 public interface IRuleSet<MODEL> {
     boolean isAvailable();
+
+    /**
+     * @return names of request params rules read
+     */
+    Set<String> getParameterNames();
 }
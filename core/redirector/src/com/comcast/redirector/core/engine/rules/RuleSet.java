@@ -16,7 +16,12 @@
 
 package com.comcast.redirector.core.engine.rules;
 
-public abstract class RuleSet<MODEL> implements IRuleSet<MODEL> {
+import com.comcast.redirector.ruleengine.model.AbstractModel;
+
+import java.util.Collections;
+import java.util.Set;
+
+public abstract class RuleSet<MODEL extends AbstractModel> implements IRuleSet<MODEL> {
     protected MODEL model;
 
     public RuleSet(MODEL model) {
@@ -27,4 +32,9 @@ public abstract class RuleSet<MODEL> implements IRuleSet<MODEL> {
     public boolean isAvailable() {
         return model != null;
     }
+
+    @Override
+    public Set<String> getParameterNames() {
+        return isAvailable() ? model.getParameterNames() : Collections.emptySet();
+    }
 }
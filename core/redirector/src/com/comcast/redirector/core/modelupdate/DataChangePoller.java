@@ -20,6 +20,7 @@ import com.comcast.redirector.common.logging.ExecutionStep;
 import com.comcast.redirector.common.thread.ThreadUtils;
 import com.comcast.redirector.common.util.ThreadLocalLogger;
 import com.comcast.redirector.common.util.UrlUtils;
+import com.comcast.redirector.dataaccess.client.IDataSourceConnector;
 import com.comcast.redirector.dataaccess.dao.NodeVersionDAO;
 import com.comcast.redirector.webserviceclient.IWebServiceClient;
 import org.glassfish.jersey.internal.util.Producer;
@@ -28,21 +29,63 @@ import javax.annotation.PreDestroy;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static com.comcast.redirector.common.RedirectorConstants.Logging.*;
 
+/**
+ * Polls versions of entities of all applications on one small scheduler: polls are short and mostly idle,
+ * so thread per entity and application only wastes memory. New versions are handled on a separate small pool,
+ * so long reload of one entity doesn't delay polls of others.
+ * <p/>
+ * When {@link #watchDataChanges(IDataSourceConnector)} is called, version nodes of entities are watched in
+ * ZooKeeper and poll is done as soon as version node changes. While watches work scheduled polls are done
+ * {@link #WATCHED_POLL_INTERVAL_MULTIPLIER} times less often, just in case some change is missed. Polls are done
+ * at usual interval while there is no connection to ZooKeeper and right away once it's restored.
+ */
 public class DataChangePoller implements IDataChangePoller {
     private static final ThreadLocalLogger log = new ThreadLocalLogger(DataChangePoller.class);
-    private static final int CORE_POOL_SIZE = 1;
-    private ScheduledExecutorService executor;
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final int DEFAULT_HANDLER_POOL_SIZE = 4;
+    private static final long HANDLER_KEEP_ALIVE_SECONDS = 60;
+    static final int WATCHED_POLL_INTERVAL_MULTIPLIER = 10;
+    private final ScheduledExecutorService executor;
+    private final ThreadPoolExecutor handlerExecutor;
+    private final List<DataChangePoll> watchedPolls = new CopyOnWriteArrayList<>();
+    private volatile IDataSourceConnector connector;
     private IWebServiceClient webServiceClient;
     private List<String> suspendedApps = new CopyOnWriteArrayList<>();
     
     public DataChangePoller(IWebServiceClient webServiceClient) {
+        this(webServiceClient, DEFAULT_POOL_SIZE, DEFAULT_HANDLER_POOL_SIZE);
+    }
+    
+    public DataChangePoller(IWebServiceClient webServiceClient, int poolSize, int handlerPoolSize) {
         this.webServiceClient = webServiceClient;
+        this.executor = Executors.newScheduledThreadPool(poolSize, ThreadUtils.newThreadFactory("DataChangePolling"));
+        this.handlerExecutor = new ThreadPoolExecutor(handlerPoolSize, handlerPoolSize,
+            HANDLER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), ThreadUtils.newThreadFactory("DataChangeHandling"));
+        this.handlerExecutor.allowCoreThreadTimeOut(true);
+    }
+    
+    /**
+     * Polls started after this call are triggered by changes of their version nodes
+     */
+    public void watchDataChanges(IDataSourceConnector connector) {
+        this.connector = connector;
+        connector.addConnectionListener(newState -> {
+            if (newState == IDataSourceConnector.ConnectorState.CONNECTED || newState == IDataSourceConnector.ConnectorState.RECONNECTED) {
+                watchedPolls.forEach(DataChangePoll::trigger);
+            }
+        });
     }
     
     @Override
@@ -53,23 +96,36 @@ public class DataChangePoller implements IDataChangePoller {
                                        Producer<Integer> getCurrentVersion,
                                        Consumer<Integer> setCurrentVersion,
                                        Consumer<Integer> setNextVersion,
-                                       String appName) {
+                                       String appName,
+                                       String versionNodePath) {
         
-        String threadFactoryName = "DataChangePolling" + "-" + entityName + (appName != null ? "-" + appName : "");
+        DataChangePoll poll = new DataChangePoll(() -> {
+            Runnable newVersionHandling = null;
+            try {
+                if (appName == null || !suspendedApps.contains(appName)) {
+                    newVersionHandling = doDataChangePolling(entityName, url, action, getCurrentVersion, setCurrentVersion, setNextVersion, appName);
+                }
+            } catch (Exception e) {
+                log.error(EXECUTION_STEP_PREFIX + ExecutionStep.responseFromWS + " " + OPERATION_RESULT + "RequestToWsFailed ", e.getMessage());
+            }
+            
+            ThreadLocalLogger.clear();
+            return newVersionHandling;
+        });
         
-        executor = Executors.newScheduledThreadPool(CORE_POOL_SIZE, ThreadUtils.newThreadFactory(threadFactoryName));
+        IDataSourceConnector connector = this.connector;
+        boolean watched = connector != null && versionNodePath != null;
+        if (watched) {
+            watchedPolls.add(poll);
+            connector.addNodeDataChangeListener(versionNodePath, (eventType, path, data, updateVersion) -> poll.trigger());
+        }
         
+        AtomicLong ticks = new AtomicLong();
         executor.scheduleWithFixedDelay(
                 () -> {
-                    try {
-                        if (appName == null || !suspendedApps.contains(appName)) {
-                            doDataChangePolling(entityName, url, action, getCurrentVersion, setCurrentVersion, setNextVersion, appName);
-                        }
-                    } catch (Exception e) {
-                        log.error(EXECUTION_STEP_PREFIX + ExecutionStep.responseFromWS + " " + OPERATION_RESULT + "RequestToWsFailed ", e.getMessage());
+                    if (!watched || !connector.isConnected() || ticks.getAndIncrement() % WATCHED_POLL_INTERVAL_MULTIPLIER == 0) {
+                        poll.trigger();
                     }
-                    
-                    ThreadLocalLogger.clear();
                 },
                 0,
                 interval,
@@ -95,16 +151,86 @@ public class DataChangePoller implements IDataChangePoller {
     @PreDestroy
     public void shutdown () {
         executor.shutdown();
+        handlerExecutor.shutdown();
+    }
+
+    /**
+     * Runs poll of one entity on the scheduler, at most one at a time. Triggers which come while poll is running
+     * make it run once more after that, so the latest change is never missed.
+     * <p/>
+     * New version found by poll is handled on the handler pool. Triggers stay counted till it's handled,
+     * so entity is not polled meanwhile, and the ones which came during handling make it polled right after
+     */
+    private class DataChangePoll {
+        private final Supplier<Runnable> poll;
+        private final AtomicInteger triggers = new AtomicInteger();
+
+        /**
+         * @param poll returns handling of new version or null if there is none
+         */
+        DataChangePoll(Supplier<Runnable> poll) {
+            this.poll = poll;
+        }
+
+        void trigger() {
+            if (triggers.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::run);
+                } catch (RejectedExecutionException e) {
+                    triggers.set(0);
+                }
+            }
+        }
+
+        private void run() {
+            int handled;
+            do {
+                handled = triggers.get();
+                Runnable newVersionHandling = poll.get();
+                if (newVersionHandling != null) {
+                    handle(newVersionHandling, handled);
+                    return;
+                }
+            } while (triggers.addAndGet(-handled) > 0);
+        }
+
+        private void handle(Runnable newVersionHandling, int handled) {
+            try {
+                handlerExecutor.execute(() -> {
+                    try {
+                        newVersionHandling.run();
+                    } finally {
+                        if (triggers.addAndGet(-handled) > 0) {
+                            resume();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                triggers.set(0);
+            }
+        }
+
+        private void resume() {
+            try {
+                executor.execute(this::run);
+            } catch (RejectedExecutionException e) {
+                triggers.set(0);
+            }
+        }
     }
 
-    private void doDataChangePolling(String entityName, String url,
-                                     NewVersionHandler<Integer> newVersionHandler,
-                                     Producer<Integer> getCurrentVersion,
-                                     Consumer<Integer> setCurrentVersion,
-                                     Consumer<Integer> setNextVersion,
-                                     String appName) {
+    /**
+     * @return handling of new version to run out of the scheduler or null if version is not changed
+     */
+    private Runnable doDataChangePolling(String entityName, String url,
+                                         NewVersionHandler<Integer> newVersionHandler,
+                                         Producer<Integer> getCurrentVersion,
+                                         Consumer<Integer> setCurrentVersion,
+                                         Consumer<Integer> setNextVersion,
+                                         String appName) {
         ThreadLocalLogger.setExecutionFlow(ExecutionFlow.dataChangePolling);
-        ThreadLocalLogger.setCustomMessage((appName == null ? "" : APP_NAME_PREFIX + appName) + ", " + ENTITY_NAME_PREFIX + entityName);
+        String customMessage = (appName == null ? "" : APP_NAME_PREFIX + appName) + ", " + ENTITY_NAME_PREFIX + entityName;
+        ThreadLocalLogger.setCustomMessage(customMessage);
         Integer version;
         try {
             version = webServiceClient.getRequestAsInteger(UrlUtils.buildUrl(url, (appName == null ? "" : appName)));
@@ -116,19 +242,34 @@ public class DataChangePoller implements IDataChangePoller {
                 ThreadLocalLogger.setExecutionFlow(ExecutionStep.responseFromWS.toString());
                 log.info("flagVersionFromWS=" + version + ", currentFlagVersion=" + getCurrentVersion.call());
 
+                if (version == NodeVersionDAO.NO_VERSION) {
+                    log.info(OPERATION_RESULT + "NoVersionInDataStore, url=" + url);
+                }
                 if (version > getCurrentVersion.call()) {
                     log.info(OPERATION_RESULT + "FlagChanged");
                     if (newVersionHandler != null) {
-                        newVersionHandler.handleNewVersion(version, setCurrentVersion);
+                        return newVersionHandling(newVersionHandler, version, setCurrentVersion, customMessage);
                     }
                 }
-                if (version == NodeVersionDAO.NO_VERSION) {
-                    log.info(OPERATION_RESULT + "NoVersionInDataStore, url=" + url);
-                }
 
             }
         } catch (Exception e) {
             log.error(e.getMessage());
         }
+        return null;
+    }
+
+    private static Runnable newVersionHandling(NewVersionHandler<Integer> newVersionHandler, Integer version,
+                                               Consumer<Integer> setCurrentVersion, String customMessage) {
+        return () -> {
+            ThreadLocalLogger.setExecutionFlow(ExecutionStep.responseFromWS.toString());
+            ThreadLocalLogger.setCustomMessage(customMessage);
+            try {
+                newVersionHandler.handleNewVersion(version, setCurrentVersion);
+            } catch (Exception e) {
+                log.error(e.getMessage());
+            }
+            ThreadLocalLogger.clear();
+        };
     }
 }
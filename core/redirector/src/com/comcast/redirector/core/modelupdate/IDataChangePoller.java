@@ -21,12 +21,17 @@ import java.util.function.Consumer;
 
 public interface IDataChangePoller {
     
+    /**
+     * @param versionNodePath data store node which version is returned by the url. When it's not null, changes of the
+     *                        node trigger poll right away
+     */
     void startDataChangePolling(String entityName, String url, int interval,
                                 NewVersionHandler<Integer> action,
                                 Producer<Integer> getCurrentVersion,
                                 Consumer<Integer> setCurrentVersion,
                                 Consumer<Integer> setNextVersion,
-                                String appName);
+                                String appName,
+                                String versionNodePath);
 
     void suspendPolling(String appName);
     
@@ -132,7 +132,7 @@ public class RedirectorEngineProvider implements IRedirectorEngineProvider {
 
         TaskFactory taskFactory = new TaskFactory(DataSource.BACKUP);
 
-        initModelChain = new TaskChain( taskFactory.newGetNamespacedLists())
+        initModelChain = new TaskChain("initModel", taskFactory.newGetNamespacedLists())
             .and(taskFactory.newGetFlavorRules())
             .and(taskFactory.newGetUrlRules())
             .and(taskFactory.newGetWhitelistedStacks())
@@ -146,7 +146,7 @@ public class RedirectorEngineProvider implements IRedirectorEngineProvider {
         Supplier<Set<StackData>> stacksSupplier = new DataSourceStacksSupplier(commonDaoFacade, appName);
         TaskFactory taskFactory = new TaskFactory(DataSource.DATA_STORE);
 
-        refreshModelChain = new TaskChain( new InitDataStoreTask(modelFacade))
+        refreshModelChain = new TaskChain("refreshModel", new InitDataStoreTask(modelFacade))
             .and(taskFactory.newGetFlavorRules())
             .and(taskFactory.newGetUrlRules())
             .and(taskFactory.newGetWhitelistedStacks())
@@ -167,7 +167,7 @@ public class RedirectorEngineProvider implements IRedirectorEngineProvider {
         Supplier<Set<StackData>> stacksSupplier = new DataSourceStacksSupplier(commonDaoFacade, appName);
         TaskFactory taskFactory = new TaskFactory(DataSource.DATA_STORE);
 
-        serviceDiscoveryReloadChain = new TaskChain(new InitDataStoreTask(modelFacade))
+        serviceDiscoveryReloadChain = new TaskChain("serviceDiscoveryReload", new InitDataStoreTask(modelFacade))
                 .and(taskFactory.newGetStacksWithHostsTask(stacksSupplier))
                 .and(taskFactory.newBackupStacksInMemory())
                 .and(taskFactory.newValidateAbleToRedirectTask())
@@ -179,7 +179,7 @@ public class RedirectorEngineProvider implements IRedirectorEngineProvider {
     }
 
     private void buildSyncModelChain() {
-        syncModelChain =  new TaskChain(new InitDataStoreTask(modelFacade)).and(new SyncModelsTask(modelMetadataHolder));
+        syncModelChain =  new TaskChain("syncModel", new InitDataStoreTask(modelFacade)).and(new SyncModelsTask(modelMetadataHolder));
     }
 
     private enum DataSource {
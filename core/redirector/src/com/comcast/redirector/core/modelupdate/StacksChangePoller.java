@@ -17,6 +17,8 @@ package com.comcast.redirector.core.modelupdate;
 
 
 import com.comcast.redirector.core.config.ZKConfig;
+import com.comcast.redirector.dataaccess.EntityType;
+import com.comcast.redirector.dataaccess.PathHelper;
 import com.comcast.redirector.dataaccess.cache.newzkstackscache.IServiceDiscovery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,10 +31,12 @@ public class StacksChangePoller {
     private IDataChangePoller dataChangePoller;
     private Integer currentStacksRefreshVersion = 0;
     private int stacksRefreshUpdateIntervalSeconds = 60;
+    private String servicesChangedPath;
     
     public StacksChangePoller(ZKConfig zkConfig, IDataChangePoller dataChangePoller) {
         this.dataChangePoller = dataChangePoller;
         stacksRefreshUpdateIntervalSeconds = zkConfig.getStacksRefreshPollIntervalSeconds();
+        servicesChangedPath = PathHelper.getPathHelper(EntityType.SERVICES_CHANGED, zkConfig.getZooKeeperBasePath()).getPath();
     }
 
     public Boolean initStacksPolling(IServiceDiscovery serviceDiscovery) {
@@ -42,7 +46,8 @@ public class StacksChangePoller {
                 this::getCurrentStacksRefreshVersion,
                 this::setCurrentStacksRefreshVersion,
                 null /* next stack version */,
-                null /* application Name*/);
+                null /* application Name*/,
+                servicesChangedPath);
         
         return true;
     }
@@ -17,6 +17,7 @@
 package com.comcast.redirector.core.modelupdate.chain;
 
 import com.comcast.redirector.common.util.ThreadLocalLogger;
+import com.comcast.redirector.metrics.Metrics;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,19 +25,27 @@ import java.util.function.Function;
 
 public class TaskChain {
     private static final ThreadLocalLogger log = new ThreadLocalLogger(TaskChain.class);
+    private static final String LATENCY_PREFIX = "modelUpdate.";
     private List<Function<ModelContext, Result>> tasks;
+    private String name;
 
     public TaskChain(Function<ModelContext, Result> initialTask) {
         this.tasks = new ArrayList<>();
         tasks.add(initialTask);
     }
 
+    public TaskChain(String name, Function<ModelContext, Result> initialTask) {
+        this(initialTask);
+        this.name = name;
+    }
+
     public TaskChain and(Function<ModelContext, Result> task) {
         tasks.add(task);
         return this;
     }
 
     public Result execute(ModelContext modelContext) {
+        long startNanos = System.nanoTime();
         Result result = Result.failure(modelContext);
         for (Function<ModelContext, Result> task : tasks) {
             result = task.apply(modelContext);
@@ -48,6 +57,9 @@ public class TaskChain {
             modelContext = result.getContext();
         }
 
+        if (name != null) {
+            Metrics.reportLatencySince(LATENCY_PREFIX + name, startNanos);
+        }
         return result;
     }
 
@@ -0,0 +1,416 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.core.modelupdate.converter;
+
+import com.comcast.redirector.api.model.AndExpression;
+import com.comcast.redirector.api.model.ContainsBase;
+import com.comcast.redirector.api.model.Equals;
+import com.comcast.redirector.api.model.Expressions;
+import com.comcast.redirector.api.model.GreaterOrEqualExpression;
+import com.comcast.redirector.api.model.GreaterThan;
+import com.comcast.redirector.api.model.IfExpression;
+import com.comcast.redirector.api.model.InIpRange;
+import com.comcast.redirector.api.model.IsEmpty;
+import com.comcast.redirector.api.model.LessOrEqualExpression;
+import com.comcast.redirector.api.model.LessThan;
+import com.comcast.redirector.api.model.Matches;
+import com.comcast.redirector.api.model.NotEqual;
+import com.comcast.redirector.api.model.OrExpression;
+import com.comcast.redirector.api.model.Percent;
+import com.comcast.redirector.api.model.Random;
+import com.comcast.redirector.api.model.SelectServer;
+import com.comcast.redirector.api.model.Server;
+import com.comcast.redirector.api.model.ServerGroup;
+import com.comcast.redirector.api.model.SingleParameterExpression;
+import com.comcast.redirector.api.model.TypedSingleParameterExpression;
+import com.comcast.redirector.api.model.Value;
+import com.comcast.redirector.api.model.XORExpression;
+import com.comcast.redirector.api.model.distribution.Distribution;
+import com.comcast.redirector.api.model.distribution.Rule;
+import com.comcast.redirector.api.model.url.rule.Default;
+import com.comcast.redirector.api.model.url.rule.URLRules;
+import com.comcast.redirector.api.model.url.rule.UrlRule;
+import com.comcast.redirector.common.util.ThreadLocalLogger;
+import com.comcast.redirector.ruleengine.model.AbstractModel;
+import com.comcast.redirector.ruleengine.model.DistributionStatement;
+import com.comcast.redirector.ruleengine.model.IfStatement;
+import com.comcast.redirector.ruleengine.model.NamespacedList;
+import com.comcast.redirector.ruleengine.model.Parameter;
+import com.comcast.redirector.ruleengine.model.Pattern;
+import com.comcast.redirector.ruleengine.model.ReturnStatement;
+import com.comcast.redirector.ruleengine.model.Statement;
+import com.comcast.redirector.ruleengine.model.URLRuleModel;
+import com.comcast.redirector.ruleengine.model.UrlParams;
+import com.comcast.redirector.ruleengine.model.UrlRuleDefaultStatement;
+import com.comcast.redirector.ruleengine.model.Values;
+import com.comcast.redirector.ruleengine.model.expressions.BooleanExpression;
+import com.comcast.redirector.ruleengine.model.expressions.ContainsExpression;
+import com.comcast.redirector.ruleengine.model.expressions.InIpRangeExpression;
+import com.comcast.redirector.ruleengine.model.expressions.IsEmptyExpression;
+import com.comcast.redirector.ruleengine.model.expressions.LogicalExpression;
+import com.comcast.redirector.ruleengine.model.expressions.MatchesExpression;
+import com.comcast.redirector.ruleengine.model.expressions.RelationalExpression;
+import com.comcast.redirector.ruleengine.model.expressions.RightSide;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static com.comcast.redirector.ruleengine.model.AbstractModel.*;
+
+/**
+ * Visits model objects and builds rule engine language elements of them directly, without marshalling the objects
+ * into DOM. Elements are the same the rule engine builds from DOM of the objects: broken rules are skipped the same way,
+ * and absent xml attributes are passed as empty strings.
+ */
+public class LanguageElementTranslator {
+    private static final ThreadLocalLogger log = new ThreadLocalLogger(LanguageElementTranslator.class);
+
+    private final AbstractModel model;
+
+    public LanguageElementTranslator(AbstractModel model) {
+        this.model = model;
+    }
+
+    public com.comcast.redirector.ruleengine.model.SelectServer translate(SelectServer source) {
+        Collection<?> items = nullToEmpty(source.getItems());
+        if (items.isEmpty() && source.getDistribution() == null && source.getFallbackServer() == null) {
+            throw new IllegalStateException("selectServer must contain one or more if statements and one return or " +
+                    "distribution statement.");
+        }
+
+        List<IfStatement> ifStatements = new ArrayList<>();
+        for (Object item : items) {
+            if (item instanceof IfExpression) {
+                IfStatement ifStatement = translateRule((IfExpression) item);
+                if (ifStatement != null) {
+                    ifStatements.add(ifStatement);
+                }
+            } else {
+                log.error("selectServer may only contain if, return or distribution statements. InvalidTag tag: {}", item);
+            }
+        }
+
+        Statement distributionStatement = null;
+        if (source.getDistribution() != null) {
+            try {
+                distributionStatement = translate(source.getDistribution());
+            } catch (Exception e) {
+                log.error("Failed to build distribution, skipping it. {}", e.getMessage());
+            }
+        }
+
+        com.comcast.redirector.ruleengine.model.SelectServer selectServer =
+                model.createLanguageElement(TAG_SELECT_SERVER, com.comcast.redirector.ruleengine.model.SelectServer.class);
+        selectServer.init(ifStatements, distributionStatement);
+        return selectServer;
+    }
+
+    public com.comcast.redirector.ruleengine.model.URLRules translate(URLRules source) {
+        Collection<?> items = nullToEmpty(source.getItems());
+        if (items.isEmpty() && source.getDefaultStatement() == null) {
+            throw new IllegalStateException("ruleConditions must contain one or more if statements.");
+        }
+
+        List<IfStatement> ifStatements = new ArrayList<>();
+        for (Object item : items) {
+            if (item instanceof IfExpression) {
+                IfStatement ifStatement = translateRule((IfExpression) item);
+                if (ifStatement != null) {
+                    ifStatements.add(ifStatement);
+                }
+            } else {
+                log.error("ruleConditions may contain if and default section. InvalidTag tag: {}", item);
+            }
+        }
+
+        Statement defaultStatement = null;
+        if (source.getDefaultStatement() != null) {
+            try {
+                defaultStatement = translate(source.getDefaultStatement());
+            } catch (Exception e) {
+                log.error("Failed to build default url rule, skipping it. {}", e.getMessage());
+            }
+        }
+
+        com.comcast.redirector.ruleengine.model.URLRules urlRules =
+                model.createLanguageElement(URLRuleModel.TAG_URL_RULES, com.comcast.redirector.ruleengine.model.URLRules.class);
+        urlRules.init(ifStatements, defaultStatement);
+        return urlRules;
+    }
+
+    private IfStatement translateRule(IfExpression source) {
+        try {
+            return translate(source);
+        } catch (Exception e) {
+            log.error("Failed to build rule id = {}, skipping it. {}", source.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    public IfStatement translate(IfExpression source) {
+        List<Expressions> items = nullToEmpty(source.getItems());
+        int size = items.size() + (source.getReturn() != null ? 1 : 0);
+        if (!(size == 2 || size == 3)) {
+            throw new IllegalStateException("if element must have exactly one boolean expression and either one or " +
+                    "two statements.");
+        }
+
+        if (items.get(0) instanceof IfExpression) {
+            throw new IllegalStateException("1st element of if must be a boolean expression; found: if");
+        }
+        BooleanExpression expression = translateExpression(items.get(0));
+
+        List<Statement> statements = new ArrayList<>(2);
+        for (Expressions item : items.subList(1, items.size())) {
+            if (!(item instanceof IfExpression)) {
+                throw new IllegalStateException("2nd element of if must be a statement; found: " + nameOf(item));
+            }
+            statements.add(translate((IfExpression) item));
+        }
+        if (source.getReturn() != null) {
+            statements.add(translateReturn(source.getReturn()));
+        }
+
+        IfStatement ifStatement = model.createLanguageElement(TAG_IF, IfStatement.class);
+        ifStatement.init(source.getId(), expression, statements.get(0), statements.size() > 1 ? statements.get(1) : null);
+        return ifStatement;
+    }
+
+    private ReturnStatement translateReturn(List<Expressions> source) {
+        if (source.isEmpty()) {
+            throw new IllegalStateException("return element has no value");
+        }
+
+        ReturnStatement returnStatement = model.createLanguageElement(TAG_RETURN, ReturnStatement.class);
+        Expressions value = source.get(0);
+        if (value instanceof Server) {
+            returnStatement.init(translate((Server) value));
+        } else if (value instanceof ServerGroup) {
+            returnStatement.init(translate((ServerGroup) value));
+        } else if (value instanceof UrlRule) {
+            returnStatement.init(translate((UrlRule) value));
+        }
+        // partner is not returned by the rule engine, statement is left without value
+        return returnStatement;
+    }
+
+    public BooleanExpression translateExpression(Expressions source) {
+        if (source instanceof AndExpression) {
+            return logical(TAG_AND, ((AndExpression) source).getItems());
+        } else if (source instanceof OrExpression) {
+            return logical(TAG_OR, ((OrExpression) source).getItems());
+        } else if (source instanceof XORExpression) {
+            return logical(TAG_EXCLUSIVE_OR, ((XORExpression) source).getItems());
+        } else if (source instanceof Equals) {
+            return relational(TAG_EQUAL, "", (SingleParameterExpression) source);
+        } else if (source instanceof NotEqual) {
+            return relational(TAG_NOT_EQUAL, "", (SingleParameterExpression) source);
+        } else if (source instanceof GreaterThan) {
+            return relational(TAG_GREATER_THAN, (TypedSingleParameterExpression) source);
+        } else if (source instanceof LessThan) {
+            return relational(TAG_LESS_THAN, (TypedSingleParameterExpression) source);
+        } else if (source instanceof GreaterOrEqualExpression) {
+            return relational(TAG_GREATER_THAN_OR_EQUAL_TO, (TypedSingleParameterExpression) source);
+        } else if (source instanceof LessOrEqualExpression) {
+            return relational(TAG_LESS_THAN_OR_EQUAL_TO, (TypedSingleParameterExpression) source);
+        } else if (source instanceof InIpRange) {
+            InIpRangeExpression expression = model.createLanguageElement(TAG_IN_IP_RANGE, InIpRangeExpression.class);
+            expression.init(((InIpRange) source).isNegated(), parameter(((InIpRange) source).getParam()), rightSide((InIpRange) source));
+            return expression;
+        } else if (source instanceof ContainsBase) {
+            ContainsExpression expression = model.createLanguageElement(TAG_CONTAINS, ContainsExpression.class);
+            expression.init(((ContainsBase) source).isNegated(), parameter(((ContainsBase) source).getParam()), rightSide((ContainsBase) source));
+            return expression;
+        } else if (source instanceof Matches) {
+            Pattern pattern = model.createLanguageElement(TAG_PATTERN, Pattern.class);
+            pattern.init(((Matches) source).getPatternVal());
+            MatchesExpression expression = model.createLanguageElement(TAG_MATCHES, MatchesExpression.class);
+            expression.init(((Matches) source).isNegated(), parameter(((Matches) source).getParam()), pattern);
+            return expression;
+        } else if (source instanceof IsEmpty) {
+            IsEmptyExpression expression = model.createLanguageElement(TAG_IS_EMPTY, IsEmptyExpression.class);
+            expression.init(((IsEmpty) source).isNegated(), parameter(((IsEmpty) source).getParam()));
+            return expression;
+        } else if (source instanceof Random) {
+            com.comcast.redirector.ruleengine.model.expressions.Random expression =
+                    model.createLanguageElement(TAG_RANDOM, com.comcast.redirector.ruleengine.model.expressions.Random.class);
+            expression.init(value(((Random) source).getValue()));
+            return expression;
+        } else if (source instanceof Percent) {
+            com.comcast.redirector.ruleengine.model.expressions.Percent expression =
+                    model.createLanguageElement(URLRuleModel.TAG_PERCENT, com.comcast.redirector.ruleengine.model.expressions.Percent.class);
+            expression.init(value(Float.toString(((Percent) source).getValue())));
+            return expression;
+        }
+        throw new IllegalStateException("Unknown Tag: " + nameOf(source));
+    }
+
+    private LogicalExpression logical(String tag, List<Expressions> items) {
+        items = nullToEmpty(items);
+        if (items.size() != 2) {
+            throw new IllegalStateException("Element " + tag + " must have 2 children");
+        }
+        for (Expressions item : items) {
+            if (item instanceof IfExpression) {
+                throw new IllegalStateException("Element " + tag + " has a non-boolean expression child: if");
+            }
+        }
+        LogicalExpression expression = model.createLanguageElement(tag, LogicalExpression.class);
+        expression.init(translateExpression(items.get(0)), translateExpression(items.get(1)));
+        return expression;
+    }
+
+    private RelationalExpression relational(String tag, TypedSingleParameterExpression source) {
+        return relational(tag, StringUtils.defaultString(source.getType()), source);
+    }
+
+    private RelationalExpression relational(String tag, String type, SingleParameterExpression source) {
+        RelationalExpression expression = model.createLanguageElement(tag, RelationalExpression.class);
+        expression.init(type, parameter(source.getParam()), value(source.getValue()));
+        return expression;
+    }
+
+    private RightSide rightSide(ContainsBase source) {
+        RightSide rightSide = new RightSide();
+        if (source.getValues() != null) {
+            rightSide.setValues(values(TAG_VALUES, Values.class, source.getValues()));
+        }
+        if (source.getNamespacedLists() != null) {
+            rightSide.setNamespacedList(values(TAG_NAMESPACED_LIST, NamespacedList.class, source.getNamespacedLists()));
+        }
+        return rightSide;
+    }
+
+    private <T extends Values> T values(String tag, Class<T> type, List<Value> source) {
+        List<String> texts = new ArrayList<>(source.size());
+        for (Value value : source) {
+            if (value != null) {
+                texts.add(StringUtils.defaultString(value.getValue()));
+            }
+        }
+        T values = model.createLanguageElement(tag, type);
+        values.init(texts);
+        return values;
+    }
+
+    private Parameter parameter(String name) {
+        Parameter parameter = model.createLanguageElement(TAG_PARAMETER, Parameter.class);
+        parameter.init(name);
+        return parameter;
+    }
+
+    private com.comcast.redirector.ruleengine.model.Value value(String text) {
+        com.comcast.redirector.ruleengine.model.Value value =
+                model.createLanguageElement(TAG_VALUE, com.comcast.redirector.ruleengine.model.Value.class);
+        value.init(text);
+        return value;
+    }
+
+    public DistributionStatement translate(Distribution source) {
+        List<Rule> rules = nullToEmpty(source.getRules());
+        if (source.getDefaultServer() == null) {
+            throw new IllegalStateException("distribution last child element must be server. found: " +
+                    (rules.isEmpty() ? "nothing" : "rule"));
+        }
+
+        List<Double> percents = new ArrayList<>(rules.size());
+        List<com.comcast.redirector.ruleengine.model.Server> servers = new ArrayList<>(rules.size());
+        for (Object rule : rules) {
+            if (!(rule instanceof Rule)) {
+                throw new IllegalStateException("distribution children elements except the last must be rule. " +
+                        "found: " + nameOf(rule));
+            }
+            if (((Rule) rule).getServer() == null) {
+                throw new IllegalStateException("distribution group must contain elements: id, percent and server. " +
+                        "found 2 elements");
+            }
+            // percent is given to the rule engine as text it is marshalled to
+            percents.add(Double.parseDouble(Float.toString(((Rule) rule).getPercent())));
+            servers.add(translate(((Rule) rule).getServer()));
+        }
+
+        DistributionStatement distributionStatement = model.createLanguageElement(TAG_DISTRIBUTION, DistributionStatement.class);
+        distributionStatement.init(percents, servers, translate(source.getDefaultServer()));
+        return distributionStatement;
+    }
+
+    public UrlRuleDefaultStatement translate(Default source) {
+        UrlRule urlRule = source.getUrlRule();
+        if (urlRule == null) {
+            throw new IllegalStateException("defaultItem must contain url rule");
+        }
+        int size = countNotNull(urlRule.getUrn(), urlRule.getProtocol(), urlRule.getPort(), urlRule.getIpProtocolVersion());
+        if (size != 4) {
+            throw new IllegalStateException("defaultItem must contain four elements: urn, port, protocol and ipProtocolVersion. " +
+                    "found " + size + " elements");
+        }
+
+        UrlRuleDefaultStatement defaultStatement = model.createLanguageElement(URLRuleModel.TAG_DEFAULT_SECTION, UrlRuleDefaultStatement.class);
+        defaultStatement.init(urlRule.getUrn(), urlRule.getProtocol(), urlRule.getPort(), urlRule.getIpProtocolVersion());
+        return defaultStatement;
+    }
+
+    public UrlParams translate(UrlRule source) {
+        UrlParams urlParams = model.createLanguageElement(URLRuleModel.TAG_URL_RULE, UrlParams.class);
+        urlParams.init(source.getUrn(), source.getProtocol(), source.getPort(), source.getIpProtocolVersion());
+        return urlParams;
+    }
+
+    public com.comcast.redirector.ruleengine.model.ServerGroup translate(ServerGroup source) {
+        List<com.comcast.redirector.ruleengine.model.Server> servers = new ArrayList<>();
+        for (Server server : nullToEmpty(source.getServers())) {
+            servers.add(translate(server));
+        }
+
+        com.comcast.redirector.ruleengine.model.ServerGroup serverGroup =
+                model.createLanguageElement(TAG_SERVER_GROUP, com.comcast.redirector.ruleengine.model.ServerGroup.class);
+        serverGroup.init(servers, StringUtils.defaultString(source.getEnablePrivate()),
+                StringUtils.defaultString(source.getCountDownTime()));
+        return serverGroup;
+    }
+
+    public com.comcast.redirector.ruleengine.model.Server translate(Server source) {
+        com.comcast.redirector.ruleengine.model.Server server =
+                model.createLanguageElement(TAG_SERVER, com.comcast.redirector.ruleengine.model.Server.class);
+        server.init(source.getName(), source.getUrl(), null, source.getPath(), source.getQuery(),
+                source.getDescription(), source.getIsNonWhitelisted());
+        return server;
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> items) {
+        return (items != null) ? items : Collections.<T>emptyList();
+    }
+
+    private static <T> Collection<T> nullToEmpty(Collection<T> items) {
+        return (items != null) ? items : Collections.<T>emptyList();
+    }
+
+    private static int countNotNull(Object... values) {
+        int count = 0;
+        for (Object value : values) {
+            if (value != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String nameOf(Object item) {
+        return (item != null) ? item.getClass().getSimpleName() : null;
+    }
+}
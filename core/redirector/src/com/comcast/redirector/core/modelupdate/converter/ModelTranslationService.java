@@ -25,16 +25,10 @@ import com.comcast.redirector.core.balancer.serviceprovider.whitelist.WhiteList;
 import com.comcast.redirector.ruleengine.model.Model;
 import com.comcast.redirector.ruleengine.model.URLRuleModel;
 import com.comcast.redirector.ruleengine.repository.NamespacedListRepository;
-import org.apache.commons.lang3.StringUtils;
-import org.w3c.dom.Document;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.ByteArrayInputStream;
+import java.util.Collection;
 import java.util.Collections;
 
-import static com.comcast.redirector.dataaccess.client.IDataSourceConnector.UTF8_CHARSET;
-
 public class ModelTranslationService {
     private static final ThreadLocalLogger log = new ThreadLocalLogger(ModelTranslationService.class);
 
@@ -45,66 +39,55 @@ public class ModelTranslationService {
     }
 
     public Model translateFlavorRules(SelectServer source, NamespacedListRepository namespacedLists) {
-        String flavorRulesXML = getFlavorRulesXML(source);
-
         Model model = null;
         try {
-            if (StringUtils.isNotBlank(flavorRulesXML)) {
-                DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-                Document newDocument = builder.parse(new ByteArrayInputStream(flavorRulesXML.getBytes(UTF8_CHARSET)));
-                model = new Model(newDocument, namespacedLists);
-                log.info("Creating model from xml: \n{}", flavorRulesXML);
+            if (source != null) {
+                model = new Model(namespacedLists, rules -> new LanguageElementTranslator(rules).translate(source));
+                log.info("Model is created from {} flavor rules", size(source.getItems()));
+                logXml("Model is created from rules: \n{}", source);
             } else {
                 log.error("Trying to init null model");
             }
         } catch (Exception ex) {
-            log.error("Exception while creating model from xml: \n{} \n{}", flavorRulesXML, ex);
+            log.error("Exception while creating model from rules: \n{} \n{}", getXml(source), ex);
         }
 
         return model;
     }
 
-    private String getFlavorRulesXML(SelectServer selectServer) {
-        if (selectServer != null) {
-            try {
-                return xmlSerializer.serialize(selectServer);
-            } catch (Exception e) {
-                log.error("Failed to serialize selectServer from RedirectorWS ", e);
-            }
-        }
-
-        return null;
-    }
-
     public URLRuleModel translateUrlRules(URLRules source, NamespacedListRepository namespacedLists) {
-        String urlRulesXML = getUrlRulesXML(source);
         URLRuleModel model = null;
         try {
-            if (StringUtils.isNotBlank(urlRulesXML)) {
-                DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-                Document newDocument = builder.parse(new ByteArrayInputStream(urlRulesXML.getBytes(UTF8_CHARSET)));
-                model = new URLRuleModel(newDocument, namespacedLists);
-                log.info("Rules created from xml: \n{}", urlRulesXML);
+            if (source != null) {
+                model = new URLRuleModel(namespacedLists, rules -> new LanguageElementTranslator(rules).translate(source));
+                log.info("Rules are created from {} url rules", size(source.getItems()));
+                logXml("Rules are created from url rules: \n{}", source);
             } else {
                 log.error("Trying to init null model");
             }
         } catch (Exception ex) {
-            log.error("Exception while creating model from xml: \n{}Root cause: {}", urlRulesXML, ex.getCause().getMessage());
+            log.error("Exception while creating model from rules: \n{}Root cause: {}", getXml(source), ex.getCause().getMessage());
         }
 
         return model;
     }
 
-    private String getUrlRulesXML(URLRules urlRules) {
-        if (urlRules != null) {
-            try {
-                return xmlSerializer.serialize(urlRules);
-            } catch (Exception e) {
-                log.error("Failed to serialize URLRules from RedirectorWS ", e);
-            }
+    private static int size(Collection<?> items) {
+        return (items != null) ? items.size() : 0;
+    }
+
+    private void logXml(String message, Object source) {
+        if (log.isDebugEnabled()) {
+            log.debug(message, getXml(source));
         }
+    }
 
-        return null;
+    private String getXml(Object source) {
+        try {
+            return xmlSerializer.serialize(source);
+        } catch (Exception e) {
+            return String.valueOf(source);
+        }
     }
 
     public WhiteList translateWhitelistedStacks(Whitelisted source) {
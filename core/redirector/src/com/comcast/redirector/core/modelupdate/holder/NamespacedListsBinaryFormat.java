@@ -0,0 +1,328 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.comcast.redirector.core.modelupdate.holder;
+
+import com.comcast.redirector.ruleengine.model.IpRangeIndex;
+import com.comcast.redirector.ruleengine.repository.NamespacedListsBatch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact binary backup of {@link NamespacedListsBatch}, which is much faster to read on cold start than JSON.
+ * <pre>
+ * magic "RNLB", format version byte, data node version long, number of lists, then for every list:
+ *     name, number of values, values sorted and front coded, number of ip ranges + 1 (0 if not saved), ip ranges
+ * </pre>
+ * Numbers are unsigned varints except for the data node version, which is plain long. Strings are length prefixed
+ * UTF-8. Every value is stored as the length of prefix it shares with previous value and the rest of its UTF-8 bytes,
+ * so lists of similar values like ip addresses or MACs shrink a lot. Ip ranges are the longs of
+ * {@link IpRangeIndex#toRanges()} coded as zigzag varints of differences between neighbouring addresses,
+ * so index is restored without parsing addresses.
+ */
+public final class NamespacedListsBinaryFormat {
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'R', 'N', 'L', 'B'};
+    private static final int NO_IP_RANGES = 0;
+    private static final int RADIX_BITS = 11;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    private NamespacedListsBinaryFormat() {
+    }
+
+    /**
+     * @return true if data starts as binary backup. JSON backup can't start that way
+     */
+    public static boolean isBinary(byte[] data) {
+        if (data == null || data.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param ipRangeIndexes indexes of lists which are used as ip lists, they are saved along with values
+     */
+    public static byte[] write(NamespacedListsBatch batch, Map<String, IpRangeIndex> ipRangeIndexes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(batch.getDataNodeVersion());
+            writeVarInt(out, batch.getNamespacedLists().size());
+            for (Map.Entry<String, Set<String>> list : batch.getNamespacedLists().entrySet()) {
+                writeString(out, list.getKey());
+                writeValues(out, list.getValue());
+                IpRangeIndex index = ipRangeIndexes.get(list.getKey());
+                if (index == null) {
+                    writeVarInt(out, NO_IP_RANGES);
+                } else {
+                    long[] ranges = index.toRanges();
+                    writeVarInt(out, ranges.length / 4 + 1);
+                    for (int k = 0; k < ranges.length; k++) {
+                        writeVarLong(out, ranges[k] - previousPart(ranges, k));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param ipRangeIndexes receives indexes which were saved along with lists
+     * @throws IllegalArgumentException if data is not binary backup of known version or is corrupted
+     */
+    public static NamespacedListsBatch read(byte[] data, Map<String, IpRangeIndex> ipRangeIndexes) {
+        if (!isBinary(data)) {
+            throw new IllegalArgumentException("Not a binary namespaced lists backup");
+        }
+        ByteBuffer in = ByteBuffer.wrap(data, MAGIC.length, data.length - MAGIC.length);
+        try {
+            int version = in.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported version of namespaced lists backup: " + version);
+            }
+            NamespacedListsBatch batch = new NamespacedListsBatch();
+            batch.setDataNodeVersion(in.getLong());
+            int lists = readCount(in, 3);
+            Map<String, Set<String>> namespacedLists = new HashMap<>(capacity(lists));
+            for (int i = 0; i < lists; i++) {
+                String name = readString(in);
+                namespacedLists.put(name, readValues(in, name));
+
+                int ranges = readVarInt(in);
+                if (ranges != NO_IP_RANGES) {
+                    if (ranges - 1 > in.remaining() / 4) {
+                        throw new BufferUnderflowException();
+                    }
+                    long[] parts = new long[(ranges - 1) * 4];
+                    for (int k = 0; k < parts.length; k++) {
+                        parts[k] = readVarLong(in) + previousPart(parts, k);
+                    }
+                    ipRangeIndexes.put(name, IpRangeIndex.fromRanges(parts));
+                }
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Unexpected " + in.remaining() + " bytes after namespaced lists");
+            }
+            batch.setNamespacedLists(namespacedLists);
+            return batch;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Namespaced lists backup is truncated", e);
+        }
+    }
+
+    private static void writeValues(DataOutputStream out, Set<String> values) throws IOException {
+        String[] sorted = values.toArray(new String[values.size()]);
+        Arrays.sort(sorted);
+        writeVarInt(out, sorted.length);
+        byte[] previous = new byte[0];
+        for (String value : sorted) {
+            byte[] current = value.getBytes(StandardCharsets.UTF_8);
+            int shared = 0;
+            int limit = Math.min(previous.length, current.length);
+            while (shared < limit && previous[shared] == current[shared]) {
+                shared++;
+            }
+            writeVarInt(out, shared);
+            writeVarInt(out, current.length - shared);
+            out.write(current, shared, current.length - shared);
+            previous = current;
+        }
+    }
+
+    /**
+     * Adding sorted values to hash set one by one writes to random buckets of a huge table, and for millions of values
+     * cache misses cost more than the whole decoding. So values are decoded first, then added in the order of buckets
+     * they go to, that way table is filled sequentially.
+     */
+    private static Set<String> readValues(ByteBuffer in, String name) {
+        int count = readCount(in, 2);
+        String[] values = new String[count];
+        int[] hashes = new int[count];
+        byte[] value = new byte[64];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            int shared = readVarInt(in);
+            int rest = readVarInt(in);
+            if (shared > length) {
+                throw new IllegalArgumentException("Value of list " + name + " shares more than previous value has");
+            }
+            length = shared + rest;
+            if (length > value.length) {
+                value = Arrays.copyOf(value, Math.max(length, value.length * 2));
+            }
+            in.get(value, shared, rest);
+            values[i] = decode(value, length);
+            hashes[i] = values[i].hashCode();
+        }
+
+        int capacity = capacity(count);
+        Set<String> set = new HashSet<>(capacity);
+        for (int i : orderOfBuckets(hashes, capacity)) {
+            set.add(values[i]);
+        }
+        return set;
+    }
+
+    /**
+     * @return indexes of hashes radix sorted by buckets of HashMap with given capacity
+     */
+    private static int[] orderOfBuckets(int[] hashes, int capacity) {
+        int mask = Integer.highestOneBit(Math.max(capacity - 1, 1)) * 2 - 1;
+        int[] buckets = new int[hashes.length];
+        int[] order = new int[hashes.length];
+        for (int i = 0; i < hashes.length; i++) {
+            buckets[i] = (hashes[i] ^ (hashes[i] >>> 16)) & mask;
+            order[i] = i;
+        }
+        int[] sortedBuckets = new int[hashes.length];
+        int[] sortedOrder = new int[hashes.length];
+        int[] starts = new int[RADIX + 1];
+        for (int shift = 0; (mask >>> shift) != 0; shift += RADIX_BITS) {
+            Arrays.fill(starts, 0);
+            for (int bucket : buckets) {
+                starts[((bucket >>> shift) & (RADIX - 1)) + 1]++;
+            }
+            for (int i = 1; i < starts.length; i++) {
+                starts[i] += starts[i - 1];
+            }
+            for (int i = 0; i < buckets.length; i++) {
+                int position = starts[(buckets[i] >>> shift) & (RADIX - 1)]++;
+                sortedBuckets[position] = buckets[i];
+                sortedOrder[position] = order[i];
+            }
+            int[] swap = buckets;
+            buckets = sortedBuckets;
+            sortedBuckets = swap;
+            swap = order;
+            order = sortedOrder;
+            sortedOrder = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Values are mostly ASCII, which is decoded without creating charset decoder for every value
+     */
+    private static String decode(byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] < 0) {
+                return new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarInt(in);
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    // count is checked against remaining bytes, so corrupted backup doesn't make reader allocate huge collections
+    private static int readCount(ByteBuffer in, int minBytesPerItem) {
+        int count = readVarInt(in);
+        if (count > in.remaining() / minBytesPerItem) {
+            throw new BufferUnderflowException();
+        }
+        return count;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) {
+                    throw new IllegalArgumentException("Negative length in namespaced lists backup");
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in namespaced lists backup");
+    }
+
+    /**
+     * Range start is coded as difference with end of previous range and range end as difference with its start,
+     * so ranges of close addresses take few bytes. Differences wrap around, which doesn't matter for decoding.
+     */
+    private static long previousPart(long[] ranges, int part) {
+        return part < 2 ? 0 : ranges[part - 2];
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        value = (value << 1) ^ (value >> 63);
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return (value >>> 1) ^ -(value & 1);
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in namespaced lists backup");
+    }
+
+    private static int capacity(int size) {
+        return size < 3 ? size + 1 : (int) (size / 0.75f) + 1;
+    }
+}
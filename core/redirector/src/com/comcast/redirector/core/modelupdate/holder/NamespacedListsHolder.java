@@ -28,24 +28,36 @@ import com.comcast.redirector.dataaccess.client.IDataSourceConnector;
 import com.comcast.redirector.dataaccess.facade.ICommonModelFacade;
 import com.comcast.redirector.ruleengine.IpAddressInitException;
 import com.comcast.redirector.ruleengine.model.IpAddress;
+import com.comcast.redirector.ruleengine.model.IpRangeIndex;
+import com.comcast.redirector.ruleengine.repository.IgnoreCase;
 import com.comcast.redirector.ruleengine.repository.NamespacedListsBatch;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Collections2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 
 import javax.annotation.PostConstruct;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class NamespacedListsHolder implements IDataStoreAwareNamespacedListsHolder {
     private static final ThreadLocalLogger log = new ThreadLocalLogger(NamespacedListsHolder.class);
+    private static final String DATA_NODE_VERSION = "dataNodeVersion";
     private NamespacedListsBatch namespacedListsBatch = new NamespacedListsBatch();
     private Map<String, Set<IpAddress>> ipAddressesCache = Collections.synchronizedMap(new HashMap<>());
+    private volatile Map<String, IpRangeIndex> ipRangeIndexes = new ConcurrentHashMap<>();
+    private volatile Map<String, Set<String>> ignoreCaseValues = new ConcurrentHashMap<>();
+    private Map<String, Long> namespacedListsVersions = Collections.emptyMap();
 
     private NamespacedListToIpAddressListConverter toIpAddressListConverter = new NamespacedListToIpAddressListConverter(this::getNamespacedListValues);
 
@@ -99,19 +111,19 @@ public class NamespacedListsHolder implements IDataStoreAwareNamespacedListsHold
         updateCurrentVersion.accept(newVersion);
     }
 
+    /**
+     * Only lists which versions have changed are requested when most of the lists are the same as before,
+     * otherwise all lists are requested at once
+     */
     @VisibleForTesting
     void loadFromDataStore() {
         try {
             Date date = new Date();
             int version = commonModelFacade.getNextNamespacedListsVersion();
             log.info("Start getting NamespacedList(listVersion={}) from WS - startTime={}", version, date.getTime());
-            NamespacedListsBatch namespacedListsBatch = new NamespacedListsBatch();
-            namespacedListsBatch.setDataNodeVersion(version);
-            for (NamespacedList item : commonModelFacade.getAllNamespacedLists()) {
-                namespacedListsBatch.addValues(item.getName(), Collections2.transform(item.getValueSet(),
-                        item.getType().equals(NamespacedListType.ENCODED) ? NamespacedListValueForWS::getEncodedValue : NamespacedListValueForWS::getValue));
+            if (!loadChangedFromDataStore(version)) {
+                loadAllFromDataStore(version);
             }
-            setNamespacedListsBatch(namespacedListsBatch);
 
             Long endTime = (new Date()).getTime();
             log.info("End getting NamespacedList from WS - endTime=" + endTime + ", total duration=" + (endTime - date.getTime()) + " millis");
@@ -121,6 +133,74 @@ public class NamespacedListsHolder implements IDataStoreAwareNamespacedListsHold
         }
     }
 
+    private void loadAllFromDataStore(int version) {
+        NamespacedListsBatch namespacedListsBatch = new NamespacedListsBatch();
+        namespacedListsBatch.setDataNodeVersion(version);
+        Map<String, Long> versions = new HashMap<>();
+        for (NamespacedList item : commonModelFacade.getAllNamespacedLists()) {
+            namespacedListsBatch.addValues(item.getName(), getValues(item));
+            versions.put(item.getName(), item.getVersion());
+        }
+        setNamespacedListsBatch(namespacedListsBatch, versions, name -> true, Collections.emptyMap());
+    }
+
+    /**
+     * Lists without version are always treated as changed, since there is no way to tell whether they are.
+     * Values, ip indexes and folded values of other lists are carried over from the current batch.
+     *
+     * @return false if changed lists can't be loaded one by one, or there are too many of them to do that
+     */
+    private boolean loadChangedFromDataStore(int version) {
+        NamespacedListsBatch currentBatch = getNamespacedListsBatch();
+        Map<String, Long> currentVersions = getNamespacedListsVersions();
+        if (currentVersions.isEmpty()) {
+            return false;
+        }
+        Collection<NamespacedList> listsVersions = commonModelFacade.getAllNamespacedListsVersions();
+        if (listsVersions == null) {
+            return false;
+        }
+
+        Set<String> changed = new HashSet<>();
+        Set<String> removed = new HashSet<>(currentBatch.getNamespacedLists().keySet());
+        for (NamespacedList item : listsVersions) {
+            removed.remove(item.getName());
+            Long currentVersion = currentVersions.get(item.getName());
+            if (item.getVersion() == 0 || currentVersion == null || currentVersion != item.getVersion()) {
+                changed.add(item.getName());
+            }
+        }
+        if ((changed.size() + removed.size()) * 2 > Math.max(listsVersions.size(), currentVersions.size())) {
+            return false;
+        }
+
+        Map<String, Set<String>> lists = new HashMap<>(currentBatch.getNamespacedLists());
+        Map<String, Long> versions = new HashMap<>(currentVersions);
+        lists.keySet().removeAll(removed);
+        versions.keySet().removeAll(removed);
+        for (String name : changed) {
+            NamespacedList item = commonModelFacade.getNamespacedList(name);
+            if (item == null) {
+                return false;
+            }
+            lists.put(name, new HashSet<>(getValues(item)));
+            versions.put(name, item.getVersion());
+        }
+        log.info("Got {} changed namespaced lists, {} lists are removed", changed.size(), removed.size());
+
+        NamespacedListsBatch namespacedListsBatch = new NamespacedListsBatch();
+        namespacedListsBatch.setDataNodeVersion(version);
+        namespacedListsBatch.setNamespacedLists(lists);
+        changed.addAll(removed);
+        setNamespacedListsBatch(namespacedListsBatch, versions, changed::contains, Collections.emptyMap());
+        return true;
+    }
+
+    private static Collection<String> getValues(NamespacedList item) {
+        return Collections2.transform(item.getValueSet(),
+            item.getType() == NamespacedListType.ENCODED ? NamespacedListValueForWS::getEncodedValue : NamespacedListValueForWS::getValue);
+    }
+
     @VisibleForTesting
     Set<IpAddress> getIpAddressesFromCacheForNamespacedList(String listName) {
         Set<IpAddress> copyOfCache = ipAddressesCache.containsKey(listName) ?
@@ -134,13 +214,27 @@ public class NamespacedListsHolder implements IDataStoreAwareNamespacedListsHold
         }
     }
 
+    /**
+     * Lists are backed up in JSON and in {@link NamespacedListsBinaryFormat} along with ip indexes which are built by the moment.
+     * JSON backup stays readable by tools and older versions, binary one is faster to load
+     */
     @Override
     public void createBackupNamespacedLists() {
         String data = null;
-        NamespacedListsBatch namespacedListsBatch = getNamespacedListsBatch();
+        byte[] binaryData = null;
+        NamespacedListsBatch namespacedListsBatch;
+        Map<String, IpRangeIndex> indexes;
+        lock.readLock().lock();
+        try {
+            namespacedListsBatch = this.namespacedListsBatch;
+            indexes = ipRangeIndexes;
+        } finally {
+            lock.readLock().unlock();
+        }
         if (! namespacedListsBatch.getNamespacedLists().isEmpty()) {
             try {
                 data = new JsonSerializer().serialize(namespacedListsBatch, true);
+                binaryData = NamespacedListsBinaryFormat.write(namespacedListsBatch, indexes);
             } catch (Exception e) {
                 log.error("Failed to serialize NamespacedList ", e);
                 throw e;
@@ -149,19 +243,72 @@ public class NamespacedListsHolder implements IDataStoreAwareNamespacedListsHold
 
         if (data != null) {
             globalBackupManagerFactory.getBackupManager(IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS).backup(data);
+            globalBackupManagerFactory.getBackupManager(IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS_BINARY).backupBytes(binaryData);
         }
     }
 
+    /**
+     * Binary backup is loaded first, JSON backup is used when binary one is absent, can't be read
+     * or belongs to older data node version than JSON one, e.g. when binary backup failed to save
+     */
     @VisibleForTesting
     void loadFromBackup() {
         String data = globalBackupManagerFactory.getBackupManager(IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS).load();
-        if (data != null) {
-            try {
-                setNamespacedListsBatch(new JsonSerializer().deserialize(data, NamespacedListsBatch.class));
-            } catch (Exception e) {
-                log.error("Failed to load NamespacedList from backup ", e);
+        if (!loadFromBinaryBackup(data == null ? 0 : readDataNodeVersion(data))) {
+            if (data != null) {
+                try {
+                    setNamespacedListsBatch(new JsonSerializer().deserialize(data, NamespacedListsBatch.class));
+                } catch (Exception e) {
+                    log.error("Failed to load NamespacedList from backup ", e);
+                }
+            }
+        }
+    }
+
+    private boolean loadFromBinaryBackup(long jsonDataNodeVersion) {
+        byte[] data = globalBackupManagerFactory.getBackupManager(IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS_BINARY).loadBytes();
+        if (data == null || !NamespacedListsBinaryFormat.isBinary(data)) {
+            return false;
+        }
+        try {
+            Map<String, IpRangeIndex> indexes = new HashMap<>();
+            NamespacedListsBatch batch = NamespacedListsBinaryFormat.read(data, indexes);
+            if (batch.getDataNodeVersion() < jsonDataNodeVersion) {
+                log.warn("Binary backup of NamespacedList(listVersion={}) is older than JSON backup(listVersion={}), falling back to JSON backup",
+                    batch.getDataNodeVersion(), jsonDataNodeVersion);
+                return false;
+            }
+            setNamespacedListsBatch(batch, indexes);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to load NamespacedList from binary backup, falling back to JSON backup ", e);
+            return false;
+        }
+    }
+
+    /**
+     * Only data node version is read from JSON backup, lists are skipped without being built
+     *
+     * @return 0 if there is no version in backup or backup can't be read, so binary backup is never rejected in favor of it
+     */
+    @VisibleForTesting
+    static long readDataNodeVersion(String json) {
+        try (JsonParser parser = new JsonFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return 0;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if (DATA_NODE_VERSION.equals(field)) {
+                    return parser.getLongValue();
+                }
+                parser.skipChildren();
             }
+        } catch (IOException e) {
+            log.error("Failed to read NamespacedList version from JSON backup ", e);
         }
+        return 0;
     }
 
     @Override
@@ -185,6 +332,59 @@ public class NamespacedListsHolder implements IDataStoreAwareNamespacedListsHold
         return toIpAddressListConverter.convert(name);
     }
 
+    /**
+     * Indexes are built when batch is applied for every list which was already used as ip list,
+     * other lists are indexed on first use. Lookup of already built index doesn't take any locks.
+     */
+    @Override
+    public IpRangeIndex getIpRangeIndexFromNamespacedList(String name) {
+        Map<String, IpRangeIndex> indexes = ipRangeIndexes;
+        IpRangeIndex index = indexes.get(name);
+        if (index == null) {
+            index = indexes.computeIfAbsent(name, this::buildIpRangeIndex);
+        }
+        return index;
+    }
+
+    private IpRangeIndex buildIpRangeIndex(String name) {
+        return IpRangeIndex.of(toIpAddressListConverter.convert(name));
+    }
+
+    private Map<String, IpRangeIndex> buildIpRangeIndexes(Collection<String> names, NamespacedListsBatch namespacedListsBatch) {
+        NamespacedListToIpAddressListConverter converter = new NamespacedListToIpAddressListConverter(name -> {
+            Set<String> values = namespacedListsBatch.getNamespacedLists().get(name);
+            return values == null ? Collections.emptySet() : values;
+        });
+        Map<String, IpRangeIndex> indexes = new ConcurrentHashMap<>();
+        for (String name : names) {
+            indexes.put(name, IpRangeIndex.of(converter.convert(name)));
+        }
+        return indexes;
+    }
+
+    /**
+     * Same as ip indexes, folded values are prepared when batch is applied for lists which were already
+     * looked up ignoring case and on first use for other lists.
+     */
+    @Override
+    public Set<String> getNamespacedListValuesIgnoreCase(String name) {
+        Map<String, Set<String>> values = ignoreCaseValues;
+        Set<String> result = values.get(name);
+        if (result == null) {
+            result = values.computeIfAbsent(name, listName -> IgnoreCase.foldAll(getNamespacedListValues(listName)));
+        }
+        return result;
+    }
+
+    private Map<String, Set<String>> buildIgnoreCaseValues(Collection<String> names, NamespacedListsBatch namespacedListsBatch) {
+        Map<String, Set<String>> result = new ConcurrentHashMap<>();
+        for (String name : names) {
+            Set<String> values = namespacedListsBatch.getNamespacedLists().get(name);
+            result.put(name, values == null ? Collections.emptySet() : IgnoreCase.foldAll(values));
+        }
+        return result;
+    }
+
     @Override
     public NamespacedListsBatch getNamespacedListsBatch() {
         lock.readLock().lock();
@@ -196,15 +396,66 @@ public class NamespacedListsHolder implements IDataStoreAwareNamespacedListsHold
     }
 
     public void setNamespacedListsBatch(NamespacedListsBatch namespacedListsBatch) {
+        setNamespacedListsBatch(namespacedListsBatch, Collections.emptyMap());
+    }
+
+    private void setNamespacedListsBatch(NamespacedListsBatch namespacedListsBatch, Map<String, IpRangeIndex> readyIpRangeIndexes) {
+        setNamespacedListsBatch(namespacedListsBatch, Collections.emptyMap(), name -> true, readyIpRangeIndexes);
+    }
+
+    /**
+     * Batch is applied copy-on-write: ip indexes and folded values of changed lists are rebuilt aside,
+     * the rest are carried over as is, then everything is swapped at once.
+     *
+     * @param isChanged tells which lists have changed or are removed since current batch
+     * @param readyIpRangeIndexes indexes which are already built for new batch
+     */
+    private void setNamespacedListsBatch(NamespacedListsBatch namespacedListsBatch, Map<String, Long> versions,
+                                         Predicate<String> isChanged, Map<String, IpRangeIndex> readyIpRangeIndexes) {
+        Map<String, IpRangeIndex> currentIpRangeIndexes = ipRangeIndexes;
+        Set<String> notIndexed = currentIpRangeIndexes.keySet().stream()
+            .filter(isChanged.and(name -> !readyIpRangeIndexes.containsKey(name)))
+            .collect(Collectors.toSet());
+        Map<String, IpRangeIndex> newIpRangeIndexes = buildIpRangeIndexes(notIndexed, namespacedListsBatch);
+        currentIpRangeIndexes.forEach((name, index) -> {
+            if (!isChanged.test(name)) {
+                newIpRangeIndexes.put(name, index);
+            }
+        });
+        newIpRangeIndexes.putAll(readyIpRangeIndexes);
+
+        Map<String, Set<String>> currentIgnoreCaseValues = ignoreCaseValues;
+        Map<String, Set<String>> newIgnoreCaseValues = buildIgnoreCaseValues(
+            currentIgnoreCaseValues.keySet().stream().filter(isChanged).collect(Collectors.toSet()), namespacedListsBatch);
+        currentIgnoreCaseValues.forEach((name, values) -> {
+            if (!isChanged.test(name)) {
+                newIgnoreCaseValues.put(name, values);
+            }
+        });
+
         lock.writeLock().lock();
         try {
             this.namespacedListsBatch = namespacedListsBatch;
-            ipAddressesCache.clear();
+            this.namespacedListsVersions = versions;
+            synchronized (ipAddressesCache) {
+                ipAddressesCache.keySet().removeIf(isChanged);
+            }
+            ipRangeIndexes = newIpRangeIndexes;
+            ignoreCaseValues = newIgnoreCaseValues;
         } finally {
             lock.writeLock().unlock();
         }
     }
 
+    private Map<String, Long> getNamespacedListsVersions() {
+        lock.readLock().lock();
+        try {
+            return namespacedListsVersions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     public static class NamespacedListToIpAddressListConverter {
         private Function<String, Set<String>> getNamespacedListValues;
 
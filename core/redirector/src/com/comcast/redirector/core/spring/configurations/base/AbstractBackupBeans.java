@@ -53,7 +53,7 @@ public abstract class AbstractBackupBeans {
             if (StringUtils.isBlank(basePath)) {
                 log.error("MISSING CONFIGURATION PARAMETER: backupBasePath");
             }
-            return new FileSystemBackupManagerFactory(new FileSystemBackupFiles(appName, basePath));
+            return new FileSystemBackupManagerFactory(new FileSystemBackupFiles(appName, basePath), config.isBackupFsyncEnabled());
         }
 
         return null;
@@ -21,10 +21,10 @@ import com.comcast.redirector.core.modelupdate.StacksChangePoller;
 import com.comcast.redirector.core.IDynamicAppsAwareRedirectorFactory;
 import com.comcast.redirector.core.applications.ApplicationsManager;
 import com.comcast.redirector.core.applications.IApplicationsManager;
+import com.comcast.redirector.core.balancer.serviceprovider.weight.WeightedRandomStrategy;
 import com.comcast.redirector.core.config.ZKConfig;
 import com.comcast.redirector.core.engine.IRedirector;
 import com.comcast.redirector.core.modelupdate.DataChangePoller;
-import com.comcast.redirector.core.modelupdate.IDataChangePoller;
 import com.comcast.redirector.core.spring.AppScope;
 import com.comcast.redirector.core.spring.AppsContextHolder;
 import com.comcast.redirector.dataaccess.client.IDataSourceConnector;
@@ -38,6 +38,7 @@ import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.framework.imps.GzipCompressionProvider;
 import org.apache.curator.retry.RetryNTimes;
 import org.apache.curator.x.discovery.ProviderStrategy;
+import org.apache.curator.x.discovery.strategies.RandomStrategy;
 import org.apache.curator.x.discovery.strategies.RoundRobinStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,7 +60,13 @@ public abstract class AbstractCommonBeans {
 
     @Bean
     public ProviderStrategy<MetaData> providerStrategy() {
-        return new RoundRobinStrategy<>();
+        String strategy = config().getZooKeeperProviderStrategy();
+        if ("random".equalsIgnoreCase(strategy)) {
+            return new RandomStrategy<>();
+        } else if ("roundrobin".equalsIgnoreCase(strategy)) {
+            return new RoundRobinStrategy<>();
+        }
+        return new WeightedRandomStrategy<>();
     }
 
     @Bean
@@ -110,7 +117,7 @@ public abstract class AbstractCommonBeans {
     }
 
     @Bean
-    public IDataChangePoller dataChangePoller() {
+    public DataChangePoller dataChangePoller() {
         return new DataChangePoller(dataChangePollerWebServiceClient());
     }
 
@@ -131,6 +138,9 @@ public abstract class AbstractCommonBeans {
                     config.isCacheHosts(),
                     stacksChangePoller()::initStacksPolling
             );
+            if (config.isDataChangeWatchEnabled()) {
+                dataChangePoller().watchDataChanges(zookeeperConnector);
+            }
 
             zookeeperConnector.connect();
         } catch (Exception e) {
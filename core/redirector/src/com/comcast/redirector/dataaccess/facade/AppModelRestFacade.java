@@ -202,7 +202,8 @@ public class AppModelRestFacade extends AbstractModelFacade implements IAppModel
                 this::getCurrentModelVersion,
                 this::setCurrentModelVersion,
                 this::setNextModelVersion,
-                appName);
+                appName,
+                PathHelper.getPathHelper(EntityType.MODEL_CHANGED, connector.getBasePath()).getPathByService(appName));
     }
 
     @Override
@@ -213,7 +214,8 @@ public class AppModelRestFacade extends AbstractModelFacade implements IAppModel
                 this::getCurrentStacksVersion,
                 this::setCurrentStacksVersion,
                 null /* next Stack Version */,
-                appName );
+                appName,
+                PathHelper.getPathHelper(EntityType.STACKS_RELOAD, connector.getBasePath()).getPathByService(appName));
     }
 
     @Override
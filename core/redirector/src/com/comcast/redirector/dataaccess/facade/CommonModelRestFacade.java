@@ -32,6 +32,7 @@ import com.comcast.redirector.core.config.ZKConfig;
 import com.comcast.redirector.core.modelupdate.IDataChangePoller;
 import com.comcast.redirector.core.modelupdate.NewVersionHandler;
 import com.comcast.redirector.dataaccess.EntityType;
+import com.comcast.redirector.dataaccess.PathHelper;
 import com.comcast.redirector.dataaccess.client.IDataSourceConnector;
 import com.comcast.redirector.dataaccess.client.RestDataSourceExeption;
 import com.comcast.redirector.dataaccess.dao.*;
@@ -90,7 +91,8 @@ public class CommonModelRestFacade extends AbstractModelFacade implements ICommo
     public Collection<NamespacedList> getAllNamespacedLists() {
         ThreadLocalLogger.setExecutionFlow("requestingAllNamespcedLists");
         try {
-            Namespaces namespaces = webServiceClient.getRequest(Namespaces.class, concatEndpointAndVersion(nextNamespacedListsVersion, RedirectorConstants.NAMESPACE_CONTROLLER_PATH, "getAllNamespacedLists"));
+            // JSON unmarshaller reads whole response into memory before parsing, XML one parses it while reading
+            Namespaces namespaces = webServiceClient.getRequest(Namespaces.class, concatEndpointAndVersion(nextNamespacedListsVersion, RedirectorConstants.NAMESPACE_CONTROLLER_PATH, "getAllNamespacedLists"), MediaType.APPLICATION_XML);
             if (namespaces != null) {
                 return namespaces.getNamespaces();
             }
@@ -100,11 +102,25 @@ public class CommonModelRestFacade extends AbstractModelFacade implements ICommo
         return null;
     }
     
+    @Override
+    public Collection<NamespacedList> getAllNamespacedListsVersions() {
+        ThreadLocalLogger.setExecutionFlow("requestingNamespcedListsVersions");
+        try {
+            Namespaces namespaces = webServiceClient.getRequest(Namespaces.class, concatEndpointAndVersion(nextNamespacedListsVersion, RedirectorConstants.NAMESPACE_CONTROLLER_PATH, "getAllNamespacedListsWithoutValues"));
+            if (namespaces != null) {
+                return namespaces.getNamespaces() == null ? Collections.emptyList() : namespaces.getNamespaces();
+            }
+        } catch (RestDataSourceExeption e) {
+            log.error("failed to obtain namespaced lists versions", e);
+        }
+        return null;
+    }
+
     @Override
     public NamespacedList getNamespacedList(String namespacedListName) {
         ThreadLocalLogger.setExecutionFlow("requestingNamespcedList");
         try {
-            return webServiceClient.getRequest(NamespacedList.class, concatEndpointAndVersion(nextNamespacedListsVersion, RedirectorConstants.NAMESPACE_CONTROLLER_PATH, "getOne", namespacedListName));
+            return webServiceClient.getRequest(NamespacedList.class, concatEndpointAndVersion(nextNamespacedListsVersion, RedirectorConstants.NAMESPACE_CONTROLLER_PATH, "getOne", namespacedListName), MediaType.APPLICATION_XML);
         } catch (RestDataSourceExeption e) {
             log.error("failed to obtain namespaced list", e);
             return null;
@@ -124,7 +140,8 @@ public class CommonModelRestFacade extends AbstractModelFacade implements ICommo
                 this::getCurrentNamespacedListsVersion,
                 this::setCurrentNamespacedListsVersion,
                 this::setNextNamespacedListsVersion,
-                null /* applicationName */);
+                null /* applicationName */,
+                PathHelper.getPathHelper(EntityType.NAMESPACED_LIST, connector.getBasePath()).getPath());
     }
     @Override
     public RedirectorConfig getRedirectorConfig() {
@@ -28,6 +28,7 @@ import java.util.Set;
 
 public interface ICommonModelFacade extends IModelFacade {
     Collection<NamespacedList> getAllNamespacedLists();
+    Collection<NamespacedList> getAllNamespacedListsVersions();
     NamespacedList getNamespacedList(String namespacedListName);
     int getNamespacedListsVersion();
     Integer getNextNamespacedListsVersion();
@@ -11,35 +11,47 @@ import com.comcast.redirector.common.util.UrlUtils;
 import com.comcast.redirector.dataaccess.client.RestDataSourceExeption;
 import com.comcast.redirector.metrics.Metrics;
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static com.comcast.redirector.common.RedirectorConstants.Logging.OPERATION_RESULT;
 
 @Component
-public class WebServiceClient implements IWebServiceClient {
+public class WebServiceClient implements IWebServiceClient, Closeable {
     private static final ThreadLocalLogger log = new ThreadLocalLogger(WebServiceClient.class);
     
     private static final int DEFAULT_CONNECTION_TIMEOUT = 2000;
     private static final int DEFAULT_READ_TIMEOUT = 10000;
     private static final int MAX_CONN_TOTAL = 1000;
     private static final int MAX_CONN_PER_ROUTE = 500;
+    // used when web service doesn't tell how long it keeps idle connection open
+    private static final long DEFAULT_KEEP_ALIVE_MS = TimeUnit.SECONDS.toMillis(60);
+    private static final long MAX_IDLE_TIME_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 5000;
     private static final String UNKNOWN = "unknown";
+    private static final String REQUEST_LATENCY = "webServiceClient.request";
     
     @Autowired(required = false)
     IAuthHeaderProducer authHeaderProducer;
@@ -47,7 +59,10 @@ public class WebServiceClient implements IWebServiceClient {
     @Autowired
     private Serializer jsonSerializer;
     
-    private final HttpClient httpClient;
+    @Autowired
+    private Serializer xmlSerializer;
+    
+    private final CloseableHttpClient httpClient;
     
     private String baseUri;
     
@@ -66,11 +81,21 @@ public class WebServiceClient implements IWebServiceClient {
                 .setConnectionRequestTimeout(requestTimeout)
                 .setSocketTimeout(socketTimeout).build();
         
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MaxConnTotal);
+        connectionManager.setDefaultMaxPerRoute(MaxConnPerRoute);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+
         this.baseUri = baseUri;
         httpClient = HttpClientBuilder.create()
                 .setDefaultRequestConfig(requestConfig)
-                .setMaxConnTotal(MaxConnTotal)
-                .setMaxConnPerRoute(MaxConnPerRoute)
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? keepAlive : DEFAULT_KEEP_ALIVE_MS;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(MAX_IDLE_TIME_MS, TimeUnit.MILLISECONDS)
                 .build();
     }
     
@@ -100,6 +125,7 @@ public class WebServiceClient implements IWebServiceClient {
     
     private <T> T executeRequest(HttpUriRequest httpRequest, Class<T> responseClassType) {
         long reqTs = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         try {
             httpRequest.addHeader(HttpHeaders.USER_AGENT, RedirectorConstants.USER_AGENT_STRING);
             log.setExecutionFlow(ExecutionStep.requestToWS.toString());
@@ -114,7 +140,6 @@ public class WebServiceClient implements IWebServiceClient {
                 if (headers.length > 0) {
                     mimeType = ContentType.parse(headers[0].getValue()).getMimeType();
                 }
-                byte[] data = EntityUtils.toByteArray(response.getEntity());
                 long duration = System.currentTimeMillis() - reqTs;
                 log.setExecutionFlow(ExecutionStep.responseFromWS.toString());
 
@@ -122,7 +147,8 @@ public class WebServiceClient implements IWebServiceClient {
                     log.info(OPERATION_RESULT + OperationResult.RequestToWsSuccessful + ", url=" + httpRequest.getURI()
                             + ", method=" + httpRequest.getMethod() + ", status=" + statusCode + ", duration=" + duration);
 
-                    return parseResponseBytes(responseClassType, data, mimeType, httpRequest.getURI().toString());
+                    // body is parsed while it's being read, the rest of it is consumed by client so connection is reused
+                    return parseResponse(responseClassType, response.getEntity(), mimeType, httpRequest.getURI().toString());
                 }
                 String errorMessage = OPERATION_RESULT + OperationResult.RequestToWsFailed + ", url=" + httpRequest.getURI() + ", method=" + httpRequest.getMethod() + ", status=" + statusCode + ", duration=" + duration;
                 throw new RestDataSourceExeption(errorMessage);
@@ -143,26 +169,28 @@ public class WebServiceClient implements IWebServiceClient {
             long duration = System.currentTimeMillis() - reqTs;
             String errorMessage = "url=" + httpRequest.getURI() + " " + OPERATION_RESULT + OperationResult.RequestToWsFailed + " duration=" + duration;
             throw new RestDataSourceExeption(errorMessage, e.getCause());
+        } finally {
+            Metrics.reportLatencySince(REQUEST_LATENCY, startNanos);
         }
     }
     
-    private <T> T parseResponseBytes(Class<T> responseClassType, byte[] bytes, String mimeType, String url) {
+    private <T> T parseResponse(Class<T> responseClassType, HttpEntity entity, String mimeType, String url) throws IOException {
         log.setExecutionFlow(ExecutionStep.parsingData.toString());
-        if (bytes != null && bytes.length > 0) {
+        InputStream content = nonEmptyContent(entity);
+        if (content != null) {
             try {
                 if (mimeType.equalsIgnoreCase(MediaType.TEXT_PLAIN)) {
+                    String value = readText(content);
                     if (responseClassType.getSimpleName().equals(Integer.class.getSimpleName())) {
-                        return (T) Integer.valueOf(new String(bytes));
+                        return (T) Integer.valueOf(value);
                     }
                     if (responseClassType.getSimpleName().equals(Boolean.class.getSimpleName())) {
-                        return (T) Boolean.valueOf(new String(bytes));
+                        return (T) Boolean.valueOf(value);
                     }
                 } else if (mimeType.equalsIgnoreCase(MediaType.APPLICATION_JSON)) {
-                    return jsonSerializer.deserialize(bytes, responseClassType);
-                } else if (mimeType.equalsIgnoreCase(MediaType.APPLICATION_XML)){
-                    String errorMessage = OPERATION_RESULT + OperationResult.UnsupportedMimeType + ", url=" + url;
-                    throw new RestDataSourceExeption(errorMessage);
-
+                    return jsonSerializer.deserialize(content, responseClassType);
+                } else if (mimeType.equalsIgnoreCase(MediaType.APPLICATION_XML)) {
+                    return xmlSerializer.deserialize(content, responseClassType);
                 } else {
                     String errorMessage = OPERATION_RESULT + OperationResult.UnknownMimeType + ", url=" + url;
                     throw new RestDataSourceExeption(errorMessage);
@@ -176,7 +204,33 @@ public class WebServiceClient implements IWebServiceClient {
         String errorMessage = OPERATION_RESULT + OperationResult.EmptyData + ", url=" + url;
         throw new RestDataSourceExeption(errorMessage);
     }
-    
+
+    /**
+     * @return content of the entity or null if there is none. Length of chunked content is unknown until
+     * it's read, so first byte is read ahead
+     */
+    private static InputStream nonEmptyContent(HttpEntity entity) throws IOException {
+        if (entity == null || entity.getContentLength() == 0) {
+            return null;
+        }
+        PushbackInputStream content = new PushbackInputStream(entity.getContent());
+        int first = content.read();
+        if (first < 0) {
+            return null;
+        }
+        content.unread(first);
+        return content;
+    }
+
+    private static String readText(InputStream content) throws IOException {
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        for (int read = content.read(buffer); read >= 0; read = content.read(buffer)) {
+            text.write(buffer, 0, read);
+        }
+        return new String(text.toByteArray());
+    }
+
     private void addAuthHeadersToRequest(HttpRequestBase request) {
         if (authHeaderProducer == null) {
             return;
@@ -186,4 +240,9 @@ public class WebServiceClient implements IWebServiceClient {
             request.addHeader(headerName, authHeaders.get(headerName));
         }
     }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
 }
\ No newline at end of file
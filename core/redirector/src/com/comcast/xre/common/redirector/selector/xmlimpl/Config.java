@@ -32,7 +32,7 @@ public class Config implements ZKConfig {
     private int zooKeeperSessionTimeout = 60 * 1000;       // milliseconds
     private int zooKeeperWaitTimeBeforeReconnectMin = 1 * 60; // seconds
     private int zooKeeperWaitTimeBeforeReconnectMax = 10 * 60; // seconds
-    private String zooKeeperProviderStrategy = "RoundRobin";
+    private String zooKeeperProviderStrategy = "WeightedRandom";
     private String serviceName = ZKPathHelperConstants.XRE_GUIDE;
     private int appsRetrievingIntervalInSeconds = 300;
 
@@ -43,6 +43,7 @@ public class Config implements ZKConfig {
     private String fallbackUrn = "shell";
     private Integer fallbackIPProtocolVersion = 4;
     private String backupBasePath;
+    private boolean backupFsyncEnabled = true;
     private int minHosts = 1;
     private Boolean considerPercents = false;
     private int appMinHosts = 1;
@@ -52,6 +53,7 @@ public class Config implements ZKConfig {
     private int discoveryUpdatePeriod = 30; //seconds
     private int discoveryPullInterval = 5000;
     private int discoveryPullWorkersPoolSize = 20;
+    private int discoveryBackupIntervalMs = 1000;
     private String excludedAppsForStackAutoDiscovery = "xreGuide";
     private int defaultWeightOfTheNode = 5;
     private int maxWeightOfTheNode = 100;
@@ -60,6 +62,23 @@ public class Config implements ZKConfig {
     // communication endpoint (HTTP, XMPP)
     private Boolean enableCommunicationEndpoint = true;
     private Integer communicationEndpointPort = 10601;
+    // HTTP endpoint Jetty server, defaults are the ones of Jetty itself. -1 means unbounded queue
+    // and number of acceptors and selectors chosen by Jetty from number of CPUs
+    private Integer jettyMinThreads = 8;
+    private Integer jettyMaxThreads = 200;
+    private Integer jettyMaxQueuedRequests = -1;
+    private Integer jettyAcceptors = -1;
+    private Integer jettySelectors = -1;
+    private Integer jettyAcceptQueueSize = 0;
+    private Integer jettyIdleTimeoutMs = 30000;
+    private Integer jettyOutputBufferSize = 32768;
+    private Integer jettyRequestHeaderSize = 8192;
+    private Integer jettyResponseHeaderSize = 8192;
+
+    // HTTP endpoint access log: number of entries waiting to be written and what request thread does when
+    // all of them are taken, DROP (entry is dropped and counted) or BLOCK (request waits for free entry)
+    private Integer accessLogBufferSize = 8192;
+    private String accessLogOverflowPolicy = "DROP";
 
     private Boolean endToEndMode = false;
 
@@ -83,6 +102,7 @@ public class Config implements ZKConfig {
     private Integer modelPollIntervalSeconds = 60;
     private Integer stacksRefreshPollIntervalSeconds = 60;
     private Integer nsListsPollIntervalSeconds = 60;
+    private boolean dataChangeWatchEnabled = true;
     private Integer pollingClientsMaxNumberOfConnectionsPerRoute = 2;
     private Integer pollingClientsMaxNumberOfConnectionsTotal = 10;
 
@@ -259,6 +279,15 @@ public class Config implements ZKConfig {
         this.backupBasePath = backupBasePath;
     }
 
+    @Override
+    public boolean isBackupFsyncEnabled() {
+        return backupFsyncEnabled;
+    }
+
+    public void setBackupFsyncEnabled(boolean backupFsyncEnabled) {
+        this.backupFsyncEnabled = backupFsyncEnabled;
+    }
+
     @Override
     public int getMinHosts() {
         return minHosts;
@@ -362,6 +391,102 @@ public class Config implements ZKConfig {
         this.communicationEndpointPort = communicationEndpointPort;
     }
 
+    public Integer getJettyMinThreads() {
+        return jettyMinThreads;
+    }
+
+    public void setJettyMinThreads(Integer jettyMinThreads) {
+        this.jettyMinThreads = jettyMinThreads;
+    }
+
+    public Integer getJettyMaxThreads() {
+        return jettyMaxThreads;
+    }
+
+    public void setJettyMaxThreads(Integer jettyMaxThreads) {
+        this.jettyMaxThreads = jettyMaxThreads;
+    }
+
+    public Integer getJettyMaxQueuedRequests() {
+        return jettyMaxQueuedRequests;
+    }
+
+    public void setJettyMaxQueuedRequests(Integer jettyMaxQueuedRequests) {
+        this.jettyMaxQueuedRequests = jettyMaxQueuedRequests;
+    }
+
+    public Integer getJettyAcceptors() {
+        return jettyAcceptors;
+    }
+
+    public void setJettyAcceptors(Integer jettyAcceptors) {
+        this.jettyAcceptors = jettyAcceptors;
+    }
+
+    public Integer getJettySelectors() {
+        return jettySelectors;
+    }
+
+    public void setJettySelectors(Integer jettySelectors) {
+        this.jettySelectors = jettySelectors;
+    }
+
+    public Integer getJettyAcceptQueueSize() {
+        return jettyAcceptQueueSize;
+    }
+
+    public void setJettyAcceptQueueSize(Integer jettyAcceptQueueSize) {
+        this.jettyAcceptQueueSize = jettyAcceptQueueSize;
+    }
+
+    public Integer getJettyIdleTimeoutMs() {
+        return jettyIdleTimeoutMs;
+    }
+
+    public void setJettyIdleTimeoutMs(Integer jettyIdleTimeoutMs) {
+        this.jettyIdleTimeoutMs = jettyIdleTimeoutMs;
+    }
+
+    public Integer getJettyOutputBufferSize() {
+        return jettyOutputBufferSize;
+    }
+
+    public void setJettyOutputBufferSize(Integer jettyOutputBufferSize) {
+        this.jettyOutputBufferSize = jettyOutputBufferSize;
+    }
+
+    public Integer getJettyRequestHeaderSize() {
+        return jettyRequestHeaderSize;
+    }
+
+    public void setJettyRequestHeaderSize(Integer jettyRequestHeaderSize) {
+        this.jettyRequestHeaderSize = jettyRequestHeaderSize;
+    }
+
+    public Integer getJettyResponseHeaderSize() {
+        return jettyResponseHeaderSize;
+    }
+
+    public void setJettyResponseHeaderSize(Integer jettyResponseHeaderSize) {
+        this.jettyResponseHeaderSize = jettyResponseHeaderSize;
+    }
+
+    public Integer getAccessLogBufferSize() {
+        return accessLogBufferSize;
+    }
+
+    public void setAccessLogBufferSize(Integer accessLogBufferSize) {
+        this.accessLogBufferSize = accessLogBufferSize;
+    }
+
+    public String getAccessLogOverflowPolicy() {
+        return accessLogOverflowPolicy;
+    }
+
+    public void setAccessLogOverflowPolicy(String accessLogOverflowPolicy) {
+        this.accessLogOverflowPolicy = accessLogOverflowPolicy;
+    }
+
     @Override
     public Boolean isEndToEndModeEnabled() {
         return endToEndMode;
@@ -395,6 +520,15 @@ public class Config implements ZKConfig {
         this.discoveryPullWorkersPoolSize = discoveryPullWorkersPoolSize;
     }
 
+    @Override
+    public int getDiscoveryBackupIntervalMs() {
+        return discoveryBackupIntervalMs;
+    }
+
+    public void setDiscoveryBackupIntervalMs(int discoveryBackupIntervalMs) {
+        this.discoveryBackupIntervalMs = discoveryBackupIntervalMs;
+    }
+
     @Override
     public String getRestBasePath() {
         return this.restBasePath;
@@ -440,6 +574,15 @@ public class Config implements ZKConfig {
         this.stacksRefreshPollIntervalSeconds = stacksRefreshPollIntervalSeconds;
     }
 
+    @Override
+    public boolean isDataChangeWatchEnabled() {
+        return dataChangeWatchEnabled;
+    }
+
+    public void setDataChangeWatchEnabled(boolean dataChangeWatchEnabled) {
+        this.dataChangeWatchEnabled = dataChangeWatchEnabled;
+    }
+
     @Override
     public Integer getPollingClientsMaxNumberOfConnectionsPerRoute() {
         return pollingClientsMaxNumberOfConnectionsPerRoute;
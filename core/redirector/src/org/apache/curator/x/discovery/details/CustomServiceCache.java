@@ -20,6 +20,8 @@ import com.comcast.redirector.common.RedirectorConstants;
 import com.comcast.redirector.common.IpProtocolVersion;
 import com.comcast.tvx.cloud.MetaData;
 import com.comcast.redirector.core.balancer.serviceprovider.weight.IInstanceWeigher;
+import com.comcast.redirector.core.balancer.serviceprovider.weight.IWeightedInstanceProvider;
+import com.comcast.redirector.core.balancer.serviceprovider.weight.WeightedInstanceSelector;
 import com.comcast.redirector.core.balancer.serviceprovider.backup.StackSnapshot;
 import com.comcast.redirector.core.balancer.util.ServiceProviderUtils;
 import com.comcast.redirector.core.balancer.serviceprovider.stacks.IDiscoveryBackupManager;
@@ -43,12 +45,14 @@ import java.util.concurrent.ThreadFactory;
  * To get detailed information we have to extend ServiceCacheImpl, as long as it implements {@link org.apache.curator.framework.recipes.cache.PathChildrenCacheListener}
  * and passes itself to underlying {@link org.apache.curator.framework.recipes.cache.PathChildrenCache} as listener.
  */
-public class CustomServiceCache<T> extends ServiceCacheImplProxy<T> {
+public class CustomServiceCache<T> extends ServiceCacheImplProxy<T> implements IWeightedInstanceProvider<T> {
 
     private static Logger log = LoggerFactory.getLogger(CustomServiceCache.class);
 
     private static final String IP_PORT_SEPARATOR = ":"; // registered service node has name ip:port
     private IInstanceWeigher<T> weighter;
+    private volatile WeightedInstanceSelector<T> selector = WeightedInstanceSelector.empty();
+    private volatile Runnable instancesChangeListener = () -> {};
 
     enum Action {
         REGISTERED("registered"),
@@ -88,6 +92,12 @@ public class CustomServiceCache<T> extends ServiceCacheImplProxy<T> {
         this.discoveryStacksBackupManager = discoveryStacksBackupManager;
     }
 
+    @Override
+    public void start() throws Exception {
+        super.start();
+        rebuildSelector();
+    }
+
     @Override
     public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception {
         try {
@@ -95,10 +105,11 @@ public class CustomServiceCache<T> extends ServiceCacheImplProxy<T> {
         } catch (Exception e) {
             log.error("Issue receiving ZkEventType={} for zkStackPath={}", event.getType(), stackPath, e);
         } finally {
+            rebuildSelector();
             if (EVENTS_TO_LISTEN.contains(event.getType())) {
                 switch (event.getType()) {
                     case CHILD_REMOVED:
-                        eventFromClient(event.getData().getPath(), getInstances(), Action.UNREGISTERED);
+                        eventFromClient(event.getData().getPath(), selector.getInstances(), Action.UNREGISTERED);
                         break;
                     case INITIALIZED:
                         List<String> paths = new ArrayList<>();
@@ -109,27 +120,42 @@ public class CustomServiceCache<T> extends ServiceCacheImplProxy<T> {
                             }
                         }
                         log.info("Dynamic Service Discovery cache for {} is initialized. Stacks.json will be written of FS", stackPath);
-                        eventFromClient(paths, getInstances(), Action.INITIALIZED);
+                        eventFromClient(paths, selector.getInstances(), Action.INITIALIZED);
                         break;
                     default:
-                        eventFromClient(event.getData().getPath(), getInstances(), Action.REGISTERED);
+                        eventFromClient(event.getData().getPath(), selector.getInstances(), Action.REGISTERED);
                 }
             }
         }
     }
 
+    /**
+     * @return instances repeated according to their weights. Weights are precomputed on cache change and the list
+     * is a view over them, so round robin strategy goes through instances in proportion to weights without copying
+     */
     @Override
     public List<ServiceInstance<T>> getInstances() {
-        List<ServiceInstance<T>> instances = new ArrayList<>();
-        for (ServiceInstance<T> si : super.getInstances()) {
-            int weight = weighter.getWeight(si);
-            for (int i = 0; i < weight; i++) {
-                instances.add(si);
-            }
-        }
+        return selector.getWeightedInstances();
+    }
+
+    /**
+     * @return random instance chosen with probability proportional to its weight or null if cache has no instances
+     */
+    @Override
+    public ServiceInstance<T> getWeightedRandomInstance() {
+        return selector.select();
+    }
+
+    /**
+     * @param listener is called each time selector is rebuilt on cache change
+     */
+    void setInstancesChangeListener(Runnable listener) {
+        instancesChangeListener = listener;
+    }
 
-        Collections.shuffle(instances, new Random(System.currentTimeMillis()));
-        return instances;
+    private void rebuildSelector() {
+        selector = WeightedInstanceSelector.of(super.getInstances(), weighter);
+        instancesChangeListener.run();
     }
 
     private void writeBackup(String path, final String addressIPV6, Action action, String weight) {
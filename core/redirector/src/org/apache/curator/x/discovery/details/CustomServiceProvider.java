@@ -45,7 +45,7 @@ import java.util.concurrent.ThreadFactory;
      private final static Logger log = LoggerFactory.getLogger(CustomServiceProvider.class);
 
      private final String serviceName;
-     private final ServiceCache<T> cache;
+     private final CustomServiceCache<T> cache;
      private final InstanceProvider<T> instanceProvider;
      private final ServiceDiscoveryImpl<T> discovery;
      private final ProviderStrategy<T> providerStrategy;
@@ -67,7 +67,8 @@ import java.util.concurrent.ThreadFactory;
          cache = new CustomServiceCache<>(discovery, basePath, serviceName, threadFactory, discoveryStacksBackupManager, weighter);
 
          ArrayList<InstanceFilter<T>> localFilters = Lists.newArrayList(filters);
-         instanceProvider = new FilteredInstanceProvider<>(cache, localFilters);
+         // without filters cache itself is given to strategy, so weighted strategy can use its precomputed weights
+         instanceProvider = localFilters.isEmpty() ? cache : new FilteredInstanceProvider<>(cache, localFilters);
      }
 
      /**
@@ -118,6 +119,13 @@ import java.util.concurrent.ThreadFactory;
          return providerStrategy.getInstance(instanceProvider);
      }
 
+     /**
+      * @param listener is called each time cached instances change
+      */
+     public void setInstancesChangeListener(Runnable listener) {
+         cache.setInstancesChangeListener(listener);
+     }
+
      @Override
      public void noteError(ServiceInstance<T> instance) {
          log.warn("host {} is down", instance);
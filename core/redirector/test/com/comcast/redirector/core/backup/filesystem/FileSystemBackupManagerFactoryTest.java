@@ -0,0 +1,187 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.comcast.redirector.core.backup.filesystem;
+
+import com.comcast.redirector.core.backup.IBackupManager;
+import com.comcast.redirector.core.backup.IBackupManagerFactory.BackupEntity;
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+import com.tngtech.java.junit.dataprovider.UseDataProvider;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(DataProviderRunner.class)
+public class FileSystemBackupManagerFactoryTest {
+    private static final String APP_NAME = "xreGuide";
+    private static final String OLD_BACKUP = "<selectServer>" + StringUtils.repeat("old", 1000) + "</selectServer>";
+    private static final String NEW_BACKUP = "<selectServer>" + StringUtils.repeat("new", 2000) + "</selectServer>";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileSystemBackupFiles backupFiles;
+
+    @Before
+    public void setUp() throws Exception {
+        backupFiles = new FileSystemBackupFiles(APP_NAME, folder.getRoot().getAbsolutePath());
+    }
+
+    @DataProvider
+    public static Object[][] bytesBeforeCrash() {
+        return new Object[][] {{0}, {1}, {NEW_BACKUP.length() / 2}, {NEW_BACKUP.length() - 1}};
+    }
+
+    @Test
+    @UseDataProvider("bytesBeforeCrash")
+    public void backupIsNotTruncatedWhenProcessIsKilledDuringWrite(int bytesBeforeCrash) throws Exception {
+        assertTrue(backup(new FileSystemBackupManagerFactory(backupFiles, false), OLD_BACKUP));
+
+        FaultInjectingFileSystem fileSystem = new FaultInjectingFileSystem().crashAfterBytes(bytesBeforeCrash);
+        assertFalse(backup(new FileSystemBackupManagerFactory(backupFiles, fileSystem, true), NEW_BACKUP));
+        assertTrue(fileSystem.isCrashed());
+
+        assertEquals(OLD_BACKUP, loadAfterRestart());
+    }
+
+    @Test
+    public void backupIsNotTruncatedWhenProcessIsKilledBeforeMove() throws Exception {
+        assertTrue(backup(new FileSystemBackupManagerFactory(backupFiles, false), OLD_BACKUP));
+
+        FaultInjectingFileSystem fileSystem = new FaultInjectingFileSystem().crashOnMove();
+        assertFalse(backup(new FileSystemBackupManagerFactory(backupFiles, fileSystem, true), NEW_BACKUP));
+
+        assertEquals(OLD_BACKUP, loadAfterRestart());
+    }
+
+    @Test
+    public void writingInPlaceLeavesTruncatedFile() throws Exception {
+        // makes sure the crash of file system is the one which breaks non atomic writes
+        Path file = folder.getRoot().toPath().resolve("selectserver.xml");
+        Files.write(file, OLD_BACKUP.getBytes("UTF-8"));
+
+        FaultInjectingFileSystem fileSystem = new FaultInjectingFileSystem().crashAfterBytes(NEW_BACKUP.length() / 2);
+        try {
+            Files.write(fileSystem.getPath(file.toString()), NEW_BACKUP.getBytes("UTF-8"));
+            fail("process should be killed");
+        } catch (IOException expected) {
+        }
+
+        assertEquals(NEW_BACKUP.substring(0, NEW_BACKUP.length() / 2), new String(Files.readAllBytes(file), "UTF-8"));
+    }
+
+    @Test
+    public void newBackupReplacesOldOne() throws Exception {
+        FileSystemBackupManagerFactory factory = new FileSystemBackupManagerFactory(backupFiles, new FaultInjectingFileSystem(), true);
+        assertTrue(backup(factory, OLD_BACKUP));
+        assertTrue(backup(factory, NEW_BACKUP));
+
+        assertEquals(NEW_BACKUP, factory.getBackupManager(BackupEntity.FLAVOR_RULES).load());
+        assertEquals(NEW_BACKUP, loadAfterRestart());
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath().resolve(APP_NAME))) {
+            assertEquals("temp files are left", 1, files.count());
+        }
+    }
+
+    @Test
+    public void newBackupFileHasDefaultPermissions() throws Exception {
+        Path plainFile = folder.newFile("plain.xml").toPath();
+        assumeTrue(Files.getFileAttributeView(plainFile, PosixFileAttributeView.class) != null);
+
+        assertTrue(backup(new FileSystemBackupManagerFactory(backupFiles, new FaultInjectingFileSystem(), true), NEW_BACKUP));
+
+        assertEquals(Files.getPosixFilePermissions(plainFile), Files.getPosixFilePermissions(backupFile()));
+    }
+
+    @Test
+    public void permissionsOfBackupFileAreUnchangedByBackup() throws Exception {
+        FileSystemBackupManagerFactory factory = new FileSystemBackupManagerFactory(backupFiles, new FaultInjectingFileSystem(), true);
+        assertTrue(backup(factory, OLD_BACKUP));
+        assumeTrue(Files.getFileAttributeView(backupFile(), PosixFileAttributeView.class) != null);
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw-r--");
+        Files.setPosixFilePermissions(backupFile(), permissions);
+
+        assertTrue(backup(factory, NEW_BACKUP));
+
+        assertEquals(permissions, Files.getPosixFilePermissions(backupFile()));
+    }
+
+    @Test
+    public void absentDataIsNotWritten() throws Exception {
+        FileSystemBackupManagerFactory factory = new FileSystemBackupManagerFactory(backupFiles, false);
+        assertTrue(backup(factory, OLD_BACKUP));
+
+        assertFalse(backup(factory, null));
+        assertFalse(factory.getBackupManager(BackupEntity.FLAVOR_RULES).backupBytes(null).get(5, TimeUnit.SECONDS));
+
+        assertEquals(OLD_BACKUP, loadAfterRestart());
+    }
+
+    @Test(timeout = 10000)
+    public void backupsOfEntityAreCoalescedAndDoNotDelayOtherEntities() throws Exception {
+        FaultInjectingFileSystem fileSystem = new FaultInjectingFileSystem().pauseWritesOf("namespacedlists.json");
+        FileSystemBackupManagerFactory factory = new FileSystemBackupManagerFactory(backupFiles, fileSystem, false);
+        IBackupManager namespacedLists = factory.getBackupManager(BackupEntity.NAMESPACED_LISTS);
+        IBackupManager modelMetadata = factory.getBackupManager(BackupEntity.MODEL_METADATA);
+
+        Future<Boolean> first = namespacedLists.backup("1");
+        fileSystem.awaitPaused();
+        Future<Boolean> second = namespacedLists.backup("2");
+        Future<Boolean> third = namespacedLists.backup("3");
+        assertSame(second, third);
+
+        assertTrue(modelMetadata.backup("metadata").get(5, TimeUnit.SECONDS));
+        assertFalse(first.isDone());
+
+        fileSystem.resume();
+        assertTrue(first.get());
+        assertTrue(third.get());
+        assertEquals("3", namespacedLists.load());
+        assertEquals("metadata", modelMetadata.load());
+        assertEquals("model metadata and two of three namespaced lists are written", 3, fileSystem.getWrittenFiles());
+    }
+
+    private static boolean backup(FileSystemBackupManagerFactory factory, String data) throws Exception {
+        return factory.getBackupManager(BackupEntity.FLAVOR_RULES).backup(data).get(5, TimeUnit.SECONDS);
+    }
+
+    private Path backupFile() {
+        return Paths.get(backupFiles.getFilename(BackupEntity.FLAVOR_RULES));
+    }
+
+    // backup is read the same way by init model chain of restarted process
+    private String loadAfterRestart() {
+        return new FileSystemBackupManagerFactory(backupFiles).getBackupManager(BackupEntity.FLAVOR_RULES).load();
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.core.balancer.serviceprovider;
+
+import com.comcast.redirector.api.model.xrestack.HostIPs;
+import com.comcast.redirector.api.model.xrestack.XreStackPath;
+import com.comcast.redirector.core.balancer.serviceprovider.whitelist.WhiteList;
+import com.comcast.redirector.core.balancer.serviceprovider.whitelist.WhitelistPredicate;
+import com.comcast.redirector.core.balancer.util.ServiceProviderUtils;
+import com.comcast.redirector.core.config.ZKConfig;
+import com.comcast.redirector.core.engine.FilterMode;
+import com.comcast.tvx.cloud.MetaData;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.strategies.RoundRobinStrategy;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AggregateServiceProviderTest {
+    private static final String FLAVOR = "1.40";
+
+    private IFilteredServiceProvider whitelistedStack;
+    private IFilteredServiceProvider otherStack;
+    private List<ServiceInstance<MetaData>> whitelistedInstances;
+    private List<ServiceInstance<MetaData>> otherInstances;
+    private WhitelistPredicate whitelist;
+    private AggregateServiceProvider testee;
+
+    @Before
+    public void setUp() throws Exception {
+        whitelistedInstances = Arrays.asList(buildServiceInstance("1"), buildServiceInstance("2"));
+        otherInstances = Arrays.asList(buildServiceInstance("3"));
+        whitelistedStack = stackProvider("/PO/POC1/" + FLAVOR + "/xreGuide", whitelistedInstances);
+        otherStack = stackProvider("/PO/POC2/" + FLAVOR + "/xreGuide", otherInstances);
+        whitelist = whitelist("/PO/POC1");
+
+        testee = new AggregateServiceProvider(new RoundRobinStrategy<>(), Arrays.asList(whitelistedStack, otherStack), FLAVOR, whitelist);
+    }
+
+    @Test
+    public void instancesAreFilteredByWhitelistAndHaveStackNames() throws Exception {
+        assertEquals(whitelistedInstances, testee.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, whitelist));
+        assertEquals(otherInstances, testee.getAllFilteredInstances(FilterMode.NON_WHITELIST, whitelist));
+        assertEquals(3, testee.getAllFilteredInstances(FilterMode.NO_FILTER, whitelist).size());
+        assertEquals(3, testee.getAllInstances().size());
+
+        assertEquals("/PO/POC2", ServiceProviderUtils.getStackNameFromServiceInstance(testee.getFilteredInstance(FilterMode.NON_WHITELIST, whitelist)));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(whitelistedInstances.contains(testee.getFilteredInstance(FilterMode.WHITELIST_ONLY, whitelist)));
+        }
+    }
+
+    @Test
+    public void snapshotIsRebuiltOnlyWhenWhitelistIsAppliedOrInstancesChange() throws Exception {
+        Collection<ServiceInstance<MetaData>> snapshot = testee.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, whitelist);
+        assertSame(snapshot, testee.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, whitelist));
+
+        WhitelistPredicate newWhitelist = whitelist("/PO/POC2");
+        assertEquals(otherInstances, testee.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, newWhitelist));
+        assertSame(snapshot, testee.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, whitelist));
+
+        testee.applyWhitelist(newWhitelist);
+        snapshot = testee.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, newWhitelist);
+        assertEquals(otherInstances, snapshot);
+        assertSame(snapshot, testee.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, newWhitelist));
+
+        List<ServiceInstance<MetaData>> changedInstances = Arrays.asList(buildServiceInstance("3"), buildServiceInstance("4"));
+        when(otherStack.getAllInstances()).thenReturn(changedInstances);
+        assertSame(snapshot, testee.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, newWhitelist));
+
+        instancesChangeListener(otherStack).run();
+        assertEquals(changedInstances, testee.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, newWhitelist));
+        assertEquals(4, testee.getAllInstances().size());
+    }
+
+    @Test
+    public void instancesOfClosedStaticStackAreNotServed() throws Exception {
+        ZKConfig config = mock(ZKConfig.class);
+        when(config.getDefaultWeightOfTheNode()).thenReturn(1);
+        when(config.getMaxWeightOfTheNode()).thenReturn(1);
+        IFilteredServiceProvider staticStack = new StaticServiceProviderFactory(new RoundRobinStrategy<>(), config)
+            .createServiceProvider(new XreStackPath("/PO/POC1/" + FLAVOR + "/xreGuide"), Arrays.asList(new HostIPs("10.0.0.1", null)));
+        testee = new AggregateServiceProvider(new RoundRobinStrategy<>(), Collections.singletonList(staticStack), FLAVOR, whitelist);
+        assertEquals(1, testee.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, whitelist).size());
+
+        staticStack.close();
+
+        assertTrue(testee.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, whitelist).isEmpty());
+        assertNull(testee.getInstance());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotIsImmutable() throws Exception {
+        testee.getAllInstances().clear();
+    }
+
+    private static Runnable instancesChangeListener(IFilteredServiceProvider provider) {
+        ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+        verify(provider).setInstancesChangeListener(listener.capture());
+        return listener.getValue();
+    }
+
+    private static IFilteredServiceProvider stackProvider(String path, List<ServiceInstance<MetaData>> instances) {
+        IFilteredServiceProvider provider = mock(IFilteredServiceProvider.class);
+        when(provider.getStack()).thenReturn(new XreStackPath(path));
+        when(provider.getAllInstances()).thenReturn(instances);
+        return provider;
+    }
+
+    private static WhitelistPredicate whitelist(String... paths) {
+        WhiteList whiteList = new WhiteList();
+        whiteList.setPaths(Arrays.asList(paths));
+        return new WhitelistPredicate(whiteList);
+    }
+
+    private static ServiceInstance<MetaData> buildServiceInstance(String id) throws Exception {
+        MetaData metaData = new MetaData();
+        metaData.setParameters(new HashMap<>());
+        return ServiceInstance.<MetaData>builder().payload(metaData).name(id).id(id).build();
+    }
+}
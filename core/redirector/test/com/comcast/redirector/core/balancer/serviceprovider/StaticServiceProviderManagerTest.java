@@ -17,6 +17,10 @@
 package com.comcast.redirector.core.balancer.serviceprovider;
 
 import com.comcast.redirector.api.model.xrestack.StackData;
+import com.comcast.redirector.core.balancer.serviceprovider.whitelist.IWhitelistPredicate;
+import com.comcast.redirector.core.balancer.serviceprovider.whitelist.WhiteList;
+import com.comcast.redirector.core.balancer.serviceprovider.whitelist.WhitelistPredicate;
+import com.comcast.redirector.core.engine.FilterMode;
 import com.comcast.xre.common.redirector.selector.xmlimpl.Config;
 import org.apache.curator.x.discovery.strategies.RoundRobinStrategy;
 import org.junit.Assert;
@@ -52,4 +56,23 @@ public class StaticServiceProviderManagerTest {
         Assert.assertNotNull(testee.getServiceProviderForFlavorAndApp(FLAVOR_1, APP ));
         Assert.assertNotNull(testee.getServiceProviderForFlavorAndApp(FLAVOR_2, APP ));
     }
+
+    @Test
+    public void filteredInstancesArePreparedForAppliedWhitelist() {
+        final String FLAVOR = "1.45";
+        final String APP = "xreGuide";
+        testee = new StaticServiceProviderManager(new HashSet<StackData>() {{
+            add(new StackData("/PO/POC7/" + FLAVOR + "/" + APP));
+        }}, new Config(), new RoundRobinStrategy<>());
+        IFilteredServiceProvider provider = testee.getServiceProviderForFlavorAndApp(FLAVOR, APP);
+        IWhitelistPredicate whitelist = new WhitelistPredicate(new WhiteList());
+
+        Assert.assertNotSame(provider.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, whitelist),
+            provider.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, whitelist));
+
+        testee.applyWhitelist(APP, whitelist);
+
+        Assert.assertSame(provider.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, whitelist),
+            provider.getAllFilteredInstances(FilterMode.WHITELIST_ONLY, whitelist));
+    }
 }
@@ -24,6 +24,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
@@ -88,4 +89,37 @@ public class StacksBackupManagerTest {
         verify(manualBackupManager, atLeastOnce()).backup(SERIALIZED_STACK);
         Assert.assertEquals(savedVersion, cachedBackup.getVersion());
     }
+
+    @Test
+    public void sameSnapshotIsNotWrittenAgainAfterSuccessfulWrite() throws Exception {
+        when(manualBackupManager.backup(anyString())).thenReturn(CompletableFuture.completedFuture(true));
+
+        stacksBackupManager.backup(new StackBackup(1, Collections.emptyList()));
+        stacksBackupManager.backup(new StackBackup(1, Collections.emptyList()));
+
+        verify(manualBackupManager, times(1)).backup(SERIALIZED_STACK);
+    }
+
+    @Test
+    public void sameSnapshotIsWrittenAgainAfterFailedWrite() throws Exception {
+        when(manualBackupManager.backup(anyString())).thenReturn(CompletableFuture.completedFuture(false));
+
+        stacksBackupManager.backup(new StackBackup(1, Collections.emptyList()));
+        stacksBackupManager.backup(new StackBackup(1, Collections.emptyList()));
+
+        verify(manualBackupManager, times(2)).backup(SERIALIZED_STACK);
+    }
+
+    @Test
+    public void sameSnapshotIsWrittenAgainWhileWriteIsInProgress() throws Exception {
+        CompletableFuture<Boolean> write = new CompletableFuture<>();
+        when(manualBackupManager.backup(anyString())).thenReturn(write);
+
+        stacksBackupManager.backup(new StackBackup(1, Collections.emptyList()));
+        stacksBackupManager.backup(new StackBackup(1, Collections.emptyList()));
+        write.complete(true);
+        stacksBackupManager.backup(new StackBackup(1, Collections.emptyList()));
+
+        verify(manualBackupManager, times(2)).backup(SERIALIZED_STACK);
+    }
 }
@@ -14,23 +14,30 @@
  */
 package com.comcast.redirector.core.balancer.serviceprovider.stacks;
 
+import com.comcast.redirector.common.serializers.core.JsonSerializer;
 import com.comcast.redirector.core.backup.IBackupManager;
 import com.comcast.redirector.core.backup.IBackupManagerFactory;
 import com.comcast.redirector.core.balancer.serviceprovider.backup.IAppBackupManagerFactories;
+import com.comcast.redirector.core.balancer.serviceprovider.backup.StackBackup;
 import com.comcast.redirector.core.balancer.serviceprovider.backup.StackSnapshot;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -129,6 +136,7 @@ public class DiscoveryBackupManagerTest {
         when(backupManagerFactory.getBackupManager(IBackupManagerFactory.BackupEntity.DISCOVERY)).thenReturn(backupManager);
         when(backupManagerFactory.getBackupManager(IBackupManagerFactory.BackupEntity.APPLICATIONS)).thenReturn(backupManagerApp);
         when(backupManagerFactory.getBackupManager(IBackupManagerFactory.BackupEntity.STACKS_MANUAL)).thenReturn(backupManagerFile);
+        when(backupManager.backup(anyString())).thenReturn(CompletableFuture.completedFuture(true));
         excludedApplications = new HashSet<>();
     }
 
@@ -172,6 +180,68 @@ public class DiscoveryBackupManagerTest {
         Assert.assertEquals(0, discoveryBackupManager.getCurrentSnapshot().getSnapshotList().size());
     }
 
+    @Test(timeout = 30000)
+    public void eventsAreCoalescedIntoBoundedNumberOfWrites() throws Exception {
+        // window is long enough for the events to be fired within few windows even on a slow build machine
+        int backupIntervalMs = 500;
+        int hosts = 500;
+        when(backupManager.load()).thenReturn(null);
+        when(backupManagerApp.load()).thenReturn(null);
+
+        DiscoveryBackupManager discoveryBackupManager = new DiscoveryBackupManager(backupManagerFactory, excludedApplications, appBackupManagerFactories, backupIntervalMs);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10000; i += 2) {
+            int host = (i / 2) % hosts;
+            discoveryBackupManager.deleteStackSnapshot(createHostSnapshot(host));
+            discoveryBackupManager.addStackSnapshot(createHostSnapshot(host));
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+        Thread.sleep(backupIntervalMs * 4);
+
+        ArgumentCaptor<String> written = ArgumentCaptor.forClass(String.class);
+        verify(backupManager, atLeastOnce()).backup(written.capture());
+        int writes = written.getAllValues().size();
+        Assert.assertTrue("writes: " + writes + ", elapsed ms: " + elapsedMs, writes <= elapsedMs / backupIntervalMs + 2);
+
+        StackBackup lastBackup = new JsonSerializer().deserialize(written.getValue(), StackBackup.class);
+        Assert.assertEquals(hosts, lastBackup.getSnapshotList().stream().mapToInt(snapshot -> snapshot.getHosts().size()).sum());
+        Assert.assertEquals(discoveryBackupManager.getCurrentSnapshot(), lastBackup);
+
+        StackSnapshot temporary = createStackSnapshot("/PO/POC5/1.0/temporary", "10.1.1.1", null, "5");
+        discoveryBackupManager.addStackSnapshot(temporary);
+        discoveryBackupManager.deleteStackSnapshot(temporary);
+        Thread.sleep(backupIntervalMs * 4);
+
+        verify(backupManager, times(writes)).backup(any());
+    }
+
+    @Test(timeout = 30000)
+    public void scheduledBackupIsWrittenOnShutdown() throws Exception {
+        when(backupManager.load()).thenReturn(null);
+        when(backupManagerApp.load()).thenReturn(null);
+        DiscoveryBackupManager discoveryBackupManager = new DiscoveryBackupManager(backupManagerFactory, excludedApplications, appBackupManagerFactories, 60000);
+
+        StackSnapshot snapshot = createHostSnapshot(1);
+        discoveryBackupManager.addStackSnapshot(snapshot);
+        verify(backupManager, never()).backup(anyString());
+
+        discoveryBackupManager.shutdown();
+
+        ArgumentCaptor<String> written = ArgumentCaptor.forClass(String.class);
+        verify(backupManager, times(1)).backup(written.capture());
+        Assert.assertEquals(Collections.singletonList(snapshot),
+            new JsonSerializer().deserialize(written.getValue(), StackBackup.class).getSnapshotList());
+
+        StackSnapshot afterShutdown = createHostSnapshot(2);
+        discoveryBackupManager.addStackSnapshot(afterShutdown);
+        verify(backupManager, times(2)).backup(anyString());
+    }
+
+    private StackSnapshot createHostSnapshot(int host) {
+        return createStackSnapshot("/PO/POC5/1.0/app" + (host % 20), "10.0." + (host / 250) + "." + (host % 250), null, "5");
+    }
+
     private StackSnapshot createStackSnapshot(String path, String ipv4, String ipv6, String weight){
 
         StackSnapshot snapshot = new StackSnapshot();
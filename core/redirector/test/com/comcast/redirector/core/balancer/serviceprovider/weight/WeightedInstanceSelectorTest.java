@@ -0,0 +1,124 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.core.balancer.serviceprovider.weight;
+
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.ServiceType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class WeightedInstanceSelectorTest {
+    private static final int DRAWS = 1_000_000;
+    // chi-square critical value for 4 degrees of freedom and p = 0.000001, so test fails only on real skew
+    private static final double CHI_SQUARE_CRITICAL = 33.4;
+
+    @Test
+    public void everyPointOnWeightsScaleBelongsToOwnerInstance() throws Exception {
+        Map<String, Integer> weights = weights("a", 3, "b", 1, "c", 5, "d", 2);
+        WeightedInstanceSelector<String> selector = WeightedInstanceSelector.of(instances(weights), weigher(weights));
+
+        Map<String, Integer> hits = new HashMap<>();
+        for (int point = 0; point < selector.getTotalWeight(); point++) {
+            hits.merge(selector.select(point).getId(), 1, Integer::sum);
+        }
+
+        Assert.assertEquals(11, selector.getTotalWeight());
+        Assert.assertEquals(weights, hits);
+    }
+
+    @Test
+    public void selectionFollowsWeightsDistribution() throws Exception {
+        Map<String, Integer> weights = weights("a", 1, "b", 2, "c", 3, "d", 4, "e", 10);
+        WeightedInstanceSelector<String> selector = WeightedInstanceSelector.of(instances(weights), weigher(weights));
+
+        Map<String, Integer> hits = new HashMap<>();
+        for (int i = 0; i < DRAWS; i++) {
+            hits.merge(selector.select().getId(), 1, Integer::sum);
+        }
+
+        double chiSquare = 0;
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            double expected = (double) DRAWS * weight.getValue() / selector.getTotalWeight();
+            double observed = hits.getOrDefault(weight.getKey(), 0);
+            chiSquare += (observed - expected) * (observed - expected) / expected;
+        }
+        Assert.assertTrue("chi-square " + chiSquare + " hits " + hits, chiSquare < CHI_SQUARE_CRITICAL);
+    }
+
+    @Test
+    public void instancesWithoutWeightAreNeverSelected() throws Exception {
+        Map<String, Integer> weights = weights("a", 0, "b", 2, "c", -1);
+        WeightedInstanceSelector<String> selector = WeightedInstanceSelector.of(instances(weights), weigher(weights));
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals("b", selector.select().getId());
+        }
+        Assert.assertEquals(1, selector.getInstances().size());
+        Assert.assertEquals(2, selector.getWeightedInstances().size());
+    }
+
+    @Test
+    public void weightedInstancesAreRepeatedAccordingToWeight() throws Exception {
+        Map<String, Integer> weights = weights("a", 3, "b", 1);
+        WeightedInstanceSelector<String> selector = WeightedInstanceSelector.of(instances(weights), weigher(weights));
+
+        Map<String, Integer> repeats = new HashMap<>();
+        for (ServiceInstance<String> instance : selector.getWeightedInstances()) {
+            repeats.merge(instance.getId(), 1, Integer::sum);
+        }
+        Assert.assertEquals(weights, repeats);
+        Assert.assertEquals("a", selector.getWeightedInstances().get(2).getId());
+        Assert.assertEquals("b", selector.getWeightedInstances().get(3).getId());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void weightedInstancesAreBoundedByTotalWeight() throws Exception {
+        Map<String, Integer> weights = weights("a", 3, "b", 1);
+        WeightedInstanceSelector<String> selector = WeightedInstanceSelector.of(instances(weights), weigher(weights));
+
+        selector.getWeightedInstances().get(selector.getTotalWeight());
+    }
+
+    @Test
+    public void emptySelectorReturnsNull() throws Exception {
+        WeightedInstanceSelector<String> selector = WeightedInstanceSelector.of(Collections.emptyList(), instance -> 1);
+
+        Assert.assertNull(selector.select());
+        Assert.assertEquals(0, selector.getTotalWeight());
+        Assert.assertTrue(selector.getWeightedInstances().isEmpty());
+    }
+
+    private static Map<String, Integer> weights(Object... idsAndWeights) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (int i = 0; i < idsAndWeights.length; i += 2) {
+            weights.put((String) idsAndWeights[i], (Integer) idsAndWeights[i + 1]);
+        }
+        return weights;
+    }
+
+    private static IInstanceWeigher<String> weigher(Map<String, Integer> weights) {
+        return instance -> weights.get(instance.getId());
+    }
+
+    private static List<ServiceInstance<String>> instances(Map<String, Integer> weights) {
+        List<ServiceInstance<String>> instances = new ArrayList<>();
+        for (String id : weights.keySet()) {
+            instances.add(new ServiceInstance<>("xreGuide", id, id, 10001, null, id, 0, ServiceType.DYNAMIC, null));
+        }
+        return instances;
+    }
+}
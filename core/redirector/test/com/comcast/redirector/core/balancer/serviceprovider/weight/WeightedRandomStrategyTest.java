@@ -0,0 +1,66 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.comcast.redirector.core.balancer.serviceprovider.weight;
+
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.ServiceType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class WeightedRandomStrategyTest {
+    private WeightedRandomStrategy<String> testee = new WeightedRandomStrategy<>();
+
+    @Test
+    public void weightedProviderIsAskedForInstanceDirectly() throws Exception {
+        ServiceInstance<String> instance = instance("a");
+        IWeightedInstanceProvider<String> provider = new IWeightedInstanceProvider<String>() {
+            @Override
+            public ServiceInstance<String> getWeightedRandomInstance() {
+                return instance;
+            }
+
+            @Override
+            public List<ServiceInstance<String>> getInstances() throws Exception {
+                throw new AssertionError("weighted list of instances should not be copied");
+            }
+        };
+
+        Assert.assertSame(instance, testee.getInstance(provider));
+    }
+
+    @Test
+    public void instanceIsPickedFromInstancesRepeatedByWeight() throws Exception {
+        List<ServiceInstance<String>> instances = Arrays.asList(instance("a"), instance("b"), instance("b"), instance("b"));
+
+        Map<String, Integer> hits = new HashMap<>();
+        for (int i = 0; i < 40_000; i++) {
+            hits.merge(testee.getInstance(() -> instances).getId(), 1, Integer::sum);
+        }
+
+        Assert.assertEquals(3.0, (double) hits.get("b") / hits.get("a"), 0.3);
+    }
+
+    @Test
+    public void noInstanceIsPickedFromEmptyProvider() throws Exception {
+        Assert.assertNull(testee.getInstance(Collections::emptyList));
+    }
+
+    private static ServiceInstance<String> instance(String id) {
+        return new ServiceInstance<>("xreGuide", id, id, 10001, null, id, 0, ServiceType.DYNAMIC, null);
+    }
+}
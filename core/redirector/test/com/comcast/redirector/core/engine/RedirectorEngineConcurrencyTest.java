@@ -0,0 +1,106 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.core.engine;
+
+import com.comcast.redirector.common.InstanceInfo;
+import com.comcast.redirector.common.QueryKeys;
+import com.comcast.redirector.common.RedirectorConstants;
+import com.comcast.redirector.core.balancer.IBalancer;
+import com.comcast.redirector.core.engine.rules.IFlavorRuleSet;
+import com.comcast.redirector.core.engine.rules.IURLRuleSet;
+import com.comcast.redirector.ruleengine.model.Server;
+import com.comcast.xre.common.redirector.DataParamName;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static org.mockito.Mockito.*;
+
+public class RedirectorEngineConcurrencyTest {
+    private static final int THREADS = 2000;
+    private static final int REDIRECTS_PER_THREAD = 10;
+    private static final String URL = "xre://test:8080";
+
+    private Server server;
+    private Map<String, String> query;
+    private RedirectorEngine redirectorEngine;
+
+    @Before
+    public void setUp() throws Exception {
+        query = new LinkedHashMap<>();
+        query.put("a", "1 2");
+        query.put("b", "x&y");
+
+        server = new Server("name", URL, "");
+        server.setQuery(new LinkedHashMap<>(query));
+
+        IFlavorRuleSet flavorRuleSet = mock(IFlavorRuleSet.class);
+        when(flavorRuleSet.isAvailable()).thenReturn(true);
+        when(flavorRuleSet.getResult(anyMap())).thenReturn(server);
+
+        redirectorEngine = new RedirectorEngine("anyAppName", mock(IBalancer.class), flavorRuleSet, mock(IURLRuleSet.class),
+            null, RedirectorConstants.NO_MODEL_NODE_VERSION);
+    }
+
+    @Test(timeout = 120000)
+    public void concurrentRedirectsDoNotShareQueryState() throws Exception {
+        Map<String, String> withConnectUrl = Collections.singletonMap(DataParamName.connectUrl.name(), "xre://source:1000/app?c=d&a=1+2");
+        Map<String, String> withoutConnectUrl = Collections.emptyMap();
+        String expectedWithConnectUrl = URL + "?c=d&a=1+2&b=x%26y&ruleName=name";
+        String expectedWithoutConnectUrl = URL + "?a=1+2&b=x%26y&ruleName=name";
+
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean connectUrl = i % 2 == 0;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < REDIRECTS_PER_THREAD; j++) {
+                        InstanceInfo instanceInfo = redirectorEngine.redirect(connectUrl ? withConnectUrl : withoutConnectUrl);
+                        String expected = connectUrl ? expectedWithConnectUrl : expectedWithoutConnectUrl;
+                        if (!expected.equals(instanceInfo.getUrl())) {
+                            failures.add(instanceInfo.getUrl());
+                        }
+                        if (!"name".equals(instanceInfo.getQuery().get(QueryKeys.RULE_NAME.getKey()))) {
+                            failures.add("no rule name in " + instanceInfo.getQuery());
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e.toString());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertTrue(failures.size() + " failures, e.g. " + failures.peek(), failures.isEmpty());
+        Assert.assertEquals(query, server.getQuery());
+    }
+}
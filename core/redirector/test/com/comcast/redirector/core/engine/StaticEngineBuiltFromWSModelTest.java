@@ -36,12 +36,22 @@ import com.comcast.xre.common.redirector.selector.xmlimpl.Config;
 import com.comcast.redirector.ruleengine.model.ReturnStatementType;
 import com.comcast.redirector.ruleengine.model.IpAddress;
 import com.comcast.redirector.ruleengine.repository.NamespacedListRepository;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.comcast.redirector.api.model.testsuite.Event;
+import com.comcast.redirector.api.model.testsuite.Session;
+import com.comcast.redirector.common.Context;
+import com.comcast.xre.common.redirector.DataParamName;
+import com.sun.management.ThreadMXBean;
 import org.apache.curator.x.discovery.strategies.RoundRobinStrategy;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
+import org.slf4j.LoggerFactory;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.lang.management.ManagementFactory;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -56,6 +66,9 @@ public class StaticEngineBuiltFromWSModelTest {
     private static final String IPV6_ADDRESS = "::1";
     private static final String IP_PROTOCOL_VERSION = "4";
     public static final String APP_NAME = "test";
+    private static final int ALLOCATION_TEST_REDIRECTS = 20000;
+    private static final long MAX_BYTES_PER_REDIRECT_WITH_SESSION_LOG_OFF = 12000;
+    private static final ThreadMXBean THREAD_MX_BEAN = (ThreadMXBean) ManagementFactory.getThreadMXBean();
 
     private URLRules urlRules;
     private NamespacedListRepository stubNamespacedListsHolder;
@@ -281,6 +294,107 @@ public class StaticEngineBuiltFromWSModelTest {
         Assert.assertEquals(absoluteUrl, instanceInfo.getUrl());
     }
 
+    @Test
+    public void redirectWithSessionLogOffAllocatesBoundedBytes() throws Exception {
+        Assume.assumeTrue(THREAD_MX_BEAN.isThreadAllocatedMemorySupported());
+        IRedirectorEngine testee = buildEngineRedirectingByEqualsRule(null /* sessionLogger */);
+        Map<String, String> context = new HashMap<>();
+        context.put("receiverType", "Native");
+        context.put(Context.SESSION_ID, "session");
+        context.put(DataParamName.testInfo.name(), "test");
+
+        assertBytesPerRedirectAreBounded(testee, context);
+    }
+
+    @Test
+    public void redirectOutsideOfSessionAllocatesBoundedBytesInEndToEndMode() throws Exception {
+        Assume.assumeTrue(THREAD_MX_BEAN.isThreadAllocatedMemorySupported());
+        RedirectorEngine.SessionLog sessionLog = new RedirectorEngine.SessionLog();
+        IRedirectorEngine testee = buildEngineRedirectingByEqualsRule(sessionLog);
+
+        assertBytesPerRedirectAreBounded(testee, Collections.singletonMap("receiverType", "Native"));
+        Assert.assertFalse(sessionLog.isEnabled());
+    }
+
+    @Test
+    public void sessionLogIsEnabledFromStartOfSessionTillItIsPolled() throws Exception {
+        RedirectorEngine.SessionLog sessionLog = new RedirectorEngine.SessionLog();
+        IRedirectorEngine testee = buildEngineRedirectingByEqualsRule(sessionLog);
+        Map<String, String> context = new HashMap<>();
+        context.put("receiverType", "Native");
+        context.put(Context.SESSION_ID, "session");
+
+        testee.redirect(Collections.singletonMap("receiverType", "Native"));
+        Assert.assertFalse(sessionLog.isEnabled());
+
+        testee.redirect(context);
+        Assert.assertTrue(sessionLog.isEnabled());
+
+        Assert.assertNotNull(sessionLog.pollById("session"));
+        Assert.assertFalse(sessionLog.isEnabled());
+    }
+
+    @Test
+    public void sessionLogIsFormattedWhenSessionIsPolled() throws Exception {
+        RedirectorEngine.SessionLog sessionLog = new RedirectorEngine.SessionLog();
+        IRedirectorEngine testee = buildEngineRedirectingByEqualsRule(sessionLog);
+        Map<String, String> context = new HashMap<>();
+        context.put("receiverType", "Native");
+        context.put(Context.SESSION_ID, "session");
+        context.put(DataParamName.testInfo.name(), "test");
+
+        testee.redirect(context);
+        testee.redirect(Collections.singletonMap("receiverType", "Native"));
+
+        Assert.assertEquals(1, sessionLog.pollAll().getSessions().size());
+        Session session = sessionLog.pollById("session");
+        Assert.assertEquals(Arrays.asList(
+                "ruleMatched=equals path=1.48-SNAPSHOT",
+                "balancerResult=10.10.10.10, byLookupMode=[ applyFilter=WHITELIST_ONLY , forceGetFromBackup=false ]"),
+            session.getEvents().stream().map(Event::getMessage).collect(Collectors.toList()));
+        Assert.assertEquals("equals", session.getActual().getRule());
+        Assert.assertNull(sessionLog.pollById("session"));
+    }
+
+    private static void assertBytesPerRedirectAreBounded(IRedirectorEngine testee, Map<String, String> context) {
+        // redirect log is written at info level, only the cost of redirect itself is measured
+        Logger engineLog = (Logger) LoggerFactory.getLogger(RedirectorEngine.class);
+        Level level = engineLog.getLevel();
+        engineLog.setLevel(Level.WARN);
+        try {
+            for (int i = 0; i < ALLOCATION_TEST_REDIRECTS; i++) {
+                testee.redirect(context);
+            }
+
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < ALLOCATION_TEST_REDIRECTS; i++) {
+                testee.redirect(context);
+            }
+            long bytesPerRedirect = (THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - allocatedBefore) / ALLOCATION_TEST_REDIRECTS;
+
+            Assert.assertTrue("Allocated " + bytesPerRedirect + " bytes per redirect",
+                bytesPerRedirect <= MAX_BYTES_PER_REDIRECT_WITH_SESSION_LOG_OFF);
+        } finally {
+            engineLog.setLevel(level);
+        }
+    }
+
+    private IRedirectorEngine buildEngineRedirectingByEqualsRule(ILoggable.ISessionLog sessionLog) {
+        String ruleId = "equals";
+        SelectServer flavorRules = buildFlavorRules(
+            buildDistribution(buildServer(RedirectorConstants.DEFAULT_SERVER_NAME, RedirectorConstants.URL_TEMPLATE, NO_MATTER_STACK)),
+            buildExpression(ruleId,
+                buildServer(ruleId, RedirectorConstants.URL_TEMPLATE, "1.48-SNAPSHOT"),
+                buildEqualsExpression("receiverType", "Native")
+            )
+        );
+        Set<StackData> stacks = new HashSet<>();
+        stacks.add(new StackData(getFullStackPath("/PO/POC6/1.48-SNAPSHOT"), new ArrayList<HostIPs>() {{ add(new HostIPs("10.10.10.10", IPV6_ADDRESS)); }}));
+
+        return factory.newRedirectorEngine(APP_NAME, flavorRules, urlRules, buildWhitelist("/PO/POC6"), stubNamespacedListsHolder, stacks, sessionLog);
+    }
+
     private String getFullStackPath(String pathWithoutApp) {
         return pathWithoutApp + "/" + APP_NAME;
     }
@@ -22,9 +22,13 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
@@ -60,7 +64,7 @@ public class DataChangePollerTest {
         setupExpectedResultForGetCurrentVersionProducer(new Integer(9));
 
         dataChangePoller.startDataChangePolling("refreshUnitTest", "/unitTest",
-                INTERVAL, getNewVersionHandler(), getCurrentVersionProducer, secCurrentVersionConsumer, null, null);
+                INTERVAL, getNewVersionHandler(), getCurrentVersionProducer, secCurrentVersionConsumer, null, null, null);
 
         verifyResultThenVersionsAreNotEqual();
     }
@@ -71,11 +75,42 @@ public class DataChangePollerTest {
         setupExpectedResultForGetCurrentVersionProducer(new Integer(10));
 
         dataChangePoller.startDataChangePolling("refreshUnitTest", "/unitTest",
-                INTERVAL, newVersionHandler, getCurrentVersionProducer, secCurrentVersionConsumer, null, null);
+                INTERVAL, newVersionHandler, getCurrentVersionProducer, secCurrentVersionConsumer, null, null, null);
 
         verifyResultThenVersionsAreEqual();
     }
 
+    @Test(timeout = 30000)
+    public void newVersionIsHandledWhileHandlingOfOtherEntityIsBlocked() throws Exception {
+        setupExpectedResultForWebServiceClient(new Integer(10));
+        dataChangePoller.shutdown();
+        // single scheduler thread would be taken by blocked handling if new versions were handled on the scheduler
+        dataChangePoller = new DataChangePoller(webServiceClient, 1, 2);
+        CountDownLatch blockedHandlingStarted = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        AtomicInteger blockedVersion = new AtomicInteger();
+        AtomicInteger otherVersion = new AtomicInteger();
+
+        dataChangePoller.startDataChangePolling("blocked", "/blocked", INTERVAL,
+                (newVersion, updateCurrentVersion) -> {
+                    blockedHandlingStarted.countDown();
+                    unblock.await();
+                    updateCurrentVersion.accept(newVersion);
+                },
+                blockedVersion::get, blockedVersion::set, null, null, null);
+        assertTrue(blockedHandlingStarted.await(5, TimeUnit.SECONDS));
+
+        dataChangePoller.startDataChangePolling("other", "/other", INTERVAL, getNewVersionHandler(),
+                otherVersion::get, otherVersion::set, null, null, null);
+        try {
+            TimeUnit.SECONDS.sleep(2);
+            assertEquals(10, otherVersion.get());
+            assertEquals(0, blockedVersion.get());
+        } finally {
+            unblock.countDown();
+        }
+    }
+
     private void verifyResultThenVersionsAreNotEqual() throws InterruptedException {
         TimeUnit.SECONDS.sleep(2);
         verify(secCurrentVersionConsumer, atLeast(1)).accept(10);
@@ -0,0 +1,200 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.core.modelupdate;
+
+import com.comcast.redirector.dataaccess.EntityType;
+import com.comcast.redirector.dataaccess.PathHelper;
+import com.comcast.redirector.dataaccess.client.IDataSourceConnector;
+import com.comcast.redirector.dataaccess.client.ZookeeperConnector;
+import com.comcast.redirector.webserviceclient.IWebServiceClient;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryNTimes;
+import org.apache.curator.test.TestingServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DataChangePollerWatchTest {
+    private static final int APPS = 100;
+    private static final int INTERVAL = 60;
+    private static final long MAX_LATENCY_MS = 5000;
+
+    private TestingServer zookeeper;
+    private IDataSourceConnector connector;
+    private IWebServiceClient webServiceClient;
+    private DataChangePoller dataChangePoller;
+    private Map<String, AtomicInteger> versionsInWebService = new ConcurrentHashMap<>();
+    private Map<String, AtomicInteger> appliedVersions = new ConcurrentHashMap<>();
+    private AtomicLong maxLatencyMs = new AtomicLong();
+    private AtomicLong changedAt = new AtomicLong();
+
+    @Before
+    public void setUp() throws Exception {
+        zookeeper = new TestingServer(true);
+        CuratorFramework curator = CuratorFrameworkFactory.builder()
+            .connectString(zookeeper.getConnectString())
+            .retryPolicy(new RetryNTimes(3, 100))
+            .build();
+        connector = new ZookeeperConnector(curator, "/test", false);
+        connector.connect();
+        assertTrue(connector.blockUntilConnectedOrTimedOut());
+
+        webServiceClient = mock(IWebServiceClient.class);
+        when(webServiceClient.getRequestAsInteger(anyString())).thenAnswer(invocation -> {
+            String url = (String) invocation.getArguments()[0];
+            return versionsInWebService.get(url.substring(url.lastIndexOf('/') + 1)).get();
+        });
+        dataChangePoller = new DataChangePoller(webServiceClient);
+        dataChangePoller.watchDataChanges(connector);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dataChangePoller.shutdown();
+        connector.disconnect();
+        zookeeper.close();
+    }
+
+    @Test(timeout = 60000)
+    public void changeIsAppliedRightAfterVersionNodeChangesWithoutThreadPerApp() throws Exception {
+        assertChangesOfAppsAreAppliedRightAfterVersionNodesChange();
+    }
+
+    @Test(timeout = 60000)
+    public void changesOfAppsAreAppliedWhileHandlingOfOneAppIsBlocked() throws Exception {
+        dataChangePoller.shutdown();
+        // single scheduler thread would be taken by blocked handling if new versions were handled on the scheduler
+        dataChangePoller = new DataChangePoller(webServiceClient, 1, 2);
+        dataChangePoller.watchDataChanges(connector);
+
+        String blockedApp = "blockedApp";
+        connector.save("", versionNodePath(blockedApp));
+        versionsInWebService.put(blockedApp, new AtomicInteger(1));
+        AtomicInteger blockedAppVersion = new AtomicInteger();
+        CountDownLatch blockedHandlingStarted = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        dataChangePoller.startDataChangePolling("modelVersion", "/version", INTERVAL,
+            (newVersion, setCurrentVersion) -> {
+                if (newVersion > 1) {
+                    blockedHandlingStarted.countDown();
+                    unblock.await();
+                }
+                setCurrentVersion.accept(newVersion);
+            },
+            blockedAppVersion::get, blockedAppVersion::set, null, blockedApp, versionNodePath(blockedApp));
+        waitForVersion(blockedAppVersion, 1);
+
+        try {
+            versionsInWebService.get(blockedApp).set(2);
+            connector.save("", versionNodePath(blockedApp));
+            assertTrue(blockedHandlingStarted.await(MAX_LATENCY_MS, TimeUnit.MILLISECONDS));
+
+            assertChangesOfAppsAreAppliedRightAfterVersionNodesChange();
+            assertEquals(1, blockedAppVersion.get());
+        } finally {
+            unblock.countDown();
+        }
+        waitForVersion(blockedAppVersion, 2);
+    }
+
+    private void assertChangesOfAppsAreAppliedRightAfterVersionNodesChange() throws Exception {
+        for (int i = 0; i < APPS; i++) {
+            String app = "app" + i;
+            connector.save("", versionNodePath(app));
+            versionsInWebService.put(app, new AtomicInteger(1));
+            appliedVersions.put(app, new AtomicInteger());
+        }
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        CountDownLatch initialPolls = new CountDownLatch(APPS);
+        CountDownLatch changesApplied = new CountDownLatch(APPS);
+        for (int i = 0; i < APPS; i++) {
+            String app = "app" + i;
+            AtomicInteger applied = appliedVersions.get(app);
+            dataChangePoller.startDataChangePolling("modelVersion", "/version", INTERVAL,
+                (newVersion, setCurrentVersion) -> {
+                    setCurrentVersion.accept(newVersion);
+                    if (newVersion == 1) {
+                        initialPolls.countDown();
+                    } else {
+                        maxLatencyMs.accumulateAndGet(System.currentTimeMillis() - changedAt.get(), Math::max);
+                        changesApplied.countDown();
+                    }
+                },
+                applied::get, applied::set, null, app, versionNodePath(app));
+        }
+        assertTrue(initialPolls.await(10, TimeUnit.SECONDS));
+
+        changedAt.set(System.currentTimeMillis());
+        for (int i = 0; i < APPS; i++) {
+            String app = "app" + i;
+            versionsInWebService.get(app).set(2);
+            connector.save("", versionNodePath(app));
+        }
+
+        assertTrue("not all changes are applied long before poll interval",
+            changesApplied.await(MAX_LATENCY_MS, TimeUnit.MILLISECONDS));
+        assertTrue("change applied in " + maxLatencyMs.get() + "ms", maxLatencyMs.get() < MAX_LATENCY_MS);
+        for (AtomicInteger applied : appliedVersions.values()) {
+            assertEquals(2, applied.get());
+        }
+        int newThreads = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+        assertTrue(newThreads + " threads are started for " + APPS + " apps", newThreads < 10);
+    }
+
+    @Test(timeout = 60000)
+    public void pollIsDoneRightAfterReconnect() throws Exception {
+        String app = "app";
+        connector.save("", versionNodePath(app));
+        versionsInWebService.put(app, new AtomicInteger(1));
+        AtomicInteger applied = new AtomicInteger();
+        dataChangePoller.startDataChangePolling("modelVersion", "/version", INTERVAL,
+            (newVersion, setCurrentVersion) -> setCurrentVersion.accept(newVersion),
+            applied::get, applied::set, null, app, versionNodePath(app));
+        waitForVersion(applied, 1);
+
+        zookeeper.stop();
+        versionsInWebService.get(app).set(2);
+        zookeeper.restart();
+
+        waitForVersion(applied, 2);
+    }
+
+    private String versionNodePath(String app) {
+        return PathHelper.getPathHelper(EntityType.MODEL_CHANGED, connector.getBasePath()).getPathByService(app);
+    }
+
+    private static void waitForVersion(AtomicInteger applied, int version) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + MAX_LATENCY_MS * 4;
+        while (applied.get() != version && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        assertEquals(version, applied.get());
+    }
+}
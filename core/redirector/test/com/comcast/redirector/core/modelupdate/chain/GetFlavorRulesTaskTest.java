@@ -16,17 +16,26 @@
 
 package com.comcast.redirector.core.modelupdate.chain;
 
+import com.comcast.redirector.api.model.Expressions;
+import com.comcast.redirector.api.model.IfExpression;
+import com.comcast.redirector.api.model.Matches;
 import com.comcast.redirector.api.model.SelectServer;
 import com.comcast.redirector.api.model.Server;
 import com.comcast.redirector.api.model.distribution.Distribution;
+import com.comcast.redirector.common.serializers.JAXBContextBuilder;
+import com.comcast.redirector.common.serializers.XMLSerializer;
 import com.comcast.redirector.core.modelupdate.converter.ModelTranslationService;
 import com.comcast.redirector.core.modelupdate.holder.IModelHolder;
 import com.comcast.redirector.ruleengine.model.Model;
 import com.comcast.redirector.ruleengine.repository.NamespacedListRepository;
+import com.comcast.redirector.ruleengine.repository.impl.StaticNamespacedListRepository;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Mockito.*;
 
@@ -57,6 +66,23 @@ public class GetFlavorRulesTaskTest {
         verifyGet(IModelHolder.GET_FROM_DATA_STORE);
     }
 
+    @Test
+    public void testRuleWithInvalidPatternIsSkippedOnRefresh() throws Exception {
+        SelectServer flavorRules = newValidModel();
+        flavorRules.getDistribution().setDefaultServer(newServer("default"));
+        flavorRules.setItems(Arrays.asList(newMatchesRule("invalid", "X1-["), newMatchesRule("valid", "X1-.*")));
+        when(flavorRulesHolder.load(anyBoolean())).thenReturn(flavorRules);
+        ModelTranslationService translationService = new ModelTranslationService(new XMLSerializer(new JAXBContextBuilder().createContextForXML()));
+
+        GetFlavorRulesTask task = new GetFlavorRulesTask(IModelHolder.GET_FROM_DATA_STORE, flavorRulesHolder, translationService, StaticNamespacedListRepository.emptyHolder());
+        Result result = task.handle(new ModelContext());
+
+        Assert.assertTrue(result.isSuccessful());
+        Model model = result.getContext().getFlavorRulesModel();
+        Assert.assertEquals("valid", ((com.comcast.redirector.ruleengine.model.Server) model.execute(Collections.singletonMap("model", "X1-["))).getName());
+        Assert.assertEquals("default", ((com.comcast.redirector.ruleengine.model.Server) model.execute(Collections.singletonMap("model", "PX1"))).getName());
+    }
+
     private void verifyGet(boolean fromDataStore) {
         GetFlavorRulesTask task = new GetFlavorRulesTask(fromDataStore, flavorRulesHolder, modelTranslationService, namespacedListsHolder);
 
@@ -78,4 +104,24 @@ public class GetFlavorRulesTaskTest {
 
         return selectServer;
     }
+
+    private static IfExpression newMatchesRule(String id, String pattern) {
+        Matches matches = new Matches();
+        matches.setParam("model");
+        matches.setPattern(pattern);
+
+        IfExpression rule = new IfExpression();
+        rule.setId(id);
+        rule.setItems(Collections.<Expressions>singletonList(matches));
+        rule.setReturn(newServer(id));
+        return rule;
+    }
+
+    private static Server newServer(String name) {
+        Server server = new Server();
+        server.setName(name);
+        server.setUrl("{protocol}://{host}:{port}/{urn}");
+        server.setPath("/DC/Stack/" + name);
+        return server;
+    }
 }
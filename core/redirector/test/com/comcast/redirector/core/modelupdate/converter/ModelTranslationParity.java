@@ -0,0 +1,108 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.core.modelupdate.converter;
+
+import com.comcast.redirector.api.model.SelectServer;
+import com.comcast.redirector.api.model.url.rule.URLRules;
+import com.comcast.redirector.common.serializers.JAXBContextBuilder;
+import com.comcast.redirector.common.serializers.SerializerException;
+import com.comcast.redirector.common.serializers.XMLSerializer;
+import com.comcast.redirector.ruleengine.model.Model;
+import com.comcast.redirector.ruleengine.model.URLRuleModel;
+import com.comcast.redirector.ruleengine.repository.NamespacedListRepository;
+import com.comcast.redirector.ruleengine.repository.NamespacedListsBatch;
+import com.comcast.redirector.ruleengine.repository.impl.StaticNamespacedListRepository;
+import org.junit.Assert;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+
+/**
+ * Asserts that models built by {@link ModelTranslationService} straight from model objects are the same as models
+ * built from DOM of the objects marshalled to xml. Rules are read from classpath, so modules owning rules models
+ * check them through the test jar instead of copying them here.
+ */
+public class ModelTranslationParity {
+    private final XMLSerializer serializer = new XMLSerializer(new JAXBContextBuilder().createContextForXML());
+    private final ModelTranslationService translationService = new ModelTranslationService(serializer);
+    private final NamespacedListRepository namespacedLists = StaticNamespacedListRepository.of(new NamespacedListsBatch());
+
+    public SelectServer readFlavorRules(String resource) throws IOException, SerializerException {
+        return read(resource, SelectServer.class);
+    }
+
+    public URLRules readUrlRules(String resource) throws IOException, SerializerException {
+        return read(resource, URLRules.class);
+    }
+
+    public void assertFlavorRulesAreTranslatedAsXml(String resource) throws IOException, SerializerException {
+        assertFlavorRulesAreTranslatedAsXml(resource, readFlavorRules(resource));
+    }
+
+    public Model assertFlavorRulesAreTranslatedAsXml(String description, SelectServer selectServer) {
+        Model model = translationService.translateFlavorRules(selectServer, namespacedLists);
+        Model modelFromXml = buildOrNull(() -> new Model(parse(serializer.serialize(selectServer)), namespacedLists));
+
+        if (modelFromXml == null) {
+            Assert.assertNull(description, model);
+        } else {
+            Assert.assertNotNull(description, model);
+            Assert.assertEquals(description, modelFromXml.toString(), model.toString());
+            Assert.assertEquals(description, modelFromXml.getDistribution().toString(), model.getDistribution().toString());
+        }
+        return model;
+    }
+
+    public void assertUrlRulesAreTranslatedAsXml(String resource) throws IOException, SerializerException {
+        assertUrlRulesAreTranslatedAsXml(resource, readUrlRules(resource));
+    }
+
+    public URLRuleModel assertUrlRulesAreTranslatedAsXml(String description, URLRules urlRules) {
+        URLRuleModel model = translationService.translateUrlRules(urlRules, namespacedLists);
+        URLRuleModel modelFromXml = buildOrNull(() -> new URLRuleModel(parse(serializer.serialize(urlRules)), namespacedLists));
+
+        if (modelFromXml == null) {
+            Assert.assertNull(description, model);
+        } else {
+            Assert.assertNotNull(description, model);
+            Assert.assertEquals(description, modelFromXml.toString(), model.toString());
+        }
+        return model;
+    }
+
+    private <T> T read(String resource, Class<T> type) throws IOException, SerializerException {
+        try (InputStream stream = ModelTranslationParity.class.getResourceAsStream(resource)) {
+            Assert.assertNotNull("Rules are not found: " + resource, stream);
+            return serializer.deserialize(stream, type);
+        }
+    }
+
+    private static <T> T buildOrNull(Callable<T> builder) {
+        try {
+            return builder.call();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Document parse(String xml) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+}
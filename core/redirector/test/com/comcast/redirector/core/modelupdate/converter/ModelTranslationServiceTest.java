@@ -0,0 +1,80 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.core.modelupdate.converter;
+
+import com.comcast.redirector.api.model.Equals;
+import com.comcast.redirector.api.model.IfExpression;
+import com.comcast.redirector.api.model.SelectServer;
+import com.comcast.redirector.api.model.Server;
+import com.comcast.redirector.api.model.url.rule.URLRules;
+import com.comcast.redirector.ruleengine.model.Model;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * Models are shared with other modules through redirector-common test jar, end-to-end models are checked
+ * by end-to-end module itself with {@link ModelTranslationParity}.
+ */
+public class ModelTranslationServiceTest {
+    private static final String FLAVOR_RULES = "/models/selectServerStatic.xml";
+    // plain return is not a part of model objects, so neither model is built
+    private static final String RETURN_ONLY_FLAVOR_RULES = "/models/selectserver.xml";
+    private static final String URL_RULES = "/models/ruleCondition.xml";
+
+    private ModelTranslationParity parity = new ModelTranslationParity();
+
+    @Test
+    public void flavorRulesModelIsTheSameAsModelBuiltFromXml() throws Exception {
+        parity.assertFlavorRulesAreTranslatedAsXml(FLAVOR_RULES);
+        parity.assertFlavorRulesAreTranslatedAsXml(RETURN_ONLY_FLAVOR_RULES);
+    }
+
+    @Test
+    public void urlRulesModelIsTheSameAsModelBuiltFromXml() throws Exception {
+        parity.assertUrlRulesAreTranslatedAsXml(URL_RULES);
+    }
+
+    @Test
+    public void modelIsBuiltFromRulesWithoutItems() throws Exception {
+        SelectServer selectServer = parity.readFlavorRules(FLAVOR_RULES);
+        selectServer.setItems(null);
+        URLRules urlRules = parity.readUrlRules(URL_RULES);
+        urlRules.setItems(null);
+
+        Assert.assertNotNull(parity.assertFlavorRulesAreTranslatedAsXml(FLAVOR_RULES, selectServer));
+        Assert.assertNotNull(parity.assertUrlRulesAreTranslatedAsXml(URL_RULES, urlRules));
+    }
+
+    @Test
+    public void brokenRulesAreSkippedTheSameWayAsInModelBuiltFromXml() throws Exception {
+        SelectServer selectServer = parity.readFlavorRules(FLAVOR_RULES);
+        IfExpression withoutReturn = new IfExpression();
+        withoutReturn.setId("withoutReturn");
+        withoutReturn.setItems(Collections.singletonList(new Equals("mac", "value")));
+        selectServer.addCondition(withoutReturn);
+        IfExpression withoutParam = new IfExpression();
+        withoutParam.setId("withoutParam");
+        withoutParam.setItems(Collections.singletonList(new Equals(null, "value")));
+        withoutParam.setReturn(new Server("{protocol}://{host}:{port}/{urn}"));
+        selectServer.addCondition(withoutParam);
+
+        Model model = parity.assertFlavorRulesAreTranslatedAsXml(FLAVOR_RULES, selectServer);
+
+        Assert.assertFalse(model.toString().contains("withoutReturn"));
+        Assert.assertFalse(model.toString().contains("withoutParam"));
+    }
+}
@@ -48,6 +48,7 @@ public class NamespacedListsHelper {
         IBackupManagerFactory backupManagerFactory = mock(IBackupManagerFactory.class);
         when(backupManagerFactory.getBackupManager(IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS)).thenReturn(mock(IBackupManager.class));
         when(backupManagerFactory.getBackupManager(IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS).load()).thenReturn(namespacedLists);
+        when(backupManagerFactory.getBackupManager(IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS_BINARY)).thenReturn(mock(IBackupManager.class));
         NamespacedListsHolder namespacedListsHolder = new NamespacedListsHolder();
         ReflectionTestUtils.setField(namespacedListsHolder, "globalBackupManagerFactory", backupManagerFactory);
         return namespacedListsHolder;
@@ -0,0 +1,103 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.core.modelupdate.holder;
+
+import com.comcast.redirector.api.model.builders.NamespacedListBuilder;
+import com.comcast.redirector.api.model.namespaced.NamespacedList;
+import com.comcast.redirector.api.model.namespaced.NamespacedListType;
+import com.comcast.redirector.api.model.namespaced.NamespacedListValueForWS;
+import com.comcast.redirector.core.modelupdate.helper.NamespacedListsHelper;
+import com.comcast.redirector.dataaccess.dao.NamespacedListsDAO;
+import com.comcast.redirector.dataaccess.facade.ICommonModelFacade;
+import com.comcast.redirector.ruleengine.repository.IgnoreCase;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+public class NamespacedListHolderIgnoreCaseValuesTest {
+    private ICommonModelFacade commonModelFacade;
+    private NamespacedListsHolder namespacedListsHolder;
+
+    private NamespacedList macList = NamespacedListsHelper.createNamespacedList("macList", "AA:BB:CC:DD:EE:01", "aa:bb:cc:dd:ee:02");
+    private NamespacedList lowerCaseList = NamespacedListsHelper.createNamespacedList("lowerCaseList", "account1", "account2");
+    private NamespacedList encodedList = createEncodedList("encodedList", "secret-1", "secret-2");
+
+    @Before
+    public void setUp() throws Exception {
+        namespacedListsHolder = NamespacedListsHelper.prepareNamespacedListsHolderBeforeTest();
+
+        commonModelFacade = mock(ICommonModelFacade.class);
+        when(commonModelFacade.getAllNamespacedLists()).thenReturn(Arrays.asList(macList, lowerCaseList, encodedList));
+        ReflectionTestUtils.setField(namespacedListsHolder, "commonModelFacade", commonModelFacade);
+    }
+
+    @Test
+    public void valuesAreFoldedOnceAndReusedAsIsWhenAlreadyFolded() throws Exception {
+        namespacedListsHolder.load(IModelHolder.GET_FROM_DATA_STORE);
+
+        Set<String> macs = namespacedListsHolder.getNamespacedListValuesIgnoreCase(macList.getName());
+        assertEquals(2, macs.size());
+        assertTrue(macs.contains(IgnoreCase.fold("aa:bb:cc:dd:ee:01")));
+        assertTrue(macs.contains(IgnoreCase.fold("AA:BB:CC:DD:EE:02")));
+        assertSame(macs, namespacedListsHolder.getNamespacedListValuesIgnoreCase(macList.getName()));
+
+        assertSame(namespacedListsHolder.getNamespacedListValues(lowerCaseList.getName()),
+            namespacedListsHolder.getNamespacedListValuesIgnoreCase(lowerCaseList.getName()));
+        assertTrue(namespacedListsHolder.getNamespacedListValuesIgnoreCase("absentList").isEmpty());
+    }
+
+    @Test
+    public void encodedListIsLookedUpByHashInAnyCase() throws Exception {
+        namespacedListsHolder.load(IModelHolder.GET_FROM_DATA_STORE);
+
+        Set<String> hashes = namespacedListsHolder.getNamespacedListValuesIgnoreCase(encodedList.getName());
+        String hash = NamespacedListsDAO.hashNamespacedListValue("secret-1");
+        assertTrue(namespacedListsHolder.getNamespacedListValues(encodedList.getName()).contains(hash));
+        assertFalse(namespacedListsHolder.getNamespacedListValues(encodedList.getName()).contains(hash.toLowerCase()));
+        assertTrue(hashes.contains(IgnoreCase.fold(hash)));
+        assertTrue(hashes.contains(IgnoreCase.fold(hash.toLowerCase())));
+        assertFalse(hashes.contains(IgnoreCase.fold("secret-1")));
+    }
+
+    @Test
+    public void foldedValuesAreRebuiltWhenNewBatchIsApplied() throws Exception {
+        namespacedListsHolder.load(IModelHolder.GET_FROM_DATA_STORE);
+        Set<String> macs = namespacedListsHolder.getNamespacedListValuesIgnoreCase(macList.getName());
+
+        NamespacedList changedMacList = NamespacedListsHelper.createNamespacedList(macList.getName(), "AA:BB:CC:DD:EE:03");
+        when(commonModelFacade.getAllNamespacedLists()).thenReturn(Arrays.asList(changedMacList, lowerCaseList, encodedList));
+        namespacedListsHolder.load(IModelHolder.GET_FROM_DATA_STORE);
+
+        Set<String> changedMacs = namespacedListsHolder.getNamespacedListValuesIgnoreCase(macList.getName());
+        assertNotSame(macs, changedMacs);
+        assertEquals(Collections.singleton(IgnoreCase.fold("AA:BB:CC:DD:EE:03")), changedMacs);
+    }
+
+    private static NamespacedList createEncodedList(String name, String... values) {
+        NamespacedList list = new NamespacedListBuilder().withName(name).withValues(values).withType(NamespacedListType.ENCODED).build();
+        for (NamespacedListValueForWS value : list.getValueSet()) {
+            value.setEncodedValue(NamespacedListsDAO.hashNamespacedListValue(value.getValue()));
+        }
+        return list;
+    }
+}
@@ -19,6 +19,7 @@ package com.comcast.redirector.core.modelupdate.holder;
 import com.comcast.redirector.api.model.namespaced.NamespacedList;
 import com.comcast.redirector.dataaccess.facade.ICommonModelFacade;
 import com.comcast.redirector.ruleengine.model.IpAddress;
+import com.comcast.redirector.ruleengine.model.IpRangeIndex;
 import com.comcast.redirector.ruleengine.IpAddressInitException;
 import com.comcast.redirector.core.modelupdate.helper.NamespacedListsHelper;
 import org.junit.Before;
@@ -28,6 +29,9 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.util.Arrays;
 import java.util.Set;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.when;
@@ -92,4 +96,25 @@ public class NamespacedListHolderIpAddressesCachingTest {
         Set<IpAddress> cache = namespacedListsHolder.getIpAddressesFromCacheForNamespacedList(ipRange1.getName());
         assertTrue(cache.isEmpty());
     }
+
+    @Test
+    public void ipRangeIndexIsBuiltOnceAndRebuiltWhenNewBatchIsApplied() throws Exception {
+        namespacedListsHolder.load(IModelHolder.GET_FROM_DATA_STORE);
+
+        IpRangeIndex index = namespacedListsHolder.getIpRangeIndexFromNamespacedList(ipRange1.getName());
+        assertTrue(index.contains(0, IpRangeIndex.parseIpv4("123.123.123.200")));
+        assertTrue(index.contains(0, IpRangeIndex.parseIpv4("100.100.100.127")));
+        assertFalse(index.contains(0, IpRangeIndex.parseIpv4("100.100.100.128")));
+        assertSame(index, namespacedListsHolder.getIpRangeIndexFromNamespacedList(ipRange1.getName()));
+        assertTrue(namespacedListsHolder.getIpRangeIndexFromNamespacedList(macList.getName()).isEmpty());
+
+        NamespacedList changedIpRange1 = NamespacedListsHelper.createNamespacedList(ipRange1.getName(), "100.100.100.0/24");
+        when(commonModelFacade.getAllNamespacedLists()).thenReturn(Arrays.asList(changedIpRange1, ipRange2, macList));
+        namespacedListsHolder.load(IModelHolder.GET_FROM_DATA_STORE);
+
+        IpRangeIndex rebuiltIndex = namespacedListsHolder.getIpRangeIndexFromNamespacedList(ipRange1.getName());
+        assertNotSame(index, rebuiltIndex);
+        assertTrue(rebuiltIndex.contains(0, IpRangeIndex.parseIpv4("100.100.100.128")));
+        assertFalse(rebuiltIndex.contains(0, IpRangeIndex.parseIpv4("123.123.123.200")));
+    }
 }
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.comcast.redirector.core.modelupdate.holder;
+
+import com.comcast.redirector.common.serializers.core.JsonSerializer;
+import com.comcast.redirector.ruleengine.model.IpAddress;
+import com.comcast.redirector.ruleengine.model.IpRangeIndex;
+import com.comcast.redirector.ruleengine.repository.NamespacedListsBatch;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NamespacedListsBinaryFormatTest {
+
+    @Test
+    public void listsAndIpIndexesAreReadAsWritten() throws Exception {
+        Random random = new Random(42);
+        NamespacedListsBatch batch = new NamespacedListsBatch();
+        batch.setDataNodeVersion(Long.MAX_VALUE - 1);
+        List<String> macs = new ArrayList<>();
+        List<String> ips = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            macs.add(String.format("%012X", random.nextLong() & 0xFFFFFFFFFFFFL));
+            ips.add(random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256) + ".0/24");
+        }
+        ips.addAll(Arrays.asList("::/1", "ffff::/16", "2001:db8::/64", "2001:db8:0:1::/65", "2001:db8:0:2:ffff::1"));
+        batch.addValues("macs", macs);
+        batch.addValues("ips", ips);
+        batch.addValues("unicode", Arrays.asList("caf\u00e9", "caf\u00e9s", "\u65e5\u672c", "\ud83d\ude00", "", "a"));
+        batch.addValues("empty", Collections.emptyList());
+        List<IpAddress> addresses = new ArrayList<>();
+        for (String ip : ips) {
+            addresses.add(new IpAddress(ip));
+        }
+        IpRangeIndex index = IpRangeIndex.of(addresses);
+
+        byte[] data = NamespacedListsBinaryFormat.write(batch, Collections.singletonMap("ips", index));
+        Map<String, IpRangeIndex> indexes = new HashMap<>();
+        NamespacedListsBatch read = NamespacedListsBinaryFormat.read(data, indexes);
+
+        assertEquals(batch.getDataNodeVersion(), read.getDataNodeVersion());
+        assertEquals(batch.getNamespacedLists(), read.getNamespacedLists());
+        assertEquals(Collections.singleton("ips"), indexes.keySet());
+        assertArrayEquals(index.toRanges(), indexes.get("ips").toRanges());
+    }
+
+    @Test
+    public void valuesAreSmallerThanInJson() throws Exception {
+        NamespacedListsBatch batch = new NamespacedListsBatch();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            values.add("10." + (i >> 16 & 0xFF) + "." + (i >> 8 & 0xFF) + "." + (i & 0xFF));
+        }
+        batch.addValues("ips", values);
+
+        int binary = NamespacedListsBinaryFormat.write(batch, Collections.emptyMap()).length;
+        int json = new JsonSerializer().serialize(batch, false).getBytes(StandardCharsets.UTF_8).length;
+        assertTrue(binary + " bytes in binary vs " + json + " bytes in json", binary * 2 < json);
+    }
+
+    @Test
+    public void jsonIsNotBinary() throws Exception {
+        NamespacedListsBatch batch = new NamespacedListsBatch();
+        batch.addValues("list", Collections.singleton("value"));
+
+        assertFalse(NamespacedListsBinaryFormat.isBinary(new JsonSerializer().serialize(batch, true).getBytes(StandardCharsets.UTF_8)));
+        assertFalse(NamespacedListsBinaryFormat.isBinary(new byte[0]));
+        assertFalse(NamespacedListsBinaryFormat.isBinary(null));
+        assertTrue(NamespacedListsBinaryFormat.isBinary(NamespacedListsBinaryFormat.write(batch, Collections.emptyMap())));
+    }
+
+    @Test
+    public void truncatedBackupIsNotRead() throws Exception {
+        NamespacedListsBatch batch = new NamespacedListsBatch();
+        batch.addValues("list", Arrays.asList("value1", "value2", "value3"));
+        byte[] data = NamespacedListsBinaryFormat.write(batch, Collections.emptyMap());
+
+        for (int length = 4; length < data.length; length++) {
+            try {
+                NamespacedListsBinaryFormat.read(Arrays.copyOf(data, length), new HashMap<>());
+                fail("backup of " + length + " bytes out of " + data.length + " should not be read");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownVersionIsNotRead() throws Exception {
+        byte[] data = NamespacedListsBinaryFormat.write(new NamespacedListsBatch(), Collections.emptyMap());
+        data[4] = NamespacedListsBinaryFormat.VERSION + 1;
+        NamespacedListsBinaryFormat.read(data, new HashMap<>());
+    }
+}
@@ -16,18 +16,30 @@
 
 package com.comcast.redirector.core.modelupdate.holder;
 
+import com.comcast.redirector.api.model.namespaced.NamespacedList;
+import com.comcast.redirector.common.serializers.core.JsonSerializer;
+import com.comcast.redirector.core.backup.IBackupManager;
+import com.comcast.redirector.core.backup.IBackupManagerFactory;
 import com.comcast.redirector.core.modelupdate.helper.NamespacedListsHelper;
 import com.comcast.redirector.dataaccess.facade.ICommonModelFacade;
+import com.comcast.redirector.ruleengine.repository.NamespacedListsBatch;
+import com.comcast.redirector.ruleengine.model.IpRangeIndex;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static com.comcast.redirector.core.modelupdate.helper.NamespacedListsHelper.getNamespacedList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 import static org.powermock.api.mockito.PowerMockito.when;
 
@@ -84,6 +96,77 @@ public class NamespacedListsHolderTest {
         assertEquals(NamespacedListsHelper.getNamespacedListMap(), namespacedListsHolder.getNamespacedListsBatch().getNamespacedLists());
     }
 
+    @Test
+    public void backupIsSavedInBinaryFormatWithIpIndexes() throws Exception {
+        when(commonModelFacade.getAllNamespacedLists()).thenReturn(Arrays.asList(
+            NamespacedListsHelper.createNamespacedList("ipList", "10.0.0.0/8", "2001:db8::/32"),
+            NamespacedListsHelper.createNamespacedList("macList", "mac1", "mac2")));
+        namespacedListsHolder.loadFromDataStore();
+        namespacedListsHolder.getIpRangeIndexFromNamespacedList("ipList");
+        namespacedListsHolder.createBackupNamespacedLists();
+
+        ArgumentCaptor<byte[]> backup = ArgumentCaptor.forClass(byte[].class);
+        verify(backupManager(namespacedListsHolder, IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS_BINARY)).backupBytes(backup.capture());
+        assertTrue(NamespacedListsBinaryFormat.isBinary(backup.getValue()));
+
+        NamespacedListsHolder restarted = NamespacedListsHelper.prepareNamespacedListsHolderBeforeTest();
+        when(backupManager(restarted, IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS_BINARY).loadBytes()).thenReturn(backup.getValue());
+        restarted.load(IModelHolder.GET_FROM_BACKUP);
+
+        assertEquals(namespacedListsHolder.getNamespacedListsBatch().getNamespacedLists(), restarted.getNamespacedListsBatch().getNamespacedLists());
+        Map<?, ?> ipRangeIndexes = (Map<?, ?>) ReflectionTestUtils.getField(restarted, "ipRangeIndexes");
+        assertEquals(Collections.singleton("ipList"), ipRangeIndexes.keySet());
+        assertTrue(restarted.getIpRangeIndexFromNamespacedList("ipList").contains(IpRangeIndex.toNumeric("10.1.2.3")));
+        assertTrue(restarted.getIpRangeIndexFromNamespacedList("ipList").contains(IpRangeIndex.toNumeric("2001:db8::1")));
+        assertFalse(restarted.getIpRangeIndexFromNamespacedList("ipList").contains(IpRangeIndex.toNumeric("11.0.0.1")));
+    }
+
+    @Test
+    public void onlyChangedListsAreRequestedAndReindexed() throws Exception {
+        List<NamespacedList> lists = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            lists.add(versioned(NamespacedListsHelper.createNamespacedList("ipList" + i, "10.0.0." + i), 1));
+        }
+        when(commonModelFacade.getAllNamespacedLists()).thenReturn(lists);
+        namespacedListsHolder.loadFromDataStore();
+        List<IpRangeIndex> indexes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            indexes.add(namespacedListsHolder.getIpRangeIndexFromNamespacedList("ipList" + i));
+        }
+
+        when(commonModelFacade.getAllNamespacedListsVersions()).thenReturn(Arrays.asList(
+            versioned(NamespacedListsHelper.createNamespacedList("ipList0"), 1),
+            versioned(NamespacedListsHelper.createNamespacedList("ipList1"), 2),
+            versioned(NamespacedListsHelper.createNamespacedList("ipList3"), 1)));
+        when(commonModelFacade.getNamespacedList("ipList1")).thenReturn(versioned(NamespacedListsHelper.createNamespacedList("ipList1", "11.0.0.1"), 2));
+        namespacedListsHolder.loadFromDataStore();
+
+        verify(commonModelFacade, times(1)).getAllNamespacedLists();
+        verify(commonModelFacade, times(1)).getNamespacedList(anyString());
+        assertEquals(Collections.singleton("11.0.0.1"), namespacedListsHolder.getNamespacedListValues("ipList1"));
+        assertFalse(namespacedListsHolder.getNamespacedListsBatch().getNamespacedLists().containsKey("ipList2"));
+        assertSame(indexes.get(0), namespacedListsHolder.getIpRangeIndexFromNamespacedList("ipList0"));
+        assertSame(indexes.get(3), namespacedListsHolder.getIpRangeIndexFromNamespacedList("ipList3"));
+        assertTrue(namespacedListsHolder.getIpRangeIndexFromNamespacedList("ipList1").contains(IpRangeIndex.toNumeric("11.0.0.1")));
+        assertTrue(namespacedListsHolder.getIpRangeIndexFromNamespacedList("ipList2").isEmpty());
+    }
+
+    @Test
+    public void allListsAreRequestedWhenMostOfThemAreChanged() throws Exception {
+        when(commonModelFacade.getAllNamespacedLists()).thenReturn(Arrays.asList(
+            versioned(NamespacedListsHelper.createNamespacedList("list0", "value"), 1),
+            versioned(NamespacedListsHelper.createNamespacedList("list1", "value"), 1)));
+        namespacedListsHolder.loadFromDataStore();
+
+        when(commonModelFacade.getAllNamespacedListsVersions()).thenReturn(Arrays.asList(
+            versioned(NamespacedListsHelper.createNamespacedList("list0"), 2),
+            versioned(NamespacedListsHelper.createNamespacedList("list1"), 2)));
+        namespacedListsHolder.loadFromDataStore();
+
+        verify(commonModelFacade, times(2)).getAllNamespacedLists();
+        verify(commonModelFacade, never()).getNamespacedList(anyString());
+    }
+
     @Test
     public void testLoadGetFromDataStore() throws Exception {
         NamespacedListsHolder spy = spy(namespacedListsHolder);
@@ -92,4 +175,62 @@ public class NamespacedListsHolderTest {
         verify(spy, times(1)).loadFromDataStore();
         verify(spy, never()).loadFromBackup();
     }
+
+    private static NamespacedList versioned(NamespacedList list, long version) {
+        list.setVersion(version);
+        return list;
+    }
+
+    @Test
+    public void backupIsSavedInJsonAlongWithBinaryFormat() throws Exception {
+        when(commonModelFacade.getAllNamespacedLists()).thenReturn(Collections.singletonList(
+            NamespacedListsHelper.createNamespacedList("macList", "mac1", "mac2")));
+        namespacedListsHolder.loadFromDataStore();
+        namespacedListsHolder.createBackupNamespacedLists();
+
+        ArgumentCaptor<String> backup = ArgumentCaptor.forClass(String.class);
+        verify(backupManager(namespacedListsHolder, IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS)).backup(backup.capture());
+        NamespacedListsBatch batch = new JsonSerializer().deserialize(backup.getValue(), NamespacedListsBatch.class);
+        assertEquals(namespacedListsHolder.getNamespacedListsBatch().getNamespacedLists(), batch.getNamespacedLists());
+    }
+
+    @Test
+    public void jsonBackupIsLoadedWhenBinaryBackupCantBeRead() throws Exception {
+        NamespacedListsHolder restarted = NamespacedListsHelper.prepareNamespacedListsHolderBeforeTest();
+        byte[] unknownVersion = {'R', 'N', 'L', 'B', NamespacedListsBinaryFormat.VERSION + 1};
+        when(backupManager(restarted, IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS_BINARY).loadBytes()).thenReturn(unknownVersion);
+
+        restarted.load(IModelHolder.GET_FROM_BACKUP);
+
+        assertEquals(NamespacedListsHelper.getNamespacedListMap(), restarted.getNamespacedListsBatch().getNamespacedLists());
+    }
+
+    @Test
+    public void jsonBackupIsLoadedWhenBinaryBackupIsOlder() throws Exception {
+        NamespacedListsBatch stale = new NamespacedListsBatch();
+        stale.setDataNodeVersion(1);
+        stale.addValues("staleList", Collections.singleton("value"));
+        NamespacedListsHolder restarted = NamespacedListsHelper.prepareNamespacedListsHolderBeforeTest();
+        when(backupManager(restarted, IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS_BINARY).loadBytes())
+            .thenReturn(NamespacedListsBinaryFormat.write(stale, Collections.emptyMap()));
+        when(backupManager(restarted, IBackupManagerFactory.BackupEntity.NAMESPACED_LISTS).load())
+            .thenReturn("{\"dataNodeVersion\":2," + NamespacedListsHelper.namespacedLists.substring(1));
+
+        restarted.load(IModelHolder.GET_FROM_BACKUP);
+
+        assertEquals(2, restarted.getNamespacedListsBatch().getDataNodeVersion());
+        assertEquals(NamespacedListsHelper.getNamespacedListMap(), restarted.getNamespacedListsBatch().getNamespacedLists());
+    }
+
+    @Test
+    public void dataNodeVersionIsReadFromJsonBackupWithoutLists() throws Exception {
+        assertEquals(3, NamespacedListsHolder.readDataNodeVersion("{\"namespacedLists\":{\"list\":[\"dataNodeVersion\"]},\"dataNodeVersion\":3}"));
+        assertEquals(0, NamespacedListsHolder.readDataNodeVersion(NamespacedListsHelper.namespacedLists));
+        assertEquals(0, NamespacedListsHolder.readDataNodeVersion("not a json"));
+    }
+
+    private static IBackupManager backupManager(NamespacedListsHolder holder, IBackupManagerFactory.BackupEntity entity) {
+        IBackupManagerFactory factory = (IBackupManagerFactory) ReflectionTestUtils.getField(holder, "globalBackupManagerFactory");
+        return factory.getBackupManager(entity);
+    }
 }
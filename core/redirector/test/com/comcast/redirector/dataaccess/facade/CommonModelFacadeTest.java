@@ -182,6 +182,6 @@ public class CommonModelFacadeTest {
 
     private <T> void setupExpectedResultForWebServiceClient(T result) {
         when(webServiceClient.getRequest(any(), anyString())).thenReturn(result);
-        when(webServiceClient.getRequest(any(), anyString())).thenReturn(result);
+        when(webServiceClient.getRequest(any(), anyString(), anyString())).thenReturn(result);
     }
 }
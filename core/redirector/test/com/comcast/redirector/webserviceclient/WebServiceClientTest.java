@@ -0,0 +1,144 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.webserviceclient;
+
+import com.comcast.redirector.api.model.namespaced.NamespacedList;
+import com.comcast.redirector.common.serializers.JAXBContextBuilder;
+import com.comcast.redirector.common.serializers.JSONSerializer;
+import com.comcast.redirector.common.serializers.Serializer;
+import com.comcast.redirector.common.serializers.XMLSerializer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+public class WebServiceClientTest {
+    private static final long PAYLOAD_SIZE = 200 * 1024 * 1024;
+    private static final String DUPLICATE_VALUE = "<valueSet><value>10.0.0.1</value></valueSet>";
+
+    private Serializer jsonSerializer = new JSONSerializer(new JAXBContextBuilder().createContextForJSON());
+    private Serializer xmlSerializer = spy(new XMLSerializer(new JAXBContextBuilder().createContextForXML()));
+    private byte[] smallListJson;
+    private byte[] bigListXml;
+    private Set<SocketAddress> clientAddresses = new CopyOnWriteArraySet<>();
+    private AtomicLong bytesSent = new AtomicLong();
+    private AtomicLong bytesSentWhenParsingStarted = new AtomicLong(-1);
+    private HttpServer server;
+    private WebServiceClient webServiceClient;
+
+    @Before
+    public void setUp() throws Exception {
+        smallListJson = jsonSerializer.serializeToByteArray(new NamespacedList("list", Collections.singleton("10.0.0.1")));
+        bigListXml = xmlSerializer.serializeToByteArray(new NamespacedList("bigList", Collections.singleton("10.0.0.2")), false);
+        doAnswer(invocation -> {
+            bytesSentWhenParsingStarted.set(bytesSent.get());
+            return invocation.callRealMethod();
+        }).when(xmlSerializer).deserialize(any(InputStream.class), any(Class.class));
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/version", exchange -> respond(exchange, MediaType.TEXT_PLAIN, "42".getBytes()));
+        server.createContext("/list", exchange -> respond(exchange, MediaType.APPLICATION_JSON, smallListJson));
+        server.createContext("/bigList", this::respondWithBigList);
+        server.start();
+
+        webServiceClient = new WebServiceClient("http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(webServiceClient, "jsonSerializer", jsonSerializer);
+        ReflectionTestUtils.setField(webServiceClient, "xmlSerializer", xmlSerializer);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        webServiceClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void connectionIsReusedBetweenRequests() {
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(Integer.valueOf(42), webServiceClient.getRequestAsInteger("/version"));
+            Assert.assertEquals("list", webServiceClient.getRequest(NamespacedList.class, "/list").getName());
+        }
+
+        Assert.assertEquals(1, clientAddresses.size());
+    }
+
+    @Test(timeout = 120000)
+    public void bigResponseIsParsedWhileItIsReceivedAndConnectionIsReused() {
+        webServiceClient.getRequestAsInteger("/version");
+
+        NamespacedList list = webServiceClient.getRequest(NamespacedList.class, "/bigList", MediaType.APPLICATION_XML);
+
+        Assert.assertEquals("bigList", list.getName());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("10.0.0.1", "10.0.0.2")), list.getValues());
+        Assert.assertTrue(bytesSent.get() > PAYLOAD_SIZE);
+        // only what fits into socket buffers is sent before client starts to parse response
+        Assert.assertTrue("parsing started after " + bytesSentWhenParsingStarted.get() + " bytes were sent",
+            bytesSentWhenParsingStarted.get() >= 0 && bytesSentWhenParsingStarted.get() < PAYLOAD_SIZE / 10);
+
+        webServiceClient.getRequestAsInteger("/version");
+        Assert.assertEquals(1, clientAddresses.size());
+    }
+
+    private void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        clientAddresses.add(exchange.getRemoteAddress());
+        exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    /**
+     * Sends list with the same value repeated up to {@link #PAYLOAD_SIZE} in chunks, so response is big
+     * but parsed list is small
+     */
+    private void respondWithBigList(HttpExchange exchange) throws IOException {
+        clientAddresses.add(exchange.getRemoteAddress());
+        int valuesStart = new String(bigListXml, StandardCharsets.UTF_8).indexOf("<valueSet>");
+        byte[] values = String.join("", Collections.nCopies(1500, DUPLICATE_VALUE)).getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_XML);
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bigListXml, 0, valuesStart);
+            while (bytesSent.addAndGet(values.length) <= PAYLOAD_SIZE) {
+                output.write(values);
+            }
+            output.write(bigListXml, valuesStart, bigListXml.length - valuesStart);
+        }
+    }
+}
@@ -340,6 +340,12 @@ public class ContextBuilder implements ContextBuilderMain {
         return this;
     }
 
+    @Override
+    public ContextBuilderMain withNamespacedList(String name, long version, String... values) {
+        namespacedLists.add(new TestNamespacedList(name, version, values));
+        return this;
+    }
+
     public HostsBuilder withHosts() {
         return new HostsBuilder() {
             Host currentHost;
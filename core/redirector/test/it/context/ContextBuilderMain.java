@@ -65,6 +65,10 @@ public interface ContextBuilderMain {
         return builderMainSupplier().get().withNamespacedList(name, values);
     }
 
+    default ContextBuilderMain withNamespacedList(String name, long version, String... values) {
+        return builderMainSupplier().get().withNamespacedList(name, version, values);
+    }
+
     default HostsBuilder withHosts() {
         return builderMainSupplier().get().withHosts();
     }
@@ -29,10 +29,16 @@ import java.util.stream.Stream;
 
 public class TestNamespacedList extends TestModelWrapper<NamespacedList> {
     String name;
+    long version;
     Set<Value> values;
 
     public TestNamespacedList(String name, String ... values) {
+        this(name, 0, values);
+    }
+
+    public TestNamespacedList(String name, long version, String ... values) {
         this.name = name;
+        this.version = version;
         this.values = Stream.of(values).map(Value::new).collect(Collectors.toSet());
     }
 
@@ -45,6 +51,7 @@ public class TestNamespacedList extends TestModelWrapper<NamespacedList> {
     public NamespacedList value() {
         NamespacedList list = new NamespacedList();
         list.setName(name);
+        list.setVersion(version);
         //using setRet (deprecated) because TestNamespacedList is marshalled directly to zooKeeper.
         list.setRet(values);
 
@@ -629,12 +629,12 @@ public class IntegrationTestHelper {
             // TODO: this method adds or overwrites zNode in zookeeper but doesn't remove previously existing nodes. So cleanup actions should be added
             log.info("Put namespacedList for app={}", context.getAppName());
 
-            if (context.getNamespacedLists() != null) {
+            if (context.getNamespacedLists() != null && !context.getNamespacedLists().isEmpty()) {
                 for (TestNamespacedList list : context.getNamespacedLists()) {
                     String path = PathHelper.getPathHelper(EntityCategory.GLOBAL, config.getZooKeeperBasePath()).getPath(EntityType.NAMESPACED_LIST, list.getName());
                     dataStoreSupport.getStartedConnector().saveCompressed(list.toString(), path);
-                    bumpNamespacedListVersion();
                 }
+                bumpNamespacedListVersion();
             }
         }
 
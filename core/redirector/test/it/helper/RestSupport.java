@@ -22,6 +22,8 @@ import org.springframework.stereotype.Controller;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.comcast.redirector.common.RedirectorConstants.*;
 import static com.comcast.redirector.common.RedirectorConstants.EndpointPath.VALID_MODEL_EXISTS;
@@ -30,6 +32,10 @@ import static com.comcast.redirector.common.RedirectorConstants.EndpointPath.VAL
 @Path("/redirectorWebService/data")
 public class RestSupport {
     private static final Logger log = LoggerFactory.getLogger(RestSupport.class);
+    public static final String ALL_NAMESPACED_LISTS = "*";
+
+    // names of namespaced lists which values were requested, ALL_NAMESPACED_LISTS when all lists were requested at once
+    private static final List<String> namespacedListsRequests = new CopyOnWriteArrayList<>();
 
     @Autowired
     private ISimpleServiceDAO<Whitelisted> whitelistedDAO;
@@ -122,16 +128,35 @@ public class RestSupport {
         if (!commonBeans.connector().isConnected()) {
             return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
         }
+        namespacedListsRequests.add(ALL_NAMESPACED_LISTS);
         return Response.ok(extractAllNamespacedLists()).build();
     }
 
     @GET
-    @Path(NAMESPACE_CONTROLLER_PATH + "getOne/{name}")
+    @Path(NAMESPACE_CONTROLLER_PATH + "/getAllNamespacedListsWithoutValues")
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+    public Response getAllNamespacesWithoutValues() {
+        if (!commonBeans.connector().isConnected()) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
+        }
+        Namespaces namespaces = extractAllNamespacedLists();
+        if (namespaces != null) {
+            namespaces.getNamespaces().forEach(list -> {
+                list.setValueCount(list.getValueSet() != null ? list.getValueSet().size() : 0);
+                list.setValueSet(null);
+            });
+        }
+        return Response.ok(namespaces).build();
+    }
+
+    @GET
+    @Path(NAMESPACE_CONTROLLER_PATH + "/getOne/{name}")
     @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
     public Response getNamespace(@PathParam("name") final String name) {
         if (!commonBeans.connector().isConnected()) {
             return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
         }
+        namespacedListsRequests.add(name);
 
         NamespacedList namespacedList = extractNamespacedListByName(name);
         if (namespacedList == null) {
@@ -218,6 +243,10 @@ public class RestSupport {
         return Response.ok(Boolean.TRUE).build();
     }
     
+    public static List<String> getNamespacedListsRequests() {
+        return namespacedListsRequests;
+    }
+
     private Namespaces extractAllNamespacedLists() {
         try {
             Namespaces namespaces = new Namespaces();
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.offline;
+
+import com.comcast.redirector.core.modelupdate.holder.IDataStoreAwareNamespacedListsHolder;
+import com.comcast.redirector.core.spring.IntegrationTestConfigBeans;
+import com.comcast.redirector.ruleengine.model.IpRangeIndex;
+import com.comcast.xre.common.redirector.selector.xmlimpl.Config;
+import it.context.ContextBuilder;
+import it.context.ContextBuilderMain;
+import it.helper.RestSupport;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static it.context.ContextBuilderUtils.*;
+import static it.context.Operations.EQUALS;
+
+/**
+ * Redirector requests only namespaced lists which versions have changed and keeps ip indexes of other lists
+ */
+public class NamespacedListsSyncIntegrationTest extends BaseOfflineIntegrationTest {
+    private static final String NS_LIST_SYNC_APP = "NS_LIST_SYNC_APP";
+    private static final int LISTS = 500;
+    private static final String CHANGED_LIST = ipList(7);
+
+    private IDataStoreAwareNamespacedListsHolder namespacedListsHolder;
+
+    @Before
+    public void init() throws Exception {
+        super.init(IntegrationTestConfigBeans.Profiles.OFFLINE_NAMESPACED_LISTS.getName());
+        ((Config)config).setExcludedAppsForStackAutoDiscovery(NS_LIST_SYNC_APP);
+        namespacedListsHolder = applicationContext.getBean(IDataStoreAwareNamespacedListsHolder.class);
+        httpServer.start();
+    }
+
+    @Test(timeout = 300000)
+    public void onlyChangedList_IsTransferredAndReindexed() throws Exception {
+        ContextBuilderMain contextBuilder = contextBuilderWithoutNamespacedLists();
+        for (int i = 0; i < LISTS; i++) {
+            contextBuilder.withNamespacedList(ipList(i), 1, "10.0." + i / 256 + "." + i % 256);
+        }
+        setupDataSourceBasedTestHelper(contextBuilder.build()).startDataStoreAndSetupModel();
+        waitFor(() -> namespacedListsHolder.getNamespacedListsBatch().getNamespacedLists().size() == LISTS
+            && !namespacedListsHolder.isNamespacedListsOutOfDate());
+
+        Map<String, IpRangeIndex> indexes = new HashMap<>();
+        for (int i = 0; i < LISTS; i++) {
+            indexes.put(ipList(i), namespacedListsHolder.getIpRangeIndexFromNamespacedList(ipList(i)));
+        }
+        RestSupport.getNamespacedListsRequests().clear();
+
+        prepareTestHelperForUpdateRedirectorModel(new ContextBuilder().forApp(NS_LIST_SYNC_APP)
+            .withNamespacedList(CHANGED_LIST, 2, "11.0.0.1").build())
+            .getDataStore().putNamespacedList();
+        waitFor(() -> namespacedListsHolder.getNamespacedListValues(CHANGED_LIST).contains("11.0.0.1"));
+
+        Assert.assertEquals(Collections.singletonList(CHANGED_LIST), RestSupport.getNamespacedListsRequests());
+        Assert.assertEquals(LISTS, namespacedListsHolder.getNamespacedListsBatch().getNamespacedLists().size());
+        for (int i = 0; i < LISTS; i++) {
+            IpRangeIndex index = namespacedListsHolder.getIpRangeIndexFromNamespacedList(ipList(i));
+            if (ipList(i).equals(CHANGED_LIST)) {
+                Assert.assertNotSame(indexes.get(ipList(i)), index);
+                Assert.assertTrue(index.contains(IpRangeIndex.toNumeric("11.0.0.1")));
+            } else {
+                Assert.assertSame(ipList(i), indexes.get(ipList(i)), index);
+            }
+        }
+    }
+
+    private static String ipList(int i) {
+        return "ipList" + i;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+    }
+
+    private ContextBuilderMain contextBuilderWithoutNamespacedLists() {
+        return new ContextBuilder().forApp(NS_LIST_SYNC_APP).dynamic(false)
+            .withFlavorRule().left("A").operation(EQUALS).right("B").flavor(getRuleFlavorForApp(NS_LIST_SYNC_APP))
+            .withDefaultServer().flavor(getDefaultFlavorForApp(NS_LIST_SYNC_APP))
+            .withDistribution().percent("50.00").flavor(getDistributionFlavorForApp(NS_LIST_SYNC_APP))
+            .withDefaultUrlParams().urn("shell").protocol("xre").port("10001").ipv("4")
+            .withWhitelist(WHITELISTED_STACK)
+            .withHosts()
+                .stack(WHITELISTED_STACK).flavorRuleFlavor().ipv4("10.0.0.1").ipv6("ff01::41").currentApp()
+                .stack(WHITELISTED_STACK).defaultFlavor().ipv4("10.0.0.2").ipv6("ff01::42").currentApp()
+                .stack(WHITELISTED_STACK).distributionFlavor().ipv4("10.0.0.4").ipv6("ff01::44").currentApp()
+            .withApplications(NS_LIST_SYNC_APP);
+    }
+}
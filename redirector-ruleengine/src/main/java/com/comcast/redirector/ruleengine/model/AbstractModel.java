@@ -53,6 +53,8 @@ public abstract class AbstractModel {
     public static final String TAG_IS_EMPTY = "isEmpty";
 
     private NamespacedListRepository namespacedListHolder;
+    private final Set<String> parameterNames = new HashSet<>();
+    private final ParameterSlots parameterSlots = new ParameterSlots();
 
     static {
         TAG_MAP.put(TAG_IF, IfStatement.class);
@@ -101,6 +103,25 @@ public abstract class AbstractModel {
         return result;
     }
 
+    /**
+     * Creates element of given tag for building model without DOM, content of the element is set by its typed
+     * init method
+     */
+    public <T extends LanguageElement> T createLanguageElement(String tagName, Class<T> type) {
+        Class<? extends LanguageElement> clazz = TAG_MAP.get(tagName);
+        if (clazz == null || !type.isAssignableFrom(clazz)) {
+            throw new IllegalStateException("Unknown Tag: " + tagName);
+        }
+        T result;
+        try {
+            result = type.cast(clazz.newInstance());
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        result.init(this, tagName);
+        return result;
+    }
+
     public abstract Object execute(Map<String, String> params);
 
     public abstract Object executeDefault(Map<String, String> params);
@@ -110,4 +131,19 @@ public abstract class AbstractModel {
     public NamespacedListRepository getNamespacedListHolder() {
         return namespacedListHolder;
     }
+
+    /**
+     * @return names of all request params the model reads, collected while model is built
+     */
+    public Set<String> getParameterNames() {
+        return Collections.unmodifiableSet(parameterNames);
+    }
+
+    public void addParameterName(String parameterName) {
+        parameterNames.add(parameterName);
+    }
+
+    ParameterSlots getParameterSlots() {
+        return parameterSlots;
+    }
 }
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.comcast.redirector.ruleengine.model;
+
+import com.comcast.redirector.ruleengine.model.expressions.CompiledExpression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flavor rules of {@link Model} prepared for evaluation on redirect path. Is built once per model,
+ * when the model is created.
+ * <p/>
+ * Every chain of nested if statements is flattened into an array of compiled conditions followed by the return statement,
+ * so the rule is a plain loop instead of recursive execution of statements. If statement having else branch ends
+ * the chain with compiled condition choosing between then and else chains. Conditions which are always true are
+ * dropped, conditions which are always false drop the chain they belong to.
+ */
+public class CompiledModel {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompiledModel.class);
+
+    private final IfStatement[] sources;
+    private final Rule[] rules;
+    private final Statement distributionStatement;
+
+    CompiledModel(SelectServer selectServer) {
+        List<IfStatement> sources = new ArrayList<>();
+        List<Rule> rules = new ArrayList<>();
+        for (IfStatement ifStatement : selectServer.getIfStatements()) {
+            Rule rule = Rule.of(ifStatement);
+            if (rule != null) {
+                sources.add(ifStatement);
+                rules.add(rule);
+            }
+        }
+        this.sources = sources.toArray(new IfStatement[sources.size()]);
+        this.rules = rules.toArray(new Rule[rules.size()]);
+        distributionStatement = selectServer.getDistributionStatement();
+    }
+
+    public Object execute(Map<String, String> params) {
+        // rules usually check the same few params many times, so they are read and converted once per request
+        params = RequestContext.of(params);
+        Object result;
+        for (int i = 0; i < rules.length; i++) {
+            result = rules[i].execute(params);
+            if (result != null) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("\n" + sources[i].toString(LanguageElement.printSpacing, params));
+                }
+                return result;
+            }
+        }
+        result = distributionStatement.execute(params);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("\nNo if statements were matched.  Using distribution statement for " +
+                    "receiverID(" + params.get("receiverId") + "): " + result);
+        }
+
+        return result;
+    }
+
+    private static class Rule {
+        private final CompiledExpression[] conditions;
+        private final Statement statement;
+        private final CompiledExpression branch;
+        private final Rule then;
+        private final Rule otherwise;
+
+        private Rule(List<CompiledExpression> conditions, Statement statement,
+                     CompiledExpression branch, Rule then, Rule otherwise) {
+            this.conditions = conditions.toArray(new CompiledExpression[conditions.size()]);
+            this.statement = statement;
+            this.branch = branch;
+            this.then = then;
+            this.otherwise = otherwise;
+        }
+
+        /**
+         * @return rule executing given statement or null if the statement can't return anything
+         */
+        static Rule of(Statement statement) {
+            List<CompiledExpression> conditions = new ArrayList<>();
+            while (statement instanceof IfStatement) {
+                IfStatement ifStatement = (IfStatement) statement;
+                CompiledExpression condition = ifStatement.getExpression().compile();
+                Statement elseStatement = ifStatement.getElseStatement();
+                if (elseStatement != null) {
+                    if (CompiledExpression.isConstant(condition)) {
+                        statement = (condition == CompiledExpression.TRUE) ? ifStatement.getThenStatement() : elseStatement;
+                        continue;
+                    }
+                    Rule then = of(ifStatement.getThenStatement());
+                    Rule otherwise = of(elseStatement);
+                    if (then == null && otherwise == null) {
+                        return null;
+                    }
+                    return new Rule(conditions, null, condition, then, otherwise);
+                }
+                if (condition == CompiledExpression.FALSE) {
+                    return null;
+                } else if (condition != CompiledExpression.TRUE) {
+                    conditions.add(condition);
+                }
+                statement = ifStatement.getThenStatement();
+            }
+            return new Rule(conditions, statement, null, null, null);
+        }
+
+        Object execute(Map<String, String> params) {
+            for (CompiledExpression condition : conditions) {
+                if (!condition.evaluate(params)) {
+                    return null;
+                }
+            }
+            if (branch == null) {
+                return statement.execute(params);
+            }
+            Rule next = branch.evaluate(params) ? then : otherwise;
+            return (next != null) ? next.execute(params) : null;
+        }
+    }
+}
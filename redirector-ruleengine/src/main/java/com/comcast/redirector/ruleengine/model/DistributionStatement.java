@@ -17,7 +17,6 @@
 package com.comcast.redirector.ruleengine.model;
 
 import com.google.common.base.Charsets;
-import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -25,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -61,6 +61,8 @@ public class DistributionStatement extends Statement {
     @Override
     protected void init(Element element) {
         List<Element> distributionChildren = getChildElements(element);
+        List<Double> percents = new ArrayList<>();
+        List<Server> servers = new ArrayList<>();
         // every child element except the last
         for (int i = 0; i < distributionChildren.size() - 1; i++) {
             // validate tag name
@@ -76,10 +78,8 @@ public class DistributionStatement extends Statement {
                         "found " + groupChildren .size() + " elements");
             }
             // validate and extract values
-            double percent = validateAndExtractPercentValue(groupChildren.size() == 2 ? groupChildren.get(0) : groupChildren.get(1));
-            ServerReturnStatement returnStatement = validateAndExtractReturnStatement(groupChildren.size() == 2 ? groupChildren.get(1) : groupChildren.get(2));
-            // add new group
-            distribution.addFirstOrIntermediateGroup(percent, returnStatement);
+            percents.add(validateAndExtractPercentValue(groupChildren.size() == 2 ? groupChildren.get(0) : groupChildren.get(1)));
+            servers.add(validateAndExtractServer(groupChildren.size() == 2 ? groupChildren.get(1) : groupChildren.get(2)));
         }
 
         // the last child element
@@ -88,8 +88,24 @@ public class DistributionStatement extends Statement {
         if (!distributionChild.getTagName().equals(Model.TAG_SERVER)) {
             throw new IllegalStateException("distribution last child element must be server. found: " + distributionChild.getTagName());
         }
-        ServerReturnStatement returnStatement = new ServerReturnStatement((Server) model.createLanguageElement(distributionChild));
-        distribution.addLastGroup(returnStatement);
+        init(percents, servers, (Server) model.createLanguageElement(distributionChild));
+    }
+
+    /**
+     * @param percents percents of servers of the same index
+     * @param defaultServer server which gets the rest of traffic
+     */
+    public void init(List<Double> percents, List<Server> servers, Server defaultServer) {
+        model.addParameterName(ATTRIBUTE_ACCOUNT_ID);
+        model.addParameterName(ATTRIBUTE_MAC);
+        for (int i = 0; i < percents.size(); i++) {
+            double percent = percents.get(i);
+            if (percent <= 0.0 || percent >= 100.0) {
+                throw new IllegalArgumentException("distribution percent must be greater than 0 and lesser than 100. found: " + percent);
+            }
+            distribution.addFirstOrIntermediateGroup(percent, new ServerReturnStatement(servers.get(i)));
+        }
+        distribution.addLastGroup(new ServerReturnStatement(defaultServer));
     }
 
     public Distribution getDistribution() {
@@ -126,17 +142,14 @@ public class DistributionStatement extends Statement {
         } catch (NumberFormatException ex) {
             throw new IllegalArgumentException("distribution percent must be a number. found: " + strPercentValue);
         }
-        if (result <= 0.0 || result >= 100.0) {
-            throw new IllegalArgumentException("distribution percent must be greater than 0 and lesser than 100. found: " + element);
-        }
         return result;
     }
 
-    private ServerReturnStatement validateAndExtractReturnStatement(Element element) {
+    private Server validateAndExtractServer(Element element) {
         if (!element.getTagName().equals(Model.TAG_SERVER)) {
             throw new IllegalStateException("distribution group second child must be a return statement. found: " + element.getTagName());
         }
-        return new ServerReturnStatement((Server) model.createLanguageElement(element));
+        return (Server) model.createLanguageElement(element);
     }
 
     /**
@@ -156,6 +169,8 @@ public class DistributionStatement extends Statement {
         private List<Group> groups = new ArrayList<>();
         private Group lastGroup = null;
         private double lastUpperBound = 0.0; // for add*Group methods, not used for get
+        // hash thresholds of groups in the same order, sorted since upper bounds only grow
+        private long[] upperBoundHashes = new long[0];
 
         public void addFirstOrIntermediateGroup(double percent, ServerReturnStatement returnStatement) {
             if (lastGroup != null) {
@@ -164,6 +179,8 @@ public class DistributionStatement extends Statement {
             lastUpperBound += percent;
             returnStatement.setType(ReturnStatementType.DISTRIBUTION_RULE);
             groups.add(new Group(lastUpperBound, returnStatement));
+            upperBoundHashes = Arrays.copyOf(upperBoundHashes, groups.size());
+            upperBoundHashes[groups.size() - 1] = toPercentHash(lastUpperBound);
         }
 
         public void addLastGroup(ServerReturnStatement returnStatement) throws IllegalStateException {
@@ -184,21 +201,45 @@ public class DistributionStatement extends Statement {
         public ReturnStatement get(Map<String, String> params) {
             boolean hasValidAccountIdParam = params.containsKey(ATTRIBUTE_ACCOUNT_ID) && StringUtils.isNotBlank(params.get(ATTRIBUTE_ACCOUNT_ID));
             String calculationAttribute = hasValidAccountIdParam ? params.get(ATTRIBUTE_ACCOUNT_ID) : params.get(ATTRIBUTE_MAC);
-            String calculationAttributeType = hasValidAccountIdParam ? "accountId" : "mac";
             if (calculationAttribute != null) {
-                for (Group group : groups) {
-                    if (fitsPercent(calculationAttribute, group.getUpperBound())) {
-                        Server sg = (Server) group.getReturnStatement().value;
-                        log.info("Distribution stickiness applied. " + calculationAttributeType + " = " + calculationAttribute + ", appliedDistribution = " + group.getUpperBound() + "%" + ", groupFlavor = " + sg.getPath());
-                        return group.getReturnStatement();
+                int index = indexOf(calculationAttribute);
+                if (index < groups.size()) {
+                    Group group = groups.get(index);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Distribution stickiness applied. {} = {}, appliedDistribution = {}%, groupFlavor = {}",
+                                hasValidAccountIdParam ? "accountId" : "mac", calculationAttribute, group.getUpperBound(),
+                                ((Server) group.getReturnStatement().value).getPath());
                     }
+                    return group.getReturnStatement();
                 }
             }
-            Server sg = (Server) lastGroup.getReturnStatement().value;
-            log.info("Applied serverGroup = " + sg.getName() + ", " + calculationAttributeType + " = " + calculationAttribute + ", appliedPercentage = " + lastGroup.getUpperBound() + "%" + ", groupFlavor = " + sg.getPath());
+            if (log.isDebugEnabled()) {
+                Server sg = (Server) lastGroup.getReturnStatement().value;
+                log.debug("Applied serverGroup = {}, {} = {}, appliedPercentage = {}%, groupFlavor = {}",
+                        sg.getName(), hasValidAccountIdParam ? "accountId" : "mac", calculationAttribute, lastGroup.getUpperBound(), sg.getPath());
+            }
             return lastGroup.getReturnStatement();
         }
 
+        /**
+         * @return index of the first group which upper bound covers hash of given attribute or number of groups
+         * if there is no such group
+         */
+        private int indexOf(String calculationAttribute) {
+            long hash = Math.abs(Hashing.sipHash24().hashString(calculationAttribute, Charsets.UTF_8).asLong());
+            int low = 0;
+            int high = upperBoundHashes.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (upperBoundHashes[middle] >= hash) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+
         public String toString(int indent, Map<String, String> params) {
             StringBuilder sb = new StringBuilder();
             sb.append(doSpacing("distribution \n", indent));
@@ -213,10 +254,8 @@ public class DistributionStatement extends Statement {
             return sb.toString();
         }
 
-        private boolean fitsPercent(String accountId, double percent) {
-            HashCode hashcode = Hashing.sipHash24().hashString(accountId, Charsets.UTF_8);
-            long percentHashLong = (long)(Long.MAX_VALUE / 10000 * (percent * 100));
-            return (percentHashLong >= Math.abs(hashcode.asLong()));
+        private long toPercentHash(double percent) {
+            return (long)(Long.MAX_VALUE / 10000 * (percent * 100));
         }
     }
 
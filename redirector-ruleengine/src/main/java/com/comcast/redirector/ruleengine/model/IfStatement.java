@@ -78,35 +78,54 @@ public class IfStatement extends Statement implements Comparable<IfStatement> {
                     + children.get(0).getTagName());
         }
 
-        if (element.hasAttribute(IfStatement.ID))
-            id = element.getAttribute(IfStatement.ID);
-
-        this.expression = (BooleanExpression) expression;
-        priority = getExpressionPriority(this.expression);
-
         // ensure the second element is a statement
         LanguageElement statement1 = model.createLanguageElement(children.get(1));
         if (!(statement1 instanceof Statement)) {
             throw new IllegalStateException("2nd element of if must be a statement; found: "
                     + children.get(1).getTagName());
         }
-        this.statement1 = (Statement) statement1;
 
         // ensure the third element if present is also a statement
+        LanguageElement statement2 = null;
         if (children.size() == 3) {
-            LanguageElement statement2 = model.createLanguageElement(children.get(2));
+            statement2 = model.createLanguageElement(children.get(2));
             if (!(statement2 instanceof Statement)) {
                 throw new IllegalStateException("2nd element of if must be a statement; found: "
                         + children.get(2).getTagName());
             }
-            this.statement2 = (Statement) statement2;
         }
+
+        init(element.hasAttribute(IfStatement.ID) ? element.getAttribute(IfStatement.ID) : null,
+                (BooleanExpression) expression, (Statement) statement1, (Statement) statement2);
+    }
+
+    /**
+     * @param elseStatement statement executed when expression is false, may be null
+     */
+    public void init(String id, BooleanExpression expression, Statement thenStatement, Statement elseStatement) {
+        this.id = id;
+        this.expression = expression;
+        priority = getExpressionPriority(this.expression);
+        this.statement1 = thenStatement;
+        this.statement2 = elseStatement;
     }
 
     public String getId() {
         return id;
     }
 
+    BooleanExpression getExpression() {
+        return expression;
+    }
+
+    Statement getThenStatement() {
+        return statement1;
+    }
+
+    Statement getElseStatement() {
+        return statement2;
+    }
+
     @Override
     public Object execute(Map<String, String> params) {
         boolean result = expression.evaluateExpression(params);
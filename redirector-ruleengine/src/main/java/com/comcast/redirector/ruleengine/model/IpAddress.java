@@ -57,6 +57,14 @@ public class IpAddress implements Comparable<IpAddress> {
         return highAddress.getHostAddress();
     }
 
+    public byte[] getLowAddressBytes() {
+        return lowAddress.getAddress();
+    }
+
+    public byte[] getHighAddressBytes() {
+        return highAddress.getAddress();
+    }
+
     public boolean isIpv6() {
         return ipv6;
     }
@@ -0,0 +1,241 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.model;
+
+import sun.net.util.IPAddressUtil;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable index of ip addresses and subnets for checking whether a single address belongs to any of them.
+ * <p/>
+ * Every address is treated as unsigned 128 bit number split into two longs (IPv4 addresses have zero high part),
+ * which is the same ordering {@link IpAddress#isInRange(IpAddress)} uses. Ranges are sorted and overlapping ones
+ * are merged when index is built, so lookup is a binary search over primitive arrays and allocates nothing.
+ */
+public final class IpRangeIndex {
+    public static final IpRangeIndex EMPTY = new IpRangeIndex(new long[0], new long[0], new long[0], new long[0]);
+
+    /**
+     * Returned by {@link #parseIpv4(String)} when given string is not a dotted-quad IPv4 address
+     */
+    public static final long NOT_IPV4 = -1;
+
+    private final long[] startHigh;
+    private final long[] startLow;
+    private final long[] endHigh;
+    private final long[] endLow;
+
+    private IpRangeIndex(long[] startHigh, long[] startLow, long[] endHigh, long[] endLow) {
+        this.startHigh = startHigh;
+        this.startLow = startLow;
+        this.endHigh = endHigh;
+        this.endLow = endLow;
+    }
+
+    public static IpRangeIndex of(Collection<IpAddress> addresses) {
+        if (addresses == null || addresses.isEmpty()) {
+            return EMPTY;
+        }
+
+        long[][] ranges = new long[addresses.size()][];
+        int count = 0;
+        for (IpAddress address : addresses) {
+            byte[] low = address.getLowAddressBytes();
+            byte[] high = address.getHighAddressBytes();
+            ranges[count++] = new long[]{high(low), low(low), high(high), low(high)};
+        }
+        Arrays.sort(ranges, (first, second) -> compare(first[0], first[1], second[0], second[1]));
+
+        long[] startHigh = new long[count];
+        long[] startLow = new long[count];
+        long[] endHigh = new long[count];
+        long[] endLow = new long[count];
+        int merged = -1;
+        for (long[] range : ranges) {
+            if (merged >= 0 && compare(range[0], range[1], endHigh[merged], endLow[merged]) <= 0) {
+                if (compare(range[2], range[3], endHigh[merged], endLow[merged]) > 0) {
+                    endHigh[merged] = range[2];
+                    endLow[merged] = range[3];
+                }
+                continue;
+            }
+            merged++;
+            startHigh[merged] = range[0];
+            startLow[merged] = range[1];
+            endHigh[merged] = range[2];
+            endLow[merged] = range[3];
+        }
+
+        int size = merged + 1;
+        return new IpRangeIndex(
+            Arrays.copyOf(startHigh, size), Arrays.copyOf(startLow, size),
+            Arrays.copyOf(endHigh, size), Arrays.copyOf(endLow, size));
+    }
+
+    /**
+     * Restores index saved by {@link #toRanges()} without parsing and merging addresses again.
+     *
+     * @param ranges start high, start low, end high and end low of every range
+     */
+    public static IpRangeIndex fromRanges(long[] ranges) {
+        if (ranges.length % 4 != 0) {
+            throw new IllegalArgumentException("Every range should have 4 parts, got " + ranges.length + " parts");
+        }
+        int size = ranges.length / 4;
+        if (size == 0) {
+            return EMPTY;
+        }
+        long[] startHigh = new long[size];
+        long[] startLow = new long[size];
+        long[] endHigh = new long[size];
+        long[] endLow = new long[size];
+        for (int i = 0; i < size; i++) {
+            startHigh[i] = ranges[i * 4];
+            startLow[i] = ranges[i * 4 + 1];
+            endHigh[i] = ranges[i * 4 + 2];
+            endLow[i] = ranges[i * 4 + 3];
+            if (compare(startHigh[i], startLow[i], endHigh[i], endLow[i]) > 0
+                    || (i > 0 && compare(endHigh[i - 1], endLow[i - 1], startHigh[i], startLow[i]) >= 0)) {
+                throw new IllegalArgumentException("Ranges are not sorted or overlap at range " + i);
+            }
+        }
+        return new IpRangeIndex(startHigh, startLow, endHigh, endLow);
+    }
+
+    /**
+     * @return sorted merged ranges, 4 longs per range in the form {@link #fromRanges(long[])} accepts
+     */
+    public long[] toRanges() {
+        long[] ranges = new long[startHigh.length * 4];
+        for (int i = 0; i < startHigh.length; i++) {
+            ranges[i * 4] = startHigh[i];
+            ranges[i * 4 + 1] = startLow[i];
+            ranges[i * 4 + 2] = endHigh[i];
+            ranges[i * 4 + 3] = endLow[i];
+        }
+        return ranges;
+    }
+
+    /**
+     * @param high high 64 bits of address, 0 for IPv4
+     * @param low low 64 bits of address
+     * @return true if address belongs to one of indexed addresses or subnets
+     */
+    public boolean contains(long high, long low) {
+        int from = 0;
+        int to = startHigh.length - 1;
+        int candidate = -1;
+        while (from <= to) {
+            int middle = (from + to) >>> 1;
+            if (compare(startHigh[middle], startLow[middle], high, low) <= 0) {
+                candidate = middle;
+                from = middle + 1;
+            } else {
+                to = middle - 1;
+            }
+        }
+        return candidate >= 0 && compare(high, low, endHigh[candidate], endLow[candidate]) <= 0;
+    }
+
+    public boolean contains(byte[] address) {
+        return contains(high(address), low(address));
+    }
+
+    public boolean isEmpty() {
+        return startHigh.length == 0;
+    }
+
+    /**
+     * @return number of ranges left after merging overlapping ones
+     */
+    public int size() {
+        return startHigh.length;
+    }
+
+    /**
+     * Parses dotted-quad IPv4 address without allocating anything.
+     *
+     * @return address as unsigned 32 bit value or {@link #NOT_IPV4} if string is not in a.b.c.d form
+     */
+    public static long parseIpv4(String address) {
+        int length = address.length();
+        if (length < 7 || length > 15) {
+            return NOT_IPV4;
+        }
+        long result = 0;
+        int octets = 0;
+        int octet = 0;
+        int digits = 0;
+        for (int i = 0; i < length; i++) {
+            char c = address.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return NOT_IPV4;
+                }
+            } else if (c == '.' && digits > 0 && octets < 3) {
+                result = (result << 8) | octet;
+                octets++;
+                octet = 0;
+                digits = 0;
+            } else {
+                return NOT_IPV4;
+            }
+        }
+        if (digits == 0 || octets != 3) {
+            return NOT_IPV4;
+        }
+        return (result << 8) | octet;
+    }
+
+    /**
+     * Converts any IPv4 or IPv6 literal accepted by {@link IpAddress#isValid(String)} into its numeric form.
+     *
+     * @return 4 or 16 bytes of address or null if string is not an ip address literal
+     */
+    public static byte[] toNumeric(String address) {
+        byte[] result = IPAddressUtil.textToNumericFormatV4(address);
+        return result != null ? result : IPAddressUtil.textToNumericFormatV6(address);
+    }
+
+    private static int compare(long firstHigh, long firstLow, long secondHigh, long secondLow) {
+        int result = Long.compareUnsigned(firstHigh, secondHigh);
+        return result != 0 ? result : Long.compareUnsigned(firstLow, secondLow);
+    }
+
+    /**
+     * @return high 64 bits of address given as 4 or 16 bytes, IPv4 addresses have zero high part
+     */
+    public static long high(byte[] address) {
+        return address.length == 16 ? toLong(address, 0) : 0;
+    }
+
+    /**
+     * @return low 64 bits of address given as 4 or 16 bytes
+     */
+    public static long low(byte[] address) {
+        return address.length == 16 ? toLong(address, 8) : (toLong(address, 0) >>> 32);
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+        long result = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            result = (result << 8) | (i < bytes.length ? bytes[i] & 0xFF : 0);
+        }
+        return result;
+    }
+}
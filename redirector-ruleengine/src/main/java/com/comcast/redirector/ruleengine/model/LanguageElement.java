@@ -30,10 +30,17 @@ public abstract class LanguageElement {
 	
 	public void init(AbstractModel model, Element element)
 	{
-		this.model = model;
-		name = element.getTagName();
+		init(model, element.getTagName());
 		init(element);
 	}
+
+	/**
+	 * Binds element to the model when it's built without DOM. Content is then set by typed init method of the element
+	 */
+	void init(AbstractModel model, String name) {
+		this.model = model;
+		this.name = name;
+	}
 	
 	protected abstract void init(Element element);
 	
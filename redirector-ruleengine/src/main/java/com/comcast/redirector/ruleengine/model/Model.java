@@ -19,22 +19,31 @@ import com.comcast.redirector.ruleengine.repository.NamespacedListRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public class Model extends AbstractModel {
     private static final Logger LOGGER = LoggerFactory.getLogger(Model.class);
 
     private SelectServer selectServer;
+    private CompiledModel compiledModel;
 
     public Model(Document document, NamespacedListRepository namespacedListHolder) throws RuleEngineInitException {
+        this(namespacedListHolder, model -> (SelectServer) model.createLanguageElement(document.getDocumentElement()));
+    }
+
+    /**
+     * @param builder builds root element of the model, e.g. straight from API objects without going through DOM
+     */
+    public Model(NamespacedListRepository namespacedListHolder, Function<AbstractModel, SelectServer> builder) throws RuleEngineInitException {
         super(namespacedListHolder);
         try {
-            Element root = document.getDocumentElement();
-            selectServer = (SelectServer) createLanguageElement(root);
+            selectServer = builder.apply(this);
+            compiledModel = new CompiledModel(selectServer);
         } catch (Exception e) {
             throw new RuleEngineInitException("Error encountered initializing model. See nested exception:", e);
         }
@@ -68,8 +77,18 @@ public class Model extends AbstractModel {
         return serverList;
     }
 
+    /**
+     * Evaluates rules compiled once when model was built. Gives the same result as {@link #interpret(Map)}
+     */
     @Override
     public Object execute(Map<String, String> params) {
+        return compiledModel.execute(params);
+    }
+
+    /**
+     * Evaluates rules by walking the tree of language elements
+     */
+    public Object interpret(Map<String, String> params) {
         Object result;
         for (IfStatement ifStatement : selectServer.getIfStatements()) {
             result = ifStatement.execute(params);
@@ -90,6 +109,23 @@ public class Model extends AbstractModel {
         return result;
     }
 
+    /**
+     * @return rules in the order they are evaluated followed by distribution, the way they are printed for debugging
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (IfStatement ifStatement : selectServer.getIfStatements()) {
+            sb.append(ifStatement.getId()).append('\n');
+            sb.append(ifStatement.toString(LanguageElement.printSpacing, Collections.<String, String>emptyMap()));
+        }
+        Statement distributionStatement = selectServer.getDistributionStatement();
+        if (distributionStatement != null) {
+            sb.append(distributionStatement.toString(LanguageElement.printSpacing, Collections.<String, String>emptyMap()));
+        }
+        return sb.toString();
+    }
+
     @Override
     public Object executeDefault(Map<String, String> params) {
         DistributionStatement distributionStatement = (DistributionStatement) selectServer.getDistributionStatement();
@@ -0,0 +1,247 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.model;
+
+/**
+ * Parses numbers the same way {@link Double#parseDouble(String)} does, but doesn't throw for strings which are not
+ * numbers, so it's cheap to try to parse any param value.
+ * <p/>
+ * Short decimals, which are the most of param values, are converted without {@link Double#parseDouble(String)}:
+ * mantissa of up to 15 digits and power of ten up to 22 are both exact doubles, so single multiplication or division
+ * gives correctly rounded result. Other valid numbers are delegated to {@link Double#parseDouble(String)}.
+ */
+public final class NumberParser {
+    private static final int MAX_FAST_PATH_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private NumberParser() {
+    }
+
+    /**
+     * @return true if {@link Double#parseDouble(String)} accepts the value
+     */
+    public static boolean isNumber(String value) {
+        return value != null && isValid(value);
+    }
+
+    /**
+     * @return parsed value or {@link Double#NaN} if value is not a number. Since "NaN" is a number too,
+     * use {@link #isNumber(String)} to tell one from another when NaN is returned
+     */
+    public static double parseDouble(String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        int start = trimStart(value);
+        int end = trimEnd(value, start);
+        if (start == end) {
+            return Double.NaN;
+        }
+
+        int i = start;
+        boolean negative = false;
+        char c = value.charAt(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (point) {
+                    fractionDigits++;
+                }
+                if (significantDigits > 0 || c != '0') {
+                    if (++significantDigits > MAX_FAST_PATH_DIGITS) {
+                        return parseValid(value);
+                    }
+                }
+                mantissa = mantissa * 10 + (c - '0');
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return parseValid(value);
+        }
+
+        int exponent = 0;
+        if (i < end && (c == 'e' || c == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                negativeExponent = value.charAt(i) == '-';
+                i++;
+            }
+            int exponentDigits = 0;
+            for (; i < end && value.charAt(i) >= '0' && value.charAt(i) <= '9'; i++) {
+                if (++exponentDigits > 3) {
+                    return parseValid(value);
+                }
+                exponent = exponent * 10 + (value.charAt(i) - '0');
+            }
+            if (exponentDigits == 0) {
+                return Double.NaN;
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        if (i < end) {
+            c = value.charAt(i);
+            if (i != end - 1 || (c != 'f' && c != 'F' && c != 'd' && c != 'D')) {
+                // hexadecimal or not a number
+                return parseValid(value);
+            }
+        }
+
+        int powerOfTen = exponent - fractionDigits;
+        double result;
+        if (mantissa == 0 || powerOfTen == 0) {
+            result = mantissa;
+        } else if (powerOfTen > 0 && powerOfTen < POWERS_OF_TEN.length) {
+            result = mantissa * POWERS_OF_TEN[powerOfTen];
+        } else if (powerOfTen < 0 && -powerOfTen < POWERS_OF_TEN.length) {
+            result = mantissa / POWERS_OF_TEN[-powerOfTen];
+        } else {
+            return parseValid(value);
+        }
+        return negative ? -result : result;
+    }
+
+    private static double parseValid(String value) {
+        return isNumber(value) ? Double.parseDouble(value) : Double.NaN;
+    }
+
+    /**
+     * Checks value against grammar of {@link Double#valueOf(String)}.
+     */
+    private static boolean isValid(String value) {
+        int start = trimStart(value);
+        int end = trimEnd(value, start);
+        int i = start;
+        if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == end) {
+            return false;
+        }
+
+        if (value.startsWith("NaN", i)) {
+            return i + 3 == end;
+        } else if (value.startsWith("Infinity", i)) {
+            return i + 8 == end;
+        } else if (value.charAt(i) == '0' && i + 1 < end && (value.charAt(i + 1) == 'x' || value.charAt(i + 1) == 'X')) {
+            return isHexNumber(value, i + 2, end);
+        }
+        return isDecimalNumber(value, i, end);
+    }
+
+    private static boolean isDecimalNumber(String value, int i, int end) {
+        int digits = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < end && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i = skipExponent(value, i + 1, end);
+            if (i < 0) {
+                return false;
+            }
+        }
+        return isEndOrSuffix(value, i, end);
+    }
+
+    private static boolean isHexNumber(String value, int i, int end) {
+        int digits = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+            if (Character.digit(c, 16) >= 0 && c < 128) {
+                digits++;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0 || i == end || (value.charAt(i) != 'p' && value.charAt(i) != 'P')) {
+            return false;
+        }
+        i = skipExponent(value, i + 1, end);
+        return i >= 0 && isEndOrSuffix(value, i, end);
+    }
+
+    /**
+     * @return index after exponent digits or -1 if there are no digits
+     */
+    private static int skipExponent(String value, int i, int end) {
+        if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        int start = i;
+        while (i < end && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+            i++;
+        }
+        return i == start ? -1 : i;
+    }
+
+    private static boolean isEndOrSuffix(String value, int i, int end) {
+        if (i == end) {
+            return true;
+        }
+        char c = value.charAt(i);
+        return i == end - 1 && (c == 'f' || c == 'F' || c == 'd' || c == 'D');
+    }
+
+    // same as String.trim()
+    private static int trimStart(String value) {
+        int start = 0;
+        while (start < value.length() && value.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(String value, int start) {
+        int end = value.length();
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+}
@@ -15,6 +15,7 @@
 package com.comcast.redirector.ruleengine.model;
 
 import com.comcast.redirector.ruleengine.Value;
+import com.comcast.redirector.ruleengine.repository.IgnoreCase;
 import org.apache.commons.lang3.StringUtils;
 import org.w3c.dom.Element;
 
@@ -22,38 +23,100 @@ import java.util.Map;
 
 public class Parameter extends LanguageElement implements Value {
     public String parameterName;
+    private ParameterSlots parameterSlots;
+    private int slot;
 
     @Override
     protected void init(Element element) {
-        String text = element.getTextContent().trim();
-        if (StringUtils.isEmpty(text)) {
+        init(element.getTextContent());
+    }
+
+    public void init(String text) {
+        text = StringUtils.trimToEmpty(text);
+        if (text.isEmpty()) {
             throw new IllegalStateException("parameter element has no value");
         }
         parameterName = text;
+        if (model != null) {
+            parameterSlots = model.getParameterSlots();
+            model.addParameterName(parameterName);
+        } else {
+            parameterSlots = new ParameterSlots();
+        }
+        slot = parameterSlots.slotOf(parameterName);
     }
 
 
     public String getStringValue(Map<String, String> params) {
+        if (params instanceof RequestContext) {
+            return slotsOf(params).get(slot, parameterName);
+        }
         return params.get(parameterName);
     }
 
     public double getNumericValue(Map<String, String> params) {
-        try {
-            return Double.parseDouble(params.get(parameterName));
-        } catch (Exception e) {
+        if (params instanceof RequestContext) {
+            RequestContext.ModelSlots slots = slotsOf(params);
+            return slots.isNumber(slot, parameterName) ? slots.getNumber(slot, parameterName) : 0;
         }
-        return 0;
+        String value = params.get(parameterName);
+        double number = NumberParser.parseDouble(value);
+        return Double.isNaN(number) && !NumberParser.isNumber(value) ? 0 : number;
     }
 
     public boolean isNumericValue(Map<String, String> params) {
-        try {
-            Double.parseDouble(params.get(parameterName));
-            return true;
-        } catch (Exception e) {
+        if (params instanceof RequestContext) {
+            return slotsOf(params).isNumber(slot, parameterName);
         }
-        return false;
+        return NumberParser.isNumber(params.get(parameterName));
     }
 
+    /**
+     * @return value folded by {@link IgnoreCase#fold(String)} or null if there is no value
+     */
+    public String getFoldedValue(Map<String, String> params) {
+        if (params instanceof RequestContext) {
+            return slotsOf(params).getFolded(slot, parameterName);
+        }
+        String value = params.get(parameterName);
+        return value != null ? IgnoreCase.fold(value) : null;
+    }
+
+    /**
+     * @return true if value is an IPv4 or IPv6 address literal, see {@link IpRangeIndex#toNumeric(String)}.
+     * Subnets are not addresses
+     */
+    public boolean isAddressValue(Map<String, String> params) {
+        if (params instanceof RequestContext) {
+            return slotsOf(params).isAddress(slot, parameterName);
+        }
+        String value = params.get(parameterName);
+        return value != null && value.indexOf('/') < 0 && IpRangeIndex.toNumeric(value) != null;
+    }
+
+    /**
+     * @return high 64 bits of address, makes sense only if {@link #isAddressValue(Map)} is true
+     */
+    public long getAddressHigh(Map<String, String> params) {
+        if (params instanceof RequestContext) {
+            return slotsOf(params).getAddressHigh(slot, parameterName);
+        }
+        return IpRangeIndex.high(IpRangeIndex.toNumeric(params.get(parameterName)));
+    }
+
+    /**
+     * @return low 64 bits of address, makes sense only if {@link #isAddressValue(Map)} is true
+     */
+    public long getAddressLow(Map<String, String> params) {
+        if (params instanceof RequestContext) {
+            return slotsOf(params).getAddressLow(slot, parameterName);
+        }
+        return IpRangeIndex.low(IpRangeIndex.toNumeric(params.get(parameterName)));
+    }
+
+    private RequestContext.ModelSlots slotsOf(Map<String, String> params) {
+        return ((RequestContext) params).slotsOf(parameterSlots);
+    }
 
     @Override
     public String toString(int indent, Map<String, String> params) {
@@ -0,0 +1,41 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dense numbers of parameter names referenced by one model, used as indexes of {@link RequestContext} slots.
+ * Slots are assigned while the model is built, each model has its own, so they are released along with the model
+ * and there are as many slots as distinct parameter names in the model.
+ */
+final class ParameterSlots {
+    private final ConcurrentMap<String, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+
+    int slotOf(String parameterName) {
+        Integer slot = slots.get(parameterName);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(parameterName, name -> count.getAndIncrement());
+        }
+        return slot;
+    }
+
+    int size() {
+        return count.get();
+    }
+}
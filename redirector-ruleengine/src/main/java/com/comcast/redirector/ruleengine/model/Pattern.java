@@ -19,14 +19,31 @@ import org.apache.commons.lang3.StringUtils;
 import org.w3c.dom.Element;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Regular expression of matches expression. It's compiled once when model is built, so invalid pattern fails
+ * the rule on model load rather than every request.
+ * <p/>
+ * Matching can be limited in time with {@value #MATCH_TIMEOUT_PROPERTY} system property (milliseconds, disabled by default)
+ * to protect redirect path from catastrophic backtracking. Input which is not matched in time is treated as failed match.
+ */
 public class Pattern extends LanguageElement implements SimpleValue {
+	public static final String MATCH_TIMEOUT_PROPERTY = "redirector.pattern.matchTimeoutMillis";
+
+	private static final long MATCH_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong(MATCH_TIMEOUT_PROPERTY, 0));
+
 	private String pattern;
+	private java.util.regex.Pattern compiledPattern;
 
 	@Override
 	protected void init(Element element) {
-		String text = element.getTextContent().trim();
-		if (StringUtils.isEmpty(text)) {
+		init(element.getTextContent());
+	}
+
+	public void init(String text) {
+		text = StringUtils.trimToEmpty(text);
+		if (text.isEmpty()) {
 			throw new IllegalStateException("pattern element has no value");
 		}
 		setValue(text);
@@ -37,11 +54,71 @@ public class Pattern extends LanguageElement implements SimpleValue {
 	}
 
 	public void setValue(String value) {
+		compiledPattern = java.util.regex.Pattern.compile(value);
 		pattern = value;
 	}
 
+	/**
+	 * @return true if whole value matches the pattern, the same as {@link String#matches(String)}
+	 * @throws MatchTimeoutException if match timeout is configured and matching takes longer
+	 */
+	public boolean matches(String value) {
+		return matches(value, MATCH_TIMEOUT_NANOS);
+	}
+
+	boolean matches(String value, long timeoutNanos) {
+		CharSequence input = timeoutNanos > 0 ? new DeadlineCharSequence(value, System.nanoTime() + timeoutNanos) : value;
+		return compiledPattern.matcher(input).matches();
+	}
+
 	@Override
 	public String toString(int indent, Map<String, String> params) {
 		return doSpacing(getValue(), indent);
 	}
+
+	public static class MatchTimeoutException extends RuntimeException {
+		MatchTimeoutException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Regex engine reads input char by char, so checking deadline here interrupts even runaway backtracking.
+	 * Clock is checked once per {@link #CHECK_INTERVAL} reads to keep overhead low.
+	 */
+	private static class DeadlineCharSequence implements CharSequence {
+		private static final int CHECK_INTERVAL = 1024;
+
+		private final String value;
+		private final long deadline;
+		private int reads;
+
+		DeadlineCharSequence(String value, long deadline) {
+			this.value = value;
+			this.deadline = deadline;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (++reads % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+				throw new MatchTimeoutException("Matching took too long, input length " + value.length());
+			}
+			return value.charAt(index);
+		}
+
+		@Override
+		public int length() {
+			return value.length();
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return value.subSequence(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return value;
+		}
+	}
 }
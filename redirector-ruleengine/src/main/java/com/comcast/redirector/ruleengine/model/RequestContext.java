@@ -0,0 +1,266 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.model;
+
+import com.comcast.redirector.ruleengine.repository.IgnoreCase;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Params of a single request. Works as a plain map of params, while {@link Parameter}s of models read it by
+ * slots assigned to parameter names when models are built. Value of a slot is looked up in params once per request,
+ * forms derived from it (number, case folded string, ip address) are also calculated at most once per request,
+ * when some expression needs them first time. So rules which reference the same parameter many times pay for
+ * map lookup and conversions only once.
+ * <p/>
+ * Slots are numbered by each model separately, so context keeps values of slots per model which reads it,
+ * usually flavor rules and url rules models of the application.
+ * <p/>
+ * Context is not thread safe, it's supposed to be created per request, e.g. by {@link #of(Map)}.
+ * Parameters which got their slots after context started to be read by the model are read from params directly.
+ */
+public class RequestContext extends AbstractMap<String, String> {
+    private static final byte LOADED = 1;
+    private static final byte NUMBER_PARSED = 1 << 1;
+    private static final byte NUMBER = 1 << 2;
+    private static final byte FOLDED = 1 << 3;
+    private static final byte ADDRESS_PARSED = 1 << 4;
+    private static final byte ADDRESS = 1 << 5;
+
+    private final Map<String, String> params;
+    private ModelSlots[] modelSlots = new ModelSlots[2];
+    private int modelSlotsCount;
+    private ModelSlots lastModelSlots;
+
+    public RequestContext(Map<String, String> params) {
+        this.params = params;
+    }
+
+    /**
+     * @return given params if they are a context already, new context otherwise
+     */
+    public static RequestContext of(Map<String, String> params) {
+        return params instanceof RequestContext ? (RequestContext) params : new RequestContext(params);
+    }
+
+    /**
+     * @return values of slots of the model which given slots belong to, created on first read by the model
+     */
+    ModelSlots slotsOf(ParameterSlots parameterSlots) {
+        if (lastModelSlots != null && lastModelSlots.parameterSlots == parameterSlots) {
+            return lastModelSlots;
+        }
+        for (int i = 0; i < modelSlotsCount; i++) {
+            if (modelSlots[i].parameterSlots == parameterSlots) {
+                lastModelSlots = modelSlots[i];
+                return lastModelSlots;
+            }
+        }
+        if (modelSlotsCount == modelSlots.length) {
+            modelSlots = Arrays.copyOf(modelSlots, modelSlotsCount * 2);
+        }
+        lastModelSlots = new ModelSlots(parameterSlots);
+        modelSlots[modelSlotsCount++] = lastModelSlots;
+        return lastModelSlots;
+    }
+
+    final class ModelSlots {
+        private final ParameterSlots parameterSlots;
+        private final byte[] states;
+        private final String[] values;
+        private double[] numbers;
+        private String[] foldedValues;
+        private long[] addresses;
+
+        private ModelSlots(ParameterSlots parameterSlots) {
+            this.parameterSlots = parameterSlots;
+            int slots = parameterSlots.size();
+            states = new byte[slots];
+            values = new String[slots];
+        }
+
+        String get(int slot, String name) {
+            if (slot >= states.length) {
+                return params.get(name);
+            }
+            if ((states[slot] & LOADED) == 0) {
+                values[slot] = params.get(name);
+                states[slot] |= LOADED;
+            }
+            return values[slot];
+        }
+
+        boolean isNumber(int slot, String name) {
+            if (slot >= states.length) {
+                return NumberParser.isNumber(params.get(name));
+            }
+            parseNumber(slot, name);
+            return (states[slot] & NUMBER) != 0;
+        }
+
+        /**
+         * @return parsed value, makes sense only if {@link #isNumber(int, String)} is true
+         */
+        double getNumber(int slot, String name) {
+            if (slot >= states.length) {
+                return NumberParser.parseDouble(params.get(name));
+            }
+            parseNumber(slot, name);
+            return numbers[slot];
+        }
+
+        private void parseNumber(int slot, String name) {
+            if ((states[slot] & NUMBER_PARSED) == 0) {
+                if (numbers == null) {
+                    numbers = new double[states.length];
+                }
+                String value = get(slot, name);
+                numbers[slot] = NumberParser.parseDouble(value);
+                if (!Double.isNaN(numbers[slot]) || NumberParser.isNumber(value)) {
+                    states[slot] |= NUMBER;
+                }
+                states[slot] |= NUMBER_PARSED;
+            }
+        }
+
+        /**
+         * @return value folded by {@link IgnoreCase#fold(String)} or null if there is no value
+         */
+        String getFolded(int slot, String name) {
+            if (slot >= states.length) {
+                String value = params.get(name);
+                return value != null ? IgnoreCase.fold(value) : null;
+            }
+            if ((states[slot] & FOLDED) == 0) {
+                if (foldedValues == null) {
+                    foldedValues = new String[states.length];
+                }
+                String value = get(slot, name);
+                foldedValues[slot] = value != null ? IgnoreCase.fold(value) : null;
+                states[slot] |= FOLDED;
+            }
+            return foldedValues[slot];
+        }
+
+        /**
+         * @return true if value is an IPv4 or IPv6 address literal, which high and low 64 bits
+         * are returned by {@link #getAddressHigh(int, String)} and {@link #getAddressLow(int, String)}
+         */
+        boolean isAddress(int slot, String name) {
+            if (slot >= states.length) {
+                return toAddress(params.get(name)) != null;
+            }
+            parseAddress(slot, name);
+            return (states[slot] & ADDRESS) != 0;
+        }
+
+        long getAddressHigh(int slot, String name) {
+            if (slot >= states.length) {
+                return IpRangeIndex.high(toAddress(params.get(name)));
+            }
+            parseAddress(slot, name);
+            return addresses[slot * 2];
+        }
+
+        long getAddressLow(int slot, String name) {
+            if (slot >= states.length) {
+                return IpRangeIndex.low(toAddress(params.get(name)));
+            }
+            parseAddress(slot, name);
+            return addresses[slot * 2 + 1];
+        }
+
+        private void parseAddress(int slot, String name) {
+            if ((states[slot] & ADDRESS_PARSED) == 0) {
+                if (addresses == null) {
+                    addresses = new long[states.length * 2];
+                }
+                String value = get(slot, name);
+                long ipv4 = value != null ? IpRangeIndex.parseIpv4(value) : IpRangeIndex.NOT_IPV4;
+                if (ipv4 != IpRangeIndex.NOT_IPV4) {
+                    addresses[slot * 2] = 0;
+                    addresses[slot * 2 + 1] = ipv4;
+                    states[slot] |= ADDRESS;
+                } else {
+                    byte[] address = toAddress(value);
+                    if (address != null) {
+                        addresses[slot * 2] = IpRangeIndex.high(address);
+                        addresses[slot * 2 + 1] = IpRangeIndex.low(address);
+                        states[slot] |= ADDRESS;
+                    }
+                }
+                states[slot] |= ADDRESS_PARSED;
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < states.length; i++) {
+                states[i] = 0;
+            }
+        }
+    }
+
+    private static byte[] toAddress(String value) {
+        return value == null || value.indexOf('/') >= 0 ? null : IpRangeIndex.toNumeric(value);
+    }
+
+    @Override
+    public String get(Object key) {
+        return params.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return params.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return params.size();
+    }
+
+    @Override
+    public String put(String key, String value) {
+        resetSlots();
+        return params.put(key, value);
+    }
+
+    @Override
+    public String remove(Object key) {
+        resetSlots();
+        return params.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        resetSlots();
+        params.clear();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return Collections.unmodifiableMap(params).entrySet();
+    }
+
+    private void resetSlots() {
+        for (int i = 0; i < modelSlotsCount; i++) {
+            modelSlots[i].reset();
+        }
+    }
+}
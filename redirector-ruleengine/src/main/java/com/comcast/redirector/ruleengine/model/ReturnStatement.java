@@ -73,17 +73,24 @@ public class ReturnStatement extends Statement {
             value = server;
         } else {
             Element child = children.get(0);
-            if (child.getTagName().trim().equals(Model.TAG_SERVER_GROUP)) {
-                value = model.createLanguageElement(child);
-            } else if (child.getTagName().trim().equals(Model.TAG_SERVER)) {
-                value = model.createLanguageElement(child);
-            } else if (child.getTagName().trim().equals(URLRuleModel.TAG_URL_RULE)) {
-                value = model.createLanguageElement(child);
-                setType(ReturnStatementType.URL_RULE);
+            String tagName = child.getTagName().trim();
+            if (tagName.equals(Model.TAG_SERVER_GROUP) || tagName.equals(Model.TAG_SERVER)
+                    || tagName.equals(URLRuleModel.TAG_URL_RULE)) {
+                init(model.createLanguageElement(child));
             }
         }
     }
 
+    /**
+     * @param value server, server group or url rule returned by the statement
+     */
+    public void init(LanguageElement value) {
+        this.value = value;
+        if (value instanceof UrlParams) {
+            setType(ReturnStatementType.URL_RULE);
+        }
+    }
+
 	@Override
 	public boolean returnFulfilled() {
 		return value != null;
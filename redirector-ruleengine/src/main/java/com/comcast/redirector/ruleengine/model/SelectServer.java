@@ -38,6 +38,9 @@ public class SelectServer extends LanguageElement {
                     "distribution statement.");
         }
 
+        List<IfStatement> ifStatements = new ArrayList<>();
+        Statement distributionStatement = null;
+
         for (Element child : children) {
             LanguageElement object = null;
             try {
@@ -61,7 +64,16 @@ public class SelectServer extends LanguageElement {
                 distributionStatement = (Statement) object;
             }
         }
-        Collections.sort(ifStatements); // IfStatement implements Comparable and can be sorted by priority
+        init(ifStatements, distributionStatement);
+    }
+
+    /**
+     * @param distributionStatement statement executed when none of if statements returns, may be null
+     */
+    public void init(List<IfStatement> ifStatements, Statement distributionStatement) {
+        this.ifStatements.addAll(ifStatements);
+        this.distributionStatement = distributionStatement;
+        Collections.sort(this.ifStatements); // IfStatement implements Comparable and can be sorted by priority
     }
 
     public List<IfStatement> getIfStatements() {
@@ -18,6 +18,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.util.*;
 
 public class Server extends LanguageElement{
@@ -26,6 +28,7 @@ public class Server extends LanguageElement{
 	private String secureUrl = "";
     private String path = "";
     private Map<String, String> query = new LinkedHashMap<>();
+    private Map<String, String> encodedQuery = Collections.emptyMap();
 	private String description = "";
     private boolean nonWhitelistOnly;
     private ReturnStatementType returnStatementType;
@@ -66,6 +69,38 @@ public class Server extends LanguageElement{
 
 	public void setQuery(Map<String, String> query) {
 		this.query = query;
+		encodeQuery();
+	}
+
+	/**
+	 * @return query key to url encoded "key=value" pair, without pairs which are already part of server url.
+	 * Encoded once when query is set, so it's not updated if map returned by {@link #getQuery()} is modified.
+	 */
+	public Map<String, String> getEncodedQuery() {
+		return encodedQuery;
+	}
+
+	private void encodeQuery() {
+		if (query == null || query.isEmpty()) {
+			encodedQuery = Collections.emptyMap();
+			return;
+		}
+		Map<String, String> encoded = new LinkedHashMap<>();
+		for (Map.Entry<String, String> entry : query.entrySet()) {
+			String pair = entry.getKey() + "=" + encode(entry.getValue());
+			if (url == null || !url.contains(pair)) {
+				encoded.put(entry.getKey(), pair);
+			}
+		}
+		encodedQuery = Collections.unmodifiableMap(encoded);
+	}
+
+	private static String encode(String value) {
+		try {
+			return URLEncoder.encode(StringUtils.defaultString(value), "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
 	}
 
 	public String getSecureURL() {
@@ -127,6 +162,7 @@ public class Server extends LanguageElement{
 	@Override
 	protected void init(Element element) {
 		List<Element> children = getChildElements(element);
+		Map<String, String> queryPairs = new LinkedHashMap<>();
 		for (Element e : children) {
 			String tagName = e.getTagName();
 			String value = e.getTextContent().trim();
@@ -155,20 +191,45 @@ public class Server extends LanguageElement{
                     }
 
                     if (key != null) {
-                        query.put(key, val);
+                        queryPairs.put(key, val);
                     }
                 }
             } else if (tagName.equals("description")) {
                 description = value;
             }
 		}
-        String isWhitelisted = element.getAttribute("isNonWhitelisted");
-        if (StringUtils.isNotBlank(isWhitelisted)) {
-            nonWhitelistOnly = Boolean.valueOf(isWhitelisted);
+		init(name, url, secureUrl, path, queryPairs, description, element.getAttribute("isNonWhitelisted"));
+	}
+
+	/**
+	 * Texts are trimmed the same way as texts of DOM elements, null text leaves default value. Query pairs without
+	 * key are skipped
+	 */
+	public void init(String name, String url, String secureUrl, String path, Map<String, String> query,
+					 String description, String isNonWhitelisted) {
+		this.name = trimOrDefault(name, this.name);
+		this.url = trimOrDefault(url, this.url);
+		this.secureUrl = trimOrDefault(secureUrl, this.secureUrl);
+		this.path = trimOrDefault(path, this.path);
+		this.description = trimOrDefault(description, this.description);
+		if (query != null) {
+			for (Map.Entry<String, String> pair : query.entrySet()) {
+				if (pair.getKey() != null) {
+					this.query.put(pair.getKey(), pair.getValue());
+				}
+			}
+		}
+        if (StringUtils.isNotBlank(isNonWhitelisted)) {
+            nonWhitelistOnly = Boolean.valueOf(isNonWhitelisted);
         }
-		if (url == null || url.isEmpty()) {
+		if (this.url == null || this.url.isEmpty()) {
             throw new IllegalStateException("Server url is mandatory");
         }
+		encodeQuery();
+	}
+
+	private static String trimOrDefault(String text, String defaultText) {
+		return text != null ? text.trim() : defaultText;
 	}
 
 	@Override
@@ -28,6 +28,7 @@ public class ServerGroup extends LanguageElement {
 	@Override
 	protected void init(Element element) {
 		List<Element> children = getChildElements(element);
+		List<Server> servers = new ArrayList<>();
 		
 		// get the public servers
 		if (children != null && children.size() > 0) {
@@ -40,14 +41,20 @@ public class ServerGroup extends LanguageElement {
 			}
 			
 		}
-		
+		init(servers, element.getAttribute("enablePrivate"), element.getAttribute("countDownTime"));
+	}
+
+	/**
+	 * Attributes are given the way DOM reads them, absent attribute is an empty string
+	 */
+	public void init(List<Server> servers, String enablePrivate, String time) {
+		this.servers.addAll(servers);
+
 		// are private servers disabled?
-		String enablePrivate = element.getAttribute("enablePrivate");
 		if (enablePrivate != null && enablePrivate.toLowerCase().trim().equals("false")) {
 			enablePrivateServers = false;
 		}
 		
-		String time = element.getAttribute("countDownTime");
 		if (time != null) {
 			try {
 				setCountDownTime(Integer.parseInt(time));
@@ -23,19 +23,20 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public class URLRuleModel extends AbstractModel {
 
     private static Logger log = LoggerFactory.getLogger(URLRuleModel.class);
 
     public final static String TAG_URL_RULE = "urlRule";
-    final static String TAG_URL_RULES = "urlRules";
-    final static String TAG_DEFAULT_SECTION = "default";
-    final static String TAG_PERCENT = "percent";
+    public final static String TAG_URL_RULES = "urlRules";
+    public final static String TAG_DEFAULT_SECTION = "default";
+    public final static String TAG_PERCENT = "percent";
 
     private URLRules urlRules;
 
@@ -47,10 +48,16 @@ public class URLRuleModel extends AbstractModel {
     }
 
     public URLRuleModel(Document document, NamespacedListRepository namespacedListHolder) throws RuleEngineInitException {
+        this(namespacedListHolder, model -> (URLRules) model.createLanguageElement(document.getDocumentElement()));
+    }
+
+    /**
+     * @param builder builds root element of the model, e.g. straight from API objects without going through DOM
+     */
+    public URLRuleModel(NamespacedListRepository namespacedListHolder, Function<AbstractModel, URLRules> builder) throws RuleEngineInitException {
         super(namespacedListHolder);
         try {
-            Element root = document.getDocumentElement();
-            urlRules = (URLRules) createLanguageElement(root);
+            urlRules = builder.apply(this);
         } catch (Exception e) {
             throw new RuleEngineInitException("Error encountered initializing model. See nested exception:", e);
         }
@@ -110,6 +117,23 @@ public class URLRuleModel extends AbstractModel {
         return null;
     }
 
+    /**
+     * @return rules in the order they are evaluated followed by default statement, the way they are printed for debugging
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (IfStatement ifStatement : urlRules.getIfStatements()) {
+            sb.append(ifStatement.getId()).append('\n');
+            sb.append(ifStatement.toString(LanguageElement.printSpacing, Collections.<String, String>emptyMap()));
+        }
+        Statement defaultStatement = urlRules.getDefaultStatement();
+        if (defaultStatement != null) {
+            sb.append(defaultStatement.toString(LanguageElement.printSpacing, Collections.<String, String>emptyMap()));
+        }
+        return sb.toString();
+    }
+
     @Override
     public Object executeDefault(Map<String, String> params) {
         return urlRules.getDefaultStatement().execute(params);
@@ -39,6 +39,9 @@ public class URLRules extends LanguageElement {
             throw new IllegalStateException("ruleConditions must contain one or more if statements.");
         }
 
+        List<IfStatement> _ifStatements = new ArrayList<>();
+        Statement _defaultStatement = null;
+
         for (Element child : children) {
 
             LanguageElement object = null;
@@ -64,6 +67,15 @@ public class URLRules extends LanguageElement {
                 logger.error("ruleConditions must containts if conditions or default section");
             }
         }
+        init(_ifStatements, _defaultStatement);
+    }
+
+    /**
+     * @param defaultStatement statement filling url params which none of if statements returns, may be null
+     */
+    public void init(List<IfStatement> ifStatements, Statement defaultStatement) {
+        _ifStatements.addAll(ifStatements);
+        _defaultStatement = defaultStatement;
         Collections.sort(_ifStatements); // IfStatement implements Comparable and can be sorted by priority
     }
 
@@ -108,23 +108,19 @@ public class UrlParams extends LanguageElement {
         List<Element> children = getChildElements(element);
         for (Element e : children) {
             String tagName = e.getTagName();
-            String value = e.getTextContent().trim();
+            String value = e.getTextContent();
             switch (tagName) {
                 case UrlRuleDefaultStatement.TAG_URN:
-                    urn = value;
+                    init(value, null, null, null);
                     break;
                 case UrlRuleDefaultStatement.TAG_PORT:
-                    if (!"".equals(value)) {
-                        port = Integer.parseInt(value);
-                    }
+                    init(null, null, value, null);
                     break;
                 case UrlRuleDefaultStatement.TAG_PROTOCOL:
-                    protocol = value;
+                    init(null, value, null, null);
                     break;
                 case UrlRuleDefaultStatement.TAG_IP_PROTOCOL_VERSION:
-                    if (!"".equals(value)) {
-                        ipProtocolVersion = Integer.parseInt(value);
-                    }
+                    init(null, null, null, value);
                     break;
                 default:
                     throw new IllegalArgumentException("Unknown the tag name: " + tagName);
@@ -133,6 +129,25 @@ public class UrlParams extends LanguageElement {
         }
     }
 
+    /**
+     * Sets given params, null param is left as is. Params are trimmed the same way as texts of DOM elements,
+     * empty port and ip protocol version are left as is too
+     */
+    public void init(String urn, String protocol, String port, String ipProtocolVersion) {
+        if (urn != null) {
+            this.urn = urn.trim();
+        }
+        if (protocol != null) {
+            this.protocol = protocol.trim();
+        }
+        if (port != null && !port.trim().isEmpty()) {
+            this.port = Integer.parseInt(port.trim());
+        }
+        if (ipProtocolVersion != null && !ipProtocolVersion.trim().isEmpty()) {
+            this.ipProtocolVersion = Integer.parseInt(ipProtocolVersion.trim());
+        }
+    }
+
     public boolean allItemsFilled() {
         if (StringUtils.isNotEmpty(getUrn()) && StringUtils.isNotEmpty(getProtocol())
                 && ((getPort() != null) && (getPort() != 0)) && ((getIPProtocolVersion() != null) && (getPort() != 0))) {
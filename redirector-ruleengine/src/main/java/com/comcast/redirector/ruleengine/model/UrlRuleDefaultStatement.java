@@ -62,17 +62,35 @@ public class UrlRuleDefaultStatement extends Statement {
         // validate and extract values
         for (Element child : groupChildren) {
             if (child.getTagName().equals(TAG_URN)) {
-                defaultItem.setUrn(extractStringValue(child));
+                init(child.getTextContent(), null, null, null);
             } else if (child.getTagName().equals(TAG_PORT)) {
-                defaultItem.setPort(extractIntValue(child));
+                init(null, null, child.getTextContent(), null);
             } else if (child.getTagName().equals(TAG_PROTOCOL)) {
-                defaultItem.setProtocol(extractStringValue(child));
+                init(null, child.getTextContent(), null, null);
             } else if (child.getTagName().equals(TAG_IP_PROTOCOL_VERSION)) {
-                defaultItem.setIPProtocolVersion(extractIntValue(child));
+                init(null, null, null, child.getTextContent());
             }
         }
     }
 
+    /**
+     * Sets given params of default url rule, null param is left as is. Port and ip protocol version must be numbers
+     */
+    public void init(String urn, String protocol, String port, String ipProtocolVersion) {
+        if (urn != null) {
+            defaultItem.setUrn(urn.trim());
+        }
+        if (protocol != null) {
+            defaultItem.setProtocol(protocol.trim());
+        }
+        if (port != null) {
+            defaultItem.setPort(Integer.parseInt(port.trim()));
+        }
+        if (ipProtocolVersion != null) {
+            defaultItem.setIPProtocolVersion(Integer.parseInt(ipProtocolVersion.trim()));
+        }
+    }
+
     @Override
     public Object execute(Map<String, String> params) {
         return defaultItem;
@@ -87,12 +105,4 @@ public class UrlRuleDefaultStatement extends Statement {
     public String toString(int indent, Map<String, String> params) {
         return defaultItem.toString(indent, params);
     }
-
-    private String extractStringValue(Element element) {
-        return element.getTextContent().trim();
-    }
-
-    private int extractIntValue(Element element) {
-        return Integer.parseInt(element.getTextContent().trim());
-    }
 }
@@ -31,8 +31,12 @@ public class Value extends LanguageElement implements com.comcast.redirector.rul
 	
 	@Override
 	protected void init(Element element) {
-		String text = element.getTextContent().trim();
-		if (StringUtils.isEmpty(text)) {
+		init(element.getTextContent());
+	}
+
+	public void init(String text) {
+		text = StringUtils.trimToEmpty(text);
+		if (text.isEmpty()) {
 			throw new IllegalStateException("parameter element has no value");
 		}
 		setValue(text);
@@ -45,10 +49,10 @@ public class Value extends LanguageElement implements com.comcast.redirector.rul
 	public void setValue(String value) {
 		stringValue = value;
 		numericValue = false;
-        try {
-            doubleValue = Double.parseDouble(value);
+        if (NumberParser.isNumber(value)) {
+            doubleValue = NumberParser.parseDouble(value);
             numericValue = true;
-        } catch (NumberFormatException ex) {
+        } else {
             LOGGER.warn("parameter element value is not a number. found: " + value);
         }
     }
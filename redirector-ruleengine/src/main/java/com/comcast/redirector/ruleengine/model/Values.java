@@ -17,7 +17,10 @@ package com.comcast.redirector.ruleengine.model;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -34,9 +37,11 @@ public class Values extends LanguageElement {
 		
 		// if value tags exist, use them
 		if (valueNodes != null && valueNodes.getLength() > 0) {
+			List<String> texts = new ArrayList<>(valueNodes.getLength());
 			for (int i = 0; i < valueNodes.getLength(); i++) {
-				values.add(valueNodes.item(i).getTextContent());
+				texts.add(valueNodes.item(i).getTextContent());
 			}
+			init(texts);
 		}
 		else {
 			// check for delimeter
@@ -61,6 +66,16 @@ public class Values extends LanguageElement {
 		}
 	}
 	
+	/**
+	 * Initializes values from texts of value tags
+	 */
+	public void init(Collection<String> texts) {
+		if (texts.isEmpty()) {
+			throw new IllegalStateException("values element has no value");
+		}
+		values.addAll(texts);
+	}
+
 	public boolean contains(String s)
 	{
 		return values.contains(s);
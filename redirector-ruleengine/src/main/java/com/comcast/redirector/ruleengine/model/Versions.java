@@ -0,0 +1,162 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sun.net.util.IPAddressUtil;
+
+/**
+ * Compares dot separated versions like "2.1.17". Missing parts are zeros, parts which are not ints are zeros as well.
+ * Empty string and IPv6 address have no parts.
+ * <p/>
+ * Versions are compared part by part right in the strings, so comparison doesn't allocate. Version known
+ * upfront may be parsed once by {@link #parse(String)} and compared with other versions by
+ * {@link #compare(int[], String)} and {@link #compare(String, int[])}.
+ */
+public final class Versions {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Versions.class);
+    private static final int[] NO_PARTS = new int[0];
+    private static final int NO_MORE_PARTS = -1;
+
+    private Versions() {
+    }
+
+    public static int[] parse(String version) {
+        int position = firstPart(version);
+        if (position == NO_MORE_PARTS) {
+            return NO_PARTS;
+        }
+        int count = 1;
+        for (int i = position; i < version.length(); i++) {
+            if (version.charAt(i) == '.') {
+                count++;
+            }
+        }
+        int[] parts = new int[count];
+        for (int i = 0; i < count; i++) {
+            parts[i] = partValue(version, position);
+            position = nextPart(version, position);
+        }
+        return parts;
+    }
+
+    /**
+     * @return difference of first parts which are not equal or 0 if versions are equal
+     */
+    public static int compare(String left, String right) {
+        int leftPosition = firstPart(left);
+        int rightPosition = firstPart(right);
+        while (leftPosition != NO_MORE_PARTS || rightPosition != NO_MORE_PARTS) {
+            int leftPart = leftPosition == NO_MORE_PARTS ? 0 : partValue(left, leftPosition);
+            int rightPart = rightPosition == NO_MORE_PARTS ? 0 : partValue(right, rightPosition);
+            if (leftPart != rightPart) {
+                return leftPart - rightPart;
+            }
+            leftPosition = nextPart(left, leftPosition);
+            rightPosition = nextPart(right, rightPosition);
+        }
+        return 0;
+    }
+
+    public static int compare(int[] left, String right) {
+        int rightPosition = firstPart(right);
+        for (int i = 0; i < left.length || rightPosition != NO_MORE_PARTS; i++) {
+            int leftPart = i < left.length ? left[i] : 0;
+            int rightPart = rightPosition == NO_MORE_PARTS ? 0 : partValue(right, rightPosition);
+            if (leftPart != rightPart) {
+                return leftPart - rightPart;
+            }
+            rightPosition = nextPart(right, rightPosition);
+        }
+        return 0;
+    }
+
+    public static int compare(String left, int[] right) {
+        int leftPosition = firstPart(left);
+        for (int i = 0; i < right.length || leftPosition != NO_MORE_PARTS; i++) {
+            int leftPart = leftPosition == NO_MORE_PARTS ? 0 : partValue(left, leftPosition);
+            int rightPart = i < right.length ? right[i] : 0;
+            if (leftPart != rightPart) {
+                return leftPart - rightPart;
+            }
+            leftPosition = nextPart(left, leftPosition);
+        }
+        return 0;
+    }
+
+    private static int firstPart(String version) {
+        if (version.isEmpty() || (version.indexOf(':') >= 0 && IPAddressUtil.isIPv6LiteralAddress(version))) {
+            return NO_MORE_PARTS;
+        }
+        return 0;
+    }
+
+    private static int nextPart(String version, int position) {
+        if (position == NO_MORE_PARTS) {
+            return NO_MORE_PARTS;
+        }
+        int dot = version.indexOf('.', position);
+        return dot < 0 ? NO_MORE_PARTS : dot + 1;
+    }
+
+    /**
+     * Same as {@link Integer#parseInt(String)} of the part, but returns 0 instead of throwing.
+     */
+    private static int partValue(String version, int start) {
+        int end = version.indexOf('.', start);
+        if (end < 0) {
+            end = version.length();
+        }
+        if (start == end) {
+            return 0;
+        }
+
+        int i = start;
+        boolean negative = false;
+        int limit = -Integer.MAX_VALUE;
+        char first = version.charAt(i);
+        if (first < '0') {
+            if (first == '-') {
+                negative = true;
+                limit = Integer.MIN_VALUE;
+            } else if (first != '+') {
+                return notInt(version, start, end);
+            }
+            if (++i == end) {
+                return notInt(version, start, end);
+            }
+        }
+        int multiplyLimit = limit / 10;
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = Character.digit(version.charAt(i), 10);
+            if (digit < 0 || result < multiplyLimit) {
+                return notInt(version, start, end);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return notInt(version, start, end);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static int notInt(String version, int start, int end) {
+        LOGGER.error("Encountered part of a version that was not an int: {}", version.substring(start, end));
+        return 0;
+    }
+}
@@ -23,6 +23,23 @@ public class AndExpression extends LogicalExpression {
         return super.evaluate(params);
 	}
 
+    /**
+     * Cheaper side is evaluated first, result is the same since expressions have no side effects
+     */
+    @Override
+    public CompiledExpression compile() {
+        CompiledExpression first = getCheaperSide().compile();
+        CompiledExpression second = getCostlierSide().compile();
+        if (first == CompiledExpression.FALSE || second == CompiledExpression.FALSE) {
+            return CompiledExpression.FALSE;
+        } else if (first == CompiledExpression.TRUE) {
+            return second;
+        } else if (second == CompiledExpression.TRUE) {
+            return first;
+        }
+        return params -> first.evaluate(params) && second.evaluate(params);
+    }
+
     @Override
     protected boolean logicalExpressionEval(Boolean left, Boolean right) {
         return left && right;
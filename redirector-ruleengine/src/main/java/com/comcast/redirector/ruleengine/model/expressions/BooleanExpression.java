@@ -18,6 +18,7 @@ import com.comcast.redirector.ruleengine.model.LanguageElement;
 import org.apache.commons.lang3.StringUtils;
 import org.w3c.dom.Element;
 
+import java.util.Collections;
 import java.util.Map;
 
 public abstract class BooleanExpression extends LanguageElement {
@@ -44,4 +45,24 @@ public abstract class BooleanExpression extends LanguageElement {
     public boolean evaluateExpression(Map<String, String> params) {
         return evaluate(params);
     }
+
+    /**
+     * Prepares expression for evaluation on redirect path. Called once per model, so expressions resolve
+     * everything what doesn't depend on params here, and expressions which don't depend on params at all
+     * are compiled into {@link CompiledExpression#TRUE} or {@link CompiledExpression#FALSE}.
+     */
+    public abstract CompiledExpression compile();
+
+    /**
+     * @return relative cost of evaluation, on the same scale as priorities {@link com.comcast.redirector.ruleengine.model.IfStatement}
+     * orders rules by. Cheaper operand of and/or is evaluated first
+     */
+    public abstract int estimateCost();
+
+    /**
+     * @return result of expression which doesn't depend on params
+     */
+    protected CompiledExpression constant() {
+        return CompiledExpression.constant(evaluate(Collections.<String, String>emptyMap()));
+    }
 }
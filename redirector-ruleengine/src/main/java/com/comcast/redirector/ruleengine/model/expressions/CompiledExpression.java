@@ -0,0 +1,46 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.comcast.redirector.ruleengine.model.expressions;
+
+import java.util.Map;
+
+/**
+ * Boolean expression prepared for evaluation by {@link BooleanExpression#compile()}.
+ * Gives the same result as {@link BooleanExpression#evaluateExpression(Map)} for any params.
+ * <p/>
+ * Expressions which don't depend on params are compiled into {@link #TRUE} or {@link #FALSE}, so enclosing
+ * expressions can fold them away.
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+    CompiledExpression TRUE = params -> true;
+    CompiledExpression FALSE = params -> false;
+
+    boolean evaluate(Map<String, String> params);
+
+    static CompiledExpression constant(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    static boolean isConstant(CompiledExpression expression) {
+        return expression == TRUE || expression == FALSE;
+    }
+
+    static CompiledExpression not(CompiledExpression expression) {
+        if (isConstant(expression)) {
+            return constant(expression == FALSE);
+        }
+        return params -> !expression.evaluate(params);
+    }
+}
@@ -16,10 +16,11 @@ package com.comcast.redirector.ruleengine.model.expressions;
 
 import com.comcast.redirector.ruleengine.Value;
 import com.comcast.redirector.ruleengine.model.LanguageElement;
+import com.comcast.redirector.ruleengine.model.Parameter;
+import com.comcast.redirector.ruleengine.repository.IgnoreCase;
 import com.comcast.redirector.ruleengine.repository.NamespacedListRepository;
 import org.w3c.dom.Element;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,6 +31,8 @@ public class ContainsExpression extends BooleanExpression {
     private Value leftSide;
     private RightSide rightSide;
     private boolean caseSensitive = false;
+    private Set<String> values;
+    private String[] namespacedListNames;
 
     @Override
     protected void init(Element element) {
@@ -43,7 +46,7 @@ public class ContainsExpression extends BooleanExpression {
             throw new IllegalStateException("Element " + element.getTagName() + "'s first child must be a value or " +
                     "param.  Found: " + children.get(0).getTagName());
         }
-        rightSide = NamespacedListHelper.createRightSide(children, model, model.TAG_CONTAINS);
+        RightSide right = NamespacedListHelper.createRightSide(children, model, model.TAG_CONTAINS);
         String s = element.getAttribute(CASE_SENSITIVE);
         if (s != null && !s.isEmpty()) {
             if (s.equalsIgnoreCase("true")) {
@@ -55,13 +58,24 @@ public class ContainsExpression extends BooleanExpression {
                         "found: " + s);
             }
         }
-        leftSide = (Value) left;
+        init(negotiate, (Value) left, right);
+    }
+
+    public void init(boolean negation, Value leftSide, RightSide rightSide) {
+        this.negotiate = negation;
+        this.leftSide = leftSide;
+        this.rightSide = rightSide;
+        values = caseSensitive ? rightSide.getValues().getValues() : IgnoreCase.foldAll(rightSide.getValues().getValues());
+        namespacedListNames = rightSide.getNamespacedList().getValues().toArray(new String[0]);
     }
 
     @Override
     public boolean evaluate(Map<String, String> params) {
         String value = leftSide.getStringValue(params);
         if (value == null) return false;
+        if (!caseSensitive) {
+            value = leftSide instanceof Parameter ? ((Parameter) leftSide).getFoldedValue(params) : IgnoreCase.fold(value);
+        }
         boolean result = false;
         if (evaluateValues(value)) {
             result = true;
@@ -71,31 +85,59 @@ public class ContainsExpression extends BooleanExpression {
         return negotiate ? !result : result;
     }
 
+    /**
+     * Literal is folded upfront, so contains of literal is constant unless it checks namespaced lists
+     * which may change while model is used
+     */
+    @Override
+    public CompiledExpression compile() {
+        if (leftSide instanceof Parameter) {
+            Parameter parameter = (Parameter) leftSide;
+            if (caseSensitive) {
+                return params -> {
+                    String value = parameter.getStringValue(params);
+                    return value != null && negotiate != contains(value);
+                };
+            }
+            return params -> {
+                String value = parameter.getFoldedValue(params);
+                return value != null && negotiate != contains(value);
+            };
+        }
+
+        String literal = leftSide.getStringValue(null);
+        String value = caseSensitive ? literal : IgnoreCase.fold(literal);
+        if (namespacedListNames.length == 0) {
+            return CompiledExpression.constant(negotiate != evaluateValues(value));
+        }
+        return params -> negotiate != contains(value);
+    }
+
+    @Override
+    public int estimateCost() {
+        return 5000;
+    }
+
+    private boolean contains(String value) {
+        return evaluateValues(value) || evaluateNamespacedList(value);
+    }
+
     private boolean evaluateNamespacedList(String value) {
         NamespacedListRepository namespacedListsHolder = model.getNamespacedListHolder();
 
-        for (String namespacedList : rightSide.getNamespacedList().getValues()) {
-            Set<String> namespacedListValues = namespacedListsHolder.getNamespacedListValues(namespacedList);
-            if (!caseSensitive) {
-                if (containsIgnoreCase(namespacedListValues, value)) {
-                    return true;
-                }
-            } else {
-                if (namespacedListValues.contains(value)) {
-                    return true;
-                }
+        for (String namespacedList : namespacedListNames) {
+            Set<String> namespacedListValues = caseSensitive
+                ? namespacedListsHolder.getNamespacedListValues(namespacedList)
+                : namespacedListsHolder.getNamespacedListValuesIgnoreCase(namespacedList);
+            if (namespacedListValues != null && namespacedListValues.contains(value)) {
+                return true;
             }
         }
         return false;
     }
 
     private boolean evaluateValues(String value) {
-        if (!caseSensitive) {
-            if (containsIgnoreCase(rightSide.getValues().getValues(), value)) return true;
-        } else {
-            if (rightSide.getValues().contains(value)) return true;
-        }
-        return false;
+        return values.contains(value);
     }
 
     @Override
@@ -111,13 +153,4 @@ public class ContainsExpression extends BooleanExpression {
         sb.append(doSpacing("}\n", indent));
         return sb.toString();
     }
-
-    public boolean containsIgnoreCase(Set<String> namespacedListValues, String value) {
-        Iterator<String> it = namespacedListValues.iterator();
-        while (it.hasNext()) {
-            if (it.next().equalsIgnoreCase(value))
-                return true;
-        }
-        return false;
-    }
 }
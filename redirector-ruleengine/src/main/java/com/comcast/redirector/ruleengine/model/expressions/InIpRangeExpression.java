@@ -19,13 +19,17 @@ package com.comcast.redirector.ruleengine.model.expressions;
 import com.comcast.redirector.ruleengine.Value;
 import com.comcast.redirector.ruleengine.model.LanguageElement;
 import com.comcast.redirector.ruleengine.model.Model;
+import com.comcast.redirector.ruleengine.model.Parameter;
+import com.comcast.redirector.ruleengine.model.RequestContext;
 import com.comcast.redirector.ruleengine.model.IpAddress;
+import com.comcast.redirector.ruleengine.model.IpRangeIndex;
 import com.comcast.redirector.ruleengine.IpAddressInitException;
 import com.comcast.redirector.ruleengine.repository.NamespacedListRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -35,6 +39,9 @@ public class InIpRangeExpression extends BooleanExpression {
 
     private Value leftSide;
     private RightSide rightSide;
+    private IpRangeIndex valuesIndex;
+    private String invalidValue;
+    private String[] namespacedListNames;
 
     @Override
     protected void init(Element element) {
@@ -50,9 +57,32 @@ public class InIpRangeExpression extends BooleanExpression {
                     + children.get(0).getTagName());
         }
 
-        leftSide = (Value) left;
-        rightSide = NamespacedListHelper.createRightSide(children, model, Model.TAG_IN_IP_RANGE);
+        init(negotiate, (Value) left, NamespacedListHelper.createRightSide(children, model, Model.TAG_IN_IP_RANGE));
+    }
 
+    public void init(boolean negation, Value leftSide, RightSide rightSide) {
+        this.negotiate = negation;
+        this.leftSide = leftSide;
+        this.rightSide = rightSide;
+        indexRightSide();
+    }
+
+    /**
+     * Values are indexed in the order they used to be checked in. Bad value used to fail evaluation only when none of
+     * the values before it matched, so values after it are not indexed and it is reported the same way on evaluation.
+     */
+    private void indexRightSide() {
+        List<IpAddress> values = new ArrayList<>();
+        for (String ipAddressString : rightSide.getValues().getValues()) {
+            try {
+                values.add(new IpAddress(ipAddressString));
+            } catch (IpAddressInitException e) {
+                invalidValue = ipAddressString;
+                break;
+            }
+        }
+        valuesIndex = IpRangeIndex.of(values);
+        namespacedListNames = rightSide.getNamespacedList().getValues().toArray(new String[0]);
     }
 
     @Override
@@ -72,17 +102,90 @@ public class InIpRangeExpression extends BooleanExpression {
     public boolean evaluate(Map<String, String> params) {
         String value = leftSide.getStringValue(params);
         if (value == null) return false;
-        value = value.toLowerCase();
         try {
-            IpAddress ipAddress = new IpAddress(value);
-            return negotiate ? !evaluateInIpRange(ipAddress) : evaluateInIpRange(ipAddress);
+            boolean inIpRange;
+            if (leftSide instanceof Parameter && params instanceof RequestContext && ((Parameter) leftSide).isAddressValue(params)) {
+                // address of parameter is parsed once per request context and reused by all expressions checking it
+                Parameter parameter = (Parameter) leftSide;
+                inIpRange = evaluateInIpRange(parameter.getAddressHigh(params), parameter.getAddressLow(params));
+            } else {
+                inIpRange = evaluateInIpRange(value);
+            }
+            return negotiate ? !inIpRange : inIpRange;
         } catch (IpAddressInitException e) {
             LOGGER.error("Bad ip address while redirecting : {}", e.getMessage());
             return false;
         }
     }
 
-    private boolean evaluateInIpRange(IpAddress ipAddress) throws IpAddressInitException {
+    /**
+     * Literal address in range of given values is constant, range of namespaced lists is checked on evaluation
+     * since lists may change while model is used. Address of parameter is parsed by {@link Parameter},
+     * so it's done once per {@link RequestContext}.
+     */
+    @Override
+    public CompiledExpression compile() {
+        if (!(leftSide instanceof Parameter)) {
+            return namespacedListNames.length == 0 ? constant() : this::evaluate;
+        }
+        Parameter parameter = (Parameter) leftSide;
+        return params -> {
+            String value = parameter.getStringValue(params);
+            if (value == null) return false;
+            try {
+                boolean inIpRange = parameter.isAddressValue(params)
+                    ? evaluateInIpRange(parameter.getAddressHigh(params), parameter.getAddressLow(params))
+                    : evaluateInIpRange(value);
+                return negotiate != inIpRange;
+            } catch (IpAddressInitException e) {
+                LOGGER.error("Bad ip address while redirecting : {}", e.getMessage());
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public int estimateCost() {
+        return 1000;
+    }
+
+    private boolean evaluateInIpRange(String value) throws IpAddressInitException {
+        long ipv4 = IpRangeIndex.parseIpv4(value);
+        if (ipv4 != IpRangeIndex.NOT_IPV4) {
+            return evaluateInIpRange(0, ipv4);
+        } else if (value.indexOf('/') < 0) {
+            byte[] address = IpRangeIndex.toNumeric(value);
+            if (address == null) {
+                throw new IpAddressInitException("bad address: " + value.toLowerCase());
+            }
+            return evaluateInIpRange(IpRangeIndex.high(address), IpRangeIndex.low(address));
+        } else {
+            return evaluateSubnetInIpRange(new IpAddress(value.toLowerCase()));
+        }
+    }
+
+    private boolean evaluateInIpRange(long high, long low) throws IpAddressInitException {
+        if (valuesIndex.contains(high, low)) {
+            return true;
+        }
+        if (invalidValue != null) {
+            throw new IpAddressInitException("bad address: " + invalidValue);
+        }
+        NamespacedListRepository namespacedListsHolder = model.getNamespacedListHolder();
+        for (String namespacedListName : namespacedListNames) {
+            IpRangeIndex namespacedListIndex = namespacedListsHolder.getIpRangeIndexFromNamespacedList(namespacedListName);
+            if (namespacedListIndex != null && namespacedListIndex.contains(high, low)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Subnet given as a parameter is in range only if one of the ranges contains it as a whole,
+     * so merged ranges of index can't be used for it
+     */
+    private boolean evaluateSubnetInIpRange(IpAddress ipAddress) throws IpAddressInitException {
         IpAddress existIpAddress;
         for (String ipAddressString : rightSide.getValues().getValues()) {
             existIpAddress = new IpAddress(ipAddressString);
@@ -91,7 +194,7 @@ public class InIpRangeExpression extends BooleanExpression {
             }
         }
         NamespacedListRepository namespacedListsHolder = model.getNamespacedListHolder();
-        for (String namespacedListName : rightSide.getNamespacedList().getValues()) {
+        for (String namespacedListName : namespacedListNames) {
             Set<IpAddress> namespacedListValues = namespacedListsHolder.getIpAddressesFromNamespacedList(namespacedListName);
             if (namespacedListValues != null) {
                 for (IpAddress ipAddressFromList : namespacedListValues) {
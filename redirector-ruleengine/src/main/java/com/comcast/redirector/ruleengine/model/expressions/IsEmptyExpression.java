@@ -18,6 +18,7 @@ package com.comcast.redirector.ruleengine.model.expressions;
 
 import com.comcast.redirector.ruleengine.Value;
 import com.comcast.redirector.ruleengine.model.LanguageElement;
+import com.comcast.redirector.ruleengine.model.Parameter;
 import org.apache.commons.lang3.StringUtils;
 import org.w3c.dom.Element;
 
@@ -33,6 +34,22 @@ public class IsEmptyExpression extends BooleanExpression {
         return negotiate ? StringUtils.isNotBlank(expression) : StringUtils.isBlank(expression);
     }
 
+    @Override
+    public CompiledExpression compile() {
+        if (!(stringToCheck instanceof Parameter)) {
+            return constant();
+        }
+        Value parameter = stringToCheck;
+        return negotiate
+                ? params -> StringUtils.isNotBlank(parameter.getStringValue(params))
+                : params -> StringUtils.isBlank(parameter.getStringValue(params));
+    }
+
+    @Override
+    public int estimateCost() {
+        return 10;
+    }
+
     @Override
     protected void init(Element element) {
         super.init(element);
@@ -46,7 +63,12 @@ public class IsEmptyExpression extends BooleanExpression {
             throw new IllegalStateException("Element " + element.getTagName() + " has a child that is not a value or " +
                     "param: " + children.get(0).getTagName());
         }
-        stringToCheck = (Value) toCheck;
+        init(negotiate, (Value) toCheck);
+    }
+
+    public void init(boolean negation, Value stringToCheck) {
+        this.negotiate = negation;
+        this.stringToCheck = stringToCheck;
     }
 
     @Override
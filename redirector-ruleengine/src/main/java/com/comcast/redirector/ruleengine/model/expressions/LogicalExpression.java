@@ -41,8 +41,12 @@ public abstract class LogicalExpression extends BooleanExpression {
             throw new IllegalStateException("Element " + element.getTagName() + " has a non-boolean expression child: "
                     + children.get(1).getTagName());
         }
-        leftSide = (BooleanExpression) left;
-        rightSide = (BooleanExpression) right;
+        init((BooleanExpression) left, (BooleanExpression) right);
+    }
+
+    public void init(BooleanExpression leftSide, BooleanExpression rightSide) {
+        this.leftSide = leftSide;
+        this.rightSide = rightSide;
     }
 
     public BooleanExpression getLeftSide() {
@@ -72,6 +76,24 @@ public abstract class LogicalExpression extends BooleanExpression {
         return false;
     }
 
+    @Override
+    public int estimateCost() {
+        int left = leftSide.estimateCost();
+        int right = rightSide.estimateCost();
+        return left > Integer.MAX_VALUE - right ? Integer.MAX_VALUE : left + right;
+    }
+
+    /**
+     * @return side which is cheaper to evaluate, left one if both cost the same
+     */
+    protected BooleanExpression getCheaperSide() {
+        return rightSide.estimateCost() < leftSide.estimateCost() ? rightSide : leftSide;
+    }
+
+    protected BooleanExpression getCostlierSide() {
+        return getCheaperSide() == leftSide ? rightSide : leftSide;
+    }
+
     @Override
     public String toString(int indent, Map<String, String> params) {
         StringBuilder sb = new StringBuilder();
@@ -16,13 +16,18 @@ package com.comcast.redirector.ruleengine.model.expressions;
 
 import com.comcast.redirector.ruleengine.Value;
 import com.comcast.redirector.ruleengine.model.LanguageElement;
+import com.comcast.redirector.ruleengine.model.Parameter;
 import com.comcast.redirector.ruleengine.model.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
 
 import java.util.List;
 import java.util.Map;
 
 public class MatchesExpression extends BooleanExpression {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MatchesExpression.class);
+
     private Value leftSide;
     private Pattern rightSide;
 
@@ -44,15 +49,50 @@ public class MatchesExpression extends BooleanExpression {
             throw new IllegalStateException("Element " + element.getTagName() + "'s second child must be a pattern.  Found: "
                     + children.get(1).getTagName());
         }
-        leftSide = (Value) left;
-        rightSide = (Pattern) right;
+        init(negotiate, (Value) left, (Pattern) right);
+    }
+
+    public void init(boolean negation, Value leftSide, Pattern rightSide) {
+        this.negotiate = negation;
+        this.leftSide = leftSide;
+        this.rightSide = rightSide;
     }
 
     @Override
     public boolean evaluate(Map<String, String> params) {
         String value = leftSide.getStringValue(params);
         if (value == null) return false;
-        return negotiate ? !value.matches(rightSide.getValue()) : value.matches(rightSide.getValue());
+        return matches(value);
+    }
+
+    /**
+     * Literal doesn't change, so it is matched once here
+     */
+    @Override
+    public CompiledExpression compile() {
+        if (!(leftSide instanceof Parameter)) {
+            return constant();
+        }
+        Value parameter = leftSide;
+        return params -> {
+            String value = parameter.getStringValue(params);
+            return value != null && matches(value);
+        };
+    }
+
+    @Override
+    public int estimateCost() {
+        return 25000;
+    }
+
+    private boolean matches(String value) {
+        try {
+            boolean matches = rightSide.matches(value);
+            return negotiate ? !matches : matches;
+        } catch (Pattern.MatchTimeoutException e) {
+            LOGGER.error("Failed to match pattern {} while redirecting: {}", rightSide.getValue(), e.getMessage());
+            return false;
+        }
     }
 
     @Override
@@ -27,8 +27,8 @@ public class NotEqualExpression extends RelationalExpression {
 	}
 
 	@Override
-	public boolean evaluate(int[] i1, int[] i2) {
-		return compareArrays(i1, i2) != 0;
+	public boolean evaluate(int comparison) {
+		return comparison != 0;
 	}
 
 	@Override
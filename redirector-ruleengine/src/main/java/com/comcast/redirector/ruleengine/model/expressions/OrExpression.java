@@ -23,6 +23,23 @@ public class OrExpression extends LogicalExpression {
         return super.evaluate(params);
 	}
 
+    /**
+     * Cheaper side is evaluated first, result is the same since expressions have no side effects
+     */
+    @Override
+    public CompiledExpression compile() {
+        CompiledExpression first = getCheaperSide().compile();
+        CompiledExpression second = getCostlierSide().compile();
+        if (first == CompiledExpression.TRUE || second == CompiledExpression.TRUE) {
+            return CompiledExpression.TRUE;
+        } else if (first == CompiledExpression.FALSE) {
+            return second;
+        } else if (second == CompiledExpression.FALSE) {
+            return first;
+        }
+        return params -> first.evaluate(params) || second.evaluate(params);
+    }
+
     @Override
     protected boolean logicalExpressionEval(Boolean left, Boolean right) {
         return left || right;
@@ -48,12 +48,37 @@ public class Percent extends BooleanExpression {
         return false;
     }
 
+    /**
+     * Hash bound of percentage is calculated once, hash of account id or mac is still calculated per request.
+     */
+    @Override
+    public CompiledExpression compile() {
+        long percentHashLong = toPercentHashLong(percentage);
+        return params -> {
+            String accountId = params.get(ATTRIBUTE_ACCOUNT_ID);
+            String calculationAttribute = StringUtils.isNotBlank(accountId) ? accountId : params.get(ATTRIBUTE_MAC);
+            return calculationAttribute != null && fitsPercent(calculationAttribute, percentHashLong);
+        };
+    }
+
+    @Override
+    public int estimateCost() {
+        return 50000;
+    }
+
     private boolean fitsPercent(String calculationAttribute, double percent) {
+        return fitsPercent(calculationAttribute, toPercentHashLong(percent));
+    }
+
+    private static boolean fitsPercent(String calculationAttribute, long percentHashLong) {
         HashCode hashcode = Hashing.sipHash24().hashString(calculationAttribute, Charsets.UTF_8);
-        long percentHashLong = (long) (Long.MAX_VALUE / 10000 * (percent * 100));
         return (percentHashLong >= Math.abs(hashcode.asLong()));
     }
 
+    private static long toPercentHashLong(double percent) {
+        return (long) (Long.MAX_VALUE / 10000 * (percent * 100));
+    }
+
     @Override
     protected void init(Element element) {
         super.init(element);
@@ -68,17 +93,22 @@ public class Percent extends BooleanExpression {
             throw new IllegalStateException("Element " + element.getTagName() + " must define a <value> child tag");
         }
 
-        Value value = (Value) valueElement;
+        init((Value) valueElement);
+    }
+
+    public void init(Value value) {
+        model.addParameterName(ATTRIBUTE_ACCOUNT_ID);
+        model.addParameterName(ATTRIBUTE_MAC);
 
         if (!value.isNumericValue(null)) {
-            throw new IllegalStateException("Element " + element.getTagName() + " must define a <value> child tag " +
+            throw new IllegalStateException("Element " + getName() + " must define a <value> child tag " +
                     "that contains a double value between 0 and 100");
         }
 
         percentage = value.getNumericValue(null);
 
         if (percentage < 0 || percentage > 100) {
-            throw new IllegalStateException("Element " + element.getTagName() + " must define a <value> child tag " +
+            throw new IllegalStateException("Element " + getName() + " must define a <value> child tag " +
                     "that contains a double value between 0 and 100");
         }
     }
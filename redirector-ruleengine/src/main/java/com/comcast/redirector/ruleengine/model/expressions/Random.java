@@ -36,6 +36,24 @@ public class Random extends BooleanExpression {
         return Math.random() * 100 < percentage;
     }
 
+    /**
+     * Random of 0 never matches and random of 100 always matches since {@link Math#random()} is less than 1.
+     */
+    @Override
+    public CompiledExpression compile() {
+        if (percentage <= 0) {
+            return CompiledExpression.FALSE;
+        } else if (percentage >= 100) {
+            return CompiledExpression.TRUE;
+        }
+        return this::evaluate;
+    }
+
+    @Override
+    public int estimateCost() {
+        return 50000;
+    }
+
     @Override
     protected void init(Element element) {
         super.init(element);
@@ -52,11 +70,13 @@ public class Random extends BooleanExpression {
             throw new IllegalStateException("Element " + element.getTagName() + " must define a <value> child tag");
         }
 
-        Value value = (Value) valueElement;
+        init((Value) valueElement);
+    }
 
+    public void init(Value value) {
         if (!value.isNumericValue(null))
         {
-            throw new IllegalStateException("Element " + element.getTagName() + " must define a <value> child tag " +
+            throw new IllegalStateException("Element " + getName() + " must define a <value> child tag " +
                     "that contains a double value between 0 and 100");
         }
 
@@ -64,7 +84,7 @@ public class Random extends BooleanExpression {
 
         if (percentage < 0 || percentage > 100)
         {
-            throw new IllegalStateException("Element " + element.getTagName() + " must define a <value> child tag " +
+            throw new IllegalStateException("Element " + getName() + " must define a <value> child tag " +
                     "that contains a double value between 0 and 100");
         }
     }
@@ -16,19 +16,20 @@ package com.comcast.redirector.ruleengine.model.expressions;
 
 import com.comcast.redirector.ruleengine.Value;
 import com.comcast.redirector.ruleengine.model.LanguageElement;
+import com.comcast.redirector.ruleengine.model.NumberParser;
 import com.comcast.redirector.ruleengine.model.Parameter;
+import com.comcast.redirector.ruleengine.model.RequestContext;
+import com.comcast.redirector.ruleengine.model.Versions;
 import com.google.common.primitives.UnsignedBytes;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
 import sun.net.util.IPAddressUtil;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public abstract class RelationalExpression extends BooleanExpression {
-    private static final Logger LOGGER = LoggerFactory.getLogger(RelationalExpression.class);
     private static final String TYPE = "type";
     private static final String CASE_SENSITIVE = "caseSensitive";
 
@@ -42,15 +43,6 @@ public abstract class RelationalExpression extends BooleanExpression {
     protected void init(Element element) {
         super.init(element);
 
-        try {
-            String s = element.getAttribute(TYPE);
-            if (s != null && !s.isEmpty()) {
-                compareType = CompareType.valueOf(s.toUpperCase());
-            }
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("type attribute must be one of " +
-                    Arrays.toString(CompareType.values()).toLowerCase() + " in " + element.getNodeName());
-        }
         String s = element.getAttribute(CASE_SENSITIVE);
         if (s != null && !s.isEmpty()) {
             if (s.equalsIgnoreCase("true")) {
@@ -76,8 +68,23 @@ public abstract class RelationalExpression extends BooleanExpression {
             throw new IllegalStateException("Element " + element.getTagName() + " has a child that is not a value or " +
                     "param: " + children.get(1).getTagName());
         }
-        leftSide = (Value) left;
-        rightSide = (Value) right;
+        init(element.getAttribute(TYPE), (Value) left, (Value) right);
+    }
+
+    /**
+     * @param type name of {@link CompareType} in any case, empty for default one
+     */
+    public void init(String type, Value leftSide, Value rightSide) {
+        try {
+            if (type != null && !type.isEmpty()) {
+                compareType = CompareType.valueOf(type.toUpperCase());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("type attribute must be one of " +
+                    Arrays.toString(CompareType.values()).toLowerCase() + " in " + getName());
+        }
+        this.leftSide = leftSide;
+        this.rightSide = rightSide;
         if (leftSide instanceof Parameter && rightSide instanceof com.comcast.redirector.ruleengine.model.Value) {
             /*
              * Since a Parameter's getNumericValue() requires parsing a String,
@@ -92,75 +99,190 @@ public abstract class RelationalExpression extends BooleanExpression {
     public boolean evaluate(Map<String, String> params) {
         if (compareType == CompareType.VERSION) {
             return evaluateVersion(params);
-        } else if ((compareType == CompareType.NUMERIC || compareType == CompareType.NONE) && (evaluateFromLeftToRight ?
-                (leftSide.isNumericValue(params) && rightSide.isNumericValue(params)) :
-                (rightSide.isNumericValue(params) && leftSide.isNumericValue(params)))) {
-            return evaluate(leftSide.getNumericValue(params), rightSide.getNumericValue(params));
         } else if (compareType == CompareType.IPV6) {
             return evaluateIPv6(params);
+        } else if (compareType == CompareType.STRING) {
+            return evaluateString(params);
         }
+        return evaluateNumericOrString(params);
+    }
+
+    private boolean evaluateNumericOrString(Map<String, String> params) {
+        Value first = evaluateFromLeftToRight ? leftSide : rightSide;
+        Value second = evaluateFromLeftToRight ? rightSide : leftSide;
+        double firstNumber = numericValue(first, params);
+        if (isNumeric(first, firstNumber, params)) {
+            double secondNumber = numericValue(second, params);
+            if (isNumeric(second, secondNumber, params)) {
+                return evaluateFromLeftToRight ? evaluate(firstNumber, secondNumber) : evaluate(secondNumber, firstNumber);
+            }
+        }
+        return evaluateString(params);
+    }
+
+    private boolean evaluateString(Map<String, String> params) {
         return evaluate(leftSide.getStringValue(params), rightSide.getStringValue(params), caseSensitive);
     }
 
+    /**
+     * Comparison of two literals is folded into constant. Comparison of parameter with literal is prepared upfront:
+     * literal is already parsed and lowercased, parameter is read and parsed by {@link Parameter}, so it's done once
+     * per {@link RequestContext}. For comparison of two parameters only the type of comparison is resolved upfront.
+     */
+    @Override
+    public CompiledExpression compile() {
+        boolean literalOnRight = rightSide instanceof com.comcast.redirector.ruleengine.model.Value;
+        boolean literalOnLeft = leftSide instanceof com.comcast.redirector.ruleengine.model.Value;
+        if (literalOnLeft && literalOnRight) {
+            return constant();
+        } else if (literalOnRight && leftSide instanceof Parameter) {
+            return compileWithLiteral((Parameter) leftSide, rightSide, true);
+        } else if (literalOnLeft && rightSide instanceof Parameter) {
+            return compileWithLiteral((Parameter) rightSide, leftSide, false);
+        }
+
+        switch (compareType) {
+            case VERSION:
+                return this::evaluateVersion;
+            case IPV6:
+                return this::evaluateIPv6;
+            case STRING:
+                return this::evaluateString;
+            default:
+                return this::evaluateNumericOrString;
+        }
+    }
+
+    private CompiledExpression compileWithLiteral(Parameter parameter, Value literal, boolean literalOnRight) {
+        if (compareType == CompareType.IPV6) {
+            byte[] literalAddress = toIPv6(literal.getStringValue(null));
+            return params -> {
+                String value = parameter.getStringValue(params);
+                return value != null && (literalOnRight
+                        ? evaluate(toIPv6(value), literalAddress)
+                        : evaluate(literalAddress, toIPv6(value)));
+            };
+        } else if (compareType == CompareType.VERSION) {
+            int[] literalVersion = Versions.parse(literal.getStringValue(null));
+            return params -> {
+                String value = parameter.getStringValue(params);
+                return value != null && evaluate(literalOnRight
+                        ? Versions.compare(value, literalVersion)
+                        : Versions.compare(literalVersion, value));
+            };
+        }
+
+        String literalString = caseSensitive ? literal.getStringValue(null) : literal.getStringValue(null).toLowerCase();
+        boolean numericComparison = compareType != CompareType.STRING && literal.isNumericValue(null);
+        double literalNumber = literal.getNumericValue(null);
+
+        return params -> {
+            String value = parameter.getStringValue(params);
+            if (value == null) {
+                return false;
+            }
+            if (numericComparison) {
+                double parameterNumber = numericValue(parameter, params);
+                if (isNumeric(parameter, parameterNumber, params)) {
+                    return literalOnRight ? evaluate(parameterNumber, literalNumber) : evaluate(literalNumber, parameterNumber);
+                }
+            }
+            if (caseSensitive) {
+                return literalOnRight ? evaluate(value, literalString) : evaluate(literalString, value);
+            }
+            int comparison = compareLowerCase(value, literalString, true);
+            return evaluate(literalOnRight ? comparison : -comparison);
+        };
+    }
+
+    /**
+     * Literal and parameter in {@link RequestContext} are parsed already, parameter in plain map is parsed here once
+     */
+    private static double numericValue(Value value, Map<String, String> params) {
+        if (value instanceof com.comcast.redirector.ruleengine.model.Value || params instanceof RequestContext) {
+            return value.isNumericValue(params) ? value.getNumericValue(params) : Double.NaN;
+        }
+        return NumberParser.parseDouble(value.getStringValue(params));
+    }
+
+    private static boolean isNumeric(Value value, double number, Map<String, String> params) {
+        if (!Double.isNaN(number)) {
+            return true;
+        }
+        if (value instanceof com.comcast.redirector.ruleengine.model.Value || params instanceof RequestContext) {
+            return value.isNumericValue(params);
+        }
+        return NumberParser.isNumber(value.getStringValue(params));
+    }
+
     private boolean evaluate(String s1, String s2, boolean caseSensitive) {
         if (s1 == null || s2 == null) return false;
         if (!caseSensitive) {
-            s1 = s1.toLowerCase();
-            s2 = s2.toLowerCase();
+            return evaluate(compareLowerCase(s1, s2, false));
         }
         return evaluate(s1, s2);
     }
 
+    /**
+     * Same as {@code s1.toLowerCase().compareTo(s2.toLowerCase())}, but ASCII strings are lowercased char by char
+     * while comparing, so nothing is allocated.
+     * @param s2LowerCase true if s2 is already lowercased
+     */
+    static int compareLowerCase(String s1, String s2, boolean s2LowerCase) {
+        if (!isLowerCasedPerChar(s1) || (!s2LowerCase && !isLowerCasedPerChar(s2))) {
+            return s1.toLowerCase().compareTo(s2LowerCase ? s2 : s2.toLowerCase());
+        }
+        int length = Math.min(s1.length(), s2.length());
+        for (int i = 0; i < length; i++) {
+            char c1 = toLowerCase(s1.charAt(i));
+            char c2 = s2LowerCase ? s2.charAt(i) : toLowerCase(s2.charAt(i));
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return s1.length() - s2.length();
+    }
+
+    private static boolean isLowerCasedPerChar(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        // turkic languages lowercase 'I' to dotless i
+        String language = Locale.getDefault().getLanguage();
+        return !"tr".equals(language) && !"az".equals(language);
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
     private boolean evaluateVersion(Map<String, String> params) {
         String left = leftSide.getStringValue(params);
         String right = rightSide.getStringValue(params);
         if (left == null || right == null) return false;
-        String[] leftTokens = left.isEmpty() || IPAddressUtil.isIPv6LiteralAddress(left)
-                ? new String[]{}
-                : left.split("\\.");
-        String[] rightTokens = right.isEmpty() || IPAddressUtil.isIPv6LiteralAddress(right)
-                ? new String[]{}
-                : right.split("\\.");
-        int largest = Math.max(leftTokens.length, rightTokens.length);
-        int[] leftNumbers = new int[largest];
-        int[] rightNumbers = new int[largest];
-        for (int i = 0; i < largest; i++) {
-            leftNumbers[i] = i < leftTokens.length ? getIntValue(leftTokens[i]) : 0;
-            rightNumbers[i] = i < rightTokens.length ? getIntValue(rightTokens[i]) : 0;
-        }
-        return evaluate(leftNumbers, rightNumbers);
+        return evaluate(Versions.compare(left, right));
     }
 
     private boolean evaluateIPv6(Map<String, String> params) {
         String left = leftSide.getStringValue(params);
         String right = rightSide.getStringValue(params);
         if (left == null || right == null) return false;
-        return evaluate(
-                IPAddressUtil.isIPv6LiteralAddress(left) ? IPAddressUtil.textToNumericFormatV6(left) : new byte[]{},
-                IPAddressUtil.isIPv6LiteralAddress(right) ? IPAddressUtil.textToNumericFormatV6(right) : new byte[]{});
+        return evaluate(toIPv6(left), toIPv6(right));
     }
 
-    protected static int compareArrays(int[] i1, int[] i2) {
-        for (int i = 0; i < i1.length; i++) {
-            int result = i1[i] - i2[i];
-            if (result != 0) {
-                return result;
-            }
-        }
-        return 0;
+    private static byte[] toIPv6(String value) {
+        return IPAddressUtil.isIPv6LiteralAddress(value) ? IPAddressUtil.textToNumericFormatV6(value) : new byte[]{};
     }
 
-    protected static int compareArrays(byte[] b1, byte[] b2) {
-        return UnsignedBytes.lexicographicalComparator().compare(b1, b2);
+    @Override
+    public int estimateCost() {
+        return 10;
     }
 
-    private int getIntValue(String str) {
-        try {
-            return Integer.parseInt(str);
-        } catch (Exception e) {
-            LOGGER.error("Encountered part of a version that was not an int: " + str, e);
-            return 0;
-        }
+    protected static int compareArrays(byte[] b1, byte[] b2) {
+        return UnsignedBytes.lexicographicalComparator().compare(b1, b2);
     }
 
     public Value getLeftSide() {
@@ -183,7 +305,10 @@ public abstract class RelationalExpression extends BooleanExpression {
 
     public abstract boolean evaluate(String s1, String s2);
 
-    public abstract boolean evaluate(int[] i1, int[] i2);
+    /**
+     * @param comparison negative, zero or positive if left side is less, equal or greater than right side
+     */
+    public abstract boolean evaluate(int comparison);
 
     public abstract boolean evaluate(byte[] b1, byte[] b2);
 
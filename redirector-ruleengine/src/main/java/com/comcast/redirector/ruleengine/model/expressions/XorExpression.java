@@ -23,6 +23,18 @@ public class XorExpression extends LogicalExpression {
         return super.evaluate(params);
 	}
 
+    @Override
+    public CompiledExpression compile() {
+        CompiledExpression left = leftSide.compile();
+        CompiledExpression right = rightSide.compile();
+        if (CompiledExpression.isConstant(left)) {
+            return left == CompiledExpression.TRUE ? CompiledExpression.not(right) : right;
+        } else if (CompiledExpression.isConstant(right)) {
+            return right == CompiledExpression.TRUE ? CompiledExpression.not(left) : left;
+        }
+        return params -> left.evaluate(params) ^ right.evaluate(params);
+    }
+
     @Override
     protected boolean logicalExpressionEval(Boolean left, Boolean right) {
         return left ^ right;
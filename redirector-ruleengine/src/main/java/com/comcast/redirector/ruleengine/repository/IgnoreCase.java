@@ -0,0 +1,72 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.repository;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Case folding which turns {@link String#equalsIgnoreCase(String)} into plain equality: two strings are equal ignoring
+ * case if and only if their folded forms are equal. Each char is folded separately (lower case of upper case,
+ * the same way equalsIgnoreCase compares chars), so unlike {@link String#toLowerCase()} length never changes
+ * and result doesn't depend on locale.
+ */
+public final class IgnoreCase {
+    private IgnoreCase() {
+    }
+
+    /**
+     * @return folded string, the same instance if it is folded already
+     */
+    public static String fold(String value) {
+        int length = value.length();
+        int first = 0;
+        while (first < length && isFolded(value.charAt(first))) {
+            first++;
+        }
+        if (first == length) {
+            return value;
+        }
+
+        char[] chars = value.toCharArray();
+        for (int i = first; i < length; i++) {
+            chars[i] = fold(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return set of folded values, the same set if all values are folded already
+     */
+    public static Set<String> foldAll(Set<String> values) {
+        if (values == null || values.stream().allMatch(value -> fold(value) == value)) {
+            return values;
+        }
+        Set<String> result = new HashSet<>(values.size() * 4 / 3 + 1);
+        for (String value : values) {
+            result.add(fold(value));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    private static boolean isFolded(char c) {
+        return c < 'A' || (c >= 'a' && c <= 'z') || fold(c) == c;
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -17,11 +17,28 @@
 package com.comcast.redirector.ruleengine.repository;
 
 import com.comcast.redirector.ruleengine.model.IpAddress;
+import com.comcast.redirector.ruleengine.model.IpRangeIndex;
 
 import java.util.Set;
 
 public interface NamespacedListRepository {
     Set<String> getNamespacedListValues(String name);
 
+    /**
+     * Values of given namespaced list folded with {@link IgnoreCase#fold(String)}, so case insensitive lookup is
+     * a plain {@link Set#contains(Object)} of folded value. By default values are folded on every call.
+     */
+    default Set<String> getNamespacedListValuesIgnoreCase(String name) {
+        return IgnoreCase.foldAll(getNamespacedListValues(name));
+    }
+
     Set<IpAddress> getIpAddressesFromNamespacedList(String name);
+
+    /**
+     * Index of ip addresses and subnets of given namespaced list. Repositories which are used on redirect path
+     * should build it once per list and reuse, by default it is built on every call.
+     */
+    default IpRangeIndex getIpRangeIndexFromNamespacedList(String name) {
+        return IpRangeIndex.of(getIpAddressesFromNamespacedList(name));
+    }
 }
@@ -0,0 +1,277 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.comcast.redirector.ruleengine.model;
+
+import com.comcast.redirector.ruleengine.repository.NamespacedListsBatch;
+import com.comcast.redirector.ruleengine.repository.impl.StaticNamespacedListRepository;
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import java.util.Random;
+
+/**
+ * Differential test: compiled rules must give exactly the same result as interpretation of language elements tree
+ * for randomly generated models and contexts.
+ */
+public class CompiledModelTest {
+    private static final int MODELS = 300;
+    private static final int CONTEXTS_PER_MODEL = 300;
+
+    private static final String NUMBER = "number";
+    private static final String TEXT = "text";
+    private static final String IP = "ip";
+    private static final String VERSION = "version";
+    private static final String MAC = "mac";
+
+    private static final String[] NUMBERS = {"1", "2", "10", "1.5", "-3", "007", "1e1", "abc", "ABC", "x1"};
+    private static final String[] TEXTS = {"abc", "ABC", "Abc", "x1", "X1", "10", "2", "native", "Native", "a b"};
+    private static final String[] IPS = {"10.0.0.1", "10.255.1.1", "192.168.1.1", "192.168.1.2", "172.16.0.1", "fe80::1", "2001:db8::1"};
+    private static final String[] VERSIONS = {"1", "1.2", "1.10", "1.2.3", "2.0", "10.0.1"};
+    private static final String[] RELATIONAL_TAGS = {"equals", "notEqual", "greaterThan", "lessThan", "greaterOrEqual", "lessOrEqual"};
+    private static final String[] LOGICAL_TAGS = {"and", "or", "xor"};
+
+    private final Random random = new Random(20170101);
+
+    @Test
+    public void compiledModelGivesSameResultAsInterpreter() throws Exception {
+        int matchedRules = 0;
+        for (int modelIndex = 0; modelIndex < MODELS; modelIndex++) {
+            String xml = selectServer();
+            Model model = new Model(fromString(xml), namespacedLists());
+
+            for (int contextIndex = 0; contextIndex < CONTEXTS_PER_MODEL; contextIndex++) {
+                Map<String, String> context = context();
+
+                Object expected = model.interpret(context);
+                ReturnStatementType expectedType = returnStatementType(expected);
+                Object actual = model.execute(context);
+
+                Assert.assertSame("model " + xml + "\ncontext " + context, expected, actual);
+                Assert.assertEquals("model " + xml + "\ncontext " + context, expectedType, returnStatementType(actual));
+                if (((Server) actual).getName().startsWith("rule")) {
+                    matchedRules++;
+                }
+            }
+        }
+        // make sure generated rules are valid and both matching and falling through to distribution are covered
+        Assert.assertTrue("matched rules: " + matchedRules, matchedRules > MODELS * CONTEXTS_PER_MODEL / 10);
+        Assert.assertTrue("matched rules: " + matchedRules, matchedRules < MODELS * CONTEXTS_PER_MODEL * 9 / 10);
+    }
+
+    @Test
+    public void cheaperSideOfAndIsEvaluatedFirst() throws Exception {
+        Model model = new Model(fromString("<selectServer><if id=\"rule\"><and>"
+            + "<matches><param>expensive</param><pattern>.*</pattern></matches>"
+            + "<equals><param>cheap</param><value>1</value></equals>"
+            + "</and>" + returnStatement("rule") + "</if>"
+            + "<distribution>" + server("default") + "</distribution></selectServer>"), namespacedLists());
+        RecordingParams params = new RecordingParams();
+        params.put("expensive", "abc");
+        params.put("cheap", "2");
+
+        Assert.assertEquals("default", ((Server) model.execute(params)).getName());
+        Assert.assertEquals("cheap", params.readNames.get(0));
+        Assert.assertFalse(params.readNames.contains("expensive"));
+    }
+
+    @Test
+    public void constantConditionsAreNotEvaluated() throws Exception {
+        Model model = new Model(fromString("<selectServer>"
+            + "<if id=\"never\"><and>"
+            + "<equals><value>1</value><value>2</value></equals>"
+            + "<matches><param>expensive</param><pattern>.*</pattern></matches>"
+            + "</and>" + returnStatement("never") + "</if>"
+            + "<if id=\"always\"><or>"
+            + "<isEmpty negation=\"true\"><value>abc</value></isEmpty>"
+            + "<matches><param>expensive</param><pattern>.*</pattern></matches>"
+            + "</or>" + returnStatement("always") + "</if>"
+            + "<distribution>" + server("default") + "</distribution></selectServer>"), namespacedLists());
+        RecordingParams params = new RecordingParams();
+        params.put("expensive", "abc");
+
+        Assert.assertEquals("always", ((Server) model.execute(params)).getName());
+        Assert.assertFalse(params.readNames.contains("expensive"));
+    }
+
+    private static class RecordingParams extends HashMap<String, String> {
+        private final List<String> readNames = new ArrayList<>();
+
+        @Override
+        public String get(Object key) {
+            readNames.add((String) key);
+            return super.get(key);
+        }
+    }
+
+    private static ReturnStatementType returnStatementType(Object result) {
+        return result instanceof Server ? ((Server) result).getReturnStatementType() : null;
+    }
+
+    private StaticNamespacedListRepository namespacedLists() {
+        NamespacedListsBatch batch = new NamespacedListsBatch();
+        batch.addValues("texts", Arrays.asList("abc", "X1", "native"));
+        batch.addValues("ips", Arrays.asList("192.168.1.0/24", "fe80::/64"));
+        return StaticNamespacedListRepository.of(batch);
+    }
+
+    private Map<String, String> context() {
+        Map<String, String> context = new HashMap<>();
+        putSometimes(context, NUMBER, NUMBERS);
+        putSometimes(context, TEXT, TEXTS);
+        putSometimes(context, IP, IPS);
+        putSometimes(context, VERSION, VERSIONS);
+        context.put(MAC, String.format("%02X:%02X:%02X:%02X:%02X:%02X",
+            random.nextInt(256), random.nextInt(256), random.nextInt(256), random.nextInt(256), random.nextInt(256), random.nextInt(256)));
+        return context;
+    }
+
+    private void putSometimes(Map<String, String> context, String name, String[] domain) {
+        if (random.nextInt(10) != 0) {
+            context.put(name, pick(domain));
+        }
+    }
+
+    private String selectServer() {
+        StringBuilder xml = new StringBuilder("<selectServer>");
+        int rules = 1 + random.nextInt(6);
+        for (int i = 0; i < rules; i++) {
+            xml.append(ifStatement("rule" + i, 1 + random.nextInt(3)));
+        }
+        xml.append("<distribution>")
+            .append("<rule><percent>").append(1 + random.nextInt(49)).append("</percent>").append(server("distribution")).append("</rule>")
+            .append(server("default"))
+            .append("</distribution>");
+        return xml.append("</selectServer>").toString();
+    }
+
+    private String ifStatement(String id, int nesting) {
+        String then = nesting > 1 ? ifStatement(id, nesting - 1) : returnStatement(id);
+        String otherwise;
+        switch (random.nextInt(8)) {
+            case 0:
+                otherwise = returnStatement(id + "-else");
+                break;
+            case 1:
+                otherwise = ifStatement(id + "-else", 1);
+                break;
+            default:
+                otherwise = "";
+                break;
+        }
+        return "<if id=\"" + id + "\">" + expression(2) + then + otherwise + "</if>";
+    }
+
+    private String returnStatement(String name) {
+        return "<return>" + server(name) + "</return>";
+    }
+
+    private static String server(String name) {
+        return "<server><name>" + name + "</name><url>{protocol}://{host}:{port}/{urn}</url><path>" + name + "</path></server>";
+    }
+
+    private String expression(int depth) {
+        int kind = random.nextInt(depth > 0 ? 8 : 7);
+        switch (kind) {
+            case 0:
+            case 1:
+                return relational();
+            case 2:
+                return "<isEmpty" + negation() + ">" + operand(pick(new String[]{NUMBER, TEXT, IP, VERSION}), TEXTS) + "</isEmpty>";
+            case 3:
+                return "<contains" + negation() + caseSensitive() + ">" + operand(TEXT, TEXTS)
+                    + (random.nextBoolean() ? "<values>" + pick(TEXTS) + "," + pick(TEXTS) + "</values>" : "")
+                    + "<namespacedList>texts</namespacedList></contains>";
+            case 4:
+                return "<inIpRange" + negation() + ">" + operand(IP, IPS)
+                    + "<values>10.0.0.0/8,172.16.0.1</values><namespacedList>ips</namespacedList></inIpRange>";
+            case 5:
+                return "<matches" + negation() + ">" + operand(TEXT, TEXTS) + "<pattern>" + pick(new String[]{"[a-z]+", "X\\d", ".*b.*", "(?i)native"}) + "</pattern></matches>";
+            case 6:
+                // random is folded only when it always or never matches, otherwise result of both sides differs
+                return "<random><value>" + (random.nextBoolean() ? "0" : "100") + "</value></random>";
+            default:
+                String tag = pick(LOGICAL_TAGS);
+                return "<" + tag + ">" + expression(depth - 1) + expression(depth - 1) + "</" + tag + ">";
+        }
+    }
+
+    private String relational() {
+        String tag = pick(RELATIONAL_TAGS);
+        String type;
+        String parameter;
+        String literal;
+        int kind = random.nextInt(5);
+        if (kind == 0) {
+            type = " type=\"version\"";
+            parameter = VERSION;
+            literal = pick(VERSIONS);
+        } else if (kind == 1) {
+            type = " type=\"ipv6\"";
+            parameter = IP;
+            literal = pick(IPS);
+        } else {
+            type = pick(new String[]{"", " type=\"none\"", " type=\"numeric\"", " type=\"string\""});
+            parameter = random.nextBoolean() ? NUMBER : TEXT;
+            literal = pick(random.nextBoolean() ? NUMBERS : TEXTS);
+        }
+
+        String left = "<param>" + parameter + "</param>";
+        String right;
+        switch (random.nextInt(5)) {
+            case 0:
+                right = "<param>" + (random.nextBoolean() ? NUMBER : TEXT) + "</param>";
+                break;
+            case 1:
+                right = left;
+                left = "<value>" + literal + "</value>";
+                break;
+            case 2:
+                left = "<value>" + literal + "</value>";
+                right = "<value>" + literal.toUpperCase() + "</value>";
+                break;
+            default:
+                right = "<value>" + literal + "</value>";
+                break;
+        }
+        return "<" + tag + type + caseSensitive() + ">" + left + right + "</" + tag + ">";
+    }
+
+    private String operand(String parameter, String[] literals) {
+        return random.nextInt(4) == 0 ? "<value>" + pick(literals) + "</value>" : "<param>" + parameter + "</param>";
+    }
+
+    private String negation() {
+        return random.nextBoolean() ? " negation=\"" + random.nextBoolean() + "\"" : "";
+    }
+
+    private String caseSensitive() {
+        return random.nextBoolean() ? " caseSensitive=\"" + random.nextBoolean() + "\"" : "";
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static Document fromString(String xmlString) {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(xmlString.getBytes()));
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.model;
+
+import com.comcast.redirector.ruleengine.repository.IgnoreCase;
+import com.comcast.redirector.ruleengine.repository.NamespacedListsBatch;
+import com.comcast.redirector.ruleengine.repository.impl.StaticNamespacedListRepository;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.w3c.dom.Document;
+
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
+import java.util.*;
+
+/**
+ * Contains expression against literal values and namespaced lists, case sensitive and not, for plain text values,
+ * mixed case values and ENCODED lists (which hold upper case hex of MD5 hash). Expected result is always what
+ * {@link String#equals(Object)} / {@link String#equalsIgnoreCase(String)} against every value gives.
+ */
+@RunWith(Parameterized.class)
+public class ContainsCaseSensitivityTest {
+    private static final String LIST_NAME = "list";
+    private static final String MATCHED = "matched";
+
+    private static final List<String> STORED_VALUES = Arrays.asList(
+        "ab-cd-12", "AB:CD:EF:01:02:03", "MixedCase", "Stra\u00dfe", "\u0130stanbul", "\u01c5emal", md5("encoded-1"), md5("encoded-2"));
+
+    private static final List<String> PARAMETERS = Arrays.asList(
+        "ab-cd-12", "AB-CD-12", "ab:cd:ef:01:02:03", "AB:CD:EF:01:02:03", "mixedcase", "MIXEDCASE", "MixedCase",
+        "STRASSE", "stra\u00dfe", "STRA\u00dfE", "istanbul", "i\u0307stanbul", "\u0130STANBUL", "\u01c6emal", "\u01c4emal",
+        md5("encoded-1"), md5("encoded-1").toLowerCase(), md5("encoded-3").toLowerCase(), "", "absent");
+
+    @Parameterized.Parameter(0)
+    public boolean literalValues;
+
+    @Parameterized.Parameter(1)
+    public boolean caseSensitive;
+
+    @Parameterized.Parameters(name = "literal values: {0}, case sensitive: {1}")
+    public static Collection<Object[]> parameters() {
+        return Arrays.asList(new Object[][]{{true, true}, {true, false}, {false, true}, {false, false}});
+    }
+
+    @Test
+    public void containsGivesSameResultAsComparingWithEveryValue() throws Exception {
+        NamespacedListsBatch batch = new NamespacedListsBatch();
+        batch.addValues(LIST_NAME, STORED_VALUES);
+        Model model = new Model(fromString(selectServer()), StaticNamespacedListRepository.of(batch));
+
+        for (String parameter : PARAMETERS) {
+            boolean expected = STORED_VALUES.stream()
+                .anyMatch(value -> caseSensitive ? value.equals(parameter) : value.equalsIgnoreCase(parameter));
+
+            Map<String, String> params = Collections.singletonMap("param", parameter);
+            Assert.assertEquals(parameter, expected, MATCHED.equals(((Server) model.execute(params)).getName()));
+        }
+    }
+
+    @Test
+    public void foldedValuesAreEqualIfAndOnlyIfValuesAreEqualIgnoringCase() {
+        List<String> all = new ArrayList<>(STORED_VALUES);
+        all.addAll(PARAMETERS);
+        for (String first : all) {
+            for (String second : all) {
+                Assert.assertEquals(first + " vs " + second,
+                    first.equalsIgnoreCase(second), IgnoreCase.fold(first).equals(IgnoreCase.fold(second)));
+            }
+        }
+        String folded = "ab-cd-12";
+        Assert.assertSame(folded, IgnoreCase.fold(folded));
+    }
+
+    private String selectServer() {
+        String rightSide = literalValues
+            ? "<values>" + String.join(",", STORED_VALUES) + "</values>"
+            : "<namespacedList>" + LIST_NAME + "</namespacedList>";
+        return "<selectServer><if>" +
+            "<contains caseSensitive=\"" + caseSensitive + "\"><param>param</param>" + rightSide + "</contains>" +
+            "<return><server><name>" + MATCHED + "</name><url>xre://{host}:8080/shell</url><path>/PO</path></server></return>" +
+            "<return><server><name>other</name><url>xre://{host}:8080/shell</url><path>/BR</path></server></return>" +
+            "</if></selectServer>";
+    }
+
+    private static String md5(String raw) {
+        try {
+            return DatatypeConverter.printHexBinary(MessageDigest.getInstance("MD5").digest(raw.getBytes()));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Document fromString(String xmlString) {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(xmlString.getBytes("UTF-8")));
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
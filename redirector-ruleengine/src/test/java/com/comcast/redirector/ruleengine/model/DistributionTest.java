@@ -21,6 +21,8 @@ import com.comcast.redirector.ruleengine.repository.NamespacedListRepository;
 import com.comcast.redirector.ruleengine.repository.impl.StaticNamespacedListRepository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -35,6 +37,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 public class DistributionTest {
     private static Logger log = LoggerFactory.getLogger(DistributionTest.class);
@@ -165,6 +168,52 @@ public class DistributionTest {
         log.info("DistributionTest.testPercentage() passed");
     }
 
+    @Test
+    public void testBucketingIsSameAsLinearSearchOverGroups() throws Exception {
+        double[][] distributions = {{20, 30}, {0.01, 33.33, 33.33, 0.01}, {12.5, 12.5, 12.5, 12.5, 12.5, 12.5, 12.5}, {99.98}, {}};
+        final int REQUESTS_COUNT = 1000000;
+        for (double[] percents : distributions) {
+            StringBuilder selectServerXML = new StringBuilder("<selectServer><distribution>");
+            for (int group = 0; group < percents.length; group++) {
+                selectServerXML.append("<rule><percent>").append(percents[group]).append("</percent>").append(server(Integer.toString(group))).append("</rule>");
+            }
+            selectServerXML.append(server("default")).append("</distribution></selectServer>");
+            Model model = new Model(fromString(selectServerXML.toString()), namespacedListsHolder);
+
+            Random random = new Random(percents.length);
+            for (int i = 0; i < REQUESTS_COUNT; i++) {
+                Map<String, String> params = new HashMap<>();
+                String attribute;
+                if (i % 2 == 0) {
+                    attribute = Long.toString(Math.abs(random.nextLong()));
+                    params.put(DistributionStatement.ATTRIBUTE_ACCOUNT_ID, attribute);
+                } else {
+                    attribute = String.format("%012X", random.nextLong() & 0xFFFFFFFFFFFFL);
+                    params.put(DistributionStatement.ATTRIBUTE_MAC, attribute);
+                }
+                Assert.assertEquals(attribute, linearSearchBucket(percents, attribute), ((Server) model.execute(params)).getName());
+            }
+        }
+    }
+
+    // bucketing as it was done before upper bounds were precomputed: hash is calculated for every group in order
+    private static String linearSearchBucket(double[] percents, String attribute) {
+        double upperBound = 0.0;
+        for (int group = 0; group < percents.length; group++) {
+            upperBound += percents[group];
+            long hash = Hashing.sipHash24().hashString(attribute, Charsets.UTF_8).asLong();
+            long percentHashLong = (long) (Long.MAX_VALUE / 10000 * (upperBound * 100));
+            if (percentHashLong >= Math.abs(hash)) {
+                return Integer.toString(group);
+            }
+        }
+        return "default";
+    }
+
+    private static String server(String name) {
+        return "<server><name>" + name + "</name><url>xre://{host}:8080/shell</url><path>/PO/POC1/" + name + "/xreGuide</path></server>";
+    }
+
     @Ignore
     public void testLastPercentValidation() throws Exception {
         // b = 30%, b + b + b + b = 120%
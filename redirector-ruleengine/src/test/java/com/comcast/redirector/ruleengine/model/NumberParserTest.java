@@ -0,0 +1,81 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class NumberParserTest {
+    private static final int SAMPLES = 500000;
+    private static final String NUMBER_CHARS = "0123456789000.+-eE";
+    private static final String ANY_CHARS = "0123456789.+-eEfFdDxXpPaAN I\t\u0660";
+
+    @Test
+    public void sameAsDoubleParseDoubleForEdgeCases() {
+        String[] values = {null, "", " ", "-", "+", ".", "..", "1", "-0", "+0", "0.0", "-0.0", "1.", ".5", "1..2", "1.2.3",
+                "1e5", "1E-5", "1e", "1e+", "-1.5e-3", " 42 ", "\t42\n", "42f", "42F", "42d", "42D", "42ff", "42e3d", "4 2",
+                "NaN", "-NaN", "+NaN", "NaNd", "nan", "Infinity", "-Infinity", "Infinityf", "Inf", "infinity",
+                "0x10", "0x1p4", "0X1.8P1", "-0x.8p1d", "0x.p1", "0xp1", "0x1p", "0x1.1.1p1", "0xgp1",
+                "123456789012345", "1234567890123456", "12345678901234567890", "0.000000000000000000000001",
+                "1e22", "1e23", "9007199254740993", "2.2250738585072011e-308", "1e-400", "1e400", "1e0000000001",
+                "00000000000000000000001.5", "1.50000000000000000000", "\u0661", "1\u0660", "4.35", "0.1", "0.3"};
+        for (String value : values) {
+            assertSameAsDoubleParseDouble(value);
+        }
+    }
+
+    @Test
+    public void sameAsDoubleParseDoubleForRandomNumbers() {
+        Random random = new Random(1);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertSameAsDoubleParseDouble(Double.toString(Double.longBitsToDouble(random.nextLong())));
+            assertSameAsDoubleParseDouble(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(30) - 15)));
+            assertSameAsDoubleParseDouble(Long.toString(random.nextLong() >> random.nextInt(64)));
+            assertSameAsDoubleParseDouble(randomString(random, NUMBER_CHARS));
+        }
+    }
+
+    @Test
+    public void sameAsDoubleParseDoubleForRandomStrings() {
+        Random random = new Random(2);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertSameAsDoubleParseDouble(randomString(random, ANY_CHARS));
+        }
+    }
+
+    private static String randomString(Random random, String chars) {
+        char[] value = new char[random.nextInt(12)];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = chars.charAt(random.nextInt(chars.length()));
+        }
+        return new String(value);
+    }
+
+    private static void assertSameAsDoubleParseDouble(String value) {
+        Double expected;
+        try {
+            expected = Double.parseDouble(value);
+        } catch (NumberFormatException | NullPointerException e) {
+            expected = null;
+        }
+
+        assertEquals(value, expected != null, NumberParser.isNumber(value));
+        double expectedValue = expected != null ? expected : Double.NaN;
+        assertEquals(value, Double.doubleToRawLongBits(expectedValue), Double.doubleToRawLongBits(NumberParser.parseDouble(value)));
+    }
+}
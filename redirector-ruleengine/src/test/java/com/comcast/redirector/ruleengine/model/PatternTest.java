@@ -0,0 +1,95 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.model;
+
+import com.comcast.redirector.ruleengine.repository.impl.StaticNamespacedListRepository;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.PatternSyntaxException;
+
+public class PatternTest {
+    // plain (a+)+b is matched quickly by Java 9+ regex, which memoizes simple nested loops
+    private static final String CATASTROPHIC_PATTERN = "((a+)+)+b";
+    private static final String CATASTROPHIC_INPUT = StringUtils.repeat('a', 40) + "c";
+
+    @Test
+    public void matchesTheSameWayAsString() {
+        String[] patterns = {"X1-.*", "[a-z]+", "(?i)native", "PX\\d{3}", ".*", "a|b"};
+        String[] values = {"X1-1", "x1-1", "abc", "ABC", "native", "NATIVE", "PX123", "PX12", "", "a", "ab"};
+        for (String regex : patterns) {
+            Pattern pattern = new Pattern();
+            pattern.setValue(regex);
+            for (String value : values) {
+                Assert.assertEquals(regex + " " + value, value.matches(regex), pattern.matches(value));
+            }
+        }
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void invalidPatternFailsWhenSet() {
+        new Pattern().setValue("X1-[");
+    }
+
+    @Test
+    public void ruleWithInvalidPatternIsSkippedWhenModelIsBuilt() throws Exception {
+        Model model = new Model(fromString("<selectServer>" +
+            rule("invalid", "<matches><param>model</param><pattern>X1-[</pattern></matches>") +
+            rule("valid", "<matches><param>model</param><pattern>X1-.*</pattern></matches>") +
+            "<distribution>" + server("default") + "</distribution></selectServer>"), StaticNamespacedListRepository.emptyHolder());
+
+        Assert.assertEquals("valid", ((Server) model.execute(Collections.singletonMap("model", "X1-["))).getName());
+        Assert.assertEquals("default", ((Server) model.execute(Collections.singletonMap("model", "PX1"))).getName());
+    }
+
+    @Test(timeout = 10000)
+    public void catastrophicBacktrackingIsInterruptedWhenTimeoutIsSet() {
+        Pattern pattern = new Pattern();
+        pattern.setValue(CATASTROPHIC_PATTERN);
+
+        long start = System.nanoTime();
+        try {
+            pattern.matches(CATASTROPHIC_INPUT, TimeUnit.MILLISECONDS.toNanos(50));
+            Assert.fail("match is expected to time out");
+        } catch (Pattern.MatchTimeoutException e) {
+            Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        }
+
+        Assert.assertTrue(pattern.matches("aaab", TimeUnit.MILLISECONDS.toNanos(50)));
+        Assert.assertFalse(pattern.matches("aaac", TimeUnit.MILLISECONDS.toNanos(50)));
+    }
+
+    private static String rule(String id, String expression) {
+        return "<if id=\"" + id + "\">" + expression + "<return>" + server(id) + "</return></if>";
+    }
+
+    private static String server(String name) {
+        return "<server><name>" + name + "</name><url>{protocol}://{host}:{port}/{urn}</url><path>" + name + "</path></server>";
+    }
+
+    private static Document fromString(String xmlString) {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(xmlString.getBytes()));
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
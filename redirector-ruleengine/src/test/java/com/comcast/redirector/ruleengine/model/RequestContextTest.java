@@ -0,0 +1,109 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.model;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RequestContextTest {
+
+    @Test
+    public void paramIsLookedUpAndConvertedOncePerContext() {
+        CountingMap params = new CountingMap();
+        params.put("version", "1.5");
+        params.put("clientAddress", "10.0.0.1");
+        ParameterSlots parameterSlots = new ParameterSlots();
+        int versionSlot = parameterSlots.slotOf("version");
+        int addressSlot = parameterSlots.slotOf("clientAddress");
+        RequestContext.ModelSlots context = new RequestContext(params).slotsOf(parameterSlots);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("1.5", context.get(versionSlot, "version"));
+            assertTrue(context.isNumber(versionSlot, "version"));
+            assertEquals(1.5, context.getNumber(versionSlot, "version"), 0);
+            assertTrue(context.isAddress(addressSlot, "clientAddress"));
+            assertEquals(0, context.getAddressHigh(addressSlot, "clientAddress"));
+            assertEquals(0x0A000001L, context.getAddressLow(addressSlot, "clientAddress"));
+        }
+        assertEquals(2, params.lookups);
+    }
+
+    @Test
+    public void derivedFormsAreRecalculatedWhenParamIsChanged() {
+        ParameterSlots parameterSlots = new ParameterSlots();
+        int slot = parameterSlots.slotOf("platform");
+        RequestContext context = new RequestContext(new HashMap<>());
+        RequestContext.ModelSlots slots = context.slotsOf(parameterSlots);
+        assertNull(slots.getFolded(slot, "platform"));
+        assertFalse(slots.isNumber(slot, "platform"));
+
+        context.put("platform", "NaTiVe");
+        assertEquals("native", slots.getFolded(slot, "platform"));
+        assertFalse(slots.isAddress(slot, "platform"));
+
+        context.put("platform", "NaN");
+        assertTrue(slots.isNumber(slot, "platform"));
+        assertTrue(Double.isNaN(slots.getNumber(slot, "platform")));
+    }
+
+    @Test
+    public void slotsOfDifferentModelsDoNotOverlap() {
+        Map<String, String> params = new HashMap<>();
+        params.put("version", "1.5");
+        params.put("platform", "native");
+        ParameterSlots flavorRulesSlots = new ParameterSlots();
+        ParameterSlots urlRulesSlots = new ParameterSlots();
+        int versionSlot = flavorRulesSlots.slotOf("version");
+        int platformSlot = urlRulesSlots.slotOf("platform");
+        assertEquals(versionSlot, platformSlot);
+
+        RequestContext context = new RequestContext(params);
+        assertEquals("1.5", context.slotsOf(flavorRulesSlots).get(versionSlot, "version"));
+        assertEquals("native", context.slotsOf(urlRulesSlots).get(platformSlot, "platform"));
+        assertEquals("1.5", context.slotsOf(flavorRulesSlots).get(versionSlot, "version"));
+        assertSame(context.slotsOf(flavorRulesSlots), context.slotsOf(flavorRulesSlots));
+    }
+
+    @Test
+    public void paramWhichGotSlotAfterContextWasCreatedIsReadFromParams() {
+        Map<String, String> params = new HashMap<>();
+        params.put("lateParam", "fe80::1");
+        ParameterSlots parameterSlots = new ParameterSlots();
+        RequestContext context = RequestContext.of(params);
+        RequestContext.ModelSlots slots = context.slotsOf(parameterSlots);
+        int slot = parameterSlots.slotOf("lateParam");
+
+        assertSame(context, RequestContext.of(context));
+        assertEquals("fe80::1", slots.get(slot, "lateParam"));
+        assertTrue(slots.isAddress(slot, "lateParam"));
+        assertEquals(0xFE80000000000000L, slots.getAddressHigh(slot, "lateParam"));
+        assertEquals(1, slots.getAddressLow(slot, "lateParam"));
+        assertFalse(slots.isNumber(slot, "lateParam"));
+    }
+
+    private static class CountingMap extends HashMap<String, String> {
+        int lookups;
+
+        @Override
+        public String get(Object key) {
+            lookups++;
+            return super.get(key);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.model;
+
+import org.junit.Test;
+import sun.net.util.IPAddressUtil;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class VersionsTest {
+    private static final int SAMPLES = 200000;
+    private static final String VERSION_CHARS = "0123456789...+-:aF";
+
+    @Test
+    public void sameAsComparingSplitVersionsForEdgeCases() {
+        String[] versions = {"", ".", "..", "1", "1.", ".1", "1..2", "1.0", "1.0.0", "1.2.3", "1.10", "1.9", "01.2", "+1.-2",
+                "-", "+", "a.b", "1.2a", "2147483647", "2147483648", "-2147483648", "-2147483649", "2147483647.1",
+                "-2147483648.1", "::1", "fe80::1", "1:2", "1.2.3.4", "::ffff:1.2.3.4", "\u0661.\u0662"};
+        for (String left : versions) {
+            for (String right : versions) {
+                assertSameAsComparingSplitVersions(left, right);
+            }
+        }
+    }
+
+    @Test
+    public void sameAsComparingSplitVersionsForRandomVersions() {
+        Random random = new Random(3);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertSameAsComparingSplitVersions(randomVersion(random), randomVersion(random));
+        }
+    }
+
+    private static String randomVersion(Random random) {
+        if (random.nextInt(10) == 0) {
+            return Integer.toString(random.nextInt()) + "." + random.nextInt();
+        }
+        char[] version = new char[random.nextInt(10)];
+        for (int i = 0; i < version.length; i++) {
+            version[i] = VERSION_CHARS.charAt(random.nextInt(VERSION_CHARS.length()));
+        }
+        return new String(version);
+    }
+
+    private static void assertSameAsComparingSplitVersions(String left, String right) {
+        int expected = Integer.signum(compareSplitVersions(left, right));
+        String message = left + " vs " + right;
+        assertEquals(message, expected, Integer.signum(Versions.compare(left, right)));
+        assertEquals(message, expected, Integer.signum(Versions.compare(Versions.parse(left), right)));
+        assertEquals(message, expected, Integer.signum(Versions.compare(left, Versions.parse(right))));
+    }
+
+    // comparison as version expressions did before Versions
+    private static int compareSplitVersions(String left, String right) {
+        String[] leftTokens = left.isEmpty() || IPAddressUtil.isIPv6LiteralAddress(left) ? new String[]{} : left.split("\\.");
+        String[] rightTokens = right.isEmpty() || IPAddressUtil.isIPv6LiteralAddress(right) ? new String[]{} : right.split("\\.");
+        int largest = Math.max(leftTokens.length, rightTokens.length);
+        for (int i = 0; i < largest; i++) {
+            int result = (i < leftTokens.length ? intValue(leftTokens[i]) : 0) - (i < rightTokens.length ? intValue(rightTokens[i]) : 0);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static int intValue(String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.model.expressions;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class RelationalExpressionTest {
+    private static final int SAMPLES = 200000;
+    private static final String CHARS = "aAbBzZiI09-_ @[`{\u0130\u0131\u00C9\u00E9\u03A3";
+
+    @Test
+    public void compareLowerCaseIsSameAsComparingLowercasedStrings() {
+        assertSameAsComparingLowercasedStrings(new Random(4));
+    }
+
+    @Test
+    public void compareLowerCaseIsSameAsComparingLowercasedStringsInTurkishLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertSameAsComparingLowercasedStrings(new Random(5));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    private static void assertSameAsComparingLowercasedStrings(Random random) {
+        for (int i = 0; i < SAMPLES; i++) {
+            String s1 = randomString(random);
+            String s2 = randomString(random);
+            int expected = Integer.signum(s1.toLowerCase().compareTo(s2.toLowerCase()));
+
+            assertEquals(s1 + " vs " + s2, expected, Integer.signum(RelationalExpression.compareLowerCase(s1, s2, false)));
+            assertEquals(s1 + " vs " + s2, expected, Integer.signum(RelationalExpression.compareLowerCase(s1, s2.toLowerCase(), true)));
+        }
+    }
+
+    private static String randomString(Random random) {
+        // mostly ASCII strings, which are compared without lowercasing
+        int charsCount = random.nextInt(4) == 0 ? CHARS.length() : CHARS.length() - 5;
+        char[] value = new char[random.nextInt(6)];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = CHARS.charAt(random.nextInt(charsCount));
+        }
+        return new String(value);
+    }
+}
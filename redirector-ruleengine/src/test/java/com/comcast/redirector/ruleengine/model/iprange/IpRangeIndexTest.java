@@ -0,0 +1,128 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.ruleengine.model.iprange;
+
+import com.comcast.redirector.ruleengine.model.IpAddress;
+import com.comcast.redirector.ruleengine.model.IpRangeIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class IpRangeIndexTest {
+    private final Random random = new Random(42);
+
+    @Test
+    public void indexGivesSameResultAsCheckingEveryRange() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            List<IpAddress> ranges = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                ranges.add(new IpAddress(random.nextInt(3) == 0 ? randomIpv6Range() : randomIpv4Range()));
+            }
+            IpRangeIndex index = IpRangeIndex.of(ranges);
+
+            for (int i = 0; i < 2000; i++) {
+                String address = random.nextInt(3) == 0 ? randomIpv6() : randomIpv4();
+                boolean expected = IpAddress.isInRange(new IpAddress(address), ranges);
+                Assert.assertEquals(address, expected, index.contains(IpRangeIndex.toNumeric(address)));
+            }
+        }
+    }
+
+    @Test
+    public void overlappingAndNestedRangesAreMerged() throws Exception {
+        IpRangeIndex index = IpRangeIndex.of(Arrays.asList(
+            new IpAddress("10.0.0.0/8"), new IpAddress("10.1.0.0/16"), new IpAddress("10.255.255.255"),
+            new IpAddress("11.0.0.0/24"), new IpAddress("2001:db8::/32"), new IpAddress("2001:db8:1::/48")));
+
+        Assert.assertEquals(3, index.size());
+        Assert.assertTrue(index.contains(IpRangeIndex.toNumeric("10.200.1.1")));
+        Assert.assertTrue(index.contains(IpRangeIndex.toNumeric("11.0.0.255")));
+        Assert.assertFalse(index.contains(IpRangeIndex.toNumeric("11.0.1.0")));
+        Assert.assertFalse(index.contains(IpRangeIndex.toNumeric("9.255.255.255")));
+        Assert.assertTrue(index.contains(IpRangeIndex.toNumeric("2001:db8:ffff::1")));
+        Assert.assertFalse(index.contains(IpRangeIndex.toNumeric("2001:db9::1")));
+    }
+
+    @Test
+    public void indexRestoredFromRangesIsSameAsBuiltOne() throws Exception {
+        List<IpAddress> ranges = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ranges.add(new IpAddress(random.nextInt(3) == 0 ? randomIpv6Range() : randomIpv4Range()));
+        }
+        IpRangeIndex index = IpRangeIndex.of(ranges);
+        IpRangeIndex restored = IpRangeIndex.fromRanges(index.toRanges());
+
+        Assert.assertEquals(index.size(), restored.size());
+        Assert.assertArrayEquals(index.toRanges(), restored.toRanges());
+        for (int i = 0; i < 2000; i++) {
+            byte[] address = IpRangeIndex.toNumeric(random.nextInt(3) == 0 ? randomIpv6() : randomIpv4());
+            Assert.assertEquals(index.contains(address), restored.contains(address));
+        }
+        Assert.assertSame(IpRangeIndex.EMPTY, IpRangeIndex.fromRanges(new long[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void overlappingRangesAreNotRestored() {
+        IpRangeIndex.fromRanges(new long[]{0, 10, 0, 20, 0, 15, 0, 30});
+    }
+
+    @Test
+    public void emptyIndexContainsNothing() {
+        Assert.assertTrue(IpRangeIndex.of(new ArrayList<>()).isEmpty());
+        Assert.assertFalse(IpRangeIndex.EMPTY.contains(0, 0));
+        Assert.assertFalse(IpRangeIndex.EMPTY.contains(-1, -1));
+    }
+
+    @Test
+    public void parseIpv4AcceptsOnlyDottedQuad() {
+        for (int i = 0; i < 10000; i++) {
+            String address = randomIpv4();
+            Assert.assertEquals(address, IpRangeIndex.low(IpRangeIndex.toNumeric(address)), IpRangeIndex.parseIpv4(address));
+        }
+        Assert.assertEquals(0xFFFFFFFFL, IpRangeIndex.parseIpv4("255.255.255.255"));
+        Assert.assertEquals(0x0A000001L, IpRangeIndex.parseIpv4("010.000.000.001"));
+
+        for (String notIpv4 : new String[]{"", "1.2.3", "1.2.3.4.", ".1.2.3.4", "1..2.3", "256.1.1.1", "1.2.3.4/24",
+            "1.2.3.0004", "a.b.c.d", "1.2.3.4 ", "::1", "10.1", "167772161", "1111.1.1.1"}) {
+            Assert.assertEquals(notIpv4, IpRangeIndex.NOT_IPV4, IpRangeIndex.parseIpv4(notIpv4));
+        }
+    }
+
+    private String randomIpv4Range() {
+        int prefix = 8 + random.nextInt(25);
+        return random.nextInt(4) == 0 ? randomIpv4() : randomIpv4() + "/" + prefix;
+    }
+
+    private String randomIpv6Range() {
+        int prefix = 16 + random.nextInt(113);
+        return random.nextInt(4) == 0 ? randomIpv6() : randomIpv6() + "/" + prefix;
+    }
+
+    /**
+     * Addresses are taken from small number of networks so ranges overlap and lookups hit them
+     */
+    private String randomIpv4() {
+        return (10 + random.nextInt(3)) + "." + random.nextInt(4) + "." + random.nextInt(256) + "." + random.nextInt(256);
+    }
+
+    private String randomIpv6() {
+        return "2001:db8:" + Integer.toHexString(random.nextInt(4)) + ":" + Integer.toHexString(random.nextInt(0x10000))
+            + "::" + Integer.toHexString(random.nextInt(0x10000));
+    }
+}
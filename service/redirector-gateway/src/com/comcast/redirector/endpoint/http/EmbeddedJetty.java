@@ -21,8 +21,13 @@ import com.comcast.redirector.core.config.ConfigLoader;
 import com.comcast.xre.common.redirector.selector.xmlimpl.Config;
 import org.eclipse.jetty.annotations.AnnotationConfiguration;
 import org.eclipse.jetty.annotations.ClassInheritanceHandler;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.BlockingArrayQueue;
 import org.eclipse.jetty.util.ConcurrentHashSet;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.webapp.Configuration;
 import org.eclipse.jetty.webapp.WebAppContext;
 import org.slf4j.Logger;
@@ -32,7 +37,9 @@ import org.springframework.web.WebApplicationInitializer;
 public class EmbeddedJetty {
     private static final Logger log = LoggerFactory.getLogger(EmbeddedJetty.class);
 
-    private Config config = ConfigLoader.doParse(Config.class);
+    private static final int THREAD_IDLE_TIMEOUT_MS = 60000;
+
+    private final Config config;
     private Server server;
     private volatile boolean started = false;
 
@@ -45,6 +52,11 @@ public class EmbeddedJetty {
     }
 
     private EmbeddedJetty() {
+        this(ConfigLoader.doParse(Config.class));
+    }
+
+    EmbeddedJetty(Config config) {
+        this.config = config;
     }
 
     public void start() {
@@ -76,7 +88,7 @@ public class EmbeddedJetty {
             }
         }});
 
-        server = new Server(port);
+        server = createServer(config);
         server.setHandler(webAppContext);
 
         try {
@@ -87,4 +99,49 @@ public class EmbeddedJetty {
 
         log.info("Started embedded jetty server (Redirector Gateway) on port: {}", port);
     }
+
+    public void stop() {
+        if (server != null) {
+            try {
+                server.stop();
+            } catch (Exception e) {
+                log.error("Failed to stop embedded jetty server (Redirector Gateway)", e);
+            }
+        }
+        started = false;
+    }
+
+    Server getServer() {
+        return server;
+    }
+
+    static Server createServer(Config config) {
+        int maxQueuedRequests = config.getJettyMaxQueuedRequests();
+        // bounded queue makes Jetty reject requests it can't serve in time instead of piling them up
+        BlockingArrayQueue<Runnable> queue = maxQueuedRequests > 0
+            ? new BlockingArrayQueue<>(config.getJettyMinThreads(), config.getJettyMinThreads(), maxQueuedRequests)
+            : null;
+        QueuedThreadPool threadPool = new QueuedThreadPool(
+            config.getJettyMaxThreads(), config.getJettyMinThreads(), THREAD_IDLE_TIMEOUT_MS, queue);
+        threadPool.setName("RedirectorGatewayJetty");
+        Server server = new Server(threadPool);
+
+        HttpConfiguration httpConfiguration = new HttpConfiguration();
+        httpConfiguration.setOutputBufferSize(config.getJettyOutputBufferSize());
+        httpConfiguration.setRequestHeaderSize(config.getJettyRequestHeaderSize());
+        httpConfiguration.setResponseHeaderSize(config.getJettyResponseHeaderSize());
+
+        ServerConnector connector = new ServerConnector(server,
+            config.getJettyAcceptors(), config.getJettySelectors(), new HttpConnectionFactory(httpConfiguration));
+        connector.setPort(config.getCommunicationEndpointPort());
+        connector.setAcceptQueueSize(config.getJettyAcceptQueueSize());
+        connector.setIdleTimeout(config.getJettyIdleTimeoutMs());
+        server.addConnector(connector);
+
+        log.info("Jetty threads: min={}, max={}, maxQueuedRequests={}; acceptors={}, selectors={}, acceptQueueSize={}, idleTimeoutMs={}",
+            config.getJettyMinThreads(), config.getJettyMaxThreads(), maxQueuedRequests,
+            connector.getAcceptors(), connector.getSelectorManager().getSelectorCount(),
+            connector.getAcceptQueueSize(), connector.getIdleTimeout());
+        return server;
+    }
 }
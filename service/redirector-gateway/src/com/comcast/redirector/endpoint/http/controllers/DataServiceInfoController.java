@@ -17,7 +17,9 @@
 package com.comcast.redirector.endpoint.http.controllers;
 
 import com.comcast.redirector.RedirectorGateway;
+import com.comcast.redirector.endpoint.http.model.LatencyStats;
 import com.comcast.redirector.endpoint.http.model.ServiceInfo;
+import com.comcast.redirector.metrics.Metrics;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
@@ -31,6 +33,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @RestController
 @RequestMapping("")
 public class DataServiceInfoController {
@@ -58,6 +63,13 @@ public class DataServiceInfoController {
         return new ResponseEntity<>("OK", HttpStatus.OK);
     }
 
+    @RequestMapping(value = "/latencyStats", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Map<String, LatencyStats> getLatencyStats() {
+        Map<String, LatencyStats> result = new LinkedHashMap<>();
+        Metrics.getLatencyStats().forEach((name, snapshot) -> result.put(name, new LatencyStats(snapshot)));
+        return result;
+    }
+
     private ServiceInfo obtainServiceInfo() {
         try {
             Configuration config = new PropertiesConfiguration(ServiceInfo.CONFIG_FILE_NAME);
@@ -25,10 +25,10 @@ import com.comcast.redirector.endpoint.http.services.RedirectorService;
 import com.comcast.xre.common.redirector.selector.xmlimpl.Config;
 import org.apache.http.HttpStatus;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Map;
@@ -48,22 +48,23 @@ public class RedirectorController {
             produces = MediaType.APPLICATION_JSON_VALUE)
     public RedirectLocations redirectAppPOST(@PathVariable String appName,
                                   @RequestBody Map<String, String> params,
-                                  @RequestHeader HttpHeaders headers,
+                                  HttpServletRequest request,
                                   HttpServletResponse response) throws IOException {
-        return redirectInternal(appName, params, headers, response);
+        return redirectInternal(appName, params, request, response);
     }
 
     @RequestMapping(value="/{appName}",
             method = RequestMethod.GET,
             produces = MediaType.APPLICATION_JSON_VALUE)
-    public RedirectLocations redirectAppGET(@PathVariable String appName, @RequestParam Map<String, String> params, @RequestHeader HttpHeaders headers,
+    public RedirectLocations redirectAppGET(@PathVariable String appName, HttpServletRequest request,
                                   HttpServletResponse response) throws IOException {
-        return redirectInternal(appName, params, headers, response);
+        // params are read from request lazily, only the ones application needs
+        return redirectInternal(appName, null, request, response);
     }
 
-    private RedirectLocations redirectInternal(String appName, Map<String, String> params, HttpHeaders headers,
+    private RedirectLocations redirectInternal(String appName, Map<String, String> params, HttpServletRequest request,
                                                HttpServletResponse response) throws IOException {
-        RedirectLocations locations = redirectorService.redirect(appName, params, headers);
+        RedirectLocations locations = redirectorService.redirect(appName, params, request);
 
         if (zkConfig.getRedirectWith302()) {
             if (locations == null || locations.getLocation() == null || locations.getLocation().isEmpty()) {
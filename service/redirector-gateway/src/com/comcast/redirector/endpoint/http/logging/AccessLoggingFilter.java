@@ -16,7 +16,9 @@
 
 package com.comcast.redirector.endpoint.http.logging;
 
+import com.comcast.redirector.core.config.ConfigLoader;
 import com.comcast.redirector.metrics.Metrics;
+import com.comcast.xre.common.redirector.selector.xmlimpl.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -26,18 +28,36 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.Enumeration;
 
 /**
- * Filter that logs each request. Keep it fast.
+ * Filter that logs each request. Keep it fast: request is only copied to {@link AsyncAccessLog},
+ * it's formatted and written by separate thread.
  */
 
 public class AccessLoggingFilter extends OncePerRequestFilter {
     private static Logger log = LoggerFactory.getLogger(AccessLoggingFilter.class);
     private static final String START_TIME = "request-start-time";
+    private static final String REDIRECT_LATENCY = "gateway.request";
+
+    private final AsyncAccessLog accessLog;
+
+    public AccessLoggingFilter() {
+        this(ConfigLoader.doParse(Config.class));
+    }
+
+    AccessLoggingFilter(Config config) {
+        this(new AsyncAccessLog(config.getAccessLogBufferSize(),
+            AsyncAccessLog.OverflowPolicy.valueOf(config.getAccessLogOverflowPolicy().trim().toUpperCase()),
+            log::info));
+    }
+
+    AccessLoggingFilter(AsyncAccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long startNanos = System.nanoTime();
         if (request.getAttribute(START_TIME) == null) {
             request.setAttribute(START_TIME, System.currentTimeMillis()); // save request time
         } else {
@@ -46,6 +66,7 @@ public class AccessLoggingFilter extends OncePerRequestFilter {
         try {
             filterChain.doFilter(request, response);
         } finally {
+            Metrics.reportLatencySince(REDIRECT_LATENCY, startNanos);
             log(request, response);
         }
     }
@@ -61,26 +82,13 @@ public class AccessLoggingFilter extends OncePerRequestFilter {
             log.warn("Could not get request start time {}", x);
         }
 
-        final StringBuilder httpHeaders = new StringBuilder('[');
-        for (final Enumeration<String> headerNames = request.getHeaderNames(); headerNames.hasMoreElements(); ) {
-            final String headerName = headerNames.nextElement();
-            httpHeaders.append('[').append(headerName).append(": ").append(request.getHeader(headerName)).append("], ");
-        }
-        httpHeaders.append(']');
-
-        final StringBuffer requestStringBuffer = request.getRequestURL();
-
-        if (request.getQueryString() != null && !request.getQueryString().isEmpty()) {
-            requestStringBuffer.append("?").append(request.getQueryString());
-        }
-
         Metrics.reportGatewayRedirectDurationStats(duration);
 
-        log.info("Request: {} {} agent={} status={} duration={} HTTP Headers={}",
-                request.getMethod(), requestStringBuffer,
-                request.getHeader("User-Agent"),
-                response.getStatus(),
-                duration != 0 ? duration : "unknown",
-                httpHeaders.toString());
+        accessLog.append(request, response, duration);
+    }
+
+    @Override
+    public void destroy() {
+        accessLog.close();
     }
 }
@@ -0,0 +1,260 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.endpoint.http.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Access log written by single background thread. Request thread only copies fields of request and response
+ * into preallocated entry of a ring buffer, entries are formatted and written by the background thread, so
+ * requests don't wait for the log unless {@link OverflowPolicy#BLOCK} is used and all entries are taken.
+ */
+public class AsyncAccessLog implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(AsyncAccessLog.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long DROPS_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
+    public enum OverflowPolicy {
+        /**
+         * Entry is dropped and counted when all entries are taken
+         */
+        DROP,
+        /**
+         * Request thread waits for free entry when all entries are taken
+         */
+        BLOCK
+    }
+
+    private final Entry[] entries;
+    private final OverflowPolicy overflowPolicy;
+    private final Consumer<String> sink;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean writerParked;
+    private volatile boolean closed;
+
+    /**
+     * @param bufferSize number of entries waiting to be written
+     * @param sink receives formatted lines on the writer thread
+     */
+    public AsyncAccessLog(int bufferSize, OverflowPolicy overflowPolicy, Consumer<String> sink) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("access log buffer size must be positive: " + bufferSize);
+        }
+        this.entries = new Entry[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = new Entry();
+        }
+        this.overflowPolicy = overflowPolicy;
+        this.sink = sink;
+        this.writer = new Thread(this::writeEntries, "AccessLogWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Called on request thread after the request is handled
+     */
+    public void append(HttpServletRequest request, HttpServletResponse response, long duration) {
+        long sequence = claim();
+        if (sequence < 0) {
+            dropped.increment();
+            return;
+        }
+        Entry entry = entries[(int) (sequence % entries.length)];
+        entry.copy(request, response, duration);
+        entry.published = sequence;
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * @return number of entries dropped since the log is created
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Writes entries which are already appended and stops writer thread
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long claim() {
+        while (!closed) {
+            long sequence = claimed.get();
+            if (sequence - released.get() >= entries.length) {
+                if (overflowPolicy == OverflowPolicy.DROP) {
+                    return -1;
+                }
+                LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+            } else if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+        return -1;
+    }
+
+    private void writeEntries() {
+        StringBuilder line = new StringBuilder(1024);
+        long reportedDrops = 0;
+        long reportedAt = System.nanoTime();
+        long next = 0;
+        while (true) {
+            if (System.nanoTime() - reportedAt > DROPS_REPORT_INTERVAL_NANOS) {
+                reportedDrops = reportDrops(reportedDrops);
+                reportedAt = System.nanoTime();
+            }
+            Entry entry = entries[(int) (next % entries.length)];
+            if (entry.published == next) {
+                line.setLength(0);
+                entry.format(line);
+                entry.clear();
+                released.set(++next);
+                write(line.toString());
+            } else if (closed && next == claimed.get()) {
+                break;
+            } else {
+                // appending thread unparks writer when it sees the flag, so it's set before last check of the entry
+                writerParked = true;
+                if (entry.published != next && !closed) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                writerParked = false;
+            }
+        }
+        reportDrops(reportedDrops);
+    }
+
+    private void write(String line) {
+        try {
+            sink.accept(line);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write access log entry", e);
+        }
+    }
+
+    private long reportDrops(long reportedDrops) {
+        long drops = dropped.sum();
+        if (drops > reportedDrops) {
+            log.warn("{} access log entries are dropped, all {} entries were taken", drops - reportedDrops, entries.length);
+        }
+        return drops;
+    }
+
+    /**
+     * Fields of request and response which are logged. Header names and values are kept as they are,
+     * request url is built only when entry is formatted
+     */
+    private static class Entry {
+        private volatile long published = -1;
+        private String method;
+        private String scheme;
+        private String serverName;
+        private int serverPort;
+        private String requestUri;
+        private String queryString;
+        private String userAgent;
+        private int status;
+        private long duration;
+        private String[] headers = new String[64];
+        private int headersLength;
+
+        void copy(HttpServletRequest request, HttpServletResponse response, long duration) {
+            method = request.getMethod();
+            scheme = request.getScheme();
+            serverName = request.getServerName();
+            serverPort = request.getServerPort();
+            requestUri = request.getRequestURI();
+            queryString = request.getQueryString();
+            userAgent = request.getHeader("User-Agent");
+            status = response.getStatus();
+            this.duration = duration;
+            for (Enumeration<String> headerNames = request.getHeaderNames(); headerNames.hasMoreElements(); ) {
+                String headerName = headerNames.nextElement();
+                addHeader(headerName, request.getHeader(headerName));
+            }
+        }
+
+        private void addHeader(String name, String value) {
+            if (headersLength + 2 > headers.length) {
+                headers = Arrays.copyOf(headers, headers.length * 2);
+            }
+            headers[headersLength++] = name;
+            headers[headersLength++] = value;
+        }
+
+        void format(StringBuilder line) {
+            line.append("Request: ").append(method).append(' ');
+            appendRequestUrl(line);
+            line.append(" agent=").append(userAgent)
+                .append(" status=").append(status)
+                .append(" duration=").append(duration != 0 ? String.valueOf(duration) : "unknown")
+                .append(" HTTP Headers=");
+            for (int i = 0; i < headersLength; i += 2) {
+                line.append('[').append(headers[i]).append(": ").append(headers[i + 1]).append("], ");
+            }
+            line.append(']');
+        }
+
+        /**
+         * Same url as {@link HttpServletRequest#getRequestURL()} with query string
+         */
+        private void appendRequestUrl(StringBuilder line) {
+            line.append(scheme).append("://").append(serverName);
+            if (serverPort > 0
+                    && !("http".equalsIgnoreCase(scheme) && serverPort == 80)
+                    && !("https".equalsIgnoreCase(scheme) && serverPort == 443)) {
+                line.append(':').append(serverPort);
+            }
+            line.append(requestUri);
+            if (queryString != null && !queryString.isEmpty()) {
+                line.append('?').append(queryString);
+            }
+        }
+
+        void clear() {
+            method = scheme = serverName = requestUri = queryString = userAgent = null;
+            Arrays.fill(headers, 0, headersLength, null);
+            headersLength = 0;
+        }
+    }
+}
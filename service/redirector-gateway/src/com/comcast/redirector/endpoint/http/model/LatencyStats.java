@@ -0,0 +1,45 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.endpoint.http.model;
+
+import com.comcast.redirector.metrics.LatencyHistogram;
+
+/**
+ * Latency distribution in microseconds recorded during last metrics interval.
+ */
+public class LatencyStats {
+    public long count;
+    public long min;
+    public long max;
+    public double mean;
+    public long p50;
+    public long p90;
+    public long p99;
+    public long p999;
+
+    public LatencyStats() {
+    }
+
+    public LatencyStats(LatencyHistogram.Snapshot snapshot) {
+        count = snapshot.getCount();
+        min = snapshot.getMin();
+        max = snapshot.getMax();
+        mean = snapshot.getMean();
+        p50 = snapshot.getValueAtPercentile(50);
+        p90 = snapshot.getValueAtPercentile(90);
+        p99 = snapshot.getValueAtPercentile(99);
+        p999 = snapshot.getValueAtPercentile(99.9);
+    }
+}
@@ -20,18 +20,19 @@ import com.comcast.redirector.RedirectorGateway;
 import com.comcast.redirector.common.InstanceInfo;
 import com.comcast.redirector.core.config.ConfigLoader;
 import com.comcast.redirector.core.config.ZKConfig;
+import com.comcast.redirector.core.engine.IRedirector;
 import com.comcast.redirector.endpoint.http.model.Location;
 import com.comcast.redirector.endpoint.http.model.RedirectLocations;
 import com.comcast.redirector.metrics.Metrics;
+import com.comcast.redirector.ruleengine.model.RequestContext;
 import com.comcast.redirector.ruleengine.model.Server;
 import com.comcast.xre.common.redirector.selector.xmlimpl.Config;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpHeaders;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class HttpRedirectorService implements RedirectorService {
     private static final Logger log = LoggerFactory.getLogger(HttpRedirectorService.class);
@@ -45,25 +46,20 @@ public class HttpRedirectorService implements RedirectorService {
         zkConfig = ConfigLoader.doParse(Config.class);
     }
 
-    public RedirectLocations redirect(String appName, Map<String, String> requestParams, HttpHeaders headers) {
+    public RedirectLocations redirect(String appName, Map<String, String> requestParams, HttpServletRequest request) {
 
         Metrics.reportGatewayRequestStats();
 
-        Map<String, String> params = headers.entrySet().stream()
-                .filter(header -> (StringUtils.isNotBlank(header.getValue().get(0))))
-                .collect(Collectors.toMap(header -> header.getKey(), header -> header.getValue().get(0)));
-
-        if (requestParams != null && !requestParams.isEmpty()) {
-            params.putAll(requestParams);
-        }
-
-        return getRedirectResult(params, appName);
+        return getRedirectResult(appName, requestParams, request);
     }
 
-    private RedirectLocations getRedirectResult(Map<String, String> params, String serviceName) {
+    private RedirectLocations getRedirectResult(String serviceName, Map<String, String> requestParams, HttpServletRequest request) {
         if (redirectorGateway.isAppRegistered(serviceName)) {
-            InstanceInfo info = redirectorGateway.getRedirector(serviceName)
-                .redirect(params);
+            IRedirector redirector = redirectorGateway.getRedirector(serviceName);
+            // only params the application reads are taken from request, and rules read them through the context,
+            // so each param is looked up and converted once per request
+            Map<String, String> params = new HttpRequestParams(request, requestParams, redirector.getParameterNames());
+            InstanceInfo info = redirector.redirect(new RequestContext(params));
 
             return convert(info);
         } else {
@@ -87,11 +83,11 @@ public class HttpRedirectorService implements RedirectorService {
             }
         } else if (instanceInfo.getIsAdvancedRule()) {
             Location location = new Location(getUrlWithoutPort(instanceInfo.getUrl()), instanceInfo.getRuleName(), getProtocol(instanceInfo.getUrl()), getPortFromUrl(instanceInfo.getUrl()));
-            location.setContext(instanceInfo.getServer().getQuery());
+            location.setContext(instanceInfo.getQuery());
             locations.addLocation(location);
         } else {
             Location location = new Location(instanceInfo.getAddress(), instanceInfo.getStack(), instanceInfo.getProtocol(), String.valueOf(instanceInfo.getPort()));
-            location.setContext(instanceInfo.getServer().getQuery());
+            location.setContext(instanceInfo.getQuery());
             locations.addLocation(location);
         }
 
@@ -101,12 +97,20 @@ public class HttpRedirectorService implements RedirectorService {
     private String getUrlWithoutPort(String fullUrl) {
         String url = "";
         if (StringUtils.isNotBlank(fullUrl)) {
-            try {
-                String urlWithPort = fullUrl.split("/")[2];
-                url = urlWithPort.lastIndexOf(":") == -1 ? urlWithPort : urlWithPort.substring(0, urlWithPort.lastIndexOf(":"));
-            } catch (IndexOutOfBoundsException ex) {
-                log.error("Failed to get url without port from " + fullUrl, ex);
+            // host and port are between second and third slashes, e.g. xre://host:10001/shell
+            int firstSlash = fullUrl.indexOf('/');
+            int secondSlash = firstSlash < 0 ? -1 : fullUrl.indexOf('/', firstSlash + 1);
+            if (secondSlash < 0 || StringUtils.containsOnly(fullUrl.substring(secondSlash), '/')) {
+                log.error("Failed to get url without port from " + fullUrl);
+                return url;
+            }
+            int start = secondSlash + 1;
+            int end = fullUrl.indexOf('/', start);
+            if (end < 0) {
+                end = fullUrl.length();
             }
+            int portStart = fullUrl.lastIndexOf(':', end - 1);
+            url = fullUrl.substring(start, portStart < start ? end : portStart);
         }
         return url;
     }
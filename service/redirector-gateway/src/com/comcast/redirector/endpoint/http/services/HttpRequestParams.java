@@ -0,0 +1,100 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.endpoint.http.services;
+
+import org.apache.commons.lang3.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read only view of redirect params backed by http request. Contains only params which names application reads
+ * (see {@link com.comcast.redirector.core.engine.IRedirector#getParameterNames()}), each one is looked up in the
+ * request when it's read, so headers and params nobody reads are never copied.
+ * <p/>
+ * Param is taken from request params if there is one with such name, from first value of request header otherwise.
+ * Headers with blank values are skipped, header names are case insensitive as HTTP defines them.
+ */
+public class HttpRequestParams extends AbstractMap<String, String> {
+    private final HttpServletRequest request;
+    private final Map<String, String> requestParams;
+    private final Set<String> names;
+    private Map<String, String> resolved;
+
+    /**
+     * @param requestParams params of request body or null to read params of the request itself
+     * @param names names of params which are resolved, the rest are missing
+     */
+    public HttpRequestParams(HttpServletRequest request, Map<String, String> requestParams, Set<String> names) {
+        this.request = request;
+        this.requestParams = requestParams;
+        this.names = names;
+    }
+
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof String) || !names.contains(key)) {
+            return null;
+        }
+        String name = (String) key;
+        if (requestParams != null) {
+            if (requestParams.containsKey(name)) {
+                return requestParams.get(name);
+            }
+        } else {
+            String value = request.getParameter(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        String header = request.getHeader(name);
+        return StringUtils.isNotBlank(header) ? header : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null || (requestParams != null && names.contains(key) && requestParams.containsKey(key));
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return resolve().entrySet();
+    }
+
+    @Override
+    public int size() {
+        return resolve().size();
+    }
+
+    /**
+     * Resolves all params at once, only when whole map is read, e.g. for logging
+     */
+    private Map<String, String> resolve() {
+        if (resolved == null) {
+            Map<String, String> params = new LinkedHashMap<>();
+            for (String name : names) {
+                if (containsKey(name)) {
+                    params.put(name, get(name));
+                }
+            }
+            resolved = Collections.unmodifiableMap(params);
+        }
+        return resolved;
+    }
+}
@@ -17,10 +17,13 @@
 package com.comcast.redirector.endpoint.http.services;
 
 import com.comcast.redirector.endpoint.http.model.RedirectLocations;
-import org.springframework.http.HttpHeaders;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.Map;
 
 public interface RedirectorService {
-    RedirectLocations redirect(String appName, Map<String, String> requestParams, HttpHeaders headers);
+    /**
+     * @param requestParams params of request body or null if params are read from the request itself
+     */
+    RedirectLocations redirect(String appName, Map<String, String> requestParams, HttpServletRequest request);
 }
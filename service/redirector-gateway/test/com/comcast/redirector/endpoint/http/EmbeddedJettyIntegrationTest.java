@@ -0,0 +1,123 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.endpoint.http;
+
+import com.comcast.redirector.core.config.ConfigLoader;
+import com.comcast.xre.common.redirector.selector.xmlimpl.Config;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+public class EmbeddedJettyIntegrationTest {
+    private EmbeddedJetty embeddedJetty;
+
+    @After
+    public void tearDown() {
+        if (embeddedJetty != null) {
+            embeddedJetty.stop();
+        }
+    }
+
+    @Test
+    public void gatewayIsStartedWithConfiguredThreadPoolAndConnector() throws Exception {
+        Config config = new Config();
+        config.setCommunicationEndpointPort(0);
+        config.setJettyMinThreads(12);
+        config.setJettyMaxThreads(48);
+        config.setJettyMaxQueuedRequests(300);
+        config.setJettyAcceptors(1);
+        config.setJettySelectors(3);
+        config.setJettyAcceptQueueSize(512);
+        config.setJettyIdleTimeoutMs(7000);
+        config.setJettyOutputBufferSize(4096);
+        config.setJettyRequestHeaderSize(6144);
+        config.setJettyResponseHeaderSize(2048);
+
+        embeddedJetty = new EmbeddedJetty(config);
+        embeddedJetty.start();
+        Server server = embeddedJetty.getServer();
+
+        Assert.assertTrue(server.isStarted());
+        QueuedThreadPool threadPool = (QueuedThreadPool) server.getThreadPool();
+        Assert.assertEquals(12, threadPool.getMinThreads());
+        Assert.assertEquals(48, threadPool.getMaxThreads());
+        BlockingArrayQueue<Runnable> queue = Whitebox.invokeMethod(threadPool, "getQueue");
+        Assert.assertEquals(300, queue.getMaxCapacity());
+
+        ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        Assert.assertEquals(1, connector.getAcceptors());
+        Assert.assertEquals(3, connector.getSelectorManager().getSelectorCount());
+        Assert.assertEquals(512, connector.getAcceptQueueSize());
+        Assert.assertEquals(7000, connector.getIdleTimeout());
+        HttpConfiguration httpConfiguration = connector.getConnectionFactory(HttpConnectionFactory.class).getHttpConfiguration();
+        Assert.assertEquals(4096, httpConfiguration.getOutputBufferSize());
+        Assert.assertEquals(6144, httpConfiguration.getRequestHeaderSize());
+        Assert.assertEquals(2048, httpConfiguration.getResponseHeaderSize());
+
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + connector.getLocalPort() + "/").openConnection();
+        try {
+            // web application is deployed and answers by itself, Jetty answers 503 when it failed to start
+            Assert.assertEquals(HttpURLConnection.HTTP_NOT_FOUND, connection.getResponseCode());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    public void shippedProfileIsApplied() throws Exception {
+        Config config = ConfigLoader.doParse(Config.class, "src/shell.xre.properties");
+
+        Server server = EmbeddedJetty.createServer(config);
+
+        QueuedThreadPool threadPool = (QueuedThreadPool) server.getThreadPool();
+        Assert.assertEquals(32, threadPool.getMinThreads());
+        Assert.assertEquals(256, threadPool.getMaxThreads());
+        ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        Assert.assertEquals(config.getCommunicationEndpointPort().intValue(), connector.getPort());
+        Assert.assertEquals(1024, connector.getAcceptQueueSize());
+        Assert.assertEquals(5000, connector.getIdleTimeout());
+        Assert.assertEquals(8192, connector.getConnectionFactory(HttpConnectionFactory.class).getHttpConfiguration().getOutputBufferSize());
+    }
+
+    @Test
+    public void jettyDefaultsAreKeptWhenNothingIsConfigured() throws Exception {
+        Server server = EmbeddedJetty.createServer(new Config());
+
+        QueuedThreadPool threadPool = (QueuedThreadPool) server.getThreadPool();
+        QueuedThreadPool jettyDefaultThreadPool = new QueuedThreadPool();
+        Assert.assertEquals(jettyDefaultThreadPool.getMinThreads(), threadPool.getMinThreads());
+        Assert.assertEquals(jettyDefaultThreadPool.getMaxThreads(), threadPool.getMaxThreads());
+        ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        ServerConnector jettyDefaultConnector = new ServerConnector(new Server());
+        Assert.assertEquals(jettyDefaultConnector.getAcceptQueueSize(), connector.getAcceptQueueSize());
+        Assert.assertEquals(jettyDefaultConnector.getIdleTimeout(), connector.getIdleTimeout());
+        Assert.assertEquals(jettyDefaultConnector.getAcceptors(), connector.getAcceptors());
+        HttpConfiguration jettyDefaultHttpConfiguration = new HttpConfiguration();
+        HttpConfiguration httpConfiguration = connector.getConnectionFactory(HttpConnectionFactory.class).getHttpConfiguration();
+        Assert.assertEquals(jettyDefaultHttpConfiguration.getOutputBufferSize(), httpConfiguration.getOutputBufferSize());
+        Assert.assertEquals(jettyDefaultHttpConfiguration.getRequestHeaderSize(), httpConfiguration.getRequestHeaderSize());
+        Assert.assertEquals(jettyDefaultHttpConfiguration.getResponseHeaderSize(), httpConfiguration.getResponseHeaderSize());
+    }
+}
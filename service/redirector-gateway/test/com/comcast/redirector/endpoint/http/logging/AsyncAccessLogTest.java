@@ -0,0 +1,173 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.endpoint.http.logging;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class AsyncAccessLogTest {
+    private static final int THREADS = 4;
+    private static final int REQUESTS_PER_THREAD = 20000;
+    private static final long SLOW_SINK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<AsyncAccessLog> logs = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        logs.forEach(AsyncAccessLog::close);
+    }
+
+    @Test
+    public void requestIsLoggedInSameFormatAsBefore() throws Exception {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        AccessLoggingFilter filter = new AccessLoggingFilter(accessLog(16, AsyncAccessLog.OverflowPolicy.DROP, lines::add));
+        MockHttpServletRequest request = request();
+        request.setQueryString("mac=00:11:22:33:44:55");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(302);
+
+        filter.doFilter(request, response, new MockFilterChain());
+        filter.destroy();
+
+        Assert.assertEquals(1, lines.size());
+        Assert.assertTrue(lines.get(0), lines.get(0).matches(
+            "Request: GET http://redirector:10601/serviceAddress/xreGuide\\?mac=00:11:22:33:44:55 agent=STB " +
+            "status=302 duration=\\S+ HTTP Headers=\\[User-Agent: STB\\], \\[mac: 00:11:22:33:44:55\\], \\[X-Header-0: value0\\], .*\\[X-Header-39: value39\\], \\]"));
+    }
+
+    @Test
+    public void defaultPortsAreNotLogged() {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        AsyncAccessLog accessLog = accessLog(16, AsyncAccessLog.OverflowPolicy.DROP, lines::add);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/serviceAddress/xreGuide");
+        request.setServerPort(80);
+
+        accessLog.append(request, new MockHttpServletResponse(), 0);
+        accessLog.close();
+
+        Assert.assertEquals(Collections.singletonList(
+            "Request: POST http://localhost/serviceAddress/xreGuide agent=null status=200 duration=unknown HTTP Headers=]"), lines);
+    }
+
+    @Test
+    public void requestThreadLatencyDoesNotDependOnSinkSpeed() throws Exception {
+        AtomicLong fastSinkLines = new AtomicLong();
+        AsyncAccessLog fastLog = accessLog(1024, AsyncAccessLog.OverflowPolicy.DROP, line -> fastSinkLines.incrementAndGet());
+        long fastNanos = appendConcurrently(fastLog);
+
+        AtomicLong slowSinkLines = new AtomicLong();
+        AsyncAccessLog slowLog = accessLog(1024, AsyncAccessLog.OverflowPolicy.DROP, line -> {
+            slowSinkLines.incrementAndGet();
+            sleepNanos(SLOW_SINK_NANOS);
+        });
+        long slowNanos = appendConcurrently(slowLog);
+        long slowLogDroppedCount = slowLog.getDroppedCount();
+        slowLog.close();
+        fastLog.close();
+
+        long requests = THREADS * REQUESTS_PER_THREAD;
+        long sinkNanos = (requests / THREADS) * SLOW_SINK_NANOS;
+        Assert.assertTrue("requests took " + slowNanos + "ns while log needs at least " + sinkNanos + "ns to write them",
+            slowNanos < sinkNanos / 4);
+        Assert.assertTrue("requests took " + slowNanos + "ns with slow log and " + fastNanos + "ns with fast log",
+            slowNanos < fastNanos * 10 + TimeUnit.MILLISECONDS.toNanos(500));
+        Assert.assertEquals(requests, fastSinkLines.get() + fastLog.getDroppedCount());
+        Assert.assertEquals(requests, slowSinkLines.get() + slowLogDroppedCount);
+        Assert.assertTrue(slowLogDroppedCount > 0);
+    }
+
+    @Test
+    public void nothingIsDroppedWhenRequestsWaitForLog() throws Exception {
+        AtomicLong lines = new AtomicLong();
+        AsyncAccessLog accessLog = accessLog(8, AsyncAccessLog.OverflowPolicy.BLOCK, line -> {
+            if (lines.incrementAndGet() % 1000 == 0) {
+                sleepNanos(SLOW_SINK_NANOS);
+            }
+        });
+
+        appendConcurrently(accessLog);
+        accessLog.close();
+
+        Assert.assertEquals(THREADS * REQUESTS_PER_THREAD, lines.get());
+        Assert.assertEquals(0, accessLog.getDroppedCount());
+    }
+
+    private AsyncAccessLog accessLog(int bufferSize, AsyncAccessLog.OverflowPolicy overflowPolicy, Consumer<String> sink) {
+        AsyncAccessLog accessLog = new AsyncAccessLog(bufferSize, overflowPolicy, sink);
+        logs.add(accessLog);
+        return accessLog;
+    }
+
+    /**
+     * @return time it took request threads to append all entries
+     */
+    private static long appendConcurrently(AsyncAccessLog accessLog) throws InterruptedException {
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int n = 0; n < REQUESTS_PER_THREAD; n++) {
+                        accessLog.append(request, response, 1);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            threads[i].start();
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        Assert.assertTrue(done.await(60, TimeUnit.SECONDS));
+        return System.nanoTime() - startNanos;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/serviceAddress/xreGuide");
+        request.setServerName("redirector");
+        request.setServerPort(10601);
+        request.addHeader("User-Agent", "STB");
+        request.addHeader("mac", "00:11:22:33:44:55");
+        for (int i = 0; i < 40; i++) {
+            request.addHeader("X-Header-" + i, "value" + i);
+        }
+        return request;
+    }
+
+    private static void sleepNanos(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        while (System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.endpoint.http.services;
+
+import com.comcast.redirector.ruleengine.model.Model;
+import com.comcast.redirector.ruleengine.model.RequestContext;
+import com.comcast.redirector.ruleengine.model.Server;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static com.comcast.xre.redirector.test.Utils.buildSelectServer;
+
+public class HttpRequestParamsTest {
+    private static final String[] RECEIVER_TYPES = {"Native", "Other", "", " "};
+    private static final String[] MODELS = {"PX001", "PX002", "XG1"};
+
+    private final Random random = new Random(42);
+
+    private final Model model = buildSelectServer(
+        rule("native", "<equals><param>receiverType</param><value>Native</value></equals>"),
+        rule("newVersion", "<and><greaterThan><param>version</param><value>2.5</value></greaterThan>" +
+            "<contains><param>model</param><values><value>PX001</value><value>XG1</value></values></contains></and>"),
+        rule("office", "<inIpRange><param>clientAddress</param><values><value>10.0.0.0/8</value></values></inIpRange>"),
+        rule("noFeatures", "<isEmpty><param>features</param></isEmpty>"),
+        "<distribution><rule><percent>30</percent>" + server("distribution") + "</rule>" + server("default") + "</distribution>");
+
+    public HttpRequestParamsTest() throws Exception {
+    }
+
+    @Test
+    public void modelReferencesItsParams() {
+        Assert.assertEquals(
+            new HashSet<>(Arrays.asList("receiverType", "version", "model", "clientAddress", "features", "mac", "serviceAccountId")),
+            model.getParameterNames());
+    }
+
+    @Test
+    public void ruleResultsAreSameAsWithAllHeadersAndParamsCopied() throws Exception {
+        for (int i = 0; i < 5000; i++) {
+            MockHttpServletRequest request = randomRequest();
+            boolean body = random.nextBoolean();
+            Map<String, String> requestParams = body ? randomParams() : null;
+            if (!body) {
+                randomParams().forEach(request::addParameter);
+            }
+
+            Map<String, String> allParams = copyAll(request, body ? requestParams : queryParams(request));
+            HttpRequestParams params = new HttpRequestParams(request, requestParams, model.getParameterNames());
+
+            Assert.assertEquals(serverName(allParams), serverName(new RequestContext(params)));
+            for (String name : model.getParameterNames()) {
+                Assert.assertEquals(name, allParams.get(name), params.get(name));
+                Assert.assertEquals(name, allParams.containsKey(name), params.containsKey(name));
+            }
+            Map<String, String> referencedParams = new HashMap<>(allParams);
+            referencedParams.keySet().retainAll(model.getParameterNames());
+            Assert.assertEquals(referencedParams, params);
+        }
+    }
+
+    @Test
+    public void paramsWhichAreNotReferencedAreMissing() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("version", "3");
+        request.addHeader("userAgent", "test");
+        request.addParameter("unused", "value");
+
+        HttpRequestParams params = new HttpRequestParams(request, null, Collections.singleton("version"));
+
+        Assert.assertEquals("3", params.get("version"));
+        Assert.assertNull(params.get("userAgent"));
+        Assert.assertNull(params.get("unused"));
+        Assert.assertEquals(Collections.singletonMap("version", "3"), params);
+    }
+
+    private Map<String, String> randomParams() {
+        Map<String, String> params = new HashMap<>();
+        if (random.nextInt(3) == 0) {
+            params.put("receiverType", RECEIVER_TYPES[random.nextInt(RECEIVER_TYPES.length)]);
+        }
+        if (random.nextInt(3) == 0) {
+            params.put("version", random.nextInt(5) + "." + random.nextInt(10));
+        }
+        if (random.nextInt(4) == 0) {
+            params.put("features", random.nextBoolean() ? "" : "hd");
+        }
+        params.put("param" + random.nextInt(10), "value");
+        return params;
+    }
+
+    /**
+     * Request with 40 to 60 headers, some of them are referenced by the model, some are blank
+     */
+    private MockHttpServletRequest randomRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        int fillers = 40 + random.nextInt(20);
+        for (int i = 0; i < fillers; i++) {
+            request.addHeader("X-Filler-" + i, Integer.toHexString(random.nextInt()));
+        }
+        if (random.nextBoolean()) {
+            request.addHeader("receiverType", RECEIVER_TYPES[random.nextInt(RECEIVER_TYPES.length)]);
+        }
+        if (random.nextBoolean()) {
+            request.addHeader("version", random.nextInt(5) + "." + random.nextInt(10));
+        }
+        if (random.nextBoolean()) {
+            request.addHeader("model", MODELS[random.nextInt(MODELS.length)]);
+            request.addHeader("model", "second value is ignored");
+        }
+        if (random.nextBoolean()) {
+            request.addHeader("clientAddress", (random.nextBoolean() ? "10." : "11.") + random.nextInt(256) + ".0.1");
+        }
+        if (random.nextBoolean()) {
+            request.addHeader("features", random.nextBoolean() ? "" : "hd");
+        }
+        request.addHeader("mac", String.format("00:00:00:00:%02x:%02x", random.nextInt(256), random.nextInt(256)));
+        if (random.nextInt(4) == 0) {
+            request.addHeader("serviceAccountId", random.nextBoolean() ? " " : "account" + random.nextInt(1000));
+        }
+        return request;
+    }
+
+    private static Map<String, String> queryParams(MockHttpServletRequest request) {
+        return request.getParameterMap().entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, param -> param.getValue()[0]));
+    }
+
+    /**
+     * The way params used to be built: every header and request param copied into a map
+     */
+    private static Map<String, String> copyAll(MockHttpServletRequest request, Map<String, String> requestParams) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            headers.put(name, Collections.list(request.getHeaders(name)));
+        }
+        Map<String, String> params = headers.entrySet().stream()
+            .filter(header -> (StringUtils.isNotBlank(header.getValue().get(0))))
+            .collect(Collectors.toMap(header -> header.getKey(), header -> header.getValue().get(0)));
+        if (requestParams != null && !requestParams.isEmpty()) {
+            params.putAll(requestParams);
+        }
+        return params;
+    }
+
+    private String serverName(Map<String, String> params) {
+        return ((Server) model.execute(params)).getName();
+    }
+
+    private static String rule(String name, String condition) {
+        return "<if id=\"" + name + "\">" + condition + "<return>" + server(name) + "</return></if>";
+    }
+
+    private static String server(String name) {
+        return "<server><name>" + name + "</name><url>xre://{host}:8080/shell</url><path>/" + name + "</path></server>";
+    }
+}
@@ -83,4 +83,7 @@ public class TestServiceProvider implements IFilteredServiceProvider {
     public XreStackPath getStack() {
         return stack;
     }
+
+    @Override
+    public void setInstancesChangeListener(Runnable listener) {}
 }
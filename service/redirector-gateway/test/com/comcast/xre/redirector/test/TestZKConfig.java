@@ -162,6 +162,11 @@ public class TestZKConfig implements ZKConfig {
         return null;
     }
 
+    @Override
+    public boolean isBackupFsyncEnabled() {
+        return false;
+    }
+
     @Override
     public int getMinHosts() {
         return 0;
@@ -237,6 +242,11 @@ public class TestZKConfig implements ZKConfig {
         return 0;
     }
 
+    @Override
+    public int getDiscoveryBackupIntervalMs() {
+        return 0;
+    }
+
     @Override
     public String getRestBasePath() {
         return "http://localhost";
@@ -262,6 +272,11 @@ public class TestZKConfig implements ZKConfig {
         return 2;
     }
 
+    @Override
+    public boolean isDataChangeWatchEnabled() {
+        return true;
+    }
+
     @Override
     public Integer getPollingClientsMaxNumberOfConnectionsPerRoute() {
         return 2;
@@ -32,6 +32,9 @@ public interface INamespacedListsService {
 
     Namespaces getAllNamespacedLists();
 
+    /**
+     * @return lists with values count instead of values, clients tell which lists have changed by their versions
+     */
     Namespaces getAllNamespacedListsWithoutValues();
 
     NamespacedListSearchResult searchNamespacedLists(String value);
@@ -123,13 +123,25 @@ public class NamespacedListsService implements INamespacedListsService {
         return namespaces;
     }
 
+    /**
+     * Lists are read without converting their values to frontend format, only values count is taken
+     */
     @Override
     public Namespaces getAllNamespacedListsWithoutValues() {
-        Namespaces namespaces = getAllNamespacedListsFilteredByPermissions();
-        for (NamespacedList list: namespaces.getNamespaces()) {
-            list.setValueCount(list.getValueSet().size());
-            list.setValueSet(null);
-        }
+        List<NamespacedList> lists = namespacedListDAO.getAll(list -> {
+            NamespacedList withoutValues = new NamespacedList();
+            withoutValues.setName(list.getName());
+            withoutValues.setDescription(list.getDescription());
+            withoutValues.setVersion(list.getVersion());
+            withoutValues.setType(list.getType() != null ? list.getType() : NamespacedListType.TEXT);
+            withoutValues.setValuesEncodingType(list.getValuesEncodingType());
+            withoutValues.setValueCount(list.getRet() != null ? list.getRet().size() : 0);
+            withoutValues.setRet(null);
+            withoutValues.setValueSet(null);
+            return withoutValues;
+        });
+        Namespaces namespaces = new Namespaces();
+        namespaces.setNamespaces(namespacedListsPermissionPostProcessService.removeListsWithNoReadPermissionsFromNamespacedLists(lists));
         return namespaces;
     }
 
@@ -146,6 +146,11 @@ public class SnapshotManager implements IDataSourceConnector.ConnectionListener
                 return null;
             }
 
+            @Override
+            public Collection<NamespacedList> getAllNamespacedListsVersions() {
+                return null;
+            }
+
             @Override
             public NamespacedList getNamespacedList(String namespacedListName) {
                 return null;
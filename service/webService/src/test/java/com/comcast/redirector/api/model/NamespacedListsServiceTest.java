@@ -14,7 +14,9 @@
  */
 package com.comcast.redirector.api.model;
 
+import com.comcast.redirector.api.model.Value;
 import com.comcast.redirector.api.model.namespaced.NamespacedList;
+import com.comcast.redirector.api.model.namespaced.NamespacedListType;
 import com.comcast.redirector.api.model.namespaced.NamespacedValuesToDeleteByName;
 import com.comcast.redirector.api.model.namespaced.Namespaces;
 import com.comcast.redirector.dataaccess.dao.IListDAO;
@@ -32,8 +34,11 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import javax.ws.rs.WebApplicationException;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Mockito.when;
 import static com.comcast.redirector.api.NamespaceServiceIntegrationTestUtils.*;
 
@@ -108,6 +113,33 @@ public class NamespacedListsServiceTest {
         namespacedListsService.deleteEntitiesFromMultipleNamespacedLists(toDelete, ApplicationStatusMode.OFFLINE);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getAllNamespacedListsWithoutValuesTest() {
+        NamespacedList stored = new NamespacedList();
+        stored.setName("namespacedListTest1");
+        stored.setVersion(5);
+        stored.setRet(new LinkedHashSet<>(Arrays.asList(new Value("value1"), new Value("value2"))));
+        when(namespacedListDAO.getAll(any(Function.class))).then(invocation -> {
+            Function<NamespacedList, NamespacedList> view = (Function<NamespacedList, NamespacedList>) invocation.getArguments()[0];
+            return Collections.singletonList(stored).stream().map(view).collect(Collectors.toList());
+        });
+        when(namespacedListsPermissionPostProcessService.removeListsWithNoReadPermissionsFromNamespacedLists(anyListOf(NamespacedList.class)))
+            .then(invocation -> invocation.getArguments()[0]);
+
+        List<NamespacedList> lists = namespacedListsService.getAllNamespacedListsWithoutValues().getNamespaces();
+
+        Assert.assertEquals(1, lists.size());
+        NamespacedList list = lists.get(0);
+        Assert.assertEquals("namespacedListTest1", list.getName());
+        Assert.assertEquals(5L, list.getVersion());
+        Assert.assertEquals(NamespacedListType.TEXT, list.getType());
+        Assert.assertEquals(Integer.valueOf(2), list.getValueCount());
+        Assert.assertNull(list.getValueSet());
+        Assert.assertNull(list.getRet());
+        Assert.assertEquals(2, stored.getRet().size());
+    }
+
     public NamespacedList getNamespacedListByName(Namespaces namespaces, String name) {
         for(NamespacedList namespacedList : namespaces.getNamespaces()) {
             if(name.equals(namespacedList.getName())) {
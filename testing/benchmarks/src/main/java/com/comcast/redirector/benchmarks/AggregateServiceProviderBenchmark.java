@@ -0,0 +1,142 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.benchmarks;
+
+import com.comcast.redirector.api.model.xrestack.XreStackPath;
+import com.comcast.redirector.core.balancer.serviceprovider.AggregateServiceProvider;
+import com.comcast.redirector.core.balancer.serviceprovider.IFilteredServiceProvider;
+import com.comcast.redirector.core.balancer.serviceprovider.StackServiceProvider;
+import com.comcast.redirector.core.balancer.serviceprovider.whitelist.IWhitelistPredicate;
+import com.comcast.redirector.core.balancer.serviceprovider.whitelist.WhiteList;
+import com.comcast.redirector.core.balancer.serviceprovider.whitelist.WhitelistPredicate;
+import com.comcast.redirector.core.balancer.util.ServiceProviderUtils;
+import com.comcast.redirector.core.engine.FilterMode;
+import com.comcast.tvx.cloud.MetaData;
+import org.apache.curator.x.discovery.ProviderStrategy;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.ServiceProvider;
+import org.apache.curator.x.discovery.strategies.RoundRobinStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Selecting a whitelisted host of a flavor served by 500 stacks with 200 hosts each: collecting and filtering
+ * instances of every stack on each call, which {@link AggregateServiceProvider} used to do, versus sampling
+ * from its snapshot which is rebuilt only when whitelist is applied or stack instances change.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class AggregateServiceProviderBenchmark {
+    private static final String FLAVOR = "1.40";
+
+    @Param({"500"})
+    int stacks;
+
+    @Param({"200"})
+    int hostsPerStack;
+
+    private List<IFilteredServiceProvider> providers;
+    private List<String> whitelistedPaths;
+    private IWhitelistPredicate whitelist;
+    private ProviderStrategy<MetaData> providerStrategy = new RoundRobinStrategy<>();
+    private AggregateServiceProvider aggregateServiceProvider;
+
+    @Setup
+    public void setUp() throws Exception {
+        providers = new ArrayList<>(stacks);
+        whitelistedPaths = new ArrayList<>();
+        for (int stack = 0; stack < stacks; stack++) {
+            String dataCenter = "/DC" + stack / 10 + "/Stack" + stack % 10;
+            List<ServiceInstance<MetaData>> instances = new ArrayList<>(hostsPerStack);
+            for (int host = 0; host < hostsPerStack; host++) {
+                String id = "10." + stack / 256 + "." + stack % 256 + "." + host;
+                MetaData metaData = new MetaData();
+                metaData.setParameters(new HashMap<>());
+                instances.add(ServiceInstance.<MetaData>builder().payload(metaData).name("xreGuide").id(id).address(id).build());
+            }
+            providers.add(new StackServiceProvider(new FixedServiceProvider(instances), new XreStackPath(dataCenter + "/" + FLAVOR + "/xreGuide")));
+            if (stack % 2 == 0) {
+                whitelistedPaths.add(dataCenter);
+            }
+        }
+
+        WhiteList whiteList = new WhiteList();
+        whiteList.setPaths(whitelistedPaths);
+        whitelist = new WhitelistPredicate(whiteList);
+        aggregateServiceProvider = new AggregateServiceProvider(providerStrategy, providers, FLAVOR, whitelist);
+    }
+
+    @Benchmark
+    public ServiceInstance<MetaData> collectAndFilterPerCall() throws Exception {
+        return providerStrategy.getInstance(() -> {
+            List<ServiceInstance<MetaData>> all = new ArrayList<>();
+            for (IFilteredServiceProvider provider : providers) {
+                Collection<ServiceInstance<MetaData>> instances = provider.getAllInstances();
+                for (ServiceInstance<MetaData> instance : instances) {
+                    ServiceProviderUtils.setStackNameForServiceInstance(instance, provider.getStack().getStackOnlyPath());
+                }
+                all.addAll(instances);
+            }
+            return all.stream()
+                .filter(instance -> whitelistedPaths.contains(ServiceProviderUtils.getStackNameFromServiceInstance(instance)))
+                .collect(Collectors.toList());
+        });
+    }
+
+    @Benchmark
+    public ServiceInstance<MetaData> snapshot() {
+        return aggregateServiceProvider.getFilteredInstance(FilterMode.WHITELIST_ONLY, whitelist);
+    }
+
+    private static class FixedServiceProvider implements ServiceProvider<MetaData> {
+        private final List<ServiceInstance<MetaData>> instances;
+
+        FixedServiceProvider(List<ServiceInstance<MetaData>> instances) {
+            this.instances = instances;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public ServiceInstance<MetaData> getInstance() {
+            return instances.get(0);
+        }
+
+        @Override
+        public Collection<ServiceInstance<MetaData>> getAllInstances() {
+            return instances;
+        }
+
+        @Override
+        public void noteError(ServiceInstance<MetaData> instance) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.benchmarks;
+
+import com.comcast.redirector.common.serializers.JAXBContextBuilder;
+import com.comcast.redirector.common.serializers.XMLSerializer;
+import com.comcast.redirector.core.modelupdate.converter.ModelTranslationService;
+import com.comcast.redirector.ruleengine.model.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flavor rules evaluation alone: walking the tree of language elements ({@link Model#interpret(Map)}) versus
+ * rules compiled when model is built ({@link Model#execute(Map)}).
+ *
+ * Run with {@code mvn -pl testing/benchmarks verify -Prun-benchmarks -Djmh.args="FlavorRulesModelBenchmark"}
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class FlavorRulesModelBenchmark {
+    private static final int CONTEXTS = 4096;
+
+    @Param({"10", "100", "500"})
+    int flavorRules;
+
+    @Param({"10", "1000"})
+    int namespacedListSize;
+
+    private Model model;
+    private List<Map<String, String>> contexts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticModel syntheticModel = new SyntheticModel.Builder()
+            .setRuleCount(flavorRules)
+            .setNamespacedListSize(namespacedListSize)
+            .build();
+
+        ModelTranslationService translationService = new ModelTranslationService(
+            new XMLSerializer(new JAXBContextBuilder().createContextForXML()));
+        model = translationService.translateFlavorRules(syntheticModel.flavorRules(), syntheticModel.namespacedLists());
+        contexts = syntheticModel.contexts(CONTEXTS);
+    }
+
+    @Benchmark
+    public Object interpret() {
+        return model.interpret(nextContext());
+    }
+
+    @Benchmark
+    public Object compiled() {
+        return model.execute(nextContext());
+    }
+
+    private Map<String, String> nextContext() {
+        next = (next + 1) & (CONTEXTS - 1);
+        return contexts.get(next);
+    }
+}
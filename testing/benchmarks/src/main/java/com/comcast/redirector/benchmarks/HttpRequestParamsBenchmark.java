@@ -0,0 +1,140 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.benchmarks;
+
+import com.comcast.redirector.common.InstanceInfo;
+import com.comcast.redirector.common.serializers.JAXBContextBuilder;
+import com.comcast.redirector.common.serializers.XMLSerializer;
+import com.comcast.redirector.core.balancer.serviceprovider.ServiceProviderManagerFactory;
+import com.comcast.redirector.core.engine.IRedirectorEngine;
+import com.comcast.redirector.core.engine.RedirectorEngineFactory;
+import com.comcast.redirector.endpoint.http.services.HttpRequestParams;
+import com.comcast.redirector.ruleengine.model.RequestContext;
+import com.comcast.xre.common.redirector.selector.xmlimpl.Config;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.curator.x.discovery.strategies.RoundRobinStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Gateway redirect of a request with 40+ headers: copying every header into params map, which gateway used to do,
+ * versus {@link HttpRequestParams} reading only params which rules of application reference.
+ * Both are followed by {@link IRedirectorEngine#redirect(Map)}, so the difference is what extraction costs
+ * per redirect. Run with -prof gc to compare allocation rate.
+ *
+ * Run with {@code mvn -pl testing/benchmarks verify -Prun-benchmarks -Djmh.args="HttpRequestParamsBenchmark -prof gc"}
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class HttpRequestParamsBenchmark {
+    private static final int REQUESTS = 1024;
+
+    @Param({"40"})
+    int extraHeaders;
+
+    @Param({"100"})
+    int flavorRules;
+
+    private IRedirectorEngine engine;
+    private List<MockHttpServletRequest> requests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticModel model = new SyntheticModel.Builder()
+            .setRuleCount(flavorRules)
+            .setNamespacedListSize(100)
+            .build();
+
+        Config config = new Config();
+        ServiceProviderManagerFactory serviceProviderManagerFactory = new ServiceProviderManagerFactory();
+        serviceProviderManagerFactory.setConfig(config);
+        serviceProviderManagerFactory.setProviderStrategy(new RoundRobinStrategy<>());
+
+        RedirectorEngineFactory factory = new RedirectorEngineFactory(serviceProviderManagerFactory);
+        factory.setConfig(config);
+        factory.setIsStaticDiscoveryNeededForApp(SyntheticModel.APP_NAME::equals);
+        factory.setSerializer(new XMLSerializer(new JAXBContextBuilder().createContextForXML()));
+
+        engine = factory.newRedirectorEngine(SyntheticModel.APP_NAME,
+            model.flavorRules(), model.urlRules(), model.whitelist(), model.namespacedLists(), model.stacks(), null /* sessionLog */);
+
+        Random random = new Random(1);
+        requests = new ArrayList<>(REQUESTS);
+        for (Map<String, String> context : model.contexts(REQUESTS)) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/serviceAddress/" + SyntheticModel.APP_NAME);
+            context.forEach(request::addHeader);
+            for (int header = 0; header < extraHeaders; header++) {
+                request.addHeader("X-Extra-Header-" + header, Long.toHexString(random.nextLong()));
+            }
+            requests.add(request);
+        }
+
+        for (MockHttpServletRequest request : requests) {
+            InstanceInfo eager = engine.redirect(new RequestContext(copyHeaders(request)));
+            InstanceInfo lazy = engine.redirect(new RequestContext(readReferencedParams(request)));
+            // hosts are picked round robin, so only the rule and stack which are picked must be the same
+            if (!StringUtils.equals(eager.getRuleName(), lazy.getRuleName()) || !StringUtils.equals(eager.getStack(), lazy.getStack())) {
+                throw new IllegalStateException("Params extraction changes redirect: " + eager + " vs " + lazy);
+            }
+        }
+    }
+
+    @Benchmark
+    public InstanceInfo eagerCopy() {
+        return engine.redirect(new RequestContext(copyHeaders(nextRequest())));
+    }
+
+    @Benchmark
+    public InstanceInfo lazyView() {
+        return engine.redirect(new RequestContext(readReferencedParams(nextRequest())));
+    }
+
+    /**
+     * The way gateway used to build params: Spring copied headers into {@link HttpHeaders}, then non blank ones
+     * were copied into params map
+     */
+    private static Map<String, String> copyHeaders(MockHttpServletRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            headers.put(name, Collections.list(request.getHeaders(name)));
+        }
+        return headers.entrySet().stream()
+            .filter(header -> (StringUtils.isNotBlank(header.getValue().get(0))))
+            .collect(Collectors.toMap(header -> header.getKey(), header -> header.getValue().get(0)));
+    }
+
+    private Map<String, String> readReferencedParams(MockHttpServletRequest request) {
+        return new HttpRequestParams(request, null, engine.getParameterNames());
+    }
+
+    private MockHttpServletRequest nextRequest() {
+        next = (next + 1) & (REQUESTS - 1);
+        return requests.get(next);
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.benchmarks;
+
+import com.comcast.redirector.ruleengine.IpAddressInitException;
+import com.comcast.redirector.ruleengine.model.IpAddress;
+import com.comcast.redirector.ruleengine.model.IpRangeIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checking client address against namespaced ip list: linear scan with {@link IpAddress#isInRange(IpAddress)},
+ * which inIpRange expression used to do, versus lookup in {@link IpRangeIndex}.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class IpRangeIndexBenchmark {
+    private static final int ADDRESSES = 1024;
+
+    @Param({"1000", "100000"})
+    int ranges;
+
+    private Set<IpAddress> list;
+    private IpRangeIndex index;
+    private String[] addresses;
+    private int next;
+
+    @Setup
+    public void setUp() throws IpAddressInitException {
+        Random random = new Random(42);
+        list = new HashSet<>();
+        while (list.size() < ranges) {
+            String subnet = random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256) + ".0";
+            list.add(new IpAddress(random.nextBoolean() ? subnet + "/24" : subnet.substring(0, subnet.length() - 1) + (1 + random.nextInt(254))));
+        }
+        index = IpRangeIndex.of(list);
+
+        addresses = new String[ADDRESSES];
+        for (int i = 0; i < ADDRESSES; i++) {
+            addresses[i] = random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256);
+        }
+    }
+
+    @Benchmark
+    public boolean linearScan() throws IpAddressInitException {
+        IpAddress address = new IpAddress(nextAddress().toLowerCase());
+        for (IpAddress range : list) {
+            if (range.isInRange(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean index() {
+        return index.contains(0, IpRangeIndex.parseIpv4(nextAddress()));
+    }
+
+    private String nextAddress() {
+        next = (next + 1) & (ADDRESSES - 1);
+        return addresses[next];
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.comcast.redirector.benchmarks;
+
+import com.comcast.redirector.common.serializers.core.JsonSerializer;
+import com.comcast.redirector.core.modelupdate.holder.NamespacedListsBinaryFormat;
+import com.comcast.redirector.ruleengine.IpAddressInitException;
+import com.comcast.redirector.ruleengine.model.IpAddress;
+import com.comcast.redirector.ruleengine.model.IpRangeIndex;
+import com.comcast.redirector.ruleengine.repository.NamespacedListsBatch;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start load of namespaced lists backup with 5M values until ip list is ready for lookups: reading JSON and
+ * parsing every address of the ip list into an index, which namespaced lists holder used to do, versus reading
+ * {@link NamespacedListsBinaryFormat} with ip index of the ip list saved along with values.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class NamespacedListsBackupBenchmark {
+    private static final int MACS = 3_000_000;
+    private static final int IPS = 2_000_000;
+
+    private Path json;
+    private Path binary;
+
+    @Setup
+    public void setUp() throws IOException, IpAddressInitException {
+        Random random = new Random(42);
+        List<String> macs = new ArrayList<>(MACS);
+        for (int i = 0; i < MACS; i++) {
+            macs.add(String.format("%012X", random.nextLong() & 0xFFFFFFFFFFFFL));
+        }
+        List<String> ips = new ArrayList<>(IPS);
+        List<IpAddress> addresses = new ArrayList<>(IPS);
+        for (int i = 0; i < IPS; i++) {
+            int address = random.nextInt(1 << 24);
+            String ip = "10." + (address >> 16) + "." + (address >> 8 & 0xFF) + "." + (address & 0xFF);
+            ips.add(ip);
+            addresses.add(new IpAddress(ip));
+        }
+        NamespacedListsBatch batch = new NamespacedListsBatch();
+        batch.setDataNodeVersion(1);
+        batch.addValues("macs", macs);
+        batch.addValues("ips", ips);
+
+        json = Files.createTempFile("namespacedlists", ".json");
+        Files.write(json, new JsonSerializer().serialize(batch, true).getBytes(StandardCharsets.UTF_8));
+        binary = Files.createTempFile("namespacedlists", ".bin");
+        Files.write(binary, NamespacedListsBinaryFormat.write(batch, Collections.singletonMap("ips", IpRangeIndex.of(addresses))));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(json);
+        Files.deleteIfExists(binary);
+    }
+
+    @Benchmark
+    public void json(Blackhole blackhole) throws IOException, IpAddressInitException {
+        byte[] data = Files.readAllBytes(json);
+        NamespacedListsBatch batch = new JsonSerializer().deserialize(new String(data, StandardCharsets.UTF_8), NamespacedListsBatch.class);
+        List<IpAddress> addresses = new ArrayList<>(batch.getNamespacedLists().get("ips").size());
+        for (String value : batch.getNamespacedLists().get("ips")) {
+            addresses.add(new IpAddress(value));
+        }
+        blackhole.consume(batch);
+        blackhole.consume(IpRangeIndex.of(addresses));
+    }
+
+    @Benchmark
+    public void binary(Blackhole blackhole) throws IOException {
+        byte[] data = Files.readAllBytes(binary);
+        Map<String, IpRangeIndex> indexes = new HashMap<>();
+        blackhole.consume(NamespacedListsBinaryFormat.read(data, indexes));
+        blackhole.consume(indexes.get("ips"));
+    }
+}
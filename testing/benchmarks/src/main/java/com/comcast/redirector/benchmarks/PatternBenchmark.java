@@ -0,0 +1,61 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.benchmarks;
+
+import com.comcast.redirector.ruleengine.model.Pattern;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches expression: {@link String#matches(String)}, which compiles regex on every call and matches expression used
+ * to do, versus {@link Pattern} compiled once when model is built.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PatternBenchmark {
+    private static final String[] VALUES = {"X1-42-17", "PX013", "X1-4-1", "Other"};
+
+    @Param({"X1-42-.*", "^(PX|X1)-?\\d{2,3}(-\\d+)?$"})
+    String regex;
+
+    private Pattern pattern;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        pattern = new Pattern();
+        pattern.setValue(regex);
+    }
+
+    @Benchmark
+    public boolean stringMatches() {
+        return nextValue().matches(regex);
+    }
+
+    @Benchmark
+    public boolean compiledPattern() {
+        return pattern.matches(nextValue());
+    }
+
+    private String nextValue() {
+        next = (next + 1) & (VALUES.length - 1);
+        return VALUES[next];
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.benchmarks;
+
+import com.comcast.redirector.common.InstanceInfo;
+import com.comcast.redirector.common.serializers.JAXBContextBuilder;
+import com.comcast.redirector.common.serializers.XMLSerializer;
+import com.comcast.redirector.core.balancer.serviceprovider.ServiceProviderManagerFactory;
+import com.comcast.redirector.core.engine.IRedirectorEngine;
+import com.comcast.redirector.core.engine.RedirectorEngineFactory;
+import com.comcast.xre.common.redirector.selector.xmlimpl.Config;
+import org.apache.curator.x.discovery.strategies.RoundRobinStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end {@link IRedirectorEngine#redirect(Map)} benchmark: flavor rules, namespaced lists, whitelist,
+ * static service providers and url rules are all involved, the same way as in gateway.
+ *
+ * Throughput is reported in ops/s, latency distribution (p50, p90, p99, ...) in microseconds.
+ * Run with {@code mvn -pl testing/benchmarks verify -Prun-benchmarks -Djmh.args="RedirectorEngineBenchmark"}
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class RedirectorEngineBenchmark {
+    private static final int CONTEXTS = 4096;
+
+    @State(Scope.Benchmark)
+    public static class EngineState {
+        @Param({"10", "100", "500"})
+        int flavorRules;
+
+        @Param({"10"})
+        int namespacedLists;
+
+        @Param({"1000"})
+        int namespacedListSize;
+
+        @Param({"10", "100"})
+        int stacks;
+
+        IRedirectorEngine engine;
+        List<Map<String, String>> contexts;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            SyntheticModel model = new SyntheticModel.Builder()
+                .setRuleCount(flavorRules)
+                .setNamespacedListCount(namespacedLists)
+                .setNamespacedListSize(namespacedListSize)
+                .setStackCount(stacks)
+                .build();
+
+            Config config = new Config();
+            ServiceProviderManagerFactory serviceProviderManagerFactory = new ServiceProviderManagerFactory();
+            serviceProviderManagerFactory.setConfig(config);
+            serviceProviderManagerFactory.setProviderStrategy(new RoundRobinStrategy<>());
+
+            RedirectorEngineFactory factory = new RedirectorEngineFactory(serviceProviderManagerFactory);
+            factory.setConfig(config);
+            factory.setIsStaticDiscoveryNeededForApp(SyntheticModel.APP_NAME::equals);
+            factory.setSerializer(new XMLSerializer(new JAXBContextBuilder().createContextForXML()));
+
+            engine = factory.newRedirectorEngine(SyntheticModel.APP_NAME,
+                model.flavorRules(), model.urlRules(), model.whitelist(), model.namespacedLists(), model.stacks(), null /* sessionLog */);
+            contexts = model.contexts(CONTEXTS);
+
+            InstanceInfo probe = engine.redirect(contexts.get(0));
+            if (probe == null || probe.getUrl() == null) {
+                throw new IllegalStateException("Synthetic model doesn't produce redirects: " + probe);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ContextCursor {
+        private int next;
+
+        Map<String, String> next(List<Map<String, String>> contexts) {
+            next = (next + 1) & (CONTEXTS - 1);
+            return contexts.get(next);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public InstanceInfo redirectThroughput(EngineState state, ContextCursor cursor) {
+        return state.engine.redirect(cursor.next(state.contexts));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public InstanceInfo redirectLatency(EngineState state, ContextCursor cursor) {
+        return state.engine.redirect(cursor.next(state.contexts));
+    }
+}
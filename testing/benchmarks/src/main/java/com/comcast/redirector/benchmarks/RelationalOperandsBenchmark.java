@@ -0,0 +1,106 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.benchmarks;
+
+import com.comcast.redirector.ruleengine.model.NumberParser;
+import com.comcast.redirector.ruleengine.model.Versions;
+import org.openjdk.jmh.annotations.*;
+import sun.net.util.IPAddressUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operands of relational expressions: parsing param by {@link Double#parseDouble(String)} twice with exceptions
+ * for strings which are not numbers and splitting versions into arrays, which relational expressions used to do,
+ * versus {@link NumberParser} and {@link Versions} comparing with version parsed when model is built.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RelationalOperandsBenchmark {
+    private static final String[] NUMBERS = {"42", "1.5", "-3", "X1", "1080", "native", "0.25", "PX013"};
+    private static final String[] VERSIONS = {"2.1.17", "10.0.1", "1.9", "2.1.17.1"};
+    private static final String VERSION_LITERAL = "2.1.16";
+
+    private int[] versionLiteral = Versions.parse(VERSION_LITERAL);
+    private int next;
+
+    @Benchmark
+    public double parseDoubleWithExceptions() {
+        String value = nextNumber();
+        if (isNumericWithException(value)) {
+            return Double.parseDouble(value);
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public double numberParser() {
+        String value = nextNumber();
+        double number = NumberParser.parseDouble(value);
+        if (!Double.isNaN(number) || NumberParser.isNumber(value)) {
+            return number;
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public int splitVersions() {
+        String left = nextVersion();
+        String[] leftTokens = left.isEmpty() || IPAddressUtil.isIPv6LiteralAddress(left) ? new String[]{} : left.split("\\.");
+        String[] rightTokens = VERSION_LITERAL.split("\\.");
+        int largest = Math.max(leftTokens.length, rightTokens.length);
+        int[] leftNumbers = new int[largest];
+        int[] rightNumbers = new int[largest];
+        for (int i = 0; i < largest; i++) {
+            leftNumbers[i] = i < leftTokens.length ? Integer.parseInt(leftTokens[i]) : 0;
+            rightNumbers[i] = i < rightTokens.length ? Integer.parseInt(rightTokens[i]) : 0;
+        }
+        for (int i = 0; i < largest; i++) {
+            int result = leftNumbers[i] - rightNumbers[i];
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    @Benchmark
+    public int versions() {
+        return Versions.compare(nextVersion(), versionLiteral);
+    }
+
+    private static boolean isNumericWithException(String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private String nextNumber() {
+        next = (next + 1) & (NUMBERS.length - 1);
+        return NUMBERS[next];
+    }
+
+    private String nextVersion() {
+        next = (next + 1) & (VERSIONS.length - 1);
+        return VERSIONS[next];
+    }
+}
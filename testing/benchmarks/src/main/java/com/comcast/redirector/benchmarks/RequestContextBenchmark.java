@@ -0,0 +1,76 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.benchmarks;
+
+import com.comcast.redirector.common.serializers.JAXBContextBuilder;
+import com.comcast.redirector.common.serializers.XMLSerializer;
+import com.comcast.redirector.core.modelupdate.converter.ModelTranslationService;
+import com.comcast.redirector.ruleengine.model.Model;
+import com.comcast.redirector.ruleengine.model.RequestContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flavor rules checking the same few params in every rule: reading params from the map and converting them
+ * in every expression, which parameters used to do, versus {@link RequestContext} built once per request.
+ * Rules are interpreted in both cases, so only the way params are read differs.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class RequestContextBenchmark {
+    private static final int CONTEXTS = 4096;
+
+    @Param({"20", "60"})
+    int flavorRules;
+
+    private Model model;
+    private List<Map<String, String>> contexts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticModel syntheticModel = new SyntheticModel.Builder()
+            .setRuleCount(flavorRules)
+            .setNamespacedListSize(10)
+            .build();
+
+        ModelTranslationService translationService = new ModelTranslationService(
+            new XMLSerializer(new JAXBContextBuilder().createContextForXML()));
+        model = translationService.translateFlavorRules(syntheticModel.flavorRules(), syntheticModel.namespacedLists());
+        contexts = syntheticModel.contexts(CONTEXTS);
+    }
+
+    @Benchmark
+    public Object plainMap() {
+        return model.interpret(nextContext());
+    }
+
+    @Benchmark
+    public Object requestContext() {
+        return model.interpret(new RequestContext(nextContext()));
+    }
+
+    private Map<String, String> nextContext() {
+        next = (next + 1) & (CONTEXTS - 1);
+        return contexts.get(next);
+    }
+}
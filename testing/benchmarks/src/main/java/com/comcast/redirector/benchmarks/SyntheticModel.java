@@ -0,0 +1,329 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.benchmarks;
+
+import com.comcast.redirector.api.model.*;
+import com.comcast.redirector.api.model.distribution.Distribution;
+import com.comcast.redirector.api.model.distribution.Rule;
+import com.comcast.redirector.api.model.url.rule.Default;
+import com.comcast.redirector.api.model.url.rule.URLRules;
+import com.comcast.redirector.api.model.url.rule.UrlRule;
+import com.comcast.redirector.api.model.whitelisted.Whitelisted;
+import com.comcast.redirector.api.model.xrestack.HostIPs;
+import com.comcast.redirector.api.model.xrestack.StackData;
+import com.comcast.redirector.common.RedirectorConstants;
+import com.comcast.redirector.core.modelupdate.holder.NamespacedListsHolder;
+import com.comcast.redirector.ruleengine.repository.NamespacedListsBatch;
+
+import java.util.*;
+import java.util.Random;
+
+/**
+ * Generates a deterministic flavor rules model of configurable size together with namespaced lists, whitelist,
+ * stacks and a pool of request contexts which hit every kind of rule as well as distribution and default server.
+ *
+ * Rules cycle through equals, contains (namespaced list), inIpRange (namespaced list) and
+ * matches + numeric greaterThan, so every benchmark exercises the same mix of expressions.
+ */
+public class SyntheticModel {
+    public static final String APP_NAME = "benchmarkApp";
+
+    static final String RECEIVER_TYPE = "receiverType";
+    static final String MAC = "mac";
+    static final String CLIENT_ADDRESS = "clientAddress";
+    static final String MODEL = "model";
+    static final String VERSION = "version";
+
+    private static final int RULE_KINDS = 4;
+    private static final int DISTRIBUTION_RULES = 2;
+    private static final float DISTRIBUTION_PERCENT = 10f;
+    private static final int FILLER_PARAMETERS = 10;
+
+    private final int ruleCount;
+    private final int namespacedListCount;
+    private final int namespacedListSize;
+    private final int stackCount;
+    private final int hostsPerStack;
+    private final Random random;
+
+    private SyntheticModel(Builder builder) {
+        this.ruleCount = builder.ruleCount;
+        this.namespacedListCount = Math.max(2, builder.namespacedListCount);
+        this.namespacedListSize = builder.namespacedListSize;
+        this.stackCount = Math.max(DISTRIBUTION_RULES, builder.stackCount);
+        this.hostsPerStack = builder.hostsPerStack;
+        this.random = new Random(builder.seed);
+    }
+
+    public SelectServer flavorRules() {
+        List<Rule> distributionRules = new ArrayList<>();
+        for (int i = 0; i < DISTRIBUTION_RULES; i++) {
+            distributionRules.add(distributionRule(i, DISTRIBUTION_PERCENT, server("Distribution " + i, flavor(i + 1))));
+        }
+        Distribution distribution = new Distribution();
+        distribution.setRules(distributionRules);
+        distribution.setDefaultServer(server(RedirectorConstants.DEFAULT_SERVER_NAME, flavor(0)));
+
+        List<IfExpression> rules = new ArrayList<>();
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(rule(i));
+        }
+
+        SelectServer selectServer = new SelectServer();
+        selectServer.setDistribution(distribution);
+        selectServer.setItems(rules);
+        return selectServer;
+    }
+
+    public URLRules urlRules() {
+        UrlRule urlRule = new UrlRule();
+        urlRule.setProtocol("xre");
+        urlRule.setPort("10001");
+        urlRule.setUrn("shell");
+        urlRule.setIpProtocolVersion("4");
+        Default defaultStatement = new Default();
+        defaultStatement.setUrlRule(urlRule);
+
+        URLRules urlRules = new URLRules();
+        urlRules.setDefaultStatement(defaultStatement);
+        return urlRules;
+    }
+
+    public Whitelisted whitelist() {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < stackCount; i++) {
+            paths.add(stackOnlyPath(i));
+        }
+        Whitelisted whitelisted = new Whitelisted();
+        whitelisted.setPaths(paths);
+        return whitelisted;
+    }
+
+    public Set<StackData> stacks() {
+        Set<StackData> stacks = new HashSet<>();
+        for (int i = 0; i < stackCount; i++) {
+            List<HostIPs> hosts = new ArrayList<>();
+            for (int host = 0; host < hostsPerStack; host++) {
+                hosts.add(new HostIPs("10." + (i / 256) + "." + (i % 256) + "." + (host + 1), "fe80::" + Integer.toHexString(i) + ":" + (host + 1)));
+            }
+            stacks.add(new StackData(stackOnlyPath(i) + "/" + flavor(i) + "/" + APP_NAME, hosts));
+        }
+        return stacks;
+    }
+
+    public NamespacedListsHolder namespacedLists() {
+        NamespacedListsBatch batch = new NamespacedListsBatch();
+        for (int list = 0; list < namespacedListCount; list++) {
+            List<String> values = new ArrayList<>(namespacedListSize);
+            for (int n = 0; n < namespacedListSize; n++) {
+                values.add(isIpList(list) ? ipListValue(list, n) : macListValue(list, n));
+            }
+            batch.addValues(listName(list), values);
+        }
+        NamespacedListsHolder holder = new NamespacedListsHolder();
+        holder.setNamespacedListsBatch(batch);
+        return holder;
+    }
+
+    /**
+     * Creates contexts with roughly 3 of 4 matching one of the rules and the rest falling through to
+     * distribution or default server. Each context also carries filler parameters emulating http headers.
+     */
+    public List<Map<String, String>> contexts(int count) {
+        List<Map<String, String>> contexts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, String> context = new HashMap<>();
+            context.put(RECEIVER_TYPE, "Other");
+            context.put(MAC, randomMac());
+            context.put(CLIENT_ADDRESS, "127.0." + random.nextInt(256) + "." + random.nextInt(256));
+            context.put(MODEL, "PX" + random.nextInt(1000));
+            context.put(VERSION, "1");
+            for (int filler = 0; filler < FILLER_PARAMETERS; filler++) {
+                context.put("header" + filler, Integer.toHexString(random.nextInt()));
+            }
+
+            if (ruleCount > 0 && random.nextInt(4) != 0) {
+                matchRule(random.nextInt(ruleCount), context);
+            }
+            contexts.add(context);
+        }
+        return contexts;
+    }
+
+    private void matchRule(int rule, Map<String, String> context) {
+        switch (rule % RULE_KINDS) {
+            case 0:
+                context.put(RECEIVER_TYPE, "Native" + rule);
+                break;
+            case 1:
+                context.put(MAC, macListValue(macListFor(rule), random.nextInt(namespacedListSize)));
+                break;
+            case 2:
+                int list = ipListFor(rule);
+                context.put(CLIENT_ADDRESS, "172." + (list % 256) + "." + random.nextInt(Math.min(256, Math.max(1, namespacedListSize / 2))) + "." + random.nextInt(256));
+                break;
+            default:
+                context.put(MODEL, "X1-" + rule + "-" + random.nextInt(100));
+                context.put(VERSION, Integer.toString(rule + 1 + random.nextInt(10)));
+                break;
+        }
+    }
+
+    private IfExpression rule(int i) {
+        List<Expressions> conditions;
+        switch (i % RULE_KINDS) {
+            case 0:
+                Equals equals = new Equals();
+                equals.setParam(RECEIVER_TYPE);
+                equals.setValue("Native" + i);
+                conditions = Collections.singletonList(equals);
+                break;
+            case 1:
+                Contains contains = new Contains();
+                contains.setParam(MAC);
+                contains.setNamespacedLists(Collections.singletonList(new Value(listName(macListFor(i)))));
+                conditions = Collections.singletonList(contains);
+                break;
+            case 2:
+                InIpRange inIpRange = new InIpRange();
+                inIpRange.setParam(CLIENT_ADDRESS);
+                inIpRange.setNamespacedLists(Collections.singletonList(new Value(listName(ipListFor(i)))));
+                conditions = Collections.singletonList(inIpRange);
+                break;
+            default:
+                Matches matches = new Matches();
+                matches.setParam(MODEL);
+                matches.setPattern("X1-" + i + "-.*");
+                GreaterThan greaterThan = new GreaterThan();
+                greaterThan.setParam(VERSION);
+                greaterThan.setValue(Integer.toString(i));
+                greaterThan.setType("numeric");
+                AndExpression and = new AndExpression();
+                and.setItems(Arrays.<Expressions>asList(matches, greaterThan));
+                conditions = Collections.singletonList(and);
+                break;
+        }
+
+        String id = "rule" + i;
+        IfExpression expression = new IfExpression();
+        expression.setId(id);
+        expression.setItems(conditions);
+        expression.setReturn(server(id, flavor(i % stackCount)));
+        return expression;
+    }
+
+    private int macListFor(int rule) {
+        return (rule % (namespacedListCount / 2)) * 2;
+    }
+
+    private int ipListFor(int rule) {
+        return (rule % (namespacedListCount / 2)) * 2 + 1;
+    }
+
+    private static boolean isIpList(int list) {
+        return list % 2 == 1;
+    }
+
+    private static String listName(int list) {
+        return "list" + list;
+    }
+
+    private static String macListValue(int list, int n) {
+        return String.format("%02X:%02X:%02X:%02X:%02X:%02X", list & 0xFF, (n >> 24) & 0xFF, (n >> 16) & 0xFF, (n >> 8) & 0xFF, n & 0xFF, 0xA0);
+    }
+
+    /**
+     * Half of ip list entries are /24 subnets, the other half are single addresses from a separate range
+     */
+    private static String ipListValue(int list, int n) {
+        int octet = list % 256;
+        return (n % 2 == 0)
+            ? "172." + octet + "." + ((n / 2) % 256) + ".0/24"
+            : "192." + octet + "." + ((n / 256) % 256) + "." + (n % 256);
+    }
+
+    private String randomMac() {
+        return String.format("%02X:%02X:%02X:%02X:%02X:%02X",
+            random.nextInt(256), random.nextInt(256), random.nextInt(256), random.nextInt(256), random.nextInt(256), random.nextInt(256));
+    }
+
+    private static String stackOnlyPath(int stack) {
+        return "/DC" + (stack % 4) + "/Stack" + stack;
+    }
+
+    private static String flavor(int stack) {
+        return "flavor" + stack;
+    }
+
+    private static Server server(String name, String path) {
+        Server server = new Server();
+        server.setName(name);
+        server.setUrl(RedirectorConstants.URL_TEMPLATE);
+        server.setPath(path);
+        server.setIsNonWhitelisted(Boolean.FALSE.toString());
+        return server;
+    }
+
+    private static Rule distributionRule(int id, float percent, Server server) {
+        Rule rule = new Rule();
+        rule.setId(id);
+        rule.setPercent(percent);
+        rule.setServer(server);
+        return rule;
+    }
+
+    public static class Builder {
+        private int ruleCount = 100;
+        private int namespacedListCount = 10;
+        private int namespacedListSize = 1000;
+        private int stackCount = 10;
+        private int hostsPerStack = 5;
+        private long seed = 42;
+
+        public Builder setRuleCount(int ruleCount) {
+            this.ruleCount = ruleCount;
+            return this;
+        }
+
+        public Builder setNamespacedListCount(int namespacedListCount) {
+            this.namespacedListCount = namespacedListCount;
+            return this;
+        }
+
+        public Builder setNamespacedListSize(int namespacedListSize) {
+            this.namespacedListSize = namespacedListSize;
+            return this;
+        }
+
+        public Builder setStackCount(int stackCount) {
+            this.stackCount = stackCount;
+            return this;
+        }
+
+        public Builder setHostsPerStack(int hostsPerStack) {
+            this.hostsPerStack = hostsPerStack;
+            return this;
+        }
+
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public SyntheticModel build() {
+            return new SyntheticModel(this);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.benchmarks;
+
+import com.comcast.redirector.core.balancer.serviceprovider.weight.IInstanceWeigher;
+import com.comcast.redirector.core.balancer.serviceprovider.weight.WeightedInstanceSelector;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.ServiceType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Selecting a host of dynamic (Zookeeper discovered) stack: per-call weight expansion and shuffle, which
+ * CustomServiceCache used to do, round robin over weighted view of {@link WeightedInstanceSelector}, which it does
+ * for round robin strategy, and sampling from the selector done by weighted random strategy.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class WeightedInstanceSelectorBenchmark {
+    private static final int MAX_WEIGHT = 100;
+
+    @Param({"5", "50", "200"})
+    int hosts;
+
+    private List<ServiceInstance<String>> instances;
+    private IInstanceWeigher<String> weigher;
+    private WeightedInstanceSelector<String> selector;
+    private final AtomicInteger roundRobinIndex = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Map<String, Integer> weights = new HashMap<>();
+        instances = new ArrayList<>(hosts);
+        for (int i = 0; i < hosts; i++) {
+            String id = "10.0." + (i / 256) + "." + (i % 256);
+            weights.put(id, 1 + random.nextInt(MAX_WEIGHT));
+            instances.add(new ServiceInstance<>("xreGuide", id, id, 10001, null, id, 0, ServiceType.DYNAMIC, null));
+        }
+        weigher = instance -> weights.get(instance.getId());
+        selector = WeightedInstanceSelector.of(instances, weigher);
+    }
+
+    @Benchmark
+    public ServiceInstance<String> expandAndShufflePerCall() {
+        List<ServiceInstance<String>> weighted = new ArrayList<>();
+        for (ServiceInstance<String> instance : instances) {
+            int weight = weigher.getWeight(instance);
+            for (int i = 0; i < weight; i++) {
+                weighted.add(instance);
+            }
+        }
+        Collections.shuffle(weighted, new Random(System.currentTimeMillis()));
+        return weighted.get(Math.abs(roundRobinIndex.getAndIncrement() % weighted.size()));
+    }
+
+    @Benchmark
+    public ServiceInstance<String> roundRobinOverWeightedView() {
+        List<ServiceInstance<String>> weighted = selector.getWeightedInstances();
+        return weighted.get(Math.abs(roundRobinIndex.getAndIncrement() % weighted.size()));
+    }
+
+    @Benchmark
+    public ServiceInstance<String> precomputedSelector() {
+        return selector.select();
+    }
+
+    @Benchmark
+    public WeightedInstanceSelector<String> rebuildOnCacheChange() {
+        return WeightedInstanceSelector.of(instances, weigher);
+    }
+}
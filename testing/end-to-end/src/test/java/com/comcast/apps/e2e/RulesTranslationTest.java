@@ -0,0 +1,42 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.apps.e2e;
+
+import com.comcast.redirector.core.modelupdate.converter.ModelTranslationParity;
+import org.junit.Test;
+
+/**
+ * Rules of end-to-end applications give the same models when they are translated straight from model objects
+ * as when they are built from xml.
+ */
+public class RulesTranslationTest {
+    private static final String[] APPLICATIONS = {"appTest", "xreGuide", "testApp"};
+
+    private ModelTranslationParity parity = new ModelTranslationParity();
+
+    @Test
+    public void flavorRulesAreTranslatedAsXml() throws Exception {
+        for (String application : APPLICATIONS) {
+            parity.assertFlavorRulesAreTranslatedAsXml("/" + application + "/selectserver.xml");
+        }
+    }
+
+    @Test
+    public void urlRulesAreTranslatedAsXml() throws Exception {
+        for (String application : APPLICATIONS) {
+            parity.assertUrlRulesAreTranslatedAsXml("/" + application + "/urlrules.xml");
+        }
+    }
+}
@@ -0,0 +1,2 @@
+#!/usr/bin/env bash
+java -classpath ./classes:./lib/* com.comcast.redirector.loadgenerator.LoadGenerator "$@"
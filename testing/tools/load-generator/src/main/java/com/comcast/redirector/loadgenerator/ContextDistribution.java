@@ -0,0 +1,235 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.loadgenerator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distribution of redirect contexts read from json file, see distribution.json for example. Each request gets
+ * mac, account id and client address, each one with given probability, one value of every parameter picked by
+ * weight and one header set picked by weight.
+ */
+public class ContextDistribution {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String MAC = "mac";
+    private static final String ACCOUNT_ID = "serviceAccountId";
+
+    private int postPercent = 0;
+    private GeneratedValues macs = new GeneratedValues(MAC);
+    private GeneratedValues accountIds = new GeneratedValues(ACCOUNT_ID);
+    private IpRanges ipRanges = new IpRanges();
+    private Map<String, Map<String, Integer>> parameters = new LinkedHashMap<>();
+    private List<HeaderSet> headerSets = new ArrayList<>();
+
+    public static ContextDistribution read(InputStream json) throws IOException {
+        return mapper.readValue(json, ContextDistribution.class);
+    }
+
+    /**
+     * @return percent of requests sent as POST with params in json body, the rest are GET with params in headers
+     */
+    public int getPostPercent() {
+        return postPercent;
+    }
+
+    public void setPostPercent(int postPercent) {
+        this.postPercent = postPercent;
+    }
+
+    public GeneratedValues getMacs() {
+        return macs;
+    }
+
+    public void setMacs(GeneratedValues macs) {
+        this.macs = macs.withDefaultParameter(MAC);
+    }
+
+    public GeneratedValues getAccountIds() {
+        return accountIds;
+    }
+
+    public void setAccountIds(GeneratedValues accountIds) {
+        this.accountIds = accountIds.withDefaultParameter(ACCOUNT_ID);
+    }
+
+    public IpRanges getIpRanges() {
+        return ipRanges;
+    }
+
+    public void setIpRanges(IpRanges ipRanges) {
+        this.ipRanges = ipRanges;
+    }
+
+    /**
+     * @return weights of values by parameter name
+     */
+    public Map<String, Map<String, Integer>> getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(Map<String, Map<String, Integer>> parameters) {
+        this.parameters = parameters;
+    }
+
+    public List<HeaderSet> getHeaderSets() {
+        return headerSets;
+    }
+
+    public void setHeaderSets(List<HeaderSet> headerSets) {
+        this.headerSets = headerSets;
+    }
+
+    /**
+     * Values generated from number in range [0, count), e.g. mac addresses or account ids with prefix,
+     * given to percent of requests
+     */
+    public static class GeneratedValues {
+        private String parameter;
+        private String prefix = "";
+        private int count = 0;
+        private int percent = 100;
+
+        public GeneratedValues() {
+        }
+
+        GeneratedValues(String parameter) {
+            this.parameter = parameter;
+        }
+
+        GeneratedValues withDefaultParameter(String defaultParameter) {
+            if (parameter == null) {
+                parameter = defaultParameter;
+            }
+            return this;
+        }
+
+        public String getParameter() {
+            return parameter;
+        }
+
+        public void setParameter(String parameter) {
+            this.parameter = parameter;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public int getPercent() {
+            return percent;
+        }
+
+        public void setPercent(int percent) {
+            this.percent = percent;
+        }
+    }
+
+    /**
+     * IPv4 client addresses picked uniformly from a range, range is picked by weight
+     */
+    public static class IpRanges {
+        private String parameter = "clientAddress";
+        private int percent = 100;
+        private List<IpRange> ranges = new ArrayList<>();
+
+        public String getParameter() {
+            return parameter;
+        }
+
+        public void setParameter(String parameter) {
+            this.parameter = parameter;
+        }
+
+        public int getPercent() {
+            return percent;
+        }
+
+        public void setPercent(int percent) {
+            this.percent = percent;
+        }
+
+        public List<IpRange> getRanges() {
+            return ranges;
+        }
+
+        public void setRanges(List<IpRange> ranges) {
+            this.ranges = ranges;
+        }
+    }
+
+    public static class IpRange {
+        private String cidr;
+        private int weight = 1;
+
+        public String getCidr() {
+            return cidr;
+        }
+
+        public void setCidr(String cidr) {
+            this.cidr = cidr;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Headers sent together, e.g. the ones of particular device type
+     */
+    public static class HeaderSet {
+        private int weight = 1;
+        private Map<String, String> headers = new LinkedHashMap<>();
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public void setHeaders(Map<String, String> headers) {
+            this.headers = headers;
+        }
+    }
+}
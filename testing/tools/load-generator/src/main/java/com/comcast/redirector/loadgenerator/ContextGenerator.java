@@ -0,0 +1,162 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.loadgenerator;
+
+import com.comcast.redirector.loadgenerator.ContextDistribution.GeneratedValues;
+import com.comcast.redirector.loadgenerator.ContextDistribution.HeaderSet;
+import com.comcast.redirector.loadgenerator.ContextDistribution.IpRange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+/**
+ * Generates requests according to {@link ContextDistribution}. Generator itself is immutable, each thread passes its
+ * own {@link Random}, so the same seed gives the same sequence of requests.
+ */
+public class ContextGenerator {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final ContextDistribution distribution;
+    private final Map<String, WeightedChoice<String>> parameters = new LinkedHashMap<>();
+    private final WeightedChoice<IpRange> ipRanges;
+    private final long[] ipRangeBases;
+    private final long[] ipRangeSizes;
+    private final WeightedChoice<HeaderSet> headerSets;
+
+    public ContextGenerator(ContextDistribution distribution) {
+        this.distribution = distribution;
+        distribution.getParameters().forEach((name, weights) ->
+            parameters.put(name, new WeightedChoice<>(new ArrayList<>(weights.keySet()), weights::get)));
+
+        List<IpRange> ranges = distribution.getIpRanges().getRanges();
+        ipRanges = new WeightedChoice<>(ranges, IpRange::getWeight);
+        ipRangeBases = new long[ranges.size()];
+        ipRangeSizes = new long[ranges.size()];
+        for (int i = 0; i < ranges.size(); i++) {
+            parseCidr(ranges.get(i).getCidr(), i);
+        }
+
+        headerSets = new WeightedChoice<>(distribution.getHeaderSets(), HeaderSet::getWeight);
+    }
+
+    public LoadRequest next(Random random) {
+        Map<String, String> params = new HashMap<>();
+        if (isPicked(distribution.getMacs(), random)) {
+            params.put(distribution.getMacs().getParameter(), mac(random.nextInt(distribution.getMacs().getCount())));
+        }
+        GeneratedValues accountIds = distribution.getAccountIds();
+        if (isPicked(accountIds, random)) {
+            params.put(accountIds.getParameter(), accountIds.getPrefix() + random.nextInt(accountIds.getCount()));
+        }
+        if (!ipRanges.isEmpty() && random.nextInt(100) < distribution.getIpRanges().getPercent()) {
+            int range = ipRanges.pickIndex(random);
+            long address = ipRangeBases[range] + (long) (random.nextDouble() * ipRangeSizes[range]);
+            params.put(distribution.getIpRanges().getParameter(), ipv4(address));
+        }
+        parameters.forEach((name, values) -> params.put(name, values.pick(random)));
+
+        Map<String, String> headers = headerSets.isEmpty() ? Collections.emptyMap() : headerSets.pick(random).getHeaders();
+        boolean post = random.nextInt(100) < distribution.getPostPercent();
+        return new LoadRequest(post, params, headers);
+    }
+
+    private static boolean isPicked(GeneratedValues values, Random random) {
+        return values != null && values.getCount() > 0 && random.nextInt(100) < values.getPercent();
+    }
+
+    static String mac(long value) {
+        char[] mac = new char[17];
+        for (int octet = 0; octet < 6; octet++) {
+            int bits = (int) (value >>> ((5 - octet) * 8)) & 0xFF;
+            mac[octet * 3] = HEX[bits >>> 4];
+            mac[octet * 3 + 1] = HEX[bits & 0xF];
+            if (octet < 5) {
+                mac[octet * 3 + 2] = ':';
+            }
+        }
+        return new String(mac);
+    }
+
+    static String ipv4(long address) {
+        return ((address >>> 24) & 0xFF) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+
+    private void parseCidr(String cidr, int range) {
+        String[] addressAndPrefix = cidr.split("/");
+        String[] octets = addressAndPrefix[0].split("\\.");
+        if (addressAndPrefix.length > 2 || octets.length != 4) {
+            throw new IllegalArgumentException("IPv4 range is expected, e.g. 10.0.0.0/8, found: " + cidr);
+        }
+        long address = 0;
+        for (String octet : octets) {
+            address = (address << 8) | Integer.parseInt(octet);
+        }
+        int prefix = addressAndPrefix.length == 2 ? Integer.parseInt(addressAndPrefix[1]) : 32;
+        long size = 1L << (32 - prefix);
+        ipRangeBases[range] = address & ~(size - 1) & 0xFFFFFFFFL;
+        ipRangeSizes[range] = size;
+    }
+
+    /**
+     * Picks one of values with probability proportional to its weight
+     */
+    static class WeightedChoice<T> {
+        private final List<T> values;
+        private final long[] cumulativeWeights;
+
+        WeightedChoice(List<T> values, ToIntFunction<T> weight) {
+            this.values = values;
+            this.cumulativeWeights = new long[values.size()];
+            long total = 0;
+            for (int i = 0; i < values.size(); i++) {
+                total += Math.max(0, weight.applyAsInt(values.get(i)));
+                cumulativeWeights[i] = total;
+            }
+            if (!values.isEmpty() && total == 0) {
+                throw new IllegalArgumentException("at least one weight should be positive: " + values);
+            }
+        }
+
+        boolean isEmpty() {
+            return values.isEmpty();
+        }
+
+        T pick(Random random) {
+            return values.get(pickIndex(random));
+        }
+
+        int pickIndex(Random random) {
+            long point = (long) (random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1]);
+            // first value which cumulative weight is above the point, values with zero weight are never picked
+            int low = 0;
+            int high = cumulativeWeights.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulativeWeights[middle] > point) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.loadgenerator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Sends redirect requests to {@code /serviceDirect/{appName}} endpoint of gateway and reads responses fully,
+ * so connections are kept alive and reused
+ */
+public class HttpRequestSender implements RequestSender {
+    private static final String SERVICE_URL_PREFIX = "/serviceDirect/";
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final URL url;
+    private final int timeoutMs;
+
+    /**
+     * @param gatewayUrl e.g. http://localhost:10601
+     */
+    public HttpRequestSender(String gatewayUrl, String appName, int timeoutMs) throws IOException {
+        this.url = new URL(gatewayUrl.replaceAll("/+$", "") + SERVICE_URL_PREFIX + appName);
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public int send(LoadRequest request) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(timeoutMs);
+        connection.setReadTimeout(timeoutMs);
+        connection.setInstanceFollowRedirects(false);
+        connection.setRequestProperty("Accept", "application/json");
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+
+        if (request.isPost()) {
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            try (OutputStream body = connection.getOutputStream()) {
+                mapper.writeValue(body, request.getParams());
+            }
+        } else {
+            for (Map.Entry<String, String> param : request.getParams().entrySet()) {
+                connection.setRequestProperty(param.getKey(), param.getValue());
+            }
+        }
+
+        int status = connection.getResponseCode();
+        try (InputStream response = status < HttpURLConnection.HTTP_BAD_REQUEST ? connection.getInputStream() : connection.getErrorStream()) {
+            drain(response);
+        }
+        return status;
+    }
+
+    private static void drain(InputStream response) throws IOException {
+        if (response != null) {
+            byte[] buffer = new byte[4096];
+            while (response.read(buffer) >= 0) {
+                // response is not needed, it's read only to reuse the connection
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.loadgenerator;
+
+import com.comcast.redirector.metrics.LatencyHistogram;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Open loop load generator for redirect endpoint of gateway, see {@link OpenLoopRunner}.
+ * Prints percentile distributions of response and service time when done and optionally saves them to .hgrm files.
+ */
+public class LoadGenerator {
+    private static final boolean OPTIONAL_ARG = true;
+    private static final String DEFAULT_DISTRIBUTION = "/distribution.json";
+
+    enum InputParam {
+        URL("url", "Gateway url (e.g. http://localhost:10601)"),
+        APP_NAME("app", "appName (e.g. xreGuide)"),
+        RATE("rate", "Requests per second (e.g. 1000)"),
+        DURATION("duration", "Duration in seconds, 60 by default", OPTIONAL_ARG),
+        WARMUP("warmup", "Warmup in seconds, not recorded, 10 by default", OPTIONAL_ARG),
+        THREADS("threads", "Max requests in flight, 64 by default", OPTIONAL_ARG),
+        TIMEOUT("timeout", "Connect and read timeout in milliseconds, 2000 by default", OPTIONAL_ARG),
+        DISTRIBUTION("distribution", "Json file with distribution of contexts, built in distribution.json by default", OPTIONAL_ARG),
+        REPORT_INTERVAL("reportInterval", "Progress report interval in seconds, 5 by default", OPTIONAL_ARG),
+        OUTPUT("output", "Prefix of .hgrm files to save percentile distributions to (e.g. results/run1)", OPTIONAL_ARG),
+        SEED("seed", "Seed of random contexts, 0 by default", OPTIONAL_ARG);
+
+        private static final String KEY_PREFIX = "-";
+
+        private String key;
+        private String description;
+        private boolean optional = false;
+
+        InputParam(String key, String description) {
+            this.key = key;
+            this.description = description;
+        }
+
+        InputParam(String key, String description, boolean optional) {
+            this(key, description);
+            this.optional = optional;
+        }
+
+        public boolean isOptional() {
+            return optional;
+        }
+
+        public String toString() {
+            return KEY_PREFIX + key + " " + description;
+        }
+
+        public static Optional<String> extractArgument(InputParam argument, String[] fromArgs) {
+            for (int i = 0; i < fromArgs.length; i++) {
+                if ((KEY_PREFIX + argument.key).equals(fromArgs[i])) {
+                    if (i + 1 == fromArgs.length) {
+                        throw new IllegalArgumentException("No value of " + argument);
+                    }
+                    return Optional.of(fromArgs[i + 1]);
+                }
+            }
+
+            if (argument.isOptional()) {
+                return Optional.empty();
+            } else {
+                throw new IllegalArgumentException("Failed to extract " + argument + " from " + String.join(" ", fromArgs));
+            }
+        }
+    }
+
+    private String url;
+    private String appName;
+    private int rate;
+    private int duration;
+    private int warmup;
+    private int threads;
+    private int timeout;
+    private String distribution;
+    private int reportInterval;
+    private String output;
+    private long seed;
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator loadGenerator = new LoadGenerator();
+        try {
+            loadGenerator.extractConfigurationFromProgramArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            printHelp();
+            System.exit(1);
+        }
+        loadGenerator.start();
+    }
+
+    private void extractConfigurationFromProgramArgs(String[] programArgs) {
+        url = InputParam.extractArgument(InputParam.URL, programArgs).get();
+        appName = InputParam.extractArgument(InputParam.APP_NAME, programArgs).get();
+        rate = Integer.parseInt(InputParam.extractArgument(InputParam.RATE, programArgs).get());
+        duration = Integer.parseInt(InputParam.extractArgument(InputParam.DURATION, programArgs).orElse("60"));
+        warmup = Integer.parseInt(InputParam.extractArgument(InputParam.WARMUP, programArgs).orElse("10"));
+        threads = Integer.parseInt(InputParam.extractArgument(InputParam.THREADS, programArgs).orElse("64"));
+        timeout = Integer.parseInt(InputParam.extractArgument(InputParam.TIMEOUT, programArgs).orElse("2000"));
+        distribution = InputParam.extractArgument(InputParam.DISTRIBUTION, programArgs).orElse(null);
+        reportInterval = Integer.parseInt(InputParam.extractArgument(InputParam.REPORT_INTERVAL, programArgs).orElse("5"));
+        output = InputParam.extractArgument(InputParam.OUTPUT, programArgs).orElse(null);
+        seed = Long.parseLong(InputParam.extractArgument(InputParam.SEED, programArgs).orElse("0"));
+    }
+
+    private static void printHelp() {
+        String argsDescription = Stream.of(InputParam.values()).sorted(Comparator.comparing(InputParam::isOptional))
+            .map(inputParam -> ((inputParam.isOptional()) ? "And *optional* " : "") + inputParam.toString())
+            .collect(Collectors.joining("\n"));
+
+        System.out.println("arguments are:\n" + argsDescription);
+    }
+
+    private void start() throws IOException, InterruptedException {
+        // keep-alive connections are cached per worker, otherwise most of them are closed after each request
+        System.setProperty("http.maxConnections", String.valueOf(threads));
+
+        ContextDistribution contextDistribution;
+        try (InputStream json = distribution == null
+                ? LoadGenerator.class.getResourceAsStream(DEFAULT_DISTRIBUTION) : new FileInputStream(distribution)) {
+            contextDistribution = ContextDistribution.read(json);
+        }
+
+        OpenLoopRunner runner = new OpenLoopRunner(new HttpRequestSender(url, appName, timeout),
+            new ContextGenerator(contextDistribution), rate, threads, seed);
+        OpenLoopRunner.Result result = runner.run(duration, warmup, reportInterval);
+
+        System.out.format("%nRequested rate: %d/s, throughput: %.1f/s, errors: %d, responses by status: %s%n",
+            rate, result.getThroughput(), result.getErrors(), result.getStatuses());
+        System.out.println("\nResponse time (from intended start, corrected for coordinated omission):");
+        PercentileReport.write(result.getResponseTime(), System.out);
+        System.out.println("\nService time (from actual send):");
+        PercentileReport.write(result.getServiceTime(), System.out);
+
+        if (output != null) {
+            save(result.getResponseTime(), output + ".response.hgrm");
+            save(result.getServiceTime(), output + ".service.hgrm");
+        }
+    }
+
+    private static void save(LatencyHistogram.Snapshot snapshot, String file) throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file), false, "UTF-8")) {
+            PercentileReport.write(snapshot, out);
+        }
+        System.out.println("Saved " + file);
+    }
+}
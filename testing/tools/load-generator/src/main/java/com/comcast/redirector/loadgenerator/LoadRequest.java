@@ -0,0 +1,49 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.loadgenerator;
+
+import java.util.Map;
+
+/**
+ * Redirect request: params go to json body of POST or to headers of GET, headers are sent in both cases
+ */
+public class LoadRequest {
+    private final boolean post;
+    private final Map<String, String> params;
+    private final Map<String, String> headers;
+
+    public LoadRequest(boolean post, Map<String, String> params, Map<String, String> headers) {
+        this.post = post;
+        this.params = params;
+        this.headers = headers;
+    }
+
+    public boolean isPost() {
+        return post;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public String toString() {
+        return (post ? "POST" : "GET") + " params=" + params + " headers=" + headers;
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.loadgenerator;
+
+import com.comcast.redirector.common.thread.ThreadUtils;
+import com.comcast.redirector.metrics.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at fixed arrival rate no matter how fast responses come (open loop). Every request has intended
+ * start time on the fixed schedule and response time is measured from it, so time request waits for a free worker
+ * while gateway is slow is counted as well: stalls are not hidden by requests which were never sent during them
+ * (coordinated omission). Service time, measured from actual send, is recorded separately for comparison.
+ */
+public class OpenLoopRunner {
+    private static final Logger log = LoggerFactory.getLogger(OpenLoopRunner.class);
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final RequestSender sender;
+    private final ContextGenerator generator;
+    private final int rate;
+    private final int threads;
+    private final long seed;
+
+    /**
+     * @param rate requests per second
+     * @param threads max number of requests in flight, requests wait in queue when all of them are busy
+     * @param seed of random generators of workers
+     */
+    public OpenLoopRunner(RequestSender sender, ContextGenerator generator, int rate, int threads, long seed) {
+        if (rate < 1 || threads < 1) {
+            throw new IllegalArgumentException("rate and number of threads should be positive");
+        }
+        this.sender = sender;
+        this.generator = generator;
+        this.rate = rate;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    /**
+     * Sends requests during warmup and then during duration, only the latter are recorded
+     *
+     * @param reportIntervalSeconds how often progress is logged, 0 to not log it
+     */
+    public Result run(int durationSeconds, int warmupSeconds, int reportIntervalSeconds) throws InterruptedException {
+        Run run = new Run();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, ThreadUtils.newThreadFactory("LoadGeneratorWorker"));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(ThreadUtils.newThreadFactory("LoadGeneratorReporter"));
+
+        long total = (long) rate * (warmupSeconds + durationSeconds);
+        long start = System.nanoTime();
+        run.measuredFrom = start + warmupSeconds * NANOS_PER_SECOND;
+        for (int i = 0; i < threads; i++) {
+            Random random = new Random(seed + i);
+            workers.execute(() -> run.work(random));
+        }
+        if (reportIntervalSeconds > 0) {
+            reporter.scheduleAtFixedRate(run::report, reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
+        }
+
+        try {
+            for (long i = 0; i < total; i++) {
+                long intendedStart = start + i * NANOS_PER_SECOND / rate;
+                for (long now = System.nanoTime(); now < intendedStart; now = System.nanoTime()) {
+                    LockSupport.parkNanos(intendedStart - now);
+                }
+                run.intendedStarts.add(intendedStart);
+            }
+            run.dispatched = true;
+            workers.shutdown();
+            while (!workers.awaitTermination(1, TimeUnit.SECONDS)) {
+                log.info("waiting for {} requests in flight and {} queued", run.inFlight.sum(), run.intendedStarts.size());
+            }
+        } finally {
+            workers.shutdownNow();
+            reporter.shutdownNow();
+        }
+        return run.result(System.nanoTime() - run.measuredFrom);
+    }
+
+    private class Run {
+        private final BlockingQueue<Long> intendedStarts = new LinkedBlockingQueue<>();
+        private final LatencyHistogram responseTime = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LatencyHistogram intervalResponseTime = new LatencyHistogram();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder intervalErrors = new LongAdder();
+        private final LongAdder inFlight = new LongAdder();
+        private volatile long measuredFrom;
+        private volatile boolean dispatched;
+
+        void work(Random random) {
+            try {
+                while (true) {
+                    Long intendedStart = intendedStarts.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (intendedStart == null) {
+                        if (dispatched && intendedStarts.isEmpty()) {
+                            return;
+                        }
+                        continue;
+                    }
+                    send(intendedStart, generator.next(random));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void send(long intendedStart, LoadRequest request) {
+            boolean measured = intendedStart >= measuredFrom;
+            long sent = System.nanoTime();
+            inFlight.increment();
+            try {
+                int status = sender.send(request);
+                long received = System.nanoTime();
+                if (measured) {
+                    responseTime.record(TimeUnit.NANOSECONDS.toMicros(received - intendedStart));
+                    serviceTime.record(TimeUnit.NANOSECONDS.toMicros(received - sent));
+                    statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                }
+                intervalResponseTime.record(TimeUnit.NANOSECONDS.toMicros(received - intendedStart));
+            } catch (IOException | RuntimeException e) {
+                if (measured) {
+                    errors.increment();
+                }
+                intervalErrors.increment();
+                log.debug("request {} failed", request, e);
+            } finally {
+                inFlight.decrement();
+            }
+        }
+
+        void report() {
+            LatencyHistogram.Snapshot interval = intervalResponseTime.snapshotAndReset();
+            log.info("responses={} errors={} inFlight={} queued={} responseTime p50={}ms p99={}ms p99.9={}ms max={}ms",
+                interval.getCount(), intervalErrors.sumThenReset(), inFlight.sum(), intendedStarts.size(),
+                millis(interval.getValueAtPercentile(50)), millis(interval.getValueAtPercentile(99)),
+                millis(interval.getValueAtPercentile(99.9)), millis(interval.getMax()));
+        }
+
+        Result result(long elapsedNanos) {
+            Map<Integer, Long> statusCounts = new TreeMap<>();
+            statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+            return new Result(responseTime.snapshotAndReset(), serviceTime.snapshotAndReset(), statusCounts,
+                errors.sum(), elapsedNanos);
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.3f", micros / 1000.0);
+    }
+
+    public static class Result {
+        private final LatencyHistogram.Snapshot responseTime;
+        private final LatencyHistogram.Snapshot serviceTime;
+        private final Map<Integer, Long> statuses;
+        private final long errors;
+        private final long elapsedNanos;
+
+        Result(LatencyHistogram.Snapshot responseTime, LatencyHistogram.Snapshot serviceTime, Map<Integer, Long> statuses,
+               long errors, long elapsedNanos) {
+            this.responseTime = responseTime;
+            this.serviceTime = serviceTime;
+            this.statuses = statuses;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return distribution of time from intended start to response in microseconds
+         */
+        public LatencyHistogram.Snapshot getResponseTime() {
+            return responseTime;
+        }
+
+        /**
+         * @return distribution of time from actual send to response in microseconds
+         */
+        public LatencyHistogram.Snapshot getServiceTime() {
+            return serviceTime;
+        }
+
+        /**
+         * @return number of responses by http status
+         */
+        public Map<Integer, Long> getStatuses() {
+            return statuses;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return responses per second received after warmup
+         */
+        public double getThroughput() {
+            return elapsedNanos <= 0 ? 0 : responseTime.getCount() * (double) NANOS_PER_SECOND / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.loadgenerator;
+
+import com.comcast.redirector.metrics.LatencyHistogram;
+
+import java.io.PrintStream;
+
+/**
+ * Writes latency distribution in percentile distribution format of HdrHistogram (.hgrm), values in milliseconds,
+ * so reports can be plotted and compared with HdrHistogram tools. Percentiles are iterated the same way,
+ * 5 ticks per each half of distance to 100%.
+ */
+public class PercentileReport {
+    private static final int TICKS_PER_HALF_DISTANCE = 5;
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    public static void write(LatencyHistogram.Snapshot snapshot, PrintStream out) {
+        out.format("%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)");
+
+        long count = snapshot.getCount();
+        double percentile = 0;
+        while (count > 0 && countAt(percentile, count) < count) {
+            out.format("%12.3f %2.12f %10d %14.2f%n", snapshot.getValueAtPercentile(percentile) / MICROS_PER_MILLI,
+                percentile / 100, countAt(percentile, count), 1 / (1 - percentile / 100));
+
+            long halfDistance = (long) Math.pow(2, (long) (Math.log(100 / (100 - percentile)) / Math.log(2)) + 1);
+            percentile += 100.0 / (halfDistance * TICKS_PER_HALF_DISTANCE);
+        }
+        out.format("%12.3f %2.12f %10d%n", snapshot.getMax() / MICROS_PER_MILLI, 1.0, count);
+
+        out.format("#[Mean    = %12.3f, Max            = %12.3f]%n", snapshot.getMean() / MICROS_PER_MILLI,
+            snapshot.getMax() / MICROS_PER_MILLI);
+        out.format("#[Min     = %12.3f, Total count    = %12d]%n", snapshot.getMin() / MICROS_PER_MILLI, count);
+    }
+
+    private static long countAt(double percentile, long count) {
+        return Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    }
+}
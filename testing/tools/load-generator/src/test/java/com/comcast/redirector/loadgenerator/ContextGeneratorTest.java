@@ -0,0 +1,116 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.loadgenerator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class ContextGeneratorTest {
+    private static final int REQUESTS = 100000;
+
+    @Test
+    public void requestsFollowDistribution() throws Exception {
+        ContextGenerator generator = new ContextGenerator(read("{" +
+            "\"postPercent\": 25," +
+            "\"macs\": {\"count\": 1000}," +
+            "\"accountIds\": {\"prefix\": \"account\", \"count\": 10, \"percent\": 50}," +
+            "\"ipRanges\": {\"ranges\": [{\"cidr\": \"10.0.0.0/8\", \"weight\": 3}, {\"cidr\": \"192.168.1.0/24\", \"weight\": 1}]}," +
+            "\"parameters\": {\"receiverType\": {\"Native\": 9, \"Other\": 1, \"Never\": 0}}," +
+            "\"headerSets\": [{\"weight\": 1, \"headers\": {\"User-Agent\": \"STB\"}}, {\"weight\": 4, \"headers\": {\"User-Agent\": \"Browser\"}}]" +
+            "}"));
+
+        Random random = new Random(1);
+        Set<String> macs = new HashSet<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            LoadRequest request = generator.next(random);
+            Map<String, String> params = request.getParams();
+
+            Assert.assertTrue(params.get("mac").matches("([0-9A-F]{2}:){5}[0-9A-F]{2}"));
+            macs.add(params.get("mac"));
+            if (params.containsKey("serviceAccountId")) {
+                Assert.assertTrue(params.get("serviceAccountId").matches("account\\d"));
+                count(counts, "account");
+            }
+            String clientAddress = params.get("clientAddress");
+            Assert.assertTrue(clientAddress, clientAddress.matches("10\\.\\d+\\.\\d+\\.\\d+|192\\.168\\.1\\.\\d+"));
+            if (clientAddress.startsWith("10.")) {
+                count(counts, "10.0.0.0/8");
+            }
+            count(counts, params.get("receiverType"));
+            count(counts, request.getHeaders().get("User-Agent"));
+            if (request.isPost()) {
+                count(counts, "POST");
+            }
+        }
+
+        Assert.assertEquals(1000, macs.size());
+        assertShare(0.5, counts.get("account"));
+        assertShare(0.75, counts.get("10.0.0.0/8"));
+        assertShare(0.9, counts.get("Native"));
+        Assert.assertNull(counts.get("Never"));
+        assertShare(0.8, counts.get("Browser"));
+        assertShare(0.25, counts.get("POST"));
+    }
+
+    @Test
+    public void sameSeedGivesSameRequests() throws Exception {
+        ContextGenerator generator = new ContextGenerator(
+            ContextDistribution.read(ContextGeneratorTest.class.getResourceAsStream("/distribution.json")));
+        Random first = new Random(7);
+        Random second = new Random(7);
+
+        for (int i = 0; i < 100; i++) {
+            LoadRequest request = generator.next(first);
+            LoadRequest sameRequest = generator.next(second);
+            Assert.assertEquals(request.getParams(), sameRequest.getParams());
+            Assert.assertEquals(request.getHeaders(), sameRequest.getHeaders());
+            Assert.assertEquals(request.isPost(), sameRequest.isPost());
+        }
+    }
+
+    @Test
+    public void macAndIpAreFormatted() {
+        Assert.assertEquals("00:00:00:00:00:00", ContextGenerator.mac(0));
+        Assert.assertEquals("00:00:00:01:E2:40", ContextGenerator.mac(123456));
+        Assert.assertEquals("10.1.2.3", ContextGenerator.ipv4(0x0A010203L));
+        Assert.assertEquals("255.255.255.255", ContextGenerator.ipv4(0xFFFFFFFFL));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void onlyIpv4RangesAreSupported() throws Exception {
+        new ContextGenerator(read("{\"ipRanges\": {\"ranges\": [{\"cidr\": \"2001:db8::/32\"}]}}"));
+    }
+
+    private static ContextDistribution read(String json) throws Exception {
+        return ContextDistribution.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void count(Map<String, Integer> counts, String key) {
+        counts.merge(key, 1, Integer::sum);
+    }
+
+    private static void assertShare(double expected, Integer count) {
+        Assert.assertEquals(expected, count / (double) REQUESTS, 0.01);
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.loadgenerator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class HttpRequestSenderTest {
+    private static final byte[] RESPONSE = "{\"location\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer gateway;
+    private AtomicReference<HttpExchange> lastRequest = new AtomicReference<>();
+    private AtomicReference<Map<String, String>> lastBody = new AtomicReference<>();
+    private HttpRequestSender sender;
+
+    @Before
+    public void setUp() throws IOException {
+        gateway = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        gateway.createContext("/serviceDirect/xreGuide", exchange -> {
+            lastRequest.set(exchange);
+            lastBody.set("POST".equals(exchange.getRequestMethod()) ? readBody(exchange) : null);
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(RESPONSE);
+            }
+        });
+        gateway.start();
+        sender = new HttpRequestSender("http://localhost:" + gateway.getAddress().getPort() + "/", "xreGuide", 2000);
+    }
+
+    @After
+    public void tearDown() {
+        gateway.stop(0);
+    }
+
+    @Test
+    public void getRequestCarriesParamsInHeaders() throws Exception {
+        Map<String, String> params = new HashMap<>();
+        params.put("mac", "00:00:00:00:00:01");
+        params.put("clientAddress", "10.0.0.1");
+
+        int status = sender.send(new LoadRequest(false, params, Collections.singletonMap("User-Agent", "STB")));
+
+        Assert.assertEquals(200, status);
+        HttpExchange request = lastRequest.get();
+        Assert.assertEquals("GET", request.getRequestMethod());
+        Assert.assertEquals("00:00:00:00:00:01", request.getRequestHeaders().getFirst("mac"));
+        Assert.assertEquals("10.0.0.1", request.getRequestHeaders().getFirst("clientAddress"));
+        Assert.assertEquals("STB", request.getRequestHeaders().getFirst("User-Agent"));
+    }
+
+    @Test
+    public void postRequestCarriesParamsInJsonBody() throws Exception {
+        Map<String, String> params = Collections.singletonMap("receiverType", "Native");
+
+        int status = sender.send(new LoadRequest(true, params, Collections.singletonMap("User-Agent", "STB")));
+
+        Assert.assertEquals(200, status);
+        HttpExchange request = lastRequest.get();
+        Assert.assertEquals("POST", request.getRequestMethod());
+        Assert.assertEquals("application/json", request.getRequestHeaders().getFirst("Content-Type"));
+        Assert.assertNull(request.getRequestHeaders().getFirst("receiverType"));
+        Assert.assertEquals(params, lastBody.get());
+    }
+
+    @Test
+    public void statusOfErrorIsReturned() throws Exception {
+        int status = new HttpRequestSender("http://localhost:" + gateway.getAddress().getPort(), "unknownApp", 2000)
+            .send(new LoadRequest(false, Collections.emptyMap(), Collections.emptyMap()));
+
+        Assert.assertEquals(404, status);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        return new ObjectMapper().readValue(exchange.getRequestBody(), Map.class);
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2017 Comcast Cable Communications Management, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.comcast.redirector.loadgenerator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OpenLoopRunnerTest {
+    private static final int RATE = 100;
+    private static final int DURATION_SECONDS = 2;
+    private static final long STALL_MS = 500;
+
+    private final ContextGenerator generator = new ContextGenerator(new ContextDistribution());
+
+    @Test(timeout = 30000)
+    public void stallIsCountedForEveryRequestScheduledDuringIt() throws Exception {
+        AtomicInteger sent = new AtomicInteger();
+        RequestSender stallingOnce = request -> {
+            if (sent.incrementAndGet() == RATE) {
+                sleep(STALL_MS);
+            }
+            return 200;
+        };
+
+        OpenLoopRunner.Result result = new OpenLoopRunner(stallingOnce, generator, RATE, 1, 0).run(DURATION_SECONDS, 0, 0);
+
+        Assert.assertEquals(RATE * DURATION_SECONDS, result.getResponseTime().getCount());
+        Assert.assertEquals(Collections.singletonMap(200, (long) RATE * DURATION_SECONDS), result.getStatuses());
+        // about 50 requests were scheduled during the stall, they waited up to 500ms for the only worker
+        Assert.assertTrue("p90 of response time " + result.getResponseTime().getValueAtPercentile(90),
+            result.getResponseTime().getValueAtPercentile(90) >= TimeUnit.MILLISECONDS.toMicros(100));
+        Assert.assertTrue(result.getResponseTime().getMax() >= TimeUnit.MILLISECONDS.toMicros(STALL_MS));
+        // while only one of them was slow when sent
+        Assert.assertTrue("p90 of service time " + result.getServiceTime().getValueAtPercentile(90),
+            result.getServiceTime().getValueAtPercentile(90) < TimeUnit.MILLISECONDS.toMicros(50));
+        Assert.assertTrue(result.getServiceTime().getMax() >= TimeUnit.MILLISECONDS.toMicros(STALL_MS));
+    }
+
+    @Test(timeout = 30000)
+    public void rateDoesNotDependOnResponseTime() throws Exception {
+        RequestSender slow = request -> {
+            sleep(50);
+            return 200;
+        };
+
+        OpenLoopRunner.Result result = new OpenLoopRunner(slow, generator, RATE, 20, 0).run(DURATION_SECONDS, 1, 0);
+
+        // closed loop of 20 workers could send up to 400 requests per second, so all requests are sent on schedule
+        Assert.assertEquals(RATE * DURATION_SECONDS, result.getResponseTime().getCount());
+        Assert.assertEquals(RATE, result.getThroughput(), RATE * 0.2);
+        Assert.assertTrue(result.getResponseTime().getValueAtPercentile(99) < TimeUnit.MILLISECONDS.toMicros(150));
+    }
+
+    @Test(timeout = 30000)
+    public void failedRequestsAreCountedAsErrors() throws Exception {
+        AtomicInteger sent = new AtomicInteger();
+        RequestSender failingEveryTenth = request -> {
+            if (sent.incrementAndGet() % 10 == 0) {
+                throw new IOException("Connection refused");
+            }
+            return 302;
+        };
+
+        OpenLoopRunner.Result result = new OpenLoopRunner(failingEveryTenth, generator, RATE, 2, 0).run(1, 0, 0);
+
+        Assert.assertEquals(RATE / 10, result.getErrors());
+        Assert.assertEquals(Collections.singletonMap(302, (long) RATE * 9 / 10), result.getStatuses());
+    }
+
+    @Test(timeout = 30000)
+    public void percentileDistributionIsWrittenInHdrFormat() throws Exception {
+        OpenLoopRunner.Result result = new OpenLoopRunner(request -> 200, generator, RATE, 1, 0).run(1, 0, 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        PercentileReport.write(result.getResponseTime(), new PrintStream(out, true, "UTF-8"));
+
+        String[] lines = out.toString("UTF-8").split("\n");
+        Assert.assertTrue(lines[0].matches("\\s+Value\\s+Percentile\\s+TotalCount\\s+1/\\(1-Percentile\\)"));
+        Assert.assertTrue(lines[2].matches("\\s+\\d+\\.\\d{3} 0\\.000000000000\\s+1\\s+1\\.00"));
+        double previousPercentile = -1;
+        int i = 2;
+        for (; !lines[i].startsWith("#"); i++) {
+            String[] columns = lines[i].trim().split("\\s+");
+            double percentile = Double.parseDouble(columns[1]);
+            Assert.assertTrue(lines[i], percentile > previousPercentile);
+            previousPercentile = percentile;
+        }
+        Assert.assertTrue(lines[i - 1].matches("\\s+\\d+\\.\\d{3} 1\\.000000000000\\s+" + RATE));
+        Assert.assertTrue(lines[i].startsWith("#[Mean    ="));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}